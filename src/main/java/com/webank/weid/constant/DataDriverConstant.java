@@ -89,6 +89,16 @@ public final class DataDriverConstant {
      */
     public static final String DATABASE_DEFAULT_VALUE = "0";
 
+    /**
+     * redis value codec properties, the encoding of the values in default domains.
+     */
+    public static final String REDIS_VALUE_CODEC = "redis.value_codec";
+
+    /**
+     * the default redis value codec.
+     */
+    public static final String REDIS_VALUE_CODEC_DEFAULT_VALUE = "binary";
+
     /**
      * the default value for redis cluster config.
      */
@@ -165,6 +175,179 @@ public final class DataDriverConstant {
      */
     public static final String JDBC_INIT_SIZE = "jdbc.initialSize";
 
+    /**
+     * jdbc poolPreparedStatements properties.
+     */
+    public static final String JDBC_POOL_PREPARED_STATEMENTS = "jdbc.poolPreparedStatements";
+
+    /**
+     * jdbc maxOpenPreparedStatements properties.
+     */
+    public static final String JDBC_MAX_OPEN_PREPARED_STATEMENTS =
+        "jdbc.maxOpenPreparedStatements";
+
+    /**
+     * jdbc batchChunkSize properties, the rows committed each time in batch write.
+     */
+    public static final String JDBC_BATCH_CHUNK_SIZE = "jdbc.batchChunkSize";
+
+    /**
+     * the default rows committed each time in batch write.
+     */
+    public static final String JDBC_BATCH_CHUNK_SIZE_DEFAULT_VALUE = "200";
+
+    /**
+     * jdbc replicas properties, the comma-separated read-only replica data source names.
+     */
+    public static final String JDBC_REPLICAS = "jdbc.replicas";
+
+    /**
+     * jdbc dialect properties, mysql or h2, inferred from the jdbc url if not configured.
+     */
+    public static final String JDBC_DIALECT = "jdbc.dialect";
+
+    /**
+     * replica hedged read enabled properties.
+     */
+    public static final String REPLICA_HEDGE_ENABLED = "persistence_replica.hedge.enabled";
+
+    /**
+     * replica hedged read percentile properties, a read slower than this latency percentile is hedged.
+     */
+    public static final String REPLICA_HEDGE_PERCENTILE = "persistence_replica.hedge.percentile";
+
+    /**
+     * replica hedged read min_delay properties, the minimum milliseconds before a read is hedged.
+     */
+    public static final String REPLICA_HEDGE_MIN_DELAY = "persistence_replica.hedge.min_delay";
+
+    /**
+     * replica hedged read timeout properties, the milliseconds to wait after hedging before the
+     * read falls back to the primary data source.
+     */
+    public static final String REPLICA_HEDGE_TIMEOUT = "persistence_replica.hedge.timeout";
+
+    /**
+     * replica hedged read threads properties, the maximum threads running hedged reads.
+     */
+    public static final String REPLICA_HEDGE_THREADS = "persistence_replica.hedge.threads";
+
+    /**
+     * replica failure_threshold properties, the consecutive failures before a replica is skipped.
+     */
+    public static final String REPLICA_FAILURE_THRESHOLD = "persistence_replica.failure_threshold";
+
+    /**
+     * replica down_interval properties, the milliseconds a failed replica is skipped.
+     */
+    public static final String REPLICA_DOWN_INTERVAL = "persistence_replica.down_interval";
+
+    /**
+     * the default value for replica config.
+     */
+    public static final String REPLICA_HEDGE_ENABLED_DEFAULT_VALUE = "false";
+    public static final String REPLICA_HEDGE_PERCENTILE_DEFAULT_VALUE = "95";
+    public static final String REPLICA_HEDGE_MIN_DELAY_DEFAULT_VALUE = "10";
+    public static final String REPLICA_HEDGE_TIMEOUT_DEFAULT_VALUE = "3000";
+    public static final String REPLICA_HEDGE_THREADS_DEFAULT_VALUE = "32";
+    public static final String REPLICA_FAILURE_THRESHOLD_DEFAULT_VALUE = "3";
+    public static final String REPLICA_DOWN_INTERVAL_DEFAULT_VALUE = "30000";
+
+    /**
+     * embedded store dir properties, the directory holding the log file.
+     */
+    public static final String EMBEDDED_DIR = "persistence_embedded.dir";
+
+    /**
+     * embedded store sync_interval properties, the milliseconds between two syncs, 0 for every write.
+     */
+    public static final String EMBEDDED_SYNC_INTERVAL = "persistence_embedded.sync_interval";
+
+    /**
+     * embedded store compact_interval properties, the milliseconds between two compaction checks.
+     */
+    public static final String EMBEDDED_COMPACT_INTERVAL = "persistence_embedded.compact_interval";
+
+    /**
+     * embedded store compact_min_size properties, the minimum log bytes to compact.
+     */
+    public static final String EMBEDDED_COMPACT_MIN_SIZE = "persistence_embedded.compact_min_size";
+
+    /**
+     * embedded store compact_ratio properties, the growth multiple of the log to compact.
+     */
+    public static final String EMBEDDED_COMPACT_RATIO = "persistence_embedded.compact_ratio";
+
+    /**
+     * the default value for embedded store config.
+     */
+    public static final String EMBEDDED_DIR_DEFAULT_VALUE = "weid-data";
+    public static final String EMBEDDED_SYNC_INTERVAL_DEFAULT_VALUE = "1000";
+    public static final String EMBEDDED_COMPACT_INTERVAL_DEFAULT_VALUE = "60000";
+    public static final String EMBEDDED_COMPACT_MIN_SIZE_DEFAULT_VALUE = "16777216";
+    public static final String EMBEDDED_COMPACT_RATIO_DEFAULT_VALUE = "2";
+
+    /**
+     * async persistence threads properties, the threads running blocking persistence calls.
+     */
+    public static final String ASYNC_THREADS = "persistence_async.threads";
+
+    /**
+     * async persistence queue_size properties, the calls waiting for a thread, the caller runs
+     * the call itself when the queue is full.
+     */
+    public static final String ASYNC_QUEUE_SIZE = "persistence_async.queue_size";
+
+    /**
+     * the default value for async persistence config.
+     */
+    public static final String ASYNC_THREADS_DEFAULT_VALUE = "16";
+    public static final String ASYNC_QUEUE_SIZE_DEFAULT_VALUE = "1024";
+
+    /**
+     * expired data sweeper enabled properties.
+     */
+    public static final String SWEEPER_ENABLED = "persistence_sweeper.enabled";
+
+    /**
+     * expired data sweeper interval properties, the milliseconds between two sweeps.
+     */
+    public static final String SWEEPER_INTERVAL = "persistence_sweeper.interval";
+
+    /**
+     * expired data sweeper batch_size properties, the rows deleted by each statement.
+     */
+    public static final String SWEEPER_BATCH_SIZE = "persistence_sweeper.batch_size";
+
+    /**
+     * expired data sweeper max_batches properties, the statements executed per domain each sweep.
+     */
+    public static final String SWEEPER_MAX_BATCHES = "persistence_sweeper.max_batches";
+
+    /**
+     * expired data sweeper batch_pause properties, the milliseconds between two statements.
+     */
+    public static final String SWEEPER_BATCH_PAUSE = "persistence_sweeper.batch_pause";
+
+    /**
+     * the default value for expired data sweeper config.
+     */
+    public static final String SWEEPER_ENABLED_DEFAULT_VALUE = "true";
+    public static final String SWEEPER_INTERVAL_DEFAULT_VALUE = "600000";
+    public static final String SWEEPER_BATCH_SIZE_DEFAULT_VALUE = "500";
+    public static final String SWEEPER_MAX_BATCHES_DEFAULT_VALUE = "20";
+    public static final String SWEEPER_BATCH_PAUSE_DEFAULT_VALUE = "100";
+
+    /**
+     * id sequence block_size properties, the ids reserved from the database at one time.
+     */
+    public static final String SEQUENCE_BLOCK_SIZE = "persistence_sequence.block_size";
+
+    /**
+     * the default value for id sequence block_size.
+     */
+    public static final String SEQUENCE_BLOCK_SIZE_DEFAULT_VALUE = "20";
+
     /**
      * jdbc driverClassName.
      */
@@ -199,6 +382,7 @@ public final class DataDriverConstant {
      * sql execute status.
      */
     public static final int SQL_EXECUTE_FAILED_STATUS = 0;
+    public static final int SQL_EXECUTE_SUCCESS_STATUS = 1;
 
     /**
      * jdbc user password properties.
@@ -241,6 +425,8 @@ public final class DataDriverConstant {
     public static final String POOL_NUM_TEST_PER_ER = "numTestsPerEvictionRun";
     public static final String POOL_VALIDATION_QUERY = "validationQuery";
     public static final String POOL_MIN_EITM = "minEvictableIdleTimeMillis";
+    public static final String POOL_PREPARED_STATEMENTS = "poolPreparedStatements";
+    public static final String POOL_MAX_OPEN_PREPARED_STATEMENTS = "maxOpenPreparedStatements";
 
     /**
      * the default value for pool.
@@ -254,6 +440,8 @@ public final class DataDriverConstant {
     public static final String POOL_NUM_TEST_PER_ER_DEFAULT_VALUE = "5";
     public static final String POOL_TIME_BETWEEN_ERM_DEFAULT_VALUE = "600000";
     public static final String POOL_MIN_EITM_DEFAULT_VALUE = "1800000";
+    public static final String POOL_PREPARED_STATEMENTS_DEFAULT_VALUE = "true";
+    public static final String POOL_MAX_OPEN_PREPARED_STATEMENTS_DEFAULT_VALUE = "100";
 
     /**
      * 系统默认的domain.
@@ -299,6 +487,12 @@ public final class DataDriverConstant {
 
     public static final String LOCAL_SPECIFIC_ISSUER = "local.specificIssuer";
 
+    public static final String LOCAL_SPECIFIC_ISSUER_MEMBER = "local.specificIssuerMember";
+
     public static final String LOCAL_EVIDENCE = "local.evidence";
 
+    public static final String LOCAL_EVIDENCE_LOG = "local.evidenceLog";
+
+    public static final String LOCAL_SEQUENCE = "local.sequence";
+
 }
\ No newline at end of file
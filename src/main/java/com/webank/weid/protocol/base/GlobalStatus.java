@@ -68,4 +68,23 @@ public class GlobalStatus implements JsonSerializer {
         logger.error("readStatusFromFile() the {} does not exists.", fileName);
         return null;
     }
+
+    /**
+     * Read the status file without creating it, the default status is returned if the file
+     * does not exist or can not be read. Used to seed the id sequences of the former file.
+     *
+     * @param fileName the status file
+     * @return the status
+     */
+    public static GlobalStatus readStatusIfExists(String fileName) {
+        File file = new File(fileName);
+        if (file.exists() && file.length() > 0) {
+            try {
+                return new ObjectMapper().readValue(file, GlobalStatus.class);
+            } catch (IOException e) {
+                logger.error("read file exception", e);
+            }
+        }
+        return new GlobalStatus();
+    }
 }
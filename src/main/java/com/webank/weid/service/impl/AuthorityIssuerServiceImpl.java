@@ -261,6 +261,23 @@ public class AuthorityIssuerServiceImpl implements AuthorityIssuerService {
             }
             //List<String> addrList = authEngine.getAuthorityIssuerAddressList(index, num);
             List<AuthorityIssuer> authorityIssuerList = new ArrayList<>();
+            if (authorityBlockchainService instanceof AuthorityIssuerServiceLocal) {
+                List<String> weIdList = new ArrayList<>();
+                for (String address : innerResp.getResult()) {
+                    weIdList.add(WeIdUtils.convertAddressToWeId(address));
+                }
+                com.webank.weid.blockchain.protocol.response.ResponseData<List<com.webank.weid.blockchain.protocol.base.AuthorityIssuer>> listResp =
+                        ((AuthorityIssuerServiceLocal) authorityBlockchainService)
+                                .queryAuthorityIssuerInfoList(weIdList);
+                if (listResp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                    return new ResponseData<>(null,
+                            ErrorCode.getTypeByErrorCode(listResp.getErrorCode()));
+                }
+                for (com.webank.weid.blockchain.protocol.base.AuthorityIssuer issuer : listResp.getResult()) {
+                    authorityIssuerList.add(AuthorityIssuer.fromBlockChain(issuer));
+                }
+                return new ResponseData<>(authorityIssuerList, ErrorCode.SUCCESS);
+            }
             for (String address : innerResp.getResult()) {
                 String weId = WeIdUtils.convertAddressToWeId(address);
                 ResponseData<AuthorityIssuer> innerResponseData
@@ -11,6 +11,7 @@ import com.webank.wedpr.selectivedisclosure.IssuerClient;
 import com.webank.wedpr.selectivedisclosure.IssuerResult;
 import com.webank.weid.constant.DataDriverConstant;
 import com.webank.weid.exception.DatabaseException;
+import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.service.local.CptServiceLocal;
 import com.webank.weid.service.local.WeIdServiceLocal;
 import com.webank.weid.suite.persistence.PersistenceFactory;
@@ -47,9 +48,10 @@ public class CptServiceImpl implements CptService {
 
     private static Persistence dataDriver;
     private static PersistenceType persistenceType;
-    //获取CPT缓存节点
+    //获取CPT缓存节点, 未命中时由loadCpt加载, 同一CPT的并发查询只加载一次
     private static CacheNode<ResponseData<Cpt>> cptCahceNode =
-            CacheManager.registerCacheNode("SYS_CPT", 1000 * 3600 * 24L);
+            CacheManager.registerLoadingCacheNode(
+                "SYS_CPT", 1000 * 3600 * 24L, CptServiceImpl::loadCpt);
 
     public CptServiceImpl(){
         cptBlockchainService = getCptService();
@@ -237,6 +239,10 @@ public class CptServiceImpl implements CptService {
             persistenceType = PersistenceType.Mysql;
         } else if (type.equals("redis")) {
             persistenceType = PersistenceType.Redis;
+        } else if (type.equals("embedded")) {
+            persistenceType = PersistenceType.Embedded;
+        } else if (type.equals("memory")) {
+            persistenceType = PersistenceType.Memory;
         }
         if (dataDriver == null) {
             dataDriver = PersistenceFactory.build(persistenceType);
@@ -291,30 +297,52 @@ public class CptServiceImpl implements CptService {
             if (cptId == null || cptId < 0) {
                 return new ResponseData<>(null, ErrorCode.CPT_ID_ILLEGAL);
             }
-            String cptIdStr = String.valueOf(cptId);
-            ResponseData<Cpt> result = cptCahceNode.get(cptIdStr);
-            if (result == null) {
-                com.webank.weid.blockchain.protocol.response.ResponseData<com.webank.weid.blockchain.protocol.base.Cpt> innerResp =
-                        cptBlockchainService.queryCpt(cptId);
-                if (innerResp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
-                    return new ResponseData<>(null,
-                            ErrorCode.getTypeByErrorCode(innerResp.getErrorCode()), innerResp.getTransactionInfo());
-                }
-                Cpt cpt = Cpt.fromBlockChain(innerResp.getResult());
-                cptCahceNode.put(cptIdStr, new ResponseData<>(cpt, ErrorCode.SUCCESS));
-                return new ResponseData<>(cpt, ErrorCode.SUCCESS, innerResp.getTransactionInfo());
-                /*result = cptServiceEngine.queryCpt(cptId, WeIdConstant.CPT_DATA_INDEX);
-                if (result.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()) {
-                    cptCahceNode.put(cptIdStr, result);
-                }*/
-            }
-            return result;
+            return cptCahceNode.get(String.valueOf(cptId));
+        } catch (CptQueryException e) {
+            return e.getResponse();
+        } catch (WeIdBaseException e) {
+            return new ResponseData<>(null, e.getErrorCode());
         } catch (Exception e) {
             logger.error("[updateCpt] query cpt failed due to unknown error. ", e);
             return new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
         }
     }
 
+    /**
+     * load the cpt into the cache, the failed query is thrown to the caller with its transaction
+     * info and not cached.
+     *
+     * @param cptIdStr the cpt id
+     * @return the response data
+     */
+    private static ResponseData<Cpt> loadCpt(String cptIdStr) {
+
+        com.webank.weid.blockchain.protocol.response.ResponseData<com.webank.weid.blockchain.protocol.base.Cpt> innerResp =
+                cptBlockchainService.queryCpt(Integer.valueOf(cptIdStr));
+        if (innerResp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+            throw new CptQueryException(new ResponseData<>(null,
+                    ErrorCode.getTypeByErrorCode(innerResp.getErrorCode()), innerResp.getTransactionInfo()));
+        }
+        return new ResponseData<>(Cpt.fromBlockChain(innerResp.getResult()), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * the failed cpt query thrown from the cache loader, keeping the response of the chain.
+     */
+    private static final class CptQueryException extends WeIdBaseException {
+
+        private final transient ResponseData<Cpt> response;
+
+        CptQueryException(ResponseData<Cpt> response) {
+            super(ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            this.response = response;
+        }
+
+        ResponseData<Cpt> getResponse() {
+            return response;
+        }
+    }
+
     /**
      * This is used to update a CPT data which has been register.
      *
@@ -60,6 +60,10 @@ public class CredentialPojoServiceImpl implements CredentialPojoService {
             persistenceType = PersistenceType.Mysql;
         } else if (type.equals("redis")) {
             persistenceType = PersistenceType.Redis;
+        } else if (type.equals("embedded")) {
+            persistenceType = PersistenceType.Embedded;
+        } else if (type.equals("memory")) {
+            persistenceType = PersistenceType.Memory;
         }
         if (dataDriver == null) {
             dataDriver = PersistenceFactory.build(persistenceType);
@@ -14,6 +14,9 @@ import com.webank.weid.blockchain.protocol.response.ResponseData;
 import com.webank.weid.protocol.response.WeIdListResult;
 import com.webank.weid.service.local.WeIdServiceLocal;
 import com.webank.weid.service.rpc.WeIdService;
+import com.webank.weid.suite.cache.CacheManager;
+import com.webank.weid.suite.cache.CacheNode;
+import com.webank.weid.suite.cache.ExistenceFilter;
 import com.webank.weid.suite.persistence.Persistence;
 import com.webank.weid.suite.persistence.PersistenceFactory;
 import com.webank.weid.suite.persistence.PersistenceType;
@@ -37,6 +40,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * Service implementations for operations on WeIdentity DID.
@@ -52,10 +56,104 @@ public class WeIdServiceImpl implements WeIdService {
 
     private static com.webank.weid.blockchain.rpc.WeIdService weIdBlockchainService;
 
+    //获取WeIdDocument解析结果缓存节点, 本进程内提交文档修改后即失效(不论结果, 避免超时但已上链的情况),
+    //其他节点的修改在超时后可见, 超时时间可通过caffeineCache.expireAfterWrite.SYS_WEID_DOCUMENT配置
+    private static CacheNode<WeIdDocument> weIdDocumentCacheNode =
+            CacheManager.registerCacheNode("SYS_WEID_DOCUMENT", 1000 * 60L);
+
+    //获取不存在的WeId缓存节点, 超时时间较短, 使其他节点新建的WeId尽快可见
+    private static CacheNode<Boolean> absentWeIdCacheNode =
+            CacheManager.registerCacheNode("SYS_WEID_ABSENT", 1000 * 5L);
+
+    private static final String EXISTENCE_FILTER_ENABLE = "weid.existence_filter.enable";
+    private static final String EXISTENCE_FILTER_EXPECTED_INSERTIONS =
+            "weid.existence_filter.expected_insertions";
+    private static final String EXISTENCE_FILTER_FPP = "weid.existence_filter.fpp";
+    private static final String EXISTENCE_FILTER_REBUILD_INTERVAL =
+            "weid.existence_filter.rebuild_interval";
+    private static final int EXISTENCE_FILTER_PAGE_SIZE = 1000;
+
+    //已存在WeId的布隆过滤器, 未开启时为null
+    private static final ExistenceFilter weIdExistenceFilter = initExistenceFilter();
+
     public WeIdServiceImpl(){
         weIdBlockchainService = getWeIdService();
     }
 
+    /**
+     * 开启时创建WeId的存在性过滤器, 并在后台由全量WeId构建和定期重建.
+     * 重建间隔内其他节点新建的WeId会被判断为不存在, 只应在本进程是唯一写入方
+     * 或能接受该延迟时开启.
+     */
+    private static ExistenceFilter initExistenceFilter() {
+        if (!Boolean.parseBoolean(PropertyUtils.getProperty(EXISTENCE_FILTER_ENABLE, "false"))) {
+            return null;
+        }
+        ExistenceFilter filter = new ExistenceFilter("weid",
+                Integer.parseInt(PropertyUtils.getProperty(
+                        EXISTENCE_FILTER_EXPECTED_INSERTIONS, "1000000")),
+                Double.parseDouble(PropertyUtils.getProperty(EXISTENCE_FILTER_FPP, "0.001")));
+        filter.scheduleRebuild(
+                Long.parseLong(PropertyUtils.getProperty(
+                        EXISTENCE_FILTER_REBUILD_INTERVAL, "3600000")),
+                WeIdServiceImpl::loadAllWeIds);
+        return filter;
+    }
+
+    /**
+     * 分页加载全部WeId, 数据库模式下按weId顺序翻页, 否则按序号翻页.
+     */
+    private static Boolean loadAllWeIds(Consumer<String> consumer) {
+        com.webank.weid.blockchain.rpc.WeIdService service = getWeIdService();
+        if (service instanceof WeIdServiceLocal) {
+            String after = null;
+            while (true) {
+                com.webank.weid.blockchain.protocol.response.ResponseData<List<String>> page =
+                        ((WeIdServiceLocal) service).getWeIdListAfter(after, EXISTENCE_FILTER_PAGE_SIZE);
+                if (page.getErrorCode() != ErrorCode.SUCCESS.getCode() || page.getResult() == null) {
+                    return false;
+                }
+                page.getResult().forEach(consumer);
+                if (page.getResult().size() < EXISTENCE_FILTER_PAGE_SIZE) {
+                    return true;
+                }
+                after = page.getResult().get(page.getResult().size() - 1);
+            }
+        }
+        com.webank.weid.blockchain.protocol.response.ResponseData<Integer> count =
+                service.getWeIdCount();
+        if (count.getErrorCode() != ErrorCode.SUCCESS.getCode() || count.getResult() == null) {
+            return false;
+        }
+        for (int first = 0; first < count.getResult(); first += EXISTENCE_FILTER_PAGE_SIZE) {
+            com.webank.weid.blockchain.protocol.response.ResponseData<List<String>> page =
+                    service.getWeIdList(first, first + EXISTENCE_FILTER_PAGE_SIZE - 1);
+            if (page.getErrorCode() != ErrorCode.SUCCESS.getCode() || page.getResult() == null) {
+                return false;
+            }
+            page.getResult().forEach(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * WeId是否已知不存在, 由存在性过滤器或不存在的WeId缓存判断, 不访问存储.
+     */
+    private static boolean isKnownAbsent(String weId) {
+        return (weIdExistenceFilter != null && !weIdExistenceFilter.mightContain(weId))
+                || absentWeIdCacheNode.get(weId) != null;
+    }
+
+    /**
+     * 本进程新建WeId成功后更新不存在的WeId缓存和存在性过滤器.
+     */
+    private static void onWeIdCreated(String weId) {
+        if (weIdExistenceFilter != null) {
+            weIdExistenceFilter.put(weId);
+        }
+        absentWeIdCacheNode.remove(weId);
+    }
+
     private static com.webank.weid.blockchain.rpc.WeIdService getWeIdService() {
         if(weIdBlockchainService != null) {
             return weIdBlockchainService;
@@ -112,6 +210,7 @@ public class WeIdServiceImpl implements WeIdService {
                 ErrorCode.getTypeByErrorCode(innerResp.getErrorCode()),
                 innerResp.getTransactionInfo());
         }
+        onWeIdCreated(result.getWeId());
         return new ResponseData<>(result, ErrorCode.SUCCESS, innerResp.getTransactionInfo());
     }
 
@@ -166,6 +265,7 @@ public class WeIdServiceImpl implements WeIdService {
                         ErrorCode.getTypeByErrorCode(innerResp.getErrorCode()),
                         innerResp.getTransactionInfo());
             }
+            onWeIdCreated(weId);
             return new ResponseData<>(weId,
                     ErrorCode.SUCCESS,
                     innerResp.getTransactionInfo());
@@ -237,6 +337,7 @@ public class WeIdServiceImpl implements WeIdService {
                     ErrorCode.getTypeByErrorCode(innerResp.getErrorCode()),
                     innerResp.getTransactionInfo());
             }
+            onWeIdCreated(weId);
             return new ResponseData<>(weId,
                     ErrorCode.SUCCESS,
                 innerResp.getTransactionInfo());
@@ -258,10 +359,15 @@ public class WeIdServiceImpl implements WeIdService {
             logger.error("Input weId : {} is invalid.", weId);
             return new ResponseData<>(null, ErrorCode.WEID_INVALID);
         }
+        WeIdDocument cached = weIdDocumentCacheNode.get(weId);
+        if (cached != null) {
+            return new ResponseData<>(copyOf(cached), ErrorCode.SUCCESS);
+        }
         com.webank.weid.blockchain.protocol.response.ResponseData<com.webank.weid.blockchain.protocol.base.WeIdDocument> innerResp = weIdBlockchainService.getWeIdDocument(weId);
         //ResponseData<WeIdDocument> weIdDocResp = weIdServiceEngine.getWeIdDocument(weId);
         if(innerResp.getErrorCode() == ErrorCode.SUCCESS.getCode() && innerResp.getResult() != null){
             WeIdDocument weIdDocument = WeIdDocument.fromBlockChain(innerResp.getResult());
+            weIdDocumentCacheNode.put(weId, copyOf(weIdDocument));
             return new ResponseData<>(weIdDocument, ErrorCode.SUCCESS);
         } else {
             return new ResponseData<>(null, innerResp.getErrorCode(), innerResp.getErrorMessage());
@@ -370,6 +476,9 @@ public class WeIdServiceImpl implements WeIdService {
             logger.error("[isWeIdExist] check weid failed. weid : {} is invalid.", weId);
             return new ResponseData<>(false, ErrorCode.WEID_INVALID);
         }
+        if (isKnownAbsent(weId)) {
+            return new ResponseData<>(false, ErrorCode.SUCCESS);
+        }
         //return weIdServiceEngine.isWeIdExist(weId);
         com.webank.weid.blockchain.protocol.response.ResponseData<Boolean> innerResp =
                 weIdBlockchainService.isWeIdExist(weId);
@@ -377,6 +486,9 @@ public class WeIdServiceImpl implements WeIdService {
             return new ResponseData<>(false,
                     ErrorCode.getTypeByErrorCode(innerResp.getErrorCode()));
         }
+        if (Boolean.FALSE.equals(innerResp.getResult())) {
+            absentWeIdCacheNode.put(weId, Boolean.TRUE);
+        }
         return new ResponseData<>(innerResp.getResult(), ErrorCode.SUCCESS);
     }
 
@@ -392,6 +504,9 @@ public class WeIdServiceImpl implements WeIdService {
             logger.error("[isWeIdExist] check weid failed. weid : {} is invalid.", weId);
             return new ResponseData<>(false, ErrorCode.WEID_INVALID);
         }
+        if (isKnownAbsent(weId)) {
+            return new ResponseData<>(true, ErrorCode.WEID_DOES_NOT_EXIST);
+        }
         //return weIdServiceEngine.isDeactivated(weId);
         com.webank.weid.blockchain.protocol.response.ResponseData<Boolean> innerResp =
                 weIdBlockchainService.isDeactivated(weId);
@@ -508,6 +623,7 @@ public class WeIdServiceImpl implements WeIdService {
             }*/
             com.webank.weid.blockchain.protocol.response.ResponseData<Boolean> innerResp =
                     weIdBlockchainService.updateWeId(WeIdDocument.toBlockChain(weIdDocument), privateKey, WeIdUtils.convertWeIdToAddress(weId));
+            weIdDocumentCacheNode.remove(weId);
             if (innerResp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
                 logger.error(
                         "[setAuthentication]: set authenticate failed. error message is :{}",
@@ -577,6 +693,7 @@ public class WeIdServiceImpl implements WeIdService {
                         weIdDocument.setAuthentication(authentication);
                         com.webank.weid.blockchain.protocol.response.ResponseData<Boolean> innerResp =
                                 weIdBlockchainService.updateWeId(WeIdDocument.toBlockChain(weIdDocument), privateKey.getPrivateKey(), WeIdUtils.convertWeIdToAddress(weId));
+                        weIdDocumentCacheNode.remove(weId);
                         if (innerResp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
                             logger.error(
                                     "[revokeAuthentication]: remove authenticate failed. error message is :{}",
@@ -615,6 +732,7 @@ public class WeIdServiceImpl implements WeIdService {
                         weIdDocument.setAuthentication(authentication);
                         com.webank.weid.blockchain.protocol.response.ResponseData<Boolean> innerResp =
                                 weIdBlockchainService.updateWeId(WeIdDocument.toBlockChain(weIdDocument), privateKey.getPrivateKey(), WeIdUtils.convertWeIdToAddress(weId));
+                        weIdDocumentCacheNode.remove(weId);
                         if (innerResp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
                             logger.error(
                                     "[revokeAuthentication]: remove authenticate failed. error message is :{}",
@@ -640,6 +758,30 @@ public class WeIdServiceImpl implements WeIdService {
         }
     }
 
+    /**
+     * 复制WeIdDocument, 缓存中的文档不直接交给调用方, 避免调用方修改文档后影响缓存.
+     */
+    private static WeIdDocument copyOf(WeIdDocument document) {
+        WeIdDocument copy = new WeIdDocument();
+        copy.setId(document.getId());
+        for (AuthenticationProperty authentication : document.getAuthentication()) {
+            AuthenticationProperty property = new AuthenticationProperty();
+            property.setId(authentication.getId());
+            property.setType(authentication.getType());
+            property.setController(authentication.getController());
+            property.setPublicKeyMultibase(authentication.getPublicKeyMultibase());
+            copy.getAuthentication().add(property);
+        }
+        for (ServiceProperty service : document.getService()) {
+            ServiceProperty property = new ServiceProperty();
+            property.setId(service.getId());
+            property.setType(service.getType());
+            property.setServiceEndpoint(service.getServiceEndpoint());
+            copy.getService().add(property);
+        }
+        return copy;
+    }
+
     private boolean verifyServiceArgs(ServiceArgs serviceArgs) {
 
         return !(serviceArgs == null
@@ -737,6 +879,7 @@ public class WeIdServiceImpl implements WeIdService {
             }*/
             com.webank.weid.blockchain.protocol.response.ResponseData<Boolean> innerResp =
                     weIdBlockchainService.updateWeId(WeIdDocument.toBlockChain(weIdDocument), privateKey, WeIdUtils.convertWeIdToAddress(weId));
+            weIdDocumentCacheNode.remove(weId);
             if (innerResp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
                 logger.error(
                         "[createWeId]: set service failed. error message is :{}",
@@ -800,13 +943,17 @@ public class WeIdServiceImpl implements WeIdService {
         weIdListResult.setWeIdList(new ArrayList<>());
         weIdListResult.setErrorCodeList(new ArrayList<>());
         ResponseData<WeIdListResult> responseData = new ResponseData<WeIdListResult>();
-        pubKeyList.forEach(weIdPublicKey -> {
-            String weId = WeIdUtils.convertPublicKeyToWeId(weIdPublicKey.getPublicKey());
+        List<String> weIdList = new ArrayList<>();
+        pubKeyList.forEach(weIdPublicKey ->
+            weIdList.add(WeIdUtils.convertPublicKeyToWeId(weIdPublicKey.getPublicKey())));
+        List<Boolean> existList = batchIsWeIdExist(weIdList);
+        for (int i = 0; i < weIdList.size(); i++) {
+            String weId = weIdList.get(i);
             if (StringUtils.isBlank(weId)) {
                 weIdListResult.getWeIdList().add(null);
                 weIdListResult.getErrorCodeList().add(ErrorCode.WEID_PUBLICKEY_INVALID.getCode());
             } else {
-                if (this.isWeIdExist(weId).getResult()) {
+                if (existList.get(i)) {
                     weIdListResult.getWeIdList().add(weId);
                     weIdListResult.getErrorCodeList().add(ErrorCode.SUCCESS.getCode());
                 } else {
@@ -815,8 +962,43 @@ public class WeIdServiceImpl implements WeIdService {
                          ErrorCode.WEID_PUBLIC_KEY_NOT_EXIST.getCode());
                 }
             }
-        });
+        }
         responseData.setResult(weIdListResult);
         return responseData;
     }
+
+    // 数据库模式下一次查询所有weId, 其他模式逐个查询
+    private List<Boolean> batchIsWeIdExist(List<String> weIdList) {
+        //已知不存在的WeId不再查询存储
+        boolean[] absent = new boolean[weIdList.size()];
+        List<String> validList = new ArrayList<>();
+        for (int i = 0; i < weIdList.size(); i++) {
+            String weId = weIdList.get(i);
+            absent[i] = StringUtils.isBlank(weId) || isKnownAbsent(weId);
+            if (!absent[i]) {
+                validList.add(weId);
+            }
+        }
+        List<Boolean> validExistList = null;
+        if (weIdBlockchainService instanceof WeIdServiceLocal && !validList.isEmpty()) {
+            validExistList =
+                ((WeIdServiceLocal) weIdBlockchainService).isWeIdExist(validList).getResult();
+        }
+        List<Boolean> existList = new ArrayList<>(weIdList.size());
+        int validIndex = 0;
+        for (int i = 0; i < weIdList.size(); i++) {
+            if (absent[i]) {
+                existList.add(false);
+            } else if (validExistList != null) {
+                Boolean exist = validExistList.get(validIndex++);
+                if (Boolean.FALSE.equals(exist)) {
+                    absentWeIdCacheNode.put(weIdList.get(i), Boolean.TRUE);
+                }
+                existList.add(exist);
+            } else {
+                existList.add(this.isWeIdExist(weIdList.get(i)).getResult());
+            }
+        }
+        return existList;
+    }
 }
@@ -30,6 +30,7 @@ import java.io.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @Component("authorityIssuerServiceLocal")
 public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
@@ -46,6 +47,10 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
             persistenceType = PersistenceType.Mysql;
         } else if (type.equals("redis")) {
             persistenceType = PersistenceType.Redis;
+        } else if (type.equals("embedded")) {
+            persistenceType = PersistenceType.Embedded;
+        } else if (type.equals("memory")) {
+            persistenceType = PersistenceType.Memory;
         }
         if (dataDriver == null) {
             dataDriver = PersistenceFactory.build(persistenceType);
@@ -215,12 +220,40 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
     @Override
     public ResponseData<AuthorityIssuer> queryAuthorityIssuerInfo(String weId) {
         ResponseData<AuthorityIssuer> resultData = new ResponseData<AuthorityIssuer>();
-        AuthorityIssuer result = new AuthorityIssuer();
         AuthorityIssuerInfo authorityIssuerInfo = getDataDriver().getAuthorityIssuerByWeId(DataDriverConstant.LOCAL_AUTHORITY_ISSUER, weId).getResult();
         if(authorityIssuerInfo == null){
             logger.error("[queryAuthorityIssuerInfo] Authority Issuer not exist");
             return new ResponseData<>(null, ErrorCode.AUTHORITY_ISSUER_CONTRACT_ERROR_NOT_EXISTS);
         }
+        resultData.setResult(toAuthorityIssuer(weId, authorityIssuerInfo));
+        return resultData;
+    }
+
+    /**
+     * Query several authority issuer information in one round trip, the missing issuer is skipped.
+     *
+     * @param weIds the WeIdentity DID list
+     * @return the authority issuers in the order of weIds
+     */
+    public ResponseData<List<AuthorityIssuer>> queryAuthorityIssuerInfoList(List<String> weIds) {
+        ResponseData<Map<String, AuthorityIssuerInfo>> resp = getDataDriver()
+                .getAuthorityIssuersByWeIds(DataDriverConstant.LOCAL_AUTHORITY_ISSUER, weIds);
+        if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+            logger.error("[queryAuthorityIssuerInfoList] query Authority Issuers from db failed.");
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(resp.getErrorCode()));
+        }
+        List<AuthorityIssuer> result = new ArrayList<>();
+        for (String weId : weIds) {
+            AuthorityIssuerInfo authorityIssuerInfo = resp.getResult().get(weId);
+            if (authorityIssuerInfo != null) {
+                result.add(toAuthorityIssuer(weId, authorityIssuerInfo));
+            }
+        }
+        return new ResponseData<>(result, ErrorCode.SUCCESS);
+    }
+
+    private static AuthorityIssuer toAuthorityIssuer(String weId, AuthorityIssuerInfo authorityIssuerInfo) {
+        AuthorityIssuer result = new AuthorityIssuer();
         result.setWeId(weId);
         result.setName(authorityIssuerInfo.getName());
         result.setAccValue(authorityIssuerInfo.getAcc_value());
@@ -237,8 +270,7 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
             }
             result.setExtraInt(extraInt);
         }
-        resultData.setResult(result);
-        return resultData;
+        return result;
     }
 
     /**
@@ -261,6 +293,27 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
         }
     }
 
+    /**
+     * Get the authority issuers after the given weId, ordered by weId.
+     *
+     * @param afterWeId the last weId of the previous page, null for the first page
+     * @param num number of returned authority issuer in this request
+     * @return Execution result
+     */
+    public ResponseData<List<String>> getAuthorityIssuerAddressListAfter(
+            String afterWeId,
+            Integer num) {
+        try {
+            return getDataDriver().getWeIdListAfter(
+                    DataDriverConstant.LOCAL_AUTHORITY_ISSUER,
+                    afterWeId,
+                    num);
+        } catch (Exception e) {
+            logger.error("[getAuthorityIssuerAddressListAfter] getAuthorityIssuerAddressListAfter has error, Error Message：{}", e);
+            return new ResponseData<>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
     /**
      * Register a new issuer type.
      *
@@ -315,40 +368,24 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
             logger.error("[addIssuer] operator has not permission to addIssuer");
             return new ResponseData<>(false, ErrorCode.CONTRACT_ERROR_NO_PERMISSION);
         }
-        SpecificTypeValue specificTypeValue = getDataDriver().getSpecificType(DataDriverConstant.LOCAL_SPECIFIC_ISSUER, issuerType).getResult();
+        SpecificTypeValue specificTypeValue = getSpecificType(issuerType);
         if(specificTypeValue == null){
             logger.error("[addIssuer] issuerType not exist on chain");
             return new ResponseData<>(false, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
         }
-        //判断这个issuerType是否已经有fellow
-        if(specificTypeValue.getFellow() != null){
-            //判断是否已经存在这个issuer
-            String[] fellows = specificTypeValue.getFellow().split(",");
-            for (String obj : fellows) {
-                if(obj.equals(issuerAddress)) return new ResponseData<>(false, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_EXISTS);
-            }
-            ResponseData<Integer> resp =
-                    getDataDriver().updateSpecificTypeFellow(
-                            DataDriverConstant.LOCAL_SPECIFIC_ISSUER,
-                            issuerType,
-                            specificTypeValue.getFellow()+','+issuerAddress);
-            if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
-                logger.error("[addIssuer] addIssuer to issuerType failed.");
-                throw new DatabaseException("database error!");
-            }
-            return new ResponseData<>(true, ErrorCode.SUCCESS);
-        } else {
-            ResponseData<Integer> resp =
-                    getDataDriver().updateSpecificTypeFellow(
-                            DataDriverConstant.LOCAL_SPECIFIC_ISSUER,
-                            issuerType,
-                            issuerAddress);
-            if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
-                logger.error("[addIssuer] addIssuer to issuerType failed.");
-                throw new DatabaseException("database error!");
-            }
-            return new ResponseData<>(true, ErrorCode.SUCCESS);
+        ResponseData<Integer> resp =
+                getDataDriver().addSpecificTypeIssuer(
+                        DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER,
+                        issuerType,
+                        issuerAddress);
+        if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+            logger.error("[addIssuer] addIssuer to issuerType failed.");
+            throw new DatabaseException("database error!");
+        }
+        if (resp.getResult() == 0) {
+            return new ResponseData<>(false, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_EXISTS);
         }
+        return new ResponseData<>(true, ErrorCode.SUCCESS);
     }
 
     /**
@@ -373,29 +410,23 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
             logger.error("[removeIssuer] operator has not permission to removeIssuer");
             return new ResponseData<>(false, ErrorCode.CONTRACT_ERROR_NO_PERMISSION);
         }
-        SpecificTypeValue specificTypeValue = getDataDriver().getSpecificType(DataDriverConstant.LOCAL_SPECIFIC_ISSUER, issuerType).getResult();
-        if(!isSpecificTypeIssuer(issuerType, issuerAddress).getResult()){
-            logger.error("[removeIssuer] issuerAddress not the fellow of issuerType");
+        if(getSpecificType(issuerType) == null){
+            logger.error("[removeIssuer] issuerType not exist on chain");
             return new ResponseData<>(false, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
         }
-        String[] fellows = specificTypeValue.getFellow().split(",");
-        List<String> fellowList = new ArrayList<>(Arrays.asList(fellows));
-        fellowList.remove(issuerAddress);
-        String newFellow = fellowList.get(0);
-        if(fellowList.size() != 1) {
-            for(int i = 1; i < fellowList.size(); i++){
-                newFellow = newFellow + ',' + fellowList.get(i);
-            }
-        }
         ResponseData<Integer> resp =
-                getDataDriver().updateSpecificTypeFellow(
-                        DataDriverConstant.LOCAL_SPECIFIC_ISSUER,
+                getDataDriver().removeSpecificTypeIssuer(
+                        DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER,
                         issuerType,
-                        newFellow);
+                        issuerAddress);
         if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
             logger.error("[removeIssuer] removeIssuer from issuerType failed.");
             throw new DatabaseException("database error!");
         }
+        if (resp.getResult() == 0) {
+            logger.error("[removeIssuer] issuerAddress not the fellow of issuerType");
+            return new ResponseData<>(false, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
+        }
         return new ResponseData<>(true, ErrorCode.SUCCESS);
     }
 
@@ -415,20 +446,21 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
             logger.error("[isSpecificTypeIssuer] input argument is illegal");
             return new ResponseData<>(false, ErrorCode.ILLEGAL_INPUT);
         }
-        SpecificTypeValue specificTypeValue = getDataDriver().getSpecificType(DataDriverConstant.LOCAL_SPECIFIC_ISSUER, issuerType).getResult();
-        if(specificTypeValue == null){
+        if(getSpecificType(issuerType) == null){
             logger.error("[isSpecificTypeIssuer] issuerType not exist on chain");
             return new ResponseData<>(false, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
         }
-        if(specificTypeValue.getFellow().equals(StringUtils.EMPTY)){
+        ResponseData<Boolean> resp = getDataDriver().isSpecificTypeIssuer(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, issuerType, address);
+        if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+            logger.error("[isSpecificTypeIssuer] query the fellow of issuerType failed.");
+            return new ResponseData<>(false, ErrorCode.getTypeByErrorCode(resp.getErrorCode()));
+        }
+        if (resp.getResult() == null) {
             logger.error("[isSpecificTypeIssuer] issuerType has not fellow");
             return new ResponseData<>(false, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
         }
-        String[] fellows = specificTypeValue.getFellow().split(",");
-        for (String obj : fellows) {
-            if(obj.equals(address)) return new ResponseData<>(true, ErrorCode.SUCCESS);
-        }
-        return new ResponseData<>(false, ErrorCode.SUCCESS);
+        return new ResponseData<>(resp.getResult(), ErrorCode.SUCCESS);
     }
 
     /**
@@ -445,22 +477,29 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
             Integer index,
             Integer num
     ) {
-        SpecificTypeValue specificTypeValue = getDataDriver().getSpecificType(DataDriverConstant.LOCAL_SPECIFIC_ISSUER, issuerType).getResult();
-        if(specificTypeValue == null || specificTypeValue.getFellow().equals(StringUtils.EMPTY)){
+        if (StringUtils.isEmpty(issuerType) || index == null || index < 0 || num == null || num <= 0) {
+            logger.error("[getAllSpecificTypeIssuerList] input argument is illegal");
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+        if(getSpecificType(issuerType) == null){
             logger.error("[getAllSpecificTypeIssuerList] issuerType not exist on chain");
             return new ResponseData<>(null, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
         }
-        String[] fellows = specificTypeValue.getFellow().split(",");
-        List<String> fellowList = Arrays.asList(fellows);
-        if (fellows.length<=index) {
+        ResponseData<List<String>> resp = getDataDriver().getSpecificTypeIssuerList(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, issuerType, index, num);
+        if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode() || resp.getResult() == null) {
+            logger.error("[getAllSpecificTypeIssuerList] query the fellows of issuerType failed.");
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(resp.getErrorCode()));
+        }
+        if (resp.getResult().isEmpty()) {
+            if (index == 0) {
+                logger.error("[getAllSpecificTypeIssuerList] issuerType has not fellow");
+                return new ResponseData<>(null, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
+            }
             logger.error("[getAllSpecificTypeIssuerList] input argument is illegal");
             return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
         }
-        if(fellows.length>index + num - 1){
-            return new ResponseData<>(fellowList.subList(index, index + num), ErrorCode.SUCCESS);
-        } else {
-            return new ResponseData<>(fellowList.subList(index, fellows.length - 1), ErrorCode.SUCCESS);
-        }
+        return new ResponseData<>(resp.getResult(), ErrorCode.SUCCESS);
     }
 
     @Override
@@ -503,17 +542,12 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
             logger.error("[getSpecificTypeIssuerSize] input argument is illegal");
             return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
         }
-        SpecificTypeValue specificTypeValue = getDataDriver().getSpecificType(DataDriverConstant.LOCAL_SPECIFIC_ISSUER, issuerType).getResult();
-        if(specificTypeValue == null){
+        if(getSpecificType(issuerType) == null){
             logger.error("[getSpecificTypeIssuerSize] issuerType not exist on chain");
             return new ResponseData<>(null, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
         }
-        if(specificTypeValue.getFellow() == null){
-            logger.error("[getSpecificTypeIssuerSize] issuerType has not fellow");
-            return new ResponseData<>(0, ErrorCode.SUCCESS);
-        }
-        String[] fellows = specificTypeValue.getFellow().split(",");
-        return new ResponseData<>(fellows.length, ErrorCode.SUCCESS);
+        return getDataDriver().getSpecificTypeIssuerCount(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, issuerType);
     }
 
     @Override
@@ -535,8 +569,14 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
             logger.error("[removeIssuerType] input argument is illegal");
             return new ResponseData<>(false, ErrorCode.ILLEGAL_INPUT);
         }
-        SpecificTypeValue specificTypeValue = getDataDriver().getSpecificType(DataDriverConstant.LOCAL_SPECIFIC_ISSUER, issuerType).getResult();
-        if(specificTypeValue.getFellow() != null){
+        SpecificTypeValue specificTypeValue = getSpecificType(issuerType);
+        if(specificTypeValue == null){
+            logger.error("[removeIssuerType] issuerType not exist on chain");
+            return new ResponseData<>(false, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
+        }
+        Integer fellowCount = getDataDriver().getSpecificTypeIssuerCount(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, issuerType).getResult();
+        if(fellowCount == null || fellowCount > 0){
             logger.error("[removeIssuerType] has issuer in the specific issuer type");
             return new ResponseData<>(false, ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_EXIST_ISSUER);
         }
@@ -562,9 +602,15 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
                     DataDriverConstant.LOCAL_SPECIFIC_ISSUER,
                     index,
                     index + num).getResult();
+            Map<String, SpecificTypeValue> specificTypeMap = getDataDriver().getSpecificTypes(
+                    DataDriverConstant.LOCAL_SPECIFIC_ISSUER,
+                    typeNameList).getResult();
             List<IssuerType> issuerTypeList = new ArrayList<>();
             for (String typeName : typeNameList) {
-                SpecificTypeValue specificTypeValue = getDataDriver().getSpecificType(DataDriverConstant.LOCAL_SPECIFIC_ISSUER, typeName).getResult();
+                SpecificTypeValue specificTypeValue = specificTypeMap.get(typeName);
+                if (specificTypeValue == null) {
+                    continue;
+                }
                 IssuerType issuerType = new IssuerType();
                 issuerType.setTypeName(typeName);
                 issuerType.setCreated(specificTypeValue.getCreated().getTime());
@@ -578,4 +624,37 @@ public class AuthorityIssuerServiceLocal implements AuthorityIssuerService {
         }
     }
 
+    /**
+     * Get the specific type, and move the comma-joined fellows of legacy data into the member table.
+     *
+     * @param issuerType the issuer type
+     * @return the specific type, null if not exist
+     */
+    private SpecificTypeValue getSpecificType(String issuerType) {
+        SpecificTypeValue specificTypeValue = getDataDriver().getSpecificType(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER, issuerType).getResult();
+        if (specificTypeValue == null || StringUtils.isEmpty(specificTypeValue.getFellow())) {
+            return specificTypeValue;
+        }
+        for (String fellow : specificTypeValue.getFellow().split(",")) {
+            if (StringUtils.isEmpty(fellow)) {
+                continue;
+            }
+            ResponseData<Integer> resp = getDataDriver().addSpecificTypeIssuer(
+                    DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, issuerType, fellow);
+            if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                logger.error("[getSpecificType] migrate the fellow of issuerType failed.");
+                throw new DatabaseException("database error!");
+            }
+        }
+        ResponseData<Integer> resp = getDataDriver().updateSpecificTypeFellow(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER, issuerType, StringUtils.EMPTY);
+        if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+            logger.error("[getSpecificType] clear the fellow of issuerType failed.");
+            throw new DatabaseException("database error!");
+        }
+        specificTypeValue.setFellow(StringUtils.EMPTY);
+        return specificTypeValue;
+    }
+
 }
@@ -44,6 +44,13 @@ public class CptServiceLocal implements CptService {
     private static PersistenceType persistenceType;
     public static Integer AUTHORITY_ISSUER_START_ID = 1000;
     public static Integer NONE_AUTHORITY_ISSUER_START_ID = 2000000;
+    public static final String GLOBAL_STATUS_FILE = "global.status";
+    private static final IdSequencer AUTHORITY_ISSUER_CPT_ID = new IdSequencer(
+            "authority_issuer_cpt_id",
+            () -> GlobalStatus.readStatusIfExists(GLOBAL_STATUS_FILE).getAuthority_issuer_current_cpt_id());
+    private static final IdSequencer NONE_AUTHORITY_ISSUER_CPT_ID = new IdSequencer(
+            "none_authority_issuer_cpt_id",
+            () -> GlobalStatus.readStatusIfExists(GLOBAL_STATUS_FILE).getNone_authority_issuer_current_cpt_id());
     WeIdServiceLocal weIdServiceLocal = new WeIdServiceLocal();
     AuthorityIssuerServiceLocal authorityIssuerServiceLocal = new AuthorityIssuerServiceLocal();
 
@@ -53,6 +60,10 @@ public class CptServiceLocal implements CptService {
             persistenceType = PersistenceType.Mysql;
         } else if (type.equals("redis")) {
             persistenceType = PersistenceType.Redis;
+        } else if (type.equals("embedded")) {
+            persistenceType = PersistenceType.Embedded;
+        } else if (type.equals("memory")) {
+            persistenceType = PersistenceType.Memory;
         }
         if (dataDriver == null) {
             dataDriver = PersistenceFactory.build(persistenceType);
@@ -85,10 +96,6 @@ public class CptServiceLocal implements CptService {
             logger.error("[registerCpt] the weid of publisher does not exist on blockchain");
             return new ResponseData<>(null, ErrorCode.CPT_PUBLISHER_NOT_EXIST);
         }
-        if(getDataDriver().getCpt(DataDriverConstant.LOCAL_CPT, cptId).getResult() != null){
-            logger.error("[registerCpt] cpt already exist on chain");
-            return new ResponseData<>(null, ErrorCode.CPT_ALREADY_EXIST);
-        }
         if(cptId < AUTHORITY_ISSUER_START_ID){
             if(!RoleController.checkPermission(WeIdUtils.getWeIdFromPrivateKey(privateKey), RoleController.MODIFY_AUTHORITY_ISSUER)){
                 logger.error("[registerCpt] operator has not committee member permission to registerCpt");
@@ -100,14 +107,19 @@ public class CptServiceLocal implements CptService {
                 return new ResponseData<>(null, ErrorCode.CPT_NO_PERMISSION);
             }
         }
+        //cpt已存在时由存储在写入时判断, 不再单独查询
         ResponseData<CptBaseInfo> resp =
-                getDataDriver().addCpt(
+                getDataDriver().addCptIfAbsent(
                         DataDriverConstant.LOCAL_CPT,
                         cptId,
                         address,
                         null,
                         cptJsonSchemaNew,
                         com.webank.weid.blockchain.util.DataToolUtils.SigBase64Serialization(rsvSignature));
+        if (resp.getErrorCode() == ErrorCode.CPT_ALREADY_EXIST.getCode()) {
+            logger.error("[registerCpt] cpt already exist on chain");
+            return new ResponseData<>(null, ErrorCode.CPT_ALREADY_EXIST);
+        }
         if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
             logger.error("[registerCpt] save cpt to db failed.");
             throw new DatabaseException("database error!");
@@ -156,25 +168,15 @@ public class CptServiceLocal implements CptService {
     }
 
     public int getCptId(String address) {
-        GlobalStatus globalStatus = GlobalStatus.readStatusFromFile("global.status");
-        if(authorityIssuerServiceLocal.isAuthorityIssuer(address).getResult()){
-            int cptId = globalStatus.getAuthority_issuer_current_cpt_id();
-            while (getDataDriver().getCpt(DataDriverConstant.LOCAL_CPT, cptId).getResult() != null) {
-                cptId++;
-            }
-            globalStatus.setAuthority_issuer_current_cpt_id(cptId);
-            GlobalStatus.storeStatusToFile(globalStatus, "global.status");
-            if(cptId > NONE_AUTHORITY_ISSUER_START_ID) cptId = 0;
-            return cptId;
-        } else {
-            int cptId = globalStatus.getNone_authority_issuer_current_cpt_id();
-            while (getDataDriver().getCpt(DataDriverConstant.LOCAL_CPT, cptId).getResult() != null) {
-                cptId++;
-            }
-            globalStatus.setNone_authority_issuer_current_cpt_id(cptId);
-            GlobalStatus.storeStatusToFile(globalStatus, "global.status");
-            return cptId;
+        IdSequencer sequencer = authorityIssuerServiceLocal.isAuthorityIssuer(address).getResult()
+                ? AUTHORITY_ISSUER_CPT_ID : NONE_AUTHORITY_ISSUER_CPT_ID;
+        int cptId = sequencer.nextId(getDataDriver());
+        // 跳过通过指定CPT ID注册已占用的ID
+        while (getDataDriver().getCpt(DataDriverConstant.LOCAL_CPT, cptId).getResult() != null) {
+            cptId = sequencer.nextId(getDataDriver());
         }
+        if(sequencer == AUTHORITY_ISSUER_CPT_ID && cptId > NONE_AUTHORITY_ISSUER_START_ID) cptId = 0;
+        return cptId;
     }
 
     /**
@@ -12,6 +12,7 @@ import com.webank.weid.util.WeIdUtils;
 import com.webank.weid.constant.DataDriverConstant;
 import com.webank.weid.exception.DatabaseException;
 import com.webank.weid.service.local.role.RoleController;
+import com.webank.weid.suite.persistence.EvidenceLogValue;
 import com.webank.weid.suite.persistence.EvidenceValue;
 import com.webank.weid.suite.persistence.Persistence;
 import com.webank.weid.suite.persistence.PersistenceFactory;
@@ -31,6 +32,8 @@ import java.util.Map;
 public class EvidenceServiceLocal implements EvidenceService {
     private static final Logger logger = LoggerFactory.getLogger(EvidenceServiceLocal.class);
 
+    private static final String EMPTY_SIGNATURE = "empty signature";
+
     private static Persistence dataDriver;
     private static PersistenceType persistenceType;
     public String groupId = "1";
@@ -41,6 +44,10 @@ public class EvidenceServiceLocal implements EvidenceService {
             persistenceType = PersistenceType.Mysql;
         } else if (type.equals("redis")) {
             persistenceType = PersistenceType.Redis;
+        } else if (type.equals("embedded")) {
+            persistenceType = PersistenceType.Embedded;
+        } else if (type.equals("memory")) {
+            persistenceType = PersistenceType.Memory;
         }
         if (dataDriver == null) {
             dataDriver = PersistenceFactory.build(persistenceType);
@@ -65,12 +72,8 @@ public class EvidenceServiceLocal implements EvidenceService {
             logger.error("[createEvidence] input argument is illegal");
             return new ResponseData<>(StringUtils.EMPTY, ErrorCode.ILLEGAL_INPUT);
         }
-        if(getDataDriver().getEvidenceByHash(DataDriverConstant.LOCAL_EVIDENCE, hashValue).getResult() != null) {
-            logger.error("[createEvidence] evidence with the hash value already existed");
-            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS);
-        }
         ResponseData<Integer> resp =
-                getDataDriver().addEvidenceByHash(
+                getDataDriver().addEvidenceByHashIfAbsent(
                         DataDriverConstant.LOCAL_EVIDENCE,
                         hashValue,
                         WeIdUtils.getWeIdFromPrivateKey(privateKey),
@@ -78,8 +81,11 @@ public class EvidenceServiceLocal implements EvidenceService {
                         log,
                         String.valueOf(timestamp),
                         String.valueOf(0),
-                        StringUtils.EMPTY,
                         groupId);
+        if (resp.getErrorCode() == ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS.getCode()) {
+            logger.error("[createEvidence] evidence with the hash value already existed");
+            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS);
+        }
         if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
             logger.error("[createEvidence] save evidence to db failed.");
             throw new DatabaseException("database error!");
@@ -142,37 +148,78 @@ public class EvidenceServiceLocal implements EvidenceService {
             logger.error("[getInfo] evidence not exist on chain");
             return new ResponseData<>(null, ErrorCode.CREDENTIAL_EVIDENCE_NOT_EXIST);
         }
+        ResponseData<List<EvidenceLogValue>> logsResp = getDataDriver().getEvidenceLogs(DataDriverConstant.LOCAL_EVIDENCE_LOG, hashValue);
+        if (logsResp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+            logger.error("[getInfo] query evidence logs from db failed.");
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(logsResp.getErrorCode()));
+        }
         Map<String, EvidenceSignInfo> signInfoMap = new HashMap<>();
+        // 先回放存证行中以;拼接的历史记录, 再按追加顺序回放追加记录
         String[] signerList = evidenceValue.getSigners().split(";");
         String[] signatureList = evidenceValue.getSignatures().split(";");
         String[] timestampList = evidenceValue.getUpdated().split(";");
         String[] logList = evidenceValue.getLogs().split(";");
         String[] revokedList = evidenceValue.getRevoked().split(";");
         for(int i = 0; i < signerList.length; i++){
-            if(signInfoMap.containsKey(WeIdUtils.convertWeIdToAddress(signerList[i]))){
-                EvidenceSignInfo evidenceSignInfo = signInfoMap.get(WeIdUtils.convertWeIdToAddress(signerList[i]));
-                if(!signatureList[i].equals("empty signature")) evidenceSignInfo.setSignature(signatureList[i]);
-                evidenceSignInfo.setTimestamp(timestampList[i]);
-                evidenceSignInfo.setRevoked(revokedList[i].equals("1"));
-                List<String> logs = evidenceSignInfo.getLogs();
-                logs.add(logList[i]);
-                evidenceSignInfo.setLogs(logs);
-                signInfoMap.put(WeIdUtils.convertWeIdToAddress(signerList[i]), evidenceSignInfo);
+            applyLog(signInfoMap, signerList[i], signatureList[i], logList[i], timestampList[i], revokedList[i]);
+        }
+        for (EvidenceLogValue evidenceLog : logsResp.getResult()) {
+            if (evidenceLog.getType() == EvidenceLogValue.TYPE_REVOKE) {
+                applyRevoke(signInfoMap, evidenceLog.getSigner(), evidenceLog.getUpdated(), evidenceLog.getRevoked());
             } else {
-                EvidenceSignInfo evidenceSignInfo = new EvidenceSignInfo();
-                if(!signatureList[i].equals("empty signature")) evidenceSignInfo.setSignature(signatureList[i]);
-                evidenceSignInfo.setTimestamp(timestampList[i]);
-                evidenceSignInfo.setRevoked(revokedList[i].equals("1"));
-                List<String> logs = evidenceSignInfo.getLogs();
-                logs.add(logList[i]);
-                evidenceSignInfo.setLogs(logs);
-                signInfoMap.put(WeIdUtils.convertWeIdToAddress(signerList[i]), evidenceSignInfo);
+                applyLog(signInfoMap, evidenceLog.getSigner(), evidenceLog.getSignature(), evidenceLog.getLog(), evidenceLog.getUpdated(), evidenceLog.getRevoked());
             }
         }
         evidenceInfo.setSignInfo(signInfoMap);
         return new ResponseData<>(evidenceInfo, ErrorCode.SUCCESS);
     }
 
+    private static void applyLog(
+            Map<String, EvidenceSignInfo> signInfoMap,
+            String signer,
+            String signature,
+            String log,
+            String timestamp,
+            String revoked
+    ) {
+        String address = WeIdUtils.convertWeIdToAddress(signer);
+        EvidenceSignInfo evidenceSignInfo = signInfoMap.get(address);
+        if (evidenceSignInfo == null) {
+            evidenceSignInfo = new EvidenceSignInfo();
+            signInfoMap.put(address, evidenceSignInfo);
+        }
+        if(!signature.equals(EMPTY_SIGNATURE)) evidenceSignInfo.setSignature(signature);
+        evidenceSignInfo.setTimestamp(timestamp);
+        evidenceSignInfo.setRevoked(revoked.equals("1"));
+        List<String> logs = evidenceSignInfo.getLogs();
+        logs.add(log);
+        evidenceSignInfo.setLogs(logs);
+    }
+
+    // 撤销只对已签名的签名者生效
+    private static void applyRevoke(
+            Map<String, EvidenceSignInfo> signInfoMap,
+            String signer,
+            String timestamp,
+            String revoked
+    ) {
+        EvidenceSignInfo evidenceSignInfo = signInfoMap.get(WeIdUtils.convertWeIdToAddress(signer));
+        if (evidenceSignInfo != null) {
+            evidenceSignInfo.setTimestamp(timestamp);
+            evidenceSignInfo.setRevoked(revoked.equals("1"));
+        }
+    }
+
+    private static EvidenceLogValue newEvidenceLog(String hash, int type, String signer, Long timestamp, String revoked) {
+        EvidenceLogValue evidenceLog = new EvidenceLogValue();
+        evidenceLog.setHash(hash);
+        evidenceLog.setType(type);
+        evidenceLog.setSigner(signer);
+        evidenceLog.setUpdated(String.valueOf(timestamp));
+        evidenceLog.setRevoked(revoked);
+        return evidenceLog;
+    }
+
     @Override
     public ResponseData<List<Boolean>> batchCreateEvidence(
             List<String> hashValues,
@@ -186,37 +233,39 @@ public class EvidenceServiceLocal implements EvidenceService {
             logger.error("[batchCreateEvidence] input argument is illegal");
             return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
         }
-        List<Boolean> resultList = new ArrayList<>();
-        for(int i = 0; i < hashValues.size(); i++){
-            if (StringUtils.isEmpty(hashValues.get(i)) || StringUtils.isEmpty(logs.get(i)) || StringUtils.isEmpty(signatures.get(i)) || StringUtils.isEmpty(signers.get(i))) {
-                logger.error("[batchCreateEvidence] input argument is illegal");
-                resultList.add(false);
-                continue;
-            }
-            if(getDataDriver().getEvidenceByHash(DataDriverConstant.LOCAL_EVIDENCE, hashValues.get(i)).getResult() != null) {
-                logger.error("[batchCreateEvidence] evidence with the hash value already existed");
-                resultList.add(false);
-                continue;
+        //整批在一个工作单元内写入, 共用一个连接并只提交一次
+        return getDataDriver().executeInUnit(driver -> {
+            List<Boolean> resultList = new ArrayList<>();
+            for(int i = 0; i < hashValues.size(); i++){
+                if (StringUtils.isEmpty(hashValues.get(i)) || StringUtils.isEmpty(logs.get(i)) || StringUtils.isEmpty(signatures.get(i)) || StringUtils.isEmpty(signers.get(i))) {
+                    logger.error("[batchCreateEvidence] input argument is illegal");
+                    resultList.add(false);
+                    continue;
+                }
+                ResponseData<Integer> resp =
+                        driver.addEvidenceByHashIfAbsent(
+                                DataDriverConstant.LOCAL_EVIDENCE,
+                                hashValues.get(i),
+                                signers.get(i),
+                                signatures.get(i),
+                                logs.get(i),
+                                String.valueOf(timestamps.get(i)),
+                                String.valueOf(0),
+                                groupId);
+                if (resp.getErrorCode() == ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS.getCode()) {
+                    logger.error("[batchCreateEvidence] evidence with the hash value already existed");
+                    resultList.add(false);
+                    continue;
+                }
+                if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                    logger.error("[batchCreateEvidence] batch save evidence to db failed.");
+                    resultList.add(false);
+                    continue;
+                }
+                resultList.add(true);
             }
-            ResponseData<Integer> resp =
-                    getDataDriver().addEvidenceByHash(
-                            DataDriverConstant.LOCAL_EVIDENCE,
-                            hashValues.get(i),
-                            signers.get(i),
-                            signatures.get(i),
-                            logs.get(i),
-                            String.valueOf(timestamps.get(i)),
-                            String.valueOf(0),
-                            StringUtils.EMPTY,
-                            groupId);
-            if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
-                logger.error("[batchCreateEvidence] batch save evidence to db failed.");
-                resultList.add(false);
-                continue;
-            }
-            resultList.add(true);
-        }
-        return new ResponseData<>(resultList, ErrorCode.SUCCESS);
+            return new ResponseData<>(resultList, ErrorCode.SUCCESS);
+        });
     }
 
     @Override
@@ -283,17 +332,11 @@ public class EvidenceServiceLocal implements EvidenceService {
             logger.error("[addLog] evidence with the hash value not existed");
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_NOT_EXIST);
         }
-        if(signature.equals(StringUtils.EMPTY)) signature = "empty signature";
-        ResponseData<Integer> resp =
-                getDataDriver().addSignatureAndLogs(
-                        DataDriverConstant.LOCAL_EVIDENCE,
-                        hashValue,
-                        evidenceValue.getSigners() + ';' + WeIdUtils.getWeIdFromPrivateKey(privateKey),
-                        evidenceValue.getSignatures() + ';' + signature,
-                        evidenceValue.getLogs() + ';' + log,
-                        evidenceValue.getUpdated() + ';' + timestamp,
-                        evidenceValue.getRevoked() + ';' + 0,
-                        evidenceValue.getExtra_key());
+        if(signature.equals(StringUtils.EMPTY)) signature = EMPTY_SIGNATURE;
+        EvidenceLogValue evidenceLog = newEvidenceLog(hashValue, EvidenceLogValue.TYPE_LOG, WeIdUtils.getWeIdFromPrivateKey(privateKey), timestamp, String.valueOf(0));
+        evidenceLog.setSignature(signature);
+        evidenceLog.setLog(log);
+        ResponseData<Integer> resp = getDataDriver().addEvidenceLog(DataDriverConstant.LOCAL_EVIDENCE_LOG, evidenceLog);
         if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
             logger.error("[addLog] update evidence to db failed.");
             throw new DatabaseException("database error!");
@@ -340,17 +383,18 @@ public class EvidenceServiceLocal implements EvidenceService {
             logger.error("[addLogByCustomKey] evidence not exist on chain");
             return new ResponseData<>(null, ErrorCode.CREDENTIAL_EVIDENCE_NOT_EXIST);
         }
-        if(signature.equals(StringUtils.EMPTY)) signature = "empty signature";
-        ResponseData<Integer> resp =
-                getDataDriver().addSignatureAndLogs(
-                        DataDriverConstant.LOCAL_EVIDENCE,
-                        hashValue,
-                        evidenceValue.getSigners() + ';' + WeIdUtils.getWeIdFromPrivateKey(privateKey),
-                        evidenceValue.getSignatures() + ';' + signature,
-                        evidenceValue.getLogs() + ';' + log,
-                        evidenceValue.getUpdated() + ';' + timestamp,
-                        evidenceValue.getRevoked() + ';' + 0,
-                        customKey);
+        if(signature.equals(StringUtils.EMPTY)) signature = EMPTY_SIGNATURE;
+        if (!customKey.equals(evidenceValue.getExtra_key())) {
+            ResponseData<Integer> keyResp = getDataDriver().updateEvidenceExtraKey(DataDriverConstant.LOCAL_EVIDENCE, hashValue, customKey);
+            if (keyResp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                logger.error("[addLogByCustomKey] update evidence extraKey to db failed.");
+                throw new DatabaseException("database error!");
+            }
+        }
+        EvidenceLogValue evidenceLog = newEvidenceLog(hashValue, EvidenceLogValue.TYPE_LOG, WeIdUtils.getWeIdFromPrivateKey(privateKey), timestamp, String.valueOf(0));
+        evidenceLog.setSignature(signature);
+        evidenceLog.setLog(log);
+        ResponseData<Integer> resp = getDataDriver().addEvidenceLog(DataDriverConstant.LOCAL_EVIDENCE_LOG, evidenceLog);
         if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
             logger.error("[addLogByCustomKey] update evidence to db failed.");
             throw new DatabaseException("database error!");
@@ -398,39 +442,8 @@ public class EvidenceServiceLocal implements EvidenceService {
             logger.error("[revoke] evidence with the hash value not existed");
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_EVIDENCE_NOT_EXIST);
         }
-        String[] signerList = evidenceValue.getSigners().split(";");
-        String[] revokedList = evidenceValue.getRevoked().split(";");
-        String[] timestampList = evidenceValue.getUpdated().split(";");
-        String revoked = revokedList[0];
-        String timestampStr = timestampList[0];
-        for(int i = 0; i < signerList.length; i++){
-            if(signerList[i].equals(WeIdUtils.getWeIdFromPrivateKey(privateKey))){
-                revokedList[i] = String.valueOf(revokeStage? 1:0);
-                timestampList[i] = String.valueOf(timestamp);
-            }
-        }
-        String newRevoked = revokedList[0];
-        if(revokedList.length != 1) {
-            for(int i = 1; i < revokedList.length; i++){
-                newRevoked = newRevoked + ';' + revokedList[i];
-            }
-        }
-        String newTimestamp = timestampList[0];
-        if(timestampList.length != 1) {
-            for(int i = 1; i < timestampList.length; i++){
-                newTimestamp = newTimestamp + ';' + timestampList[i];
-            }
-        }
-        ResponseData<Integer> resp =
-                getDataDriver().addSignatureAndLogs(
-                        DataDriverConstant.LOCAL_EVIDENCE,
-                        hash,
-                        evidenceValue.getSigners(),
-                        evidenceValue.getSignatures(),
-                        evidenceValue.getLogs(),
-                        newTimestamp,
-                        newRevoked,
-                        evidenceValue.getExtra_key());
+        EvidenceLogValue evidenceLog = newEvidenceLog(hash, EvidenceLogValue.TYPE_REVOKE, WeIdUtils.getWeIdFromPrivateKey(privateKey), timestamp, String.valueOf(revokeStage? 1:0));
+        ResponseData<Integer> resp = getDataDriver().addEvidenceLog(DataDriverConstant.LOCAL_EVIDENCE_LOG, evidenceLog);
         if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
             logger.error("[revoke] update evidence to db failed.");
             throw new DatabaseException("database error!");
@@ -0,0 +1,94 @@
+package com.webank.weid.service.local;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.exception.DatabaseException;
+import com.webank.weid.suite.persistence.Persistence;
+import com.webank.weid.util.PropertyUtils;
+
+/**
+ * Hands out ids of one sequence, CPT, policy or presentation ids for example.
+ * Blocks of ids are reserved from the sequence table atomically, so processes sharing one
+ * database never get the same id. The ids left in a block when the process exits are skipped.
+ */
+public class IdSequencer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequencer.class);
+
+    private final String name;
+
+    private final IntSupplier initialValue;
+
+    private final int blockSize;
+
+    private volatile Block block;
+
+    /**
+     * Create the sequencer.
+     *
+     * @param name the sequence name
+     * @param initialValue the first id if the sequence does not exist yet
+     */
+    public IdSequencer(String name, IntSupplier initialValue) {
+        this.name = name;
+        this.initialValue = initialValue;
+        this.blockSize = Integer.parseInt(PropertyUtils.getProperty(
+            DataDriverConstant.SEQUENCE_BLOCK_SIZE,
+            DataDriverConstant.SEQUENCE_BLOCK_SIZE_DEFAULT_VALUE));
+    }
+
+    /**
+     * Get the next id, reserve a new block from the sequence table when the current one is used up.
+     *
+     * @param dataDriver the persistence of the sequence table
+     * @return the id
+     */
+    public int nextId(Persistence dataDriver) {
+        while (true) {
+            Block current = block;
+            if (current != null) {
+                int id = current.next.getAndIncrement();
+                if (id < current.limit) {
+                    return id;
+                }
+            }
+            synchronized (this) {
+                if (block == current) {
+                    block = reserve(dataDriver);
+                }
+            }
+        }
+    }
+
+    private Block reserve(Persistence dataDriver) {
+        ResponseData<Integer> resp = dataDriver.allocateSequence(
+            DataDriverConstant.LOCAL_SEQUENCE, name, initialValue.getAsInt(), blockSize);
+        if (resp.getErrorCode() != ErrorCode.SUCCESS.getCode() || resp.getResult() == null) {
+            logger.error("[reserve] reserve ids of sequence {} failed, error code: {}.",
+                name, resp.getErrorCode());
+            throw new DatabaseException("database error!");
+        }
+        logger.debug("[reserve] reserved ids [{}, {}) of sequence {}.",
+            resp.getResult(), resp.getResult() + blockSize, name);
+        return new Block(resp.getResult(), resp.getResult() + blockSize);
+    }
+
+    private static class Block {
+
+        private final AtomicInteger next;
+
+        private final int limit;
+
+        Block(int start, int limit) {
+            this.next = new AtomicInteger(start);
+            this.limit = limit;
+        }
+    }
+}
@@ -36,6 +36,15 @@ public class PolicyServiceLocal implements PolicyService {
 
     private static Persistence dataDriver;
     private static PersistenceType persistenceType;
+    private static final IdSequencer AUTHORITY_ISSUER_POLICY_ID = new IdSequencer(
+            "authority_issuer_policy_id",
+            () -> GlobalStatus.readStatusIfExists(CptServiceLocal.GLOBAL_STATUS_FILE).getAuthority_issuer_current_policy_id());
+    private static final IdSequencer NONE_AUTHORITY_ISSUER_POLICY_ID = new IdSequencer(
+            "none_authority_issuer_policy_id",
+            () -> GlobalStatus.readStatusIfExists(CptServiceLocal.GLOBAL_STATUS_FILE).getNone_authority_issuer_current_policy_id());
+    private static final IdSequencer PRESENTATION_ID = new IdSequencer(
+            "presentation_id",
+            () -> GlobalStatus.readStatusIfExists(CptServiceLocal.GLOBAL_STATUS_FILE).getPresentationId());
     WeIdServiceLocal weIdServiceLocal = new WeIdServiceLocal();
     AuthorityIssuerServiceLocal authorityIssuerServiceLocal = new AuthorityIssuerServiceLocal();
     CptServiceLocal cptServiceLocal = new CptServiceLocal();
@@ -46,6 +55,10 @@ public class PolicyServiceLocal implements PolicyService {
             persistenceType = PersistenceType.Mysql;
         } else if (type.equals("redis")) {
             persistenceType = PersistenceType.Redis;
+        } else if (type.equals("embedded")) {
+            persistenceType = PersistenceType.Embedded;
+        } else if (type.equals("memory")) {
+            persistenceType = PersistenceType.Memory;
         }
         if (dataDriver == null) {
             dataDriver = PersistenceFactory.build(persistenceType);
@@ -132,25 +145,14 @@ public class PolicyServiceLocal implements PolicyService {
     }
 
     public int getPolicyId(String address) {
-        GlobalStatus globalStatus = GlobalStatus.readStatusFromFile("global.status");
-        if(authorityIssuerServiceLocal.isAuthorityIssuer(address).getResult()){
-            int policyId = globalStatus.getAuthority_issuer_current_policy_id();
-            while (getDataDriver().getPolicy(DataDriverConstant.LOCAL_POLICY, policyId).getResult() != null) {
-                policyId++;
-            }
-            globalStatus.setAuthority_issuer_current_policy_id(policyId);
-            GlobalStatus.storeStatusToFile(globalStatus, "global.status");
-            if(policyId > CptServiceLocal.NONE_AUTHORITY_ISSUER_START_ID) policyId = 0;
-            return policyId;
-        } else {
-            int policyId = globalStatus.getNone_authority_issuer_current_policy_id();
-            while (getDataDriver().getPolicy(DataDriverConstant.LOCAL_POLICY, policyId).getResult() != null) {
-                policyId++;
-            }
-            globalStatus.setNone_authority_issuer_current_policy_id(policyId);
-            GlobalStatus.storeStatusToFile(globalStatus, "global.status");
-            return policyId;
+        IdSequencer sequencer = authorityIssuerServiceLocal.isAuthorityIssuer(address).getResult()
+                ? AUTHORITY_ISSUER_POLICY_ID : NONE_AUTHORITY_ISSUER_POLICY_ID;
+        int policyId = sequencer.nextId(getDataDriver());
+        while (getDataDriver().getPolicy(DataDriverConstant.LOCAL_POLICY, policyId).getResult() != null) {
+            policyId = sequencer.nextId(getDataDriver());
         }
+        if(sequencer == AUTHORITY_ISSUER_POLICY_ID && policyId > CptServiceLocal.NONE_AUTHORITY_ISSUER_START_ID) policyId = 0;
+        return policyId;
     }
 
     /**
@@ -233,13 +235,10 @@ public class PolicyServiceLocal implements PolicyService {
     }
 
     public int getPresentationId() {
-        GlobalStatus globalStatus = GlobalStatus.readStatusFromFile("global.status");
-        int presentationId = globalStatus.getPresentationId();
+        int presentationId = PRESENTATION_ID.nextId(getDataDriver());
         while (getDataDriver().getPresentation(DataDriverConstant.LOCAL_PRESENTATION, presentationId).getResult() != null) {
-            presentationId++;
+            presentationId = PRESENTATION_ID.nextId(getDataDriver());
         }
-        globalStatus.setPresentationId(presentationId);
-        GlobalStatus.storeStatusToFile(globalStatus, "global.status");
         return presentationId;
     }
 
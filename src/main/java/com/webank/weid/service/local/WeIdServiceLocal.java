@@ -13,6 +13,7 @@ import com.webank.weid.exception.DatabaseException;
 import com.webank.weid.suite.persistence.Persistence;
 import com.webank.weid.suite.persistence.PersistenceFactory;
 import com.webank.weid.suite.persistence.PersistenceType;
+import com.webank.weid.suite.persistence.WeIdDocumentValue;
 import com.webank.weid.util.PropertyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +21,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Component("weIdServiceLocal")
 public class WeIdServiceLocal implements WeIdService {
@@ -37,6 +39,10 @@ public class WeIdServiceLocal implements WeIdService {
             persistenceType = PersistenceType.Mysql;
         } else if (type.equals("redis")) {
             persistenceType = PersistenceType.Redis;
+        } else if (type.equals("embedded")) {
+            persistenceType = PersistenceType.Embedded;
+        } else if (type.equals("memory")) {
+            persistenceType = PersistenceType.Memory;
         }
         if (dataDriver == null) {
             dataDriver = PersistenceFactory.build(persistenceType);
@@ -64,6 +70,30 @@ public class WeIdServiceLocal implements WeIdService {
         }
     }
 
+    /**
+     * Check if several WeIdentity DID exist in one round trip.
+     *
+     * @param weIds the WeIdentity DID list
+     * @return the existence of each WeIdentity DID, in the order of weIds
+     */
+    public ResponseData<List<Boolean>> isWeIdExist(List<String> weIds) {
+        try {
+            ResponseData<Map<String, WeIdDocumentValue>> dbResp =
+                getDataDriver().getWeIdDocuments(DataDriverConstant.LOCAL_WEID_DOCUMENT, weIds);
+            if (dbResp.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(dbResp.getErrorCode()));
+            }
+            List<Boolean> result = new ArrayList<>(weIds.size());
+            for (String weId : weIds) {
+                result.add(dbResp.getResult().containsKey(weId));
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("[isWeIdExist] execute failed. Error message :{}", e);
+            return new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
+        }
+    }
+
     /**
      * Check if WeIdentity DID is deactivated on Chain.
      *
@@ -92,10 +122,6 @@ public class WeIdServiceLocal implements WeIdService {
                 return new ResponseData<>(false, ErrorCode.ILLEGAL_INPUT);
             }
             String weId = WeIdUtils.convertAddressToWeId(address);
-            //如果已经存在该weId则报错
-            if(this.isWeIdExist(weId).getResult()){
-                return new ResponseData<>(false, ErrorCode.WEID_ALREADY_EXIST);
-            }
             //创建weIdDocument插入db
             WeIdDocument weIdDocument = new WeIdDocument();
             weIdDocument.setId(weId);
@@ -111,11 +137,15 @@ public class WeIdServiceLocal implements WeIdService {
                 serList.add(serviceProperty);
             }
             weIdDocument.setService(serList);
+            //如果已经存在该weId则报错, 由存储在写入时判断, 不再单独查询
             ResponseData<Integer> resp =
-                    getDataDriver().addWeId(
+                    getDataDriver().addWeIdIfAbsent(
                             DataDriverConstant.LOCAL_WEID_DOCUMENT,
                             weId,
                             weIdDocument.toJson());
+            if (resp.getErrorCode().intValue() == ErrorCode.WEID_ALREADY_EXIST.getCode()) {
+                return new ResponseData<>(false, ErrorCode.WEID_ALREADY_EXIST);
+            }
             if (resp.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
                 logger.error("[createWeId] save weIdDocument to db failed.");
                 throw new DatabaseException("database error!");
@@ -214,6 +244,25 @@ public class WeIdServiceLocal implements WeIdService {
         }
     }
 
+    /**
+     * 按weId顺序分页查询, 从上一页最后一个weId之后开始.
+     *
+     * @param afterWeId 上一页最后一个weId, 第一页传null
+     * @param num 本页最大数量
+     * @return 返回weId列表
+     */
+    public ResponseData<List<String>> getWeIdListAfter(String afterWeId, Integer num) {
+        try {
+            return getDataDriver().getWeIdListAfter(
+                    DataDriverConstant.LOCAL_WEID_DOCUMENT,
+                    afterWeId,
+                    num);
+        } catch (Exception e) {
+            logger.error("[getWeIdListAfter] getWeIdListAfter has error, Error Message：{}", e);
+            return new ResponseData<>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
     @Override
     public ResponseData<Integer> getWeIdCount() {
         try {
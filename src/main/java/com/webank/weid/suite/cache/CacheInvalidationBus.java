@@ -0,0 +1,94 @@
+package com.webank.weid.suite.cache;
+
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.BaseStatusListener;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.Kryo5Codec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 缓存失效广播, 通过redis发布订阅把缓存节点的删除操作通知到所有SDK实例,
+ * 收到通知的实例只失效本地一级缓存, 二级缓存已由发起删除的实例处理.
+ * 发布订阅不保证送达, 订阅断开期间的通知会丢失, 因此每次订阅成功后清空本地一级缓存.
+ */
+class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final String TOPIC = "weid_cache:invalidation";
+
+    private static final Codec CODEC = new Kryo5Codec();
+
+    //当前实例的标识, 用于忽略自己发布的通知
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final RTopic topic;
+
+    /**
+     * 创建失效广播并订阅通知.
+     * @param client redis客户端
+     * @param invalidator 失效本地一级缓存, 参数为缓存名和数据主键, 主键为null时失效整个缓存
+     * @param onSubscribe 订阅成功后执行
+     */
+    CacheInvalidationBus(
+        RedissonClient client,
+        BiConsumer<String, String> invalidator,
+        Runnable onSubscribe) {
+
+        this.topic = client.getTopic(TOPIC, CODEC);
+        topic.addListener(new BaseStatusListener() {
+            @Override
+            public void onSubscribe(String channel) {
+                logger.info("[onSubscribe] subscribe the cache invalidation channel {}.", channel);
+                onSubscribe.run();
+            }
+        });
+        topic.addListener(Invalidation.class, (channel, msg) -> {
+            if (!instanceId.equals(msg.instanceId)) {
+                invalidator.accept(msg.cacheName, msg.key);
+            }
+        });
+    }
+
+    /**
+     * 通知其他实例失效缓存数据, 异步发送, 发送失败只记录日志.
+     * @param cacheName 缓存名
+     * @param key 数据主键, 为null时失效整个缓存
+     */
+    void publish(String cacheName, String key) {
+        try {
+            topic.publishAsync(new Invalidation(instanceId, cacheName, key))
+                .whenComplete((receivers, e) -> {
+                    if (e != null) {
+                        logger.error("[publish] publish the invalidation of cache {} failed.",
+                            cacheName, e);
+                    }
+                });
+        } catch (RuntimeException e) {
+            logger.error("[publish] publish the invalidation of cache {} failed.", cacheName, e);
+        }
+    }
+
+    /**
+     * 失效通知.
+     */
+    static final class Invalidation {
+
+        private String instanceId;
+
+        private String cacheName;
+
+        private String key;
+
+        Invalidation(String instanceId, String cacheName, String key) {
+            this.instanceId = instanceId;
+            this.cacheName = cacheName;
+            this.key = key;
+        }
+    }
+}
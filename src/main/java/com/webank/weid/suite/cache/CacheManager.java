@@ -2,16 +2,28 @@
 
 package com.webank.weid.suite.cache;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.suite.persistence.redis.RedissonConfig;
 import com.webank.weid.util.PropertyUtils;
 
 
@@ -22,6 +34,8 @@ import com.webank.weid.util.PropertyUtils;
  */
 public class CacheManager {
 
+    private static final Logger logger = LoggerFactory.getLogger(CacheManager.class);
+
     //全局缓存上下文
     private static final ConcurrentHashMap<String, CacheNode<Object>> context = 
         new ConcurrentHashMap<String, CacheNode<Object>>();
@@ -29,6 +43,19 @@ public class CacheManager {
     //默认缓存个数
     private static final Integer MAX_SIZE = 1000;
     private static final String CACHE_MAXSIZE_KEY = "caffeineCache.maximumSize.";
+    private static final String CACHE_TIMEOUT_KEY = "caffeineCache.expireAfterWrite.";
+    private static final String CACHE_REDIS_KEY = "caffeineCache.redis.";
+    private static final String CACHE_ACCESS_TIMEOUT_KEY = "caffeineCache.expireAfterAccess.";
+    private static final String CACHE_REFRESH_KEY = "caffeineCache.refreshAfterWrite.";
+    private static final String CACHE_MAXWEIGHT_KEY = "caffeineCache.maximumWeight.";
+    private static final String CACHE_INVALIDATION_KEY = "caffeineCache.invalidation.enable";
+
+    //二级缓存共用的redis客户端, 首次注册二级缓存节点时创建
+    private static volatile RedissonClient redisClient;
+
+    //跨实例的缓存失效广播, 未启用或redis不可用时为null
+    private static volatile CacheInvalidationBus invalidationBus;
+    private static boolean invalidationInited = false;
 
     /**
      * 根据缓存名获取缓存节点最大缓存个数，如果没有配置则使用默认大小配置.
@@ -43,15 +70,86 @@ public class CacheManager {
         return MAX_SIZE;
     }
     
+    /**
+     * 根据缓存名获取缓存节点超时时间(毫秒)，如果没有配置则使用注册时的超时时间.
+     * @param cacheName 缓存名
+     * @param timeout 注册时的超时时间
+     * @return
+     */
+    private static Long getTimeout(String cacheName, Long timeout) {
+        String expireAfterWrite = PropertyUtils.getProperty(CACHE_TIMEOUT_KEY + cacheName);
+        if (StringUtils.isNotBlank(expireAfterWrite)) {
+            return Long.parseLong(expireAfterWrite.trim());
+        }
+        return timeout;
+    }
+    
+    /**
+     * 根据缓存名获取毫秒配置项, 如果没有配置则返回0.
+     * @param key 配置项前缀
+     * @param cacheName 缓存名
+     * @return
+     */
+    private static long getMillis(String key, String cacheName) {
+        String millis = PropertyUtils.getProperty(key + cacheName);
+        if (StringUtils.isNotBlank(millis)) {
+            return Long.parseLong(millis.trim());
+        }
+        return 0L;
+    }
+
+    /**
+     * 根据缓存名获取缓存节点最大权重，如果没有配置则使用注册时的最大权重.
+     * @param cacheName 缓存名
+     * @param maximumWeight 注册时的最大权重
+     * @return
+     */
+    private static Long getMaxWeight(String cacheName, Long maximumWeight) {
+        String weight = PropertyUtils.getProperty(CACHE_MAXWEIGHT_KEY + cacheName);
+        if (StringUtils.isNotBlank(weight)) {
+            return Long.parseLong(weight.trim());
+        }
+        return maximumWeight;
+    }
+
+    /**
+     * 根据缓存名判断是否启用redis二级缓存, 通过caffeineCache.redis.缓存名=true开启.
+     * @param cacheName 缓存名
+     * @return
+     */
+    private static boolean isRedisEnabled(String cacheName) {
+        return Boolean.parseBoolean(
+            StringUtils.trim(PropertyUtils.getProperty(CACHE_REDIS_KEY + cacheName)));
+    }
+
+    /**
+     * 获取二级缓存使用的redis客户端, 创建失败时返回null.
+     * @return 返回redis客户端
+     */
+    private static RedissonClient getRedisClient() {
+        if (redisClient == null) {
+            synchronized (CacheManager.class) {
+                if (redisClient == null) {
+                    try {
+                        redisClient = new RedissonConfig().redismodelRecognition();
+                    } catch (RuntimeException | ExceptionInInitializerError e) {
+                        logger.error("[getRedisClient] create the redis client failed.", e);
+                    }
+                }
+            }
+        }
+        return redisClient;
+    }
+
     /**
      * 注册缓存节点,如果存在则直接返回,不存在则注册.
      * @param <T> 需要存放的数据类型
      * @param cacheName 缓存名
-     * @param timeout 超时时间
+     * @param timeout 超时时间, 可通过caffeineCache.expireAfterWrite.缓存名覆盖
      * @return 返回缓存节点
      */
     public static <T> CacheNode<T> registerCacheNode(String cacheName, Long timeout) {
-        return registerCacheNode(cacheName, timeout, getMaxSize(cacheName));
+        return registerCacheNode(cacheName, getTimeout(cacheName, timeout), getMaxSize(cacheName));
     }
     
     /**
@@ -62,19 +160,79 @@ public class CacheManager {
      * @param maximumSize 最大缓存大小
      * @return 返回缓存节点
      */
-    public static <T> CacheNode<T> registerCacheNode(
+    public static synchronized <T> CacheNode<T> registerCacheNode(
         String cacheName, 
         Long timeout, 
         Integer maximumSize) {
         
-        CacheNode<Object> cacheNode = context.get(cacheName);
-        if (cacheNode != null) {
-            throw new WeIdBaseException("the cacheName is registed, cacheName= " + cacheName);
-        }
-        cacheNode = initCache(cacheName, timeout, maximumSize);
+        checkRegistered(cacheName);
+        initInvalidationBus();
+        Cache<String, Object> cache = newBuilder(cacheName, timeout)
+                .maximumSize(maximumSize)
+                .build();
+        CacheNode<Object> cacheNode = new CacheNode<>(cacheName, cache, newTier(cacheName, timeout));
+        context.put(cacheName, cacheNode);
         CacheNode<T> node = (CacheNode<T>)cacheNode;
         return node;
     }
+
+    /**
+     * 注册自动加载的缓存节点, 最大缓存个数同registerCacheNode.
+     * 可通过caffeineCache.refreshAfterWrite.缓存名配置刷新间隔(毫秒), 数据写入超过该间隔后,
+     * 下次读取时先返回旧数据, 同时在后台重新加载.
+     * @param <T> 需要存放的数据类型
+     * @param cacheName 缓存名
+     * @param timeout 超时时间, 可通过caffeineCache.expireAfterWrite.缓存名覆盖
+     * @param loader 加载方法, 参数为数据主键
+     * @return 返回缓存节点
+     */
+    public static <T> LoadingCacheNode<T> registerLoadingCacheNode(
+        String cacheName,
+        Long timeout,
+        Function<String, T> loader) {
+
+        return registerLoadingCacheNode(cacheName, timeout, loader, null, null);
+    }
+
+    /**
+     * 注册按权重限制大小的自动加载缓存节点, 适用于数据大小差异较大的场景.
+     * @param <T> 需要存放的数据类型
+     * @param cacheName 缓存名
+     * @param timeout 超时时间, 可通过caffeineCache.expireAfterWrite.缓存名覆盖
+     * @param loader 加载方法, 参数为数据主键
+     * @param weigher 数据权重计算方法, 为null时按个数限制
+     * @param maximumWeight 最大权重, 可通过caffeineCache.maximumWeight.缓存名覆盖
+     * @return 返回缓存节点
+     */
+    public static synchronized <T> LoadingCacheNode<T> registerLoadingCacheNode(
+        String cacheName,
+        Long timeout,
+        Function<String, T> loader,
+        ToIntFunction<T> weigher,
+        Long maximumWeight) {
+
+        checkRegistered(cacheName);
+        initInvalidationBus();
+        Long expireAfterWrite = getTimeout(cacheName, timeout);
+        Caffeine<Object, Object> builder = newBuilder(cacheName, expireAfterWrite);
+        long refreshAfterWrite = getMillis(CACHE_REFRESH_KEY, cacheName);
+        if (refreshAfterWrite > 0) {
+            builder.refreshAfterWrite(refreshAfterWrite, TimeUnit.MILLISECONDS);
+        }
+        if (weigher != null) {
+            builder.maximumWeight(getMaxWeight(cacheName, maximumWeight))
+                .weigher((String key, T value) -> weigher.applyAsInt(value));
+        } else {
+            builder.maximumSize(getMaxSize(cacheName));
+        }
+        RedisCacheTier<T> tier = newTier(cacheName, expireAfterWrite);
+        AtomicLong removals = new AtomicLong();
+        LoadingCache<String, T> cache =
+            builder.build(LoadingCacheNode.newLoader(loader, tier, removals));
+        LoadingCacheNode<T> node = new LoadingCacheNode<>(cacheName, cache, tier, removals);
+        context.put(cacheName, (CacheNode<Object>) (CacheNode<?>) node);
+        return node;
+    }
     
     /**
      * 失效缓存数据.
@@ -85,25 +243,105 @@ public class CacheManager {
             entry.getValue().removeAll();
         }
     }
-    
+
+    /**
+     * 获取各缓存节点的命中统计, 用于根据命中率调整缓存大小和超时时间.
+     * @return 缓存名到统计快照的映射
+     */
+    public static Map<String, CacheStats> getMetrics() {
+        Map<String, CacheStats> metrics = new LinkedHashMap<String, CacheStats>();
+        for (Entry<String, CacheNode<Object>> entry : context.entrySet()) {
+            metrics.put(entry.getKey(), entry.getValue().getStats());
+        }
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * 通知其他实例失效缓存数据, 未启用失效广播时不做处理.
+     * @param cacheName 缓存名
+     * @param key 数据主键, 为null时失效整个缓存
+     */
+    static void publishInvalidation(String cacheName, String key) {
+        CacheInvalidationBus bus = invalidationBus;
+        if (bus != null) {
+            bus.publish(cacheName, key);
+        }
+    }
+
+    /**
+     * 首次注册缓存节点时, 根据caffeineCache.invalidation.enable创建失效广播.
+     */
+    private static synchronized void initInvalidationBus() {
+        if (invalidationInited) {
+            return;
+        }
+        invalidationInited = true;
+        if (!Boolean.parseBoolean(
+            StringUtils.trim(PropertyUtils.getProperty(CACHE_INVALIDATION_KEY)))) {
+            return;
+        }
+        RedissonClient client = getRedisClient();
+        if (client == null) {
+            logger.error("[initInvalidationBus] the redis is unavailable, "
+                + "the cache invalidation will not be broadcast.");
+            return;
+        }
+        try {
+            invalidationBus = new CacheInvalidationBus(client, CacheManager::invalidateLocal,
+                () -> context.values().forEach(node -> node.invalidateLocal(null)));
+        } catch (RuntimeException e) {
+            logger.error("[initInvalidationBus] subscribe the cache invalidation failed.", e);
+        }
+    }
+
+    private static void invalidateLocal(String cacheName, String key) {
+        CacheNode<Object> node = context.get(cacheName);
+        if (node != null) {
+            node.invalidateLocal(key);
+        }
+    }
+
+    private static void checkRegistered(String cacheName) {
+        if (context.containsKey(cacheName)) {
+            throw new WeIdBaseException("the cacheName is registed, cacheName= " + cacheName);
+        }
+    }
+
     /**
-     * 根据缓存名和超时时间初始化缓存模块.
+     * 根据缓存名和超时时间创建缓存构造器, 并开启命中统计.
+     * 可通过caffeineCache.expireAfterAccess.缓存名配置数据未被访问的超时时间(毫秒).
      * @param cacheName 缓存名
      * @param timeout 超时时间
-     * @param maximumSize 缓存项大小
-     * @return 返回缓存节点对象
+     * @return 返回缓存构造器
      */
-    private static synchronized CacheNode<Object> initCache(
-        String cacheName, 
-        Long timeout, 
-        Integer maximumSize) {
-        
-        Cache<String, Object> cache = Caffeine.newBuilder()
+    private static Caffeine<Object, Object> newBuilder(String cacheName, Long timeout) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
                 .expireAfterWrite(timeout, TimeUnit.MILLISECONDS)
-                .maximumSize(maximumSize)
-                .build();
-        CacheNode<Object> node = new CacheNode<>(cacheName, cache);
-        context.put(cacheName, node);
-        return node;
+                .recordStats();
+        long expireAfterAccess = getMillis(CACHE_ACCESS_TIMEOUT_KEY, cacheName);
+        if (expireAfterAccess > 0) {
+            builder.expireAfterAccess(expireAfterAccess, TimeUnit.MILLISECONDS);
+        }
+        return builder;
+    }
+
+    /**
+     * 根据缓存名创建redis二级缓存, 两级缓存使用相同的超时时间.
+     * @param <T> 需要存放的数据类型
+     * @param cacheName 缓存名
+     * @param timeout 超时时间
+     * @return 未启用二级缓存或redis不可用时返回null
+     */
+    private static <T> RedisCacheTier<T> newTier(String cacheName, Long timeout) {
+        if (!isRedisEnabled(cacheName)) {
+            return null;
+        }
+        RedissonClient client = getRedisClient();
+        if (client == null) {
+            logger.error("[newTier] the redis of cache {} is unavailable, use local cache.",
+                cacheName);
+            return null;
+        }
+        return new RedisCacheTier<>(cacheName, client, timeout);
     }
 }
@@ -3,9 +3,13 @@
 package com.webank.weid.suite.cache;
 
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
 /**
  * 缓存节点.
+ * 配置了redis二级缓存时, 读取先查一级缓存, 未命中再查二级缓存并回填一级缓存,
+ * 写入和删除同时作用于两级缓存.
+ * 启用失效广播时, 删除操作会通知其他实例失效各自的一级缓存.
  * @author v_wbgyang
  *
  * @param <T> 节点存放的对象泛型
@@ -15,29 +19,75 @@ public class CacheNode<T> {
     private Cache<String, T> cache;
     
     private String cacheName;
+
+    //redis二级缓存, 未启用时为null
+    private RedisCacheTier<T> tier;
     
     CacheNode(String cacheName, Cache<String, T> cache) {
+        this(cacheName, cache, null);
+    }
+
+    CacheNode(String cacheName, Cache<String, T> cache, RedisCacheTier<T> tier) {
         this.cacheName = cacheName;
         this.cache = cache;
+        this.tier = tier;
     }
     
     public void put(String key, T t) {
         cache.put(key, t);
+        if (tier != null) {
+            tier.put(key, t);
+        }
     }
     
     public T get(String key) {
-        return cache.getIfPresent(key);
+        T t = cache.getIfPresent(key);
+        if (t == null && tier != null) {
+            t = tier.get(key);
+            if (t != null) {
+                cache.put(key, t);
+            }
+        }
+        return t;
     }
     
     public void remove(String key) {
         cache.invalidate(key);
+        if (tier != null) {
+            tier.remove(key);
+        }
+        CacheManager.publishInvalidation(cacheName, key);
     }
     
     public void removeAll() {
         cache.invalidateAll();
+        if (tier != null) {
+            tier.removeAll();
+        }
+        CacheManager.publishInvalidation(cacheName, null);
+    }
+
+    /**
+     * 只失效本地一级缓存, 用于处理其他实例的失效通知.
+     * @param key 数据主键, 为null时失效整个缓存
+     */
+    void invalidateLocal(String key) {
+        if (key == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(key);
+        }
     }
     
     public String getCacheName() {
         return cacheName;
     }
+
+    /**
+     * 获取一级缓存的命中统计.
+     * @return 返回统计快照
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
 }
@@ -0,0 +1,123 @@
+package com.webank.weid.suite.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 存在性过滤器, 基于布隆过滤器判断数据一定不存在, 在查询存储前拦截不存在的数据.
+ * 过滤器需要先由全量数据构建, 构建完成前所有数据都视为可能存在.
+ * 运行期间新增的数据通过put加入, 重建期间新增的数据同时加入正在构建的过滤器.
+ */
+public class ExistenceFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExistenceFilter.class);
+
+    private final String name;
+
+    private final int expectedInsertions;
+
+    private final double fpp;
+
+    /**
+     * 当前使用的过滤器, 未构建完成时为null.
+     */
+    private volatile BloomFilter<CharSequence> filter;
+
+    /**
+     * 正在重建的过滤器, 不在重建时为null.
+     */
+    private volatile BloomFilter<CharSequence> building;
+
+    /**
+     * 创建存在性过滤器.
+     * @param name 过滤器名称
+     * @param expectedInsertions 预计数据量
+     * @param fpp 误判率, 即不存在的数据被判断为可能存在的概率
+     */
+    public ExistenceFilter(String name, int expectedInsertions, double fpp) {
+        this.name = name;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+    }
+
+    /**
+     * 数据是否可能存在, 返回false时数据一定不存在.
+     * @param key 数据主键
+     * @return 过滤器未构建完成或数据可能存在时返回true
+     */
+    public boolean mightContain(String key) {
+        BloomFilter<CharSequence> current = filter;
+        return current == null || current.mightContain(key);
+    }
+
+    /**
+     * 加入新增的数据.
+     * @param key 数据主键
+     */
+    public void put(String key) {
+        BloomFilter<CharSequence> current = filter;
+        if (current != null) {
+            current.put(key);
+        }
+        BloomFilter<CharSequence> next = building;
+        if (next != null) {
+            next.put(key);
+        }
+    }
+
+    /**
+     * 由全量数据重建过滤器, 重建失败时继续使用原过滤器.
+     * @param loader 将全量数据逐个交给参数中的消费者, 全部加载成功返回true
+     * @return 重建成功返回true
+     */
+    public synchronized boolean rebuild(Function<Consumer<String>, Boolean> loader) {
+        BloomFilter<CharSequence> next = BloomFilter.create(
+            Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, fpp);
+        building = next;
+        try {
+            if (!Boolean.TRUE.equals(loader.apply(next::put))) {
+                logger.error("[rebuild] load the data of filter {} failed.", name);
+                return false;
+            }
+            filter = next;
+            logger.info("[rebuild] the filter {} is rebuilt with about {} items.",
+                name, next.approximateElementCount());
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("[rebuild] rebuild the filter {} with exception.", name, e);
+            return false;
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * 在后台线程中立即构建过滤器, 之后按间隔定期重建, 使其他节点新增的数据在重建后可见.
+     * @param interval 重建间隔(毫秒), 不大于0时只构建一次
+     * @param loader 全量数据加载方法, 同rebuild
+     */
+    public void scheduleRebuild(long interval, Function<Consumer<String>, Boolean> loader) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "weid-existence-filter-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        if (interval > 0) {
+            executor.scheduleWithFixedDelay(
+                () -> rebuild(loader), 0L, interval, TimeUnit.MILLISECONDS);
+        } else {
+            executor.execute(() -> rebuild(loader));
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.webank.weid.suite.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+/**
+ * 自动加载的缓存节点, 未命中时由注册时的加载方法加载数据并放入缓存.
+ * 同一个key的并发加载只执行一次, 其他线程等待该次加载的结果.
+ * 加载方法返回null时不缓存, 抛出的运行时异常直接抛给调用方.
+ * 后台刷新期间有数据被删除时丢弃刷新结果, 避免把删除前加载的旧数据重新放回两级缓存.
+ * 删除恰好发生在检查刷新结果之后时, caffeine 2.x仍会把旧数据写回一级缓存, 由超时时间兜底.
+ *
+ * @param <T> 节点存放的对象泛型
+ */
+public class LoadingCacheNode<T> extends CacheNode<T> {
+
+    private LoadingCache<String, T> cache;
+
+    //删除次数, 与加载器共享, 用于识别与删除并发的后台刷新
+    private AtomicLong removals;
+
+    LoadingCacheNode(
+        String cacheName,
+        LoadingCache<String, T> cache,
+        RedisCacheTier<T> tier,
+        AtomicLong removals) {
+
+        super(cacheName, cache, tier);
+        this.cache = cache;
+        this.removals = removals;
+    }
+
+    /**
+     * 获取数据, 依次查询一级缓存, redis二级缓存和加载方法.
+     * @param key 数据主键
+     * @return 返回数据, 加载方法返回null时为null
+     */
+    @Override
+    public T get(String key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public void remove(String key) {
+        removals.incrementAndGet();
+        super.remove(key);
+    }
+
+    @Override
+    public void removeAll() {
+        removals.incrementAndGet();
+        super.removeAll();
+    }
+
+    @Override
+    void invalidateLocal(String key) {
+        removals.incrementAndGet();
+        super.invalidateLocal(key);
+    }
+
+    /**
+     * 将加载方法包装为caffeine的加载器, 首次加载先查二级缓存, 定时刷新时直接调用加载方法,
+     * 加载到的数据写入二级缓存. 刷新期间节点有删除时返回null, caffeine不会写回刷新结果.
+     * @param <T> 节点存放的对象泛型
+     * @param loader 加载方法
+     * @param tier redis二级缓存, 未启用时为null
+     * @param removals 节点的删除次数
+     * @return 返回加载器
+     */
+    static <T> CacheLoader<String, T> newLoader(
+        Function<String, T> loader,
+        RedisCacheTier<T> tier,
+        AtomicLong removals) {
+
+        return new CacheLoader<String, T>() {
+
+            @Override
+            public T load(String key) {
+                T t = tier == null ? null : tier.get(key);
+                return t != null ? t : fetch(key);
+            }
+
+            @Override
+            public T reload(String key, T oldValue) {
+                long before = removals.get();
+                T t = loader.apply(key);
+                if (removals.get() != before) {
+                    return null;
+                }
+                if (t != null && tier != null) {
+                    tier.put(key, t);
+                }
+                return t;
+            }
+
+            private T fetch(String key) {
+                T t = loader.apply(key);
+                if (t != null && tier != null) {
+                    tier.put(key, t);
+                }
+                return t;
+            }
+        };
+    }
+}
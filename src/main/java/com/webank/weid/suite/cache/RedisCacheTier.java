@@ -0,0 +1,81 @@
+package com.webank.weid.suite.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
+import org.redisson.codec.Kryo5Codec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * redis二级缓存, 由各SDK实例共享, 作为缓存节点中caffeine一级缓存的下一级.
+ * redis访问失败时只记录日志, 读取视为未命中, 缓存节点退化为一级缓存.
+ *
+ * @param <T> 缓存存放的对象泛型
+ */
+class RedisCacheTier<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheTier.class);
+
+    private static final String KEY_PREFIX = "weid_cache:";
+
+    /**
+     * kryo二进制编码, 比java序列化和json更紧凑, 缓存对象无需实现Serializable.
+     */
+    private static final Codec CODEC = new Kryo5Codec();
+
+    private final RedissonClient client;
+
+    private final String cacheName;
+
+    private final String keyPrefix;
+
+    private final long timeout;
+
+    RedisCacheTier(String cacheName, RedissonClient client, long timeout) {
+        this.client = client;
+        this.cacheName = cacheName;
+        this.keyPrefix = KEY_PREFIX + cacheName + ":";
+        this.timeout = timeout;
+    }
+
+    void put(String key, T t) {
+        try {
+            getBucket(key).set(t, timeout, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            logger.warn("[put] put the key {} of cache {} to redis failed.", key, cacheName, e);
+        }
+    }
+
+    T get(String key) {
+        try {
+            return getBucket(key).get();
+        } catch (RuntimeException e) {
+            logger.warn("[get] get the key {} of cache {} from redis failed.", key, cacheName, e);
+            return null;
+        }
+    }
+
+    void remove(String key) {
+        try {
+            getBucket(key).delete();
+        } catch (RuntimeException e) {
+            logger.error("[remove] remove the key {} of cache {} from redis failed.",
+                key, cacheName, e);
+        }
+    }
+
+    void removeAll() {
+        try {
+            client.getKeys().deleteByPattern(keyPrefix + "*");
+        } catch (RuntimeException e) {
+            logger.error("[removeAll] clear the cache {} in redis failed.", cacheName, e);
+        }
+    }
+
+    private RBucket<T> getBucket(String key) {
+        return client.getBucket(keyPrefix + key, CODEC);
+    }
+}
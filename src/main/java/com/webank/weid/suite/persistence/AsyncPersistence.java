@@ -0,0 +1,108 @@
+package com.webank.weid.suite.persistence;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.webank.weid.blockchain.protocol.base.WeIdDocument;
+import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+
+/**
+ * Asynchronous data access driver, the counterpart of {@link Persistence}.
+ * The point reads used together by the service layer are declared here so that independent
+ * lookups can be issued concurrently, any other operation is run through submit.
+ * The results are the same as the synchronous methods of {@link Persistence}.
+ */
+public interface AsyncPersistence {
+
+    /**
+     * query data from storage by id.
+     *
+     * @param domain the domain of the data.
+     * @param id the key of the data.
+     * @return the future of the data you stored.
+     */
+    public CompletableFuture<ResponseData<String>> get(String domain, String id);
+
+    /**
+     * query weIdDocument by weid.
+     *
+     * @param domain the domain of the data.
+     * @param weId the weid of the document.
+     * @return the future of the weIdDocument.
+     */
+    public CompletableFuture<ResponseData<WeIdDocument>> getWeIdDocument(
+        String domain,
+        String weId);
+
+    /**
+     * query weIdDocument metadata by weid.
+     *
+     * @param domain the domain of the data.
+     * @param weId the weid of the document.
+     * @return the future of the weIdDocument metadata.
+     */
+    public CompletableFuture<ResponseData<WeIdDocumentMetadata>> getMeta(
+        String domain,
+        String weId);
+
+    /**
+     * query cpt by cpt id.
+     *
+     * @param domain the domain of the data.
+     * @param cptId the id of the cpt.
+     * @return the future of the cpt.
+     */
+    public CompletableFuture<ResponseData<CptValue>> getCpt(String domain, int cptId);
+
+    /**
+     * query policy by policy id.
+     *
+     * @param domain the domain of the data.
+     * @param policyId the id of the policy.
+     * @return the future of the policy.
+     */
+    public CompletableFuture<ResponseData<PolicyValue>> getPolicy(String domain, int policyId);
+
+    /**
+     * query authority issuer by weid.
+     *
+     * @param domain the domain of the data.
+     * @param weId the weid of the authority issuer.
+     * @return the future of the authority issuer.
+     */
+    public CompletableFuture<ResponseData<AuthorityIssuerInfo>> getAuthorityIssuerByWeId(
+        String domain,
+        String weId);
+
+    /**
+     * query role by weid.
+     *
+     * @param domain the domain of the data.
+     * @param weId the weid of the role.
+     * @return the future of the role.
+     */
+    public CompletableFuture<ResponseData<RoleValue>> getRole(String domain, String weId);
+
+    /**
+     * query evidence by hash.
+     *
+     * @param domain the domain of the data.
+     * @param hash the hash of the evidence.
+     * @return the future of the evidence.
+     */
+    public CompletableFuture<ResponseData<EvidenceValue>> getEvidenceByHash(
+        String domain,
+        String hash);
+
+    /**
+     * run any operation of the synchronous driver asynchronously,
+     * e.g. submit(persistence -&gt; persistence.add(domain, id, data)).
+     *
+     * @param operation the operation on the synchronous driver.
+     * @param <T> the result type of the operation.
+     * @return the future of the operation result.
+     */
+    public <T> CompletableFuture<ResponseData<T>> submit(
+        Function<Persistence, ResponseData<T>> operation);
+}
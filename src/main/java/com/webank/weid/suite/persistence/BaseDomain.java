@@ -2,7 +2,11 @@
 
 package com.webank.weid.suite.persistence;
 
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
@@ -29,6 +33,23 @@ public class BaseDomain {
      */
     public static final String DEFAULT_TABLE = "default_info";
 
+    /**
+     * 后续版本新增的本地表, 值为所依附的本地表和表名后缀.
+     * 沿用旧配置升级时这些表未配置, 使用所依附表的数据源, 表名为所依附表名加后缀.
+     */
+    private static final Map<String, String[]> DERIVED_DOMAINS;
+
+    static {
+        Map<String, String[]> derivedDomains = new HashMap<String, String[]>();
+        derivedDomains.put(DataDriverConstant.LOCAL_EVIDENCE_LOG,
+            new String[]{DataDriverConstant.LOCAL_EVIDENCE, "_log"});
+        derivedDomains.put(DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER,
+            new String[]{DataDriverConstant.LOCAL_SPECIFIC_ISSUER, "_member"});
+        derivedDomains.put(DataDriverConstant.LOCAL_SEQUENCE,
+            new String[]{DataDriverConstant.LOCAL_CPT, "_sequence"});
+        DERIVED_DOMAINS = Collections.unmodifiableMap(derivedDomains);
+    }
+
     /**
      * the domain key.
      */
@@ -54,6 +75,35 @@ public class BaseDomain {
      */
     public long timeout = 86400000L;
 
+    /**
+     * 获取domain的配置值, 后续版本新增的本地表未配置时由所依附表的配置推导.
+     *
+     * @param domainKey domain配置项
+     * @return 配置值, 未配置且无法推导时为null
+     */
+    public static String getDomainValue(String domainKey) {
+        String domainValue = PropertyUtils.getProperty(domainKey);
+        String[] derived = DERIVED_DOMAINS.get(domainKey);
+        if (StringUtils.isNotBlank(domainValue) || derived == null) {
+            return domainValue;
+        }
+        String parentValue = PropertyUtils.getProperty(derived[0]);
+        if (StringUtils.isBlank(parentValue)
+            || parentValue.split(VALUE_SPLIT_CHAR).length != 2) {
+            return domainValue;
+        }
+        return parentValue + derived[1];
+    }
+
+    /**
+     * 获取未配置时可以推导的domain配置项.
+     *
+     * @return domain配置项集合
+     */
+    public static Set<String> getDerivedDomainKeys() {
+        return DERIVED_DOMAINS.keySet();
+    }
+
     /**
      * resolve Domain Timeout.
      *
@@ -0,0 +1,60 @@
+package com.webank.weid.suite.persistence;
+
+import lombok.Data;
+
+/**
+ * 存证的追加记录, 每次追加日志或撤销都新增一条记录, 不修改已有记录.
+ */
+@Data
+public class EvidenceLogValue {
+
+    /**
+     * 追加日志的记录类型.
+     */
+    public static final int TYPE_LOG = 0;
+
+    /**
+     * 撤销或取消撤销的记录类型.
+     */
+    public static final int TYPE_REVOKE = 1;
+
+    /**
+     * 记录序号, 同一存证内按追加顺序递增.
+     */
+    private Long id;
+
+    /**
+     * hash of evidence.
+     */
+    private String hash;
+
+    /**
+     * 记录类型.
+     */
+    private int type;
+
+    /**
+     * signer of the record.
+     */
+    private String signer;
+
+    /**
+     * signature of the record, null for revoke record.
+     */
+    private String signature;
+
+    /**
+     * log of the record, null for revoke record.
+     */
+    private String log;
+
+    /**
+     * 记录的时间.
+     */
+    private String updated;
+
+    /**
+     * revoke stage of the signer after this record.
+     */
+    private String revoked;
+}
@@ -0,0 +1,154 @@
+package com.webank.weid.suite.persistence;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.webank.weid.blockchain.protocol.base.WeIdDocument;
+import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.util.PropertyUtils;
+
+/**
+ * 基于线程池的异步数据访问, 在专用线程上调用同步驱动, 用于mysql等只有阻塞接口的驱动.
+ * 线程池的线程数和等待队列均有上限, 队列满时由调用线程直接执行, 以此对调用方形成反压.
+ * 异步IO的结果通过{@link #handOff(CompletableFuture)}交给线程池完成, 调用方的回调在线程池上执行,
+ * 队列满时同样由完成IO的线程直接执行, 结果不会因队列满而丢失.
+ */
+public class ExecutorAsyncPersistence implements AsyncPersistence {
+
+    /**
+     * 所有异步驱动共用的线程池, 首次使用时创建.
+     */
+    private static volatile ThreadPoolExecutor executor;
+
+    private final Persistence persistence;
+
+    public ExecutorAsyncPersistence(Persistence persistence) {
+        this.persistence = persistence;
+    }
+
+    /**
+     * 获取异步调用使用的线程池.
+     *
+     * @return 返回线程池
+     */
+    protected static Executor getExecutor() {
+        return getPool();
+    }
+
+    /**
+     * 把异步IO的结果交给线程池完成, 调用方在返回的future上注册的回调不占用IO线程.
+     * 结果的转换应在交接之前完成, 队列满时由完成IO的线程直接完成返回的future.
+     *
+     * @param future 异步IO的结果
+     * @param <T> 结果类型
+     * @return 返回在线程池上完成的future
+     */
+    protected static <T> CompletableFuture<T> handOff(CompletableFuture<T> future) {
+        return future.thenApplyAsync(Function.identity(), getPool());
+    }
+
+    private static ThreadPoolExecutor getPool() {
+        if (executor == null) {
+            synchronized (ExecutorAsyncPersistence.class) {
+                if (executor == null) {
+                    executor = newExecutor();
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static ThreadPoolExecutor newExecutor() {
+        int threads = Integer.parseInt(PropertyUtils.getProperty(
+            DataDriverConstant.ASYNC_THREADS,
+            DataDriverConstant.ASYNC_THREADS_DEFAULT_VALUE));
+        int queueSize = Integer.parseInt(PropertyUtils.getProperty(
+            DataDriverConstant.ASYNC_QUEUE_SIZE,
+            DataDriverConstant.ASYNC_QUEUE_SIZE_DEFAULT_VALUE));
+        AtomicInteger index = new AtomicInteger();
+        return new ThreadPoolExecutor(
+            Math.max(1, threads),
+            Math.max(1, threads),
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<Runnable>(Math.max(1, queueSize)),
+            runnable -> {
+                Thread thread = new Thread(runnable,
+                    "weid-persistence-async-" + index.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    /**
+     * 获取被包装的同步驱动.
+     *
+     * @return 返回同步驱动
+     */
+    public Persistence getPersistence() {
+        return persistence;
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<String>> get(String domain, String id) {
+        return submit(driver -> driver.get(domain, id));
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<WeIdDocument>> getWeIdDocument(
+        String domain,
+        String weId) {
+        return submit(driver -> driver.getWeIdDocument(domain, weId));
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<WeIdDocumentMetadata>> getMeta(
+        String domain,
+        String weId) {
+        return submit(driver -> driver.getMeta(domain, weId));
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<CptValue>> getCpt(String domain, int cptId) {
+        return submit(driver -> driver.getCpt(domain, cptId));
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<PolicyValue>> getPolicy(String domain, int policyId) {
+        return submit(driver -> driver.getPolicy(domain, policyId));
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<AuthorityIssuerInfo>> getAuthorityIssuerByWeId(
+        String domain,
+        String weId) {
+        return submit(driver -> driver.getAuthorityIssuerByWeId(domain, weId));
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<RoleValue>> getRole(String domain, String weId) {
+        return submit(driver -> driver.getRole(domain, weId));
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<EvidenceValue>> getEvidenceByHash(
+        String domain,
+        String hash) {
+        return submit(driver -> driver.getEvidenceByHash(domain, hash));
+    }
+
+    @Override
+    public <T> CompletableFuture<ResponseData<T>> submit(
+        Function<Persistence, ResponseData<T>> operation) {
+        return CompletableFuture.supplyAsync(() -> operation.apply(persistence), getExecutor());
+    }
+}
@@ -4,6 +4,7 @@ package com.webank.weid.suite.persistence;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import com.webank.weid.blockchain.protocol.base.CptBaseInfo;
 import com.webank.weid.blockchain.protocol.base.WeIdDocument;
@@ -46,6 +47,15 @@ public interface Persistence {
      */
     public ResponseData<String> get(String domain, String id);
 
+    /**
+     * query several data from storage by ids, the missing or expired data is not returned.
+     *
+     * @param domain the domain of the data.
+     * @param ids the keys of the data.
+     * @return the data you stored, keyed by id.
+     */
+    public ResponseData<Map<String, String>> batchGet(String domain, List<String> ids);
+
     /**
      * delete data by id.
      *
@@ -75,6 +85,15 @@ public interface Persistence {
      */
     public ResponseData<Integer> addOrUpdate(String domain, String id, String data);
 
+    /**
+     * batch add data to storage if not exist, others for update.
+     *
+     * @param domain the domain of the data.
+     * @param keyValueList list of id-data.
+     * @return the status of each row in the iteration order of keyValueList, 1 for success.
+     */
+    public ResponseData<List<Integer>> batchAddOrUpdate(String domain, Map<String, String> keyValueList);
+
     /**
      * add transaction to storage.
      *
@@ -82,6 +101,14 @@ public interface Persistence {
      * @return execute status of the "addTransaction" operation.
      */
     public ResponseData<Integer> addTransaction(TransactionArgs transactionArgs);
+
+    /**
+     * batch add transaction to storage.
+     *
+     * @param transactionArgsList the transaction info list.
+     * @return the status of each transaction, 1 for success.
+     */
+    public ResponseData<List<Integer>> batchAddTransaction(List<TransactionArgs> transactionArgsList);
     /**
      * add data to storage.
      *
@@ -91,6 +118,15 @@ public interface Persistence {
      * @return execute status of the "add" operation.
      */
     public ResponseData<Integer> addWeId(String domain, String weId, String documentSchema);
+    /**
+     * add weIdDocument to storage only if the weId does not exist, in one round trip.
+     *
+     * @param domain the domain of the data.
+     * @param weId the key of the data.
+     * @param documentSchema which you want to store to the storage.
+     * @return execute status of the "add" operation, WEID_ALREADY_EXIST if the weId exists.
+     */
+    public ResponseData<Integer> addWeIdIfAbsent(String domain, String weId, String documentSchema);
     /**
      * add data to storage.
      *
@@ -100,6 +136,14 @@ public interface Persistence {
      * @return execute status of the "add" operation.
      */
     public ResponseData<Integer> updateWeId(String domain, String weId, String documentSchema);
+    /**
+     * batch add weIdDocument to storage if not exist, others for update.
+     *
+     * @param domain the domain of the data.
+     * @param weIdDocuments the weId and document_schema of each document.
+     * @return the status of each document, 1 for success.
+     */
+    public ResponseData<List<Integer>> batchAddOrUpdateWeIds(String domain, List<WeIdDocumentValue> weIdDocuments);
     /**
      * query WeIdDocumentMetadata from storage by id.
      *
@@ -108,6 +152,14 @@ public interface Persistence {
      * @return the data you stored.
      */
     public ResponseData<WeIdDocument> getWeIdDocument(String domain, String weId);
+    /**
+     * query several WeIdDocument from storage by weIds, the missing weId is not returned.
+     *
+     * @param domain the domain of the data.
+     * @param weIds the keys of the data.
+     * @return the data you stored, keyed by weId.
+     */
+    public ResponseData<Map<String, WeIdDocumentValue>> getWeIdDocuments(String domain, List<String> weIds);
     /**
      * query WeIdDocumentMetadata from storage by id.
      *
@@ -137,6 +189,25 @@ public interface Persistence {
      */
     public ResponseData<List<String>> getWeIdList(String domain, Integer first, Integer last);
 
+    /**
+     * get several weId after the given weId, ordered by weId.
+     *
+     * @param domain the domain of the data.
+     * @param afterWeId the last weId of the previous page, null for the first page.
+     * @param num the max amounts of weId.
+     * @return the weId list.
+     */
+    public ResponseData<List<String>> getWeIdListAfter(String domain, String afterWeId, Integer num);
+
+    /**
+     * scan all weId with a forward-only cursor, the cursor must be closed after use.
+     *
+     * @param domain the domain of the data.
+     * @param fetchSize the rows fetched from storage each time.
+     * @return the cursor of weId.
+     */
+    public ResponseData<PersistenceCursor<String>> scanWeIds(String domain, Integer fetchSize);
+
     /**
      * get total amounts of weId.
      *
@@ -165,6 +236,18 @@ public interface Persistence {
      * @return the data you stored.
      */
     public ResponseData<CptBaseInfo> addCpt(String domain, int cptId, String publisher, String description, String cptSchema, String cptSignature);
+    /**
+     * save Cpt to storage only if the cptId does not exist, in one round trip.
+     *
+     * @param domain the domain of the cpt.
+     * @param cptId the cptId.
+     * @param publisher the publisher of the cpt.
+     * @param description the description of the cpt.
+     * @param cptSchema the cptSchema of the cpt.
+     * @param cptSignature the cptSignature of the cpt.
+     * @return the data you stored, CPT_ALREADY_EXIST if the cptId exists.
+     */
+    public ResponseData<CptBaseInfo> addCptIfAbsent(String domain, int cptId, String publisher, String description, String cptSchema, String cptSignature);
     /**
      * query Policy from storage by policyId.
      *
@@ -216,6 +299,14 @@ public interface Persistence {
      * @return the data you stored.
      */
     public ResponseData<Integer> updateCpt(String domain, int cptId, int cptVersion, String publisher, String description, String cptSchema, String cptSignature);
+    /**
+     * batch add cpt to storage if not exist, others for update.
+     *
+     * @param domain the domain of the cpt.
+     * @param cpts the cpt list.
+     * @return the status of each cpt, 1 for success.
+     */
+    public ResponseData<List<Integer>> batchAddOrUpdateCpts(String domain, List<CptValue> cpts);
     /**
      * save Cpt to storage with cptId.
      *
@@ -244,6 +335,23 @@ public interface Persistence {
      * @return execute status of the "update" operation.
      */
     public ResponseData<List<Integer>> getCptIdList(String domain, Integer first, Integer last);
+    /**
+     * get several cptId after the given cptId, ordered by cptId.
+     *
+     * @param domain the domain of the data.
+     * @param afterCptId the last cptId of the previous page, null for the first page.
+     * @param num the max amounts of cptId.
+     * @return the cptId list.
+     */
+    public ResponseData<List<Integer>> getCptIdListAfter(String domain, Integer afterCptId, Integer num);
+    /**
+     * scan all cptId with a forward-only cursor, the cursor must be closed after use.
+     *
+     * @param domain the domain of the data.
+     * @param fetchSize the rows fetched from storage each time.
+     * @return the cursor of cptId.
+     */
+    public ResponseData<PersistenceCursor<Integer>> scanCptIds(String domain, Integer fetchSize);
     /**
      * get total amounts of cpt.
      *
@@ -260,6 +368,15 @@ public interface Persistence {
      * @return execute status of the "update" operation.
      */
     public ResponseData<List<Integer>> getPolicyIdList(String domain, Integer first, Integer last);
+    /**
+     * get several policyId after the given policyId, ordered by policyId.
+     *
+     * @param domain the domain of the data.
+     * @param afterPolicyId the last policyId of the previous page, null for the first page.
+     * @param num the max amounts of policyId.
+     * @return the policyId list.
+     */
+    public ResponseData<List<Integer>> getPolicyIdListAfter(String domain, Integer afterPolicyId, Integer num);
     /**
      * get total amounts of policy.
      *
@@ -298,6 +415,15 @@ public interface Persistence {
      */
     public ResponseData<AuthorityIssuerInfo> getAuthorityIssuerByWeId(String domain, String weId);
 
+    /**
+     * query several authority issuer by weIds, the missing weId is not returned.
+     *
+     * @param domain the domain of the data.
+     * @param weIds the keys of the data.
+     * @return the authority issuers, keyed by weId.
+     */
+    public ResponseData<Map<String, AuthorityIssuerInfo>> getAuthorityIssuersByWeIds(String domain, List<String> weIds);
+
     /**
      * query authority issuer by name.
      *
@@ -362,6 +488,15 @@ public interface Persistence {
      */
     public ResponseData<Integer> updateRole(String domain, String weId, Integer roleValue);
 
+    /**
+     * batch add role to storage if not exist, others for update.
+     *
+     * @param domain the domain of the data.
+     * @param roles the role list.
+     * @return the status of each role, 1 for success.
+     */
+    public ResponseData<List<Integer>> batchAddOrUpdateRoles(String domain, List<RoleValue> roles);
+
     /**
      * add SpecificType with typeName to storage.
      *
@@ -381,6 +516,15 @@ public interface Persistence {
      */
     public ResponseData<SpecificTypeValue> getSpecificType(String domain, String typeName);
 
+    /**
+     * query several SpecificType by typeNames, the missing typeName is not returned.
+     *
+     * @param domain the domain of the data.
+     * @param typeNames the typeNames of the SpecificType.
+     * @return the SpecificTypes, keyed by typeName.
+     */
+    public ResponseData<Map<String, SpecificTypeValue>> getSpecificTypes(String domain, List<String> typeNames);
+
     /**
      * remove authority issuer from storage.
      *
@@ -400,6 +544,58 @@ public interface Persistence {
      */
     public ResponseData<Integer> updateSpecificTypeFellow(String domain, String typeName, String fellow);
 
+    /**
+     * add an issuer to the members of specific type.
+     *
+     * @param domain the domain of the members.
+     * @param typeName the specific type name.
+     * @param issuer the issuer address.
+     * @return 1 if the issuer is added, 0 if the issuer is already a member.
+     */
+    public ResponseData<Integer> addSpecificTypeIssuer(String domain, String typeName, String issuer);
+
+    /**
+     * remove an issuer from the members of specific type.
+     *
+     * @param domain the domain of the members.
+     * @param typeName the specific type name.
+     * @param issuer the issuer address.
+     * @return 1 if the issuer is removed, 0 if the issuer is not a member.
+     */
+    public ResponseData<Integer> removeSpecificTypeIssuer(String domain, String typeName, String issuer);
+
+    /**
+     * check whether the issuer is a member of specific type.
+     *
+     * @param domain the domain of the members.
+     * @param typeName the specific type name.
+     * @param issuer the issuer address.
+     * @return true if the issuer is a member, false if not but the type has other members,
+     *     null if the type has no member.
+     */
+    public ResponseData<Boolean> isSpecificTypeIssuer(String domain, String typeName, String issuer);
+
+    /**
+     * get several members of specific type, ordered by the add order.
+     *
+     * @param domain the domain of the members.
+     * @param typeName the specific type name.
+     * @param first the index of the first member.
+     * @param num the max number of members.
+     * @return the issuer addresses.
+     */
+    public ResponseData<List<String>> getSpecificTypeIssuerList(
+        String domain, String typeName, Integer first, Integer num);
+
+    /**
+     * get the member count of specific type.
+     *
+     * @param domain the domain of the members.
+     * @param typeName the specific type name.
+     * @return the member count.
+     */
+    public ResponseData<Integer> getSpecificTypeIssuerCount(String domain, String typeName);
+
     /**
      * get total IssuerType.
      *
@@ -418,6 +614,16 @@ public interface Persistence {
      */
     public ResponseData<List<String>> getIssuerTypeList(String domain, Integer first, Integer last);
 
+    /**
+     * get several typeName after the given typeName, ordered by typeName.
+     *
+     * @param domain the domain of the data.
+     * @param afterTypeName the last typeName of the previous page, null for the first page.
+     * @param num the max amounts of typeName.
+     * @return the typeName list.
+     */
+    public ResponseData<List<String>> getIssuerTypeListAfter(String domain, String afterTypeName, Integer num);
+
     /**
      * add evidence with hashValue to storage.
      *
@@ -434,6 +640,23 @@ public interface Persistence {
      */
     public ResponseData<Integer> addEvidenceByHash(String domain, String hashValue, String signer, String signature, String log, String updated, String revoked, String extraKey, String group_id);
 
+    /**
+     * add evidence without extraKey to storage only if the hashValue does not exist,
+     * in one round trip.
+     *
+     * @param domain the domain of the data.
+     * @param hashValue the hashValue of the evidence.
+     * @param signer the signer of the evidence
+     * @param signature the signature of the evidence
+     * @param log the log of the evidence.
+     * @param updated the updated of the evidence.
+     * @param revoked the revoked of the evidence.
+     * @param group_id the group_id of the evidence.
+     * @return execute status of the "add" operation,
+     *     CREDENTIAL_EVIDENCE_ALREADY_EXISTS if the hashValue exists.
+     */
+    public ResponseData<Integer> addEvidenceByHashIfAbsent(String domain, String hashValue, String signer, String signature, String log, String updated, String revoked, String group_id);
+
     /**
      * query evidence by hash.
      *
@@ -443,6 +666,15 @@ public interface Persistence {
      */
     public ResponseData<EvidenceValue> getEvidenceByHash(String domain, String hash);
 
+    /**
+     * query several evidence by hashes, the missing hash is not returned.
+     *
+     * @param domain the domain of the data.
+     * @param hashes the keys of the data.
+     * @return the evidences, keyed by hash.
+     */
+    public ResponseData<Map<String, EvidenceValue>> getEvidenceByHashes(String domain, List<String> hashes);
+
     /**
      * update evidence with log and signature to storage.
      *
@@ -458,6 +690,15 @@ public interface Persistence {
      */
     public ResponseData<Integer> addSignatureAndLogs(String domain, String hashValue, String signer, String signature, String log, String updated, String revoked, String extraKey);
 
+    /**
+     * batch add evidence to storage if not exist, others for update.
+     *
+     * @param domain the domain of the data.
+     * @param evidences the evidence list.
+     * @return the status of each evidence, 1 for success.
+     */
+    public ResponseData<List<Integer>> batchAddOrUpdateEvidences(String domain, List<EvidenceValue> evidences);
+
     /**
      * query evidence by hash.
      *
@@ -466,4 +707,57 @@ public interface Persistence {
      * @return execute status of the "add" operation.
      */
     public ResponseData<EvidenceValue> getEvidenceByExtraKey(String domain, String extraKey);
+
+    /**
+     * append a log or revoke record of evidence to storage.
+     *
+     * @param domain the domain of the evidence records.
+     * @param evidenceLog the record.
+     * @return execute status of the "add" operation.
+     */
+    public ResponseData<Integer> addEvidenceLog(String domain, EvidenceLogValue evidenceLog);
+
+    /**
+     * query all records of evidence, ordered by the append order.
+     *
+     * @param domain the domain of the evidence records.
+     * @param hash the hash of the evidence.
+     * @return the records, empty if no record appended.
+     */
+    public ResponseData<List<EvidenceLogValue>> getEvidenceLogs(String domain, String hash);
+
+    /**
+     * update the extraKey of evidence.
+     *
+     * @param domain the domain of the data.
+     * @param hash the hash of the evidence.
+     * @param extraKey the new extraKey of the evidence.
+     * @return execute status of the "update" operation.
+     */
+    public ResponseData<Integer> updateEvidenceExtraKey(String domain, String hash, String extraKey);
+
+    /**
+     * reserve a block of ids from the sequence atomically.
+     *
+     * @param domain the domain of the sequences.
+     * @param name the sequence name.
+     * @param initialValue the first id if the sequence does not exist.
+     * @param blockSize the number of ids to reserve.
+     * @return the first id of the reserved block, the block is [result, result + blockSize).
+     */
+    public ResponseData<Integer> allocateSequence(
+        String domain, String name, Integer initialValue, Integer blockSize);
+
+    /**
+     * run several operations as one unit of work.
+     * the sql driver runs them on one connection per data source and commits once,
+     * all of them are rolled back if the work fails or returns an error code other than SUCCESS.
+     * a unit started inside another unit joins the outer one.
+     * the other drivers run the work directly, each operation is atomic by itself.
+     *
+     * @param work the operations on this driver.
+     * @param <T> the result type of the work.
+     * @return the result of the work, PERSISTENCE_EXECUTE_FAILED if the commit fails.
+     */
+    public <T> ResponseData<T> executeInUnit(Function<Persistence, ResponseData<T>> work);
 }
@@ -0,0 +1,18 @@
+package com.webank.weid.suite.persistence;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * 只进游标, 用于全表遍历时逐行读取数据, 使用完毕后必须关闭.
+ *
+ * @param <T> 游标返回的数据类型
+ */
+public interface PersistenceCursor<T> extends Iterator<T>, Closeable {
+
+    /**
+     * 关闭游标并释放底层资源.
+     */
+    @Override
+    void close();
+}
@@ -7,7 +7,10 @@ import org.slf4j.LoggerFactory;
 
 import com.webank.weid.blockchain.constant.ErrorCode;
 import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.suite.persistence.embedded.driver.EmbeddedDriver;
+import com.webank.weid.suite.persistence.embedded.driver.MemoryDriver;
 import com.webank.weid.suite.persistence.mysql.driver.MysqlDriver;
+import com.webank.weid.suite.persistence.redis.driver.RedisAsyncDriver;
 import com.webank.weid.suite.persistence.redis.driver.RedisDriver;
 
 /**
@@ -27,8 +30,16 @@ public class PersistenceFactory {
         return new RedisDriver();
     }
 
+    private static Persistence newEmbeddedDriver() {
+        return new EmbeddedDriver();
+    }
+
+    private static Persistence newMemoryDriver() {
+        return new MemoryDriver();
+    }
+
     /**
-     * 根据封装类型实例化对应的实例对象, 此方法目前支持Mysql, Redis.
+     * 根据封装类型实例化对应的实例对象, 此方法目前支持Mysql, Redis, Embedded, Memory.
      * @param persistenceType 封装类型枚举
      * @return 返回具体处理类型
      */
@@ -38,9 +49,25 @@ public class PersistenceFactory {
                 return newMysqlDriver();
             case Redis:
                 return newRedisDriver();
+            case Embedded:
+                return newEmbeddedDriver();
+            case Memory:
+                return newMemoryDriver();
             default:
                 logger.error("the type = {} unsupported.", persistenceType.name());
                 throw new WeIdBaseException(ErrorCode.THIS_IS_UNSUPPORTED);
         }
     }
+
+    /**
+     * 根据封装类型实例化对应的异步实例对象, Redis使用原生异步接口, 其他类型由线程池调用同步实例.
+     * @param persistenceType 封装类型枚举
+     * @return 返回具体处理类型
+     */
+    public static AsyncPersistence buildAsync(PersistenceType persistenceType) {
+        if (persistenceType == PersistenceType.Redis) {
+            return new RedisAsyncDriver();
+        }
+        return new ExecutorAsyncPersistence(build(persistenceType));
+    }
 }
@@ -3,5 +3,5 @@
 package com.webank.weid.suite.persistence;
 
 public enum PersistenceType {
-    Mysql, Redis
+    Mysql, Redis, Embedded, Memory
 }
@@ -0,0 +1,144 @@
+package com.webank.weid.suite.persistence.codec;
+
+import java.io.IOException;
+import java.util.Date;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.suite.persistence.DefaultValue;
+
+/**
+ * 紧凑的二进制数据编码器, 在两字节的格式头之后按protobuf的wire format写入各字段.
+ * 字符串字段带长度前缀, 时间字段为毫秒数的varint, 值为null的字段不写入.
+ */
+public class BinaryValueCodec implements ValueCodec {
+
+    public static final String NAME = "binary";
+
+    /**
+     * 格式头, 0xFE不会出现在UTF-8文本中, 因此不会与JSON格式混淆.
+     */
+    private static final byte MAGIC = (byte) 0xFE;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final int HEADER_LENGTH = 2;
+
+    private static final int FIELD_ID = 1;
+    private static final int FIELD_DATA = 2;
+    private static final int FIELD_CREATED = 3;
+    private static final int FIELD_UPDATED = 4;
+    private static final int FIELD_EXPIRE = 5;
+    private static final int FIELD_PROTOCOL = 6;
+    private static final int FIELD_VERSION = 7;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(DefaultValue value) {
+
+        int size = HEADER_LENGTH
+                + sizeOf(FIELD_ID, value.getId())
+                + sizeOf(FIELD_DATA, value.getData())
+                + sizeOf(FIELD_CREATED, value.getCreated())
+                + sizeOf(FIELD_UPDATED, value.getUpdated())
+                + sizeOf(FIELD_EXPIRE, value.getExpire())
+                + sizeOf(FIELD_PROTOCOL, value.getProtocol())
+                + sizeOf(FIELD_VERSION, value.getVersion());
+        byte[] bytes = new byte[size];
+        bytes[0] = MAGIC;
+        bytes[1] = FORMAT_VERSION;
+        CodedOutputStream output =
+                CodedOutputStream.newInstance(bytes, HEADER_LENGTH, size - HEADER_LENGTH);
+        try {
+            write(output, FIELD_ID, value.getId());
+            write(output, FIELD_DATA, value.getData());
+            write(output, FIELD_CREATED, value.getCreated());
+            write(output, FIELD_UPDATED, value.getUpdated());
+            write(output, FIELD_EXPIRE, value.getExpire());
+            write(output, FIELD_PROTOCOL, value.getProtocol());
+            write(output, FIELD_VERSION, value.getVersion());
+            output.checkNoSpaceLeft();
+        } catch (IOException e) {
+            throw new WeIdBaseException(ErrorCode.DATA_TYPE_CASE_ERROR);
+        }
+        return bytes;
+    }
+
+    @Override
+    public DefaultValue decode(byte[] bytes) {
+
+        DefaultValue value = new DefaultValue();
+        CodedInputStream input =
+                CodedInputStream.newInstance(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        try {
+            int tag;
+            while ((tag = input.readTag()) != 0) {
+                switch (WireFormat.getTagFieldNumber(tag)) {
+                    case FIELD_ID:
+                        value.setId(input.readStringRequireUtf8());
+                        break;
+                    case FIELD_DATA:
+                        value.setData(input.readStringRequireUtf8());
+                        break;
+                    case FIELD_CREATED:
+                        value.setCreated(new Date(input.readInt64()));
+                        break;
+                    case FIELD_UPDATED:
+                        value.setUpdated(new Date(input.readInt64()));
+                        break;
+                    case FIELD_EXPIRE:
+                        value.setExpire(new Date(input.readInt64()));
+                        break;
+                    case FIELD_PROTOCOL:
+                        value.setProtocol(input.readStringRequireUtf8());
+                        break;
+                    case FIELD_VERSION:
+                        value.setVersion(input.readStringRequireUtf8());
+                        break;
+                    default:
+                        //跳过新版本增加的字段
+                        input.skipField(tag);
+                }
+            }
+        } catch (IOException e) {
+            throw new WeIdBaseException(ErrorCode.DATA_TYPE_CASE_ERROR);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean accept(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH
+                && bytes[0] == MAGIC && bytes[1] == FORMAT_VERSION;
+    }
+
+    private static int sizeOf(int field, String value) {
+        return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+
+    private static int sizeOf(int field, Date value) {
+        return value == null ? 0 : CodedOutputStream.computeInt64Size(field, value.getTime());
+    }
+
+    private static void write(CodedOutputStream output, int field, String value)
+            throws IOException {
+        if (value != null) {
+            output.writeString(field, value);
+        }
+    }
+
+    private static void write(CodedOutputStream output, int field, Date value)
+            throws IOException {
+        if (value != null) {
+            output.writeInt64(field, value.getTime());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.webank.weid.suite.persistence.codec;
+
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.suite.persistence.DefaultValue;
+import com.webank.weid.util.DataToolUtils;
+
+/**
+ * JSON格式的数据编码器, 与旧版本保存的数据格式一致.
+ */
+public class JsonValueCodec implements ValueCodec {
+
+    public static final String NAME = "json";
+
+    private static final byte JSON_OBJECT_START = '{';
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(DefaultValue value) {
+        return DataToolUtils.serialize(value).getBytes(DataDriverConstant.STANDARDCHARSETS_UTF_8);
+    }
+
+    @Override
+    public DefaultValue decode(byte[] bytes) {
+        return DataToolUtils.deserialize(
+                new String(bytes, DataDriverConstant.STANDARDCHARSETS_UTF_8), DefaultValue.class);
+    }
+
+    @Override
+    public boolean accept(byte[] bytes) {
+        return bytes != null && bytes.length > 0 && bytes[0] == JSON_OBJECT_START;
+    }
+}
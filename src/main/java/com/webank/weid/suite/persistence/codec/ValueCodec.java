@@ -0,0 +1,40 @@
+package com.webank.weid.suite.persistence.codec;
+
+import com.webank.weid.suite.persistence.DefaultValue;
+
+/**
+ * 默认数据域的数据编码器, 负责DefaultValue与存储字节之间的转换.
+ */
+public interface ValueCodec {
+
+    /**
+     * 编码器名称, 与配置项redis.value_codec的取值一致.
+     *
+     * @return 编码器名称
+     */
+    String getName();
+
+    /**
+     * 编码数据.
+     *
+     * @param value 需要保存的数据
+     * @return 编码后的字节
+     */
+    byte[] encode(DefaultValue value);
+
+    /**
+     * 解码数据.
+     *
+     * @param bytes 编码后的字节
+     * @return 解码出来的数据
+     */
+    DefaultValue decode(byte[] bytes);
+
+    /**
+     * 判断字节是否为当前编码格式.
+     *
+     * @param bytes 保存的字节
+     * @return 是当前编码格式返回true
+     */
+    boolean accept(byte[] bytes);
+}
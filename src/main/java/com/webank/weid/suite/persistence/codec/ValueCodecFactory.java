@@ -0,0 +1,53 @@
+package com.webank.weid.suite.persistence.codec;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
+
+/**
+ * 数据编码器工厂, 根据名称得到相应的编码器.
+ */
+public class ValueCodecFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ValueCodecFactory.class);
+
+    private static final ValueCodec BINARY_CODEC = new BinaryValueCodec();
+
+    private static final ValueCodec JSON_CODEC = new JsonValueCodec();
+
+    private static final ValueCodec[] CODECS = {BINARY_CODEC, JSON_CODEC};
+
+    /**
+     * 根据名称得到编码器, 此方法目前支持binary, json.
+     *
+     * @param name 编码器名称
+     * @return 返回对应的编码器
+     */
+    public static ValueCodec build(String name) {
+        for (ValueCodec codec : CODECS) {
+            if (codec.getName().equalsIgnoreCase(StringUtils.trim(name))) {
+                return codec;
+            }
+        }
+        logger.error("the value codec = {} unsupported.", name);
+        throw new WeIdBaseException(ErrorCode.THIS_IS_UNSUPPORTED);
+    }
+
+    /**
+     * 根据保存的字节识别编码器, 用于读取以其他格式保存的数据.
+     *
+     * @param bytes 保存的字节
+     * @return 返回能解析该字节的编码器, 无法识别时为null
+     */
+    public static ValueCodec lookup(byte[] bytes) {
+        for (ValueCodec codec : CODECS) {
+            if (codec.accept(bytes)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+package com.webank.weid.suite.persistence.embedded;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import com.webank.weid.suite.persistence.PersistenceCursor;
+
+/**
+ * 基于主键顺序的游标, 以上一页最后一个主键为起点逐页读取.
+ *
+ * @param <T> 游标返回的数据类型
+ */
+class EmbeddedCursor<T> implements PersistenceCursor<T> {
+
+    private final EmbeddedExecutor executor;
+
+    private final int fetchSize;
+
+    private final boolean numeric;
+
+    private final Function<String, T> converter;
+
+    private Iterator<String> page;
+
+    private String last;
+
+    private boolean exhausted;
+
+    EmbeddedCursor(EmbeddedExecutor executor, int fetchSize, boolean numeric,
+                   Function<String, T> converter) {
+        this.executor = executor;
+        this.fetchSize = fetchSize;
+        this.numeric = numeric;
+        this.converter = converter;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (page != null && page.hasNext()) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        List<String> ids = numeric
+                ? executor.executeQueryAfter(
+                        last == null ? Double.NEGATIVE_INFINITY : Double.parseDouble(last),
+                        fetchSize).getResult()
+                : executor.executeQueryAfter(last, fetchSize).getResult();
+        if (ids.size() < fetchSize) {
+            exhausted = true;
+        }
+        page = ids.iterator();
+        return page.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        last = page.next();
+        return converter.apply(last);
+    }
+
+    @Override
+    public void close() {
+        exhausted = true;
+        page = null;
+    }
+}
@@ -0,0 +1,879 @@
+package com.webank.weid.suite.persistence.embedded;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.protocol.request.TransactionArgs;
+import com.webank.weid.suite.persistence.AuthorityIssuerInfo;
+import com.webank.weid.suite.persistence.CptValue;
+import com.webank.weid.suite.persistence.DefaultValue;
+import com.webank.weid.suite.persistence.EvidenceValue;
+import com.webank.weid.suite.persistence.PersistenceCursor;
+import com.webank.weid.suite.persistence.PolicyValue;
+import com.webank.weid.suite.persistence.PresentationValue;
+import com.webank.weid.suite.persistence.RoleValue;
+import com.webank.weid.suite.persistence.SpecificTypeValue;
+import com.webank.weid.suite.persistence.WeIdDocumentValue;
+import com.webank.weid.suite.persistence.redis.HashTableExecutor;
+import com.webank.weid.suite.persistence.redis.RedisExecutor;
+import com.webank.weid.suite.persistence.redis.RedisHashMapper;
+import com.webank.weid.util.DataToolUtils;
+
+/**
+ * 嵌入式存储操作辅助类, 数据布局与redis一致, 本地表的行保存为字段名与mysql列名一致的哈希.
+ * 写操作在存储的写锁内检查当前数据并生成日志记录, 读操作直接访问内存索引.
+ */
+public class EmbeddedExecutor implements HashTableExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedExecutor.class);
+
+    /**
+     * hash mapper for weIdDocument rows.
+     */
+    public static final RedisHashMapper<WeIdDocumentValue> WEID_DOCUMENT_MAPPER =
+            RedisExecutor.WEID_DOCUMENT_MAPPER;
+    /**
+     * hash mapper for cpt rows.
+     */
+    public static final RedisHashMapper<CptValue> CPT_MAPPER = RedisExecutor.CPT_MAPPER;
+    /**
+     * hash mapper for policy rows.
+     */
+    public static final RedisHashMapper<PolicyValue> POLICY_MAPPER = RedisExecutor.POLICY_MAPPER;
+    /**
+     * hash mapper for presentation rows.
+     */
+    public static final RedisHashMapper<PresentationValue> PRESENTATION_MAPPER =
+            RedisExecutor.PRESENTATION_MAPPER;
+    /**
+     * hash mapper for authority issuer rows.
+     */
+    public static final RedisHashMapper<AuthorityIssuerInfo> AUTHORITY_ISSUER_MAPPER =
+            RedisExecutor.AUTHORITY_ISSUER_MAPPER;
+    /**
+     * hash mapper for role rows.
+     */
+    public static final RedisHashMapper<RoleValue> ROLE_MAPPER = RedisExecutor.ROLE_MAPPER;
+    /**
+     * hash mapper for specific issuer type rows.
+     */
+    public static final RedisHashMapper<SpecificTypeValue> SPECIFIC_TYPE_MAPPER =
+            RedisExecutor.SPECIFIC_TYPE_MAPPER;
+    /**
+     * hash mapper for evidence rows.
+     */
+    public static final RedisHashMapper<EvidenceValue> EVIDENCE_MAPPER =
+            RedisExecutor.EVIDENCE_MAPPER;
+
+    private static final int SUCCESS_STATUS = DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS;
+
+    private static final int FAILED_STATUS = DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS;
+
+    private EmbeddedDomain embeddedDomain;
+
+    private EmbeddedStore store;
+
+    /**
+     * 非唯一二级索引的字段, 其余字段的二级索引均为唯一索引.
+     */
+    private Set<String> nonUniqueIndexes;
+
+    /**
+     * 根据domain创建嵌入式存储执行器.
+     *
+     * @param embeddedDomain the embeddedDomain
+     * @param store 数据所在的存储
+     */
+    public EmbeddedExecutor(EmbeddedDomain embeddedDomain, EmbeddedStore store) {
+        this(embeddedDomain, store, Collections.<String>emptySet());
+    }
+
+    /**
+     * 根据domain创建嵌入式存储执行器, 并指定本地表的非唯一二级索引.
+     *
+     * @param embeddedDomain the embeddedDomain
+     * @param store 数据所在的存储
+     * @param nonUniqueIndexes 非唯一二级索引的字段
+     */
+    public EmbeddedExecutor(EmbeddedDomain embeddedDomain, EmbeddedStore store,
+                            Set<String> nonUniqueIndexes) {
+
+        this.nonUniqueIndexes = nonUniqueIndexes;
+        if (embeddedDomain != null) {
+            this.embeddedDomain = embeddedDomain;
+        } else {
+            this.embeddedDomain = new EmbeddedDomain();
+        }
+        this.store = store;
+    }
+
+    /**
+     * 查询操作.
+     *
+     * @param tableDomain 数据所在的表
+     * @param datakey 查询所需要的数据
+     * @return 返回查询出来的单个数据, 不存在或已过期时为null
+     */
+    @Override
+    public ResponseData<DefaultValue> executeQuery(String tableDomain, String datakey) {
+
+        try {
+            return new ResponseData<DefaultValue>(
+                    store.table(tableDomain).getValue(datakey, System.currentTimeMillis()),
+                    ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Query data from {{}} with exception", tableDomain, e);
+            return new ResponseData<DefaultValue>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 批量查询操作.
+     *
+     * @param tableDomain 数据所在的表
+     * @param dataKeys 查询所需要的数据
+     * @return 返回查询出来的数据, 与dataKeys顺序一致, 不存在的数据为null
+     */
+    @Override
+    public ResponseData<List<DefaultValue>> executeBatchQuery(String tableDomain,
+                                                              List<String> dataKeys) {
+
+        try {
+            EmbeddedTable table = store.table(tableDomain);
+            long now = System.currentTimeMillis();
+            List<DefaultValue> dataList = new ArrayList<DefaultValue>(dataKeys.size());
+            for (String dataKey : dataKeys) {
+                dataList.add(table.getValue(dataKey, now));
+            }
+            return new ResponseData<List<DefaultValue>>(dataList, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Batch query data from {{}} with exception", tableDomain, e);
+            return new ResponseData<List<DefaultValue>>(
+                    null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 增加的执行方法.
+     *
+     * @param dataKey Hash(id)
+     * @param datas 所需要的数据
+     * @return 返回执行成功或失败
+     */
+    @Override
+    public ResponseData<Integer> execute(String dataKey, Object... datas) {
+
+        if (datas.length == 6) {
+            return executeTransaction(dataKey, datas);
+        }
+        //datas.lenth==2时为UpDate
+        if (datas.length == 2) {
+            return executeUpdate(dataKey, (String) datas[0], (Date) datas[1]);
+        }
+        return executeInsert(dataKey, (String) datas[0], (Date) datas[1]);
+    }
+
+    private ResponseData<Integer> executeTransaction(String dataKey, Object... datas) {
+
+        try {
+            TransactionArgs transactionArgs = new TransactionArgs();
+            transactionArgs.setRequestId((String) datas[0]);
+            transactionArgs.setMethod((String) datas[1]);
+            transactionArgs.setArgs((String) datas[2]);
+            transactionArgs.setTimeStamp((Long) datas[3]);
+            transactionArgs.setExtra((String) datas[4]);
+            transactionArgs.setBatch((String) datas[5]);
+
+            String valueString = DataToolUtils.serialize(transactionArgs);
+            Date now = new Date();
+            store.write(batch -> {
+                batch.putValue(tableName(), dataKey, valueString, now, now, null);
+                return null;
+            });
+            return new ResponseData<Integer>(SUCCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Update data into {{}} with exception", embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 数据不存在或已过期时新增.
+     *
+     * @param dataKey Hash(id)
+     * @param data 数据
+     * @param now 当前时间
+     * @return 返回执行成功或失败, 数据已存在时失败
+     */
+    @Override
+    public ResponseData<Integer> executeInsert(String dataKey, String data, Date now) {
+
+        try {
+            boolean inserted = store.write(batch -> {
+                if (table().getValue(dataKey, now.getTime()) != null) {
+                    return false;
+                }
+                batch.putValue(tableName(), dataKey, data, now, now, expireOf(now));
+                return true;
+            });
+            //解决重复写问题
+            if (!inserted) {
+                return new ResponseData<Integer>(
+                        FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+            }
+            return new ResponseData<Integer>(SUCCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Insert data into {{}} with exception", embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 数据存在时更新并重新计算过期时间.
+     *
+     * @param dataKey Hash(id)
+     * @param data 数据
+     * @param now 当前时间
+     * @return 返回执行成功或失败, 数据不存在时返回key无效
+     */
+    @Override
+    public ResponseData<Integer> executeUpdate(String dataKey, String data, Date now) {
+
+        try {
+            boolean updated = store.write(batch -> {
+                DefaultValue old = table().getValue(dataKey, now.getTime());
+                if (old == null) {
+                    return false;
+                }
+                batch.putValue(tableName(), dataKey, data, old.getCreated(), now, expireOf(now));
+                return true;
+            });
+            if (!updated) {
+                return new ResponseData<Integer>(
+                        FAILED_STATUS, ErrorCode.PRESISTENCE_DATA_KEY_INVALID);
+            }
+            return new ResponseData<Integer>(SUCCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Update data into {{}} with exception", embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 新增或更新并重新计算过期时间.
+     *
+     * @param dataKey Hash(id)
+     * @param data 数据
+     * @param now 当前时间
+     * @return 返回执行成功或失败
+     */
+    @Override
+    public ResponseData<Integer> executeUpsert(String dataKey, String data, Date now) {
+
+        try {
+            store.write(batch -> {
+                batch.putValue(tableName(), dataKey, data, now, now, expireOf(now));
+                return null;
+            });
+            return new ResponseData<Integer>(SUCCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Upsert data into {{}} with exception", embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 删除执行方法.
+     *
+     * @param dataKey Hash(id)
+     * @return 返回执行成功或失败
+     */
+    @Override
+    public ResponseData<Integer> executeDelete(String dataKey) {
+
+        try {
+            boolean deleted = store.write(batch -> {
+                if (table().getValue(dataKey, System.currentTimeMillis()) == null) {
+                    return false;
+                }
+                batch.deleteValue(tableName(), dataKey);
+                return true;
+            });
+            return new ResponseData<Integer>(
+                    deleted ? SUCCESS_STATUS : FAILED_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Delete data into {{}} with exception", embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 批量新增, 所有数据作为一帧写入日志.
+     *
+     * @param dataList 数据列表, 依次为Hash(id)、数据、创建时间和更新时间
+     * @return 返回受影响的行数
+     */
+    @Override
+    public ResponseData<Integer> batchAdd(List<List<Object>> dataList) {
+
+        try {
+            List<Object> values = dataList.get(dataList.size() - 1);
+            int size = values.size();
+            for (List<Object> list : dataList) {
+                if (CollectionUtils.isEmpty(list) || list.size() != size) {
+                    return new ResponseData<Integer>(
+                            FAILED_STATUS, ErrorCode.PERSISTENCE_BATCH_ADD_DATA_MISMATCH);
+                }
+            }
+            store.write(batch -> {
+                for (int i = 0; i < size; i++) {
+                    Date updated = (Date) dataList.get(3).get(i);
+                    batch.putValue(tableName(),
+                            (String) dataList.get(0).get(i),
+                            (String) dataList.get(1).get(i),
+                            (Date) dataList.get(2).get(i),
+                            updated,
+                            expireOf(updated));
+                }
+                return null;
+            });
+            return new ResponseData<Integer>(size, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Batch add data to {{}} with exception",
+                    embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 按主键查询本地表的一行数据.
+     *
+     * @param id 主键
+     * @param mapper 哈希映射器
+     * @param <T> 值对象类型
+     * @return 返回查询出来的数据, 不存在时为null
+     */
+    @Override
+    public <T> ResponseData<T> executeHashQuery(String id, RedisHashMapper<T> mapper) {
+
+        try {
+            Map<String, String> fields = table().rows.get(id);
+            return new ResponseData<T>(
+                    fields == null ? null : mapper.mapHash(fields), ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Query row from {{}} with exception", embeddedDomain.getTableDomain(), e);
+            return new ResponseData<T>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 按主键批量查询本地表数据.
+     *
+     * @param ids 主键列表
+     * @param mapper 哈希映射器
+     * @param <T> 值对象类型
+     * @return 返回存在的数据, 不存在的主键被跳过
+     */
+    @Override
+    public <T> ResponseData<List<T>> executeBatchHashQuery(List<String> ids,
+                                                           RedisHashMapper<T> mapper) {
+
+        try {
+            EmbeddedTable table = table();
+            List<T> dataList = new ArrayList<T>(ids.size());
+            for (String id : ids) {
+                Map<String, String> fields = table.rows.get(id);
+                if (fields != null) {
+                    dataList.add(mapper.mapHash(fields));
+                }
+            }
+            return new ResponseData<List<T>>(dataList, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Batch query rows from {{}} with exception",
+                    embeddedDomain.getTableDomain(), e);
+            return new ResponseData<List<T>>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 通过二级索引查询本地表的数据, 非唯一索引对应多行时按主键顺序返回全部行.
+     *
+     * @param field 建立索引的字段
+     * @param value 字段值
+     * @param mapper 哈希映射器
+     * @param <T> 值对象类型
+     * @return 返回查询出来的数据, 不存在时为空列表
+     */
+    @Override
+    public <T> ResponseData<List<T>> executeIndexQuery(String field, String value,
+                                                       RedisHashMapper<T> mapper) {
+        return executeBatchHashQuery(table().getIndex(field, value), mapper);
+    }
+
+    /**
+     * 新增本地表的一行数据, 同时维护主键顺序与二级索引.
+     *
+     * @param id 主键
+     * @param score 数字主键的分值, 字符串主键为null
+     * @param fields 行数据, 值为null的字段不写入
+     * @param indexes 二级索引, 字段名到字段值, 值为null时不建立索引
+     * @return 返回执行成功或失败, 主键或唯一索引值已存在时失败
+     */
+    @Override
+    public ResponseData<Integer> executeHashInsert(String id, Double score,
+                                                   Map<String, String> fields,
+                                                   Map<String, String> indexes) {
+
+        try {
+            boolean inserted = store.write(batch -> {
+                EmbeddedTable table = table();
+                if (table.rows.containsKey(id)) {
+                    return false;
+                }
+                for (Map.Entry<String, String> index : indexes.entrySet()) {
+                    if (isUsedByOthers(table, index.getKey(), index.getValue(), id)) {
+                        return false;
+                    }
+                }
+                batch.putRow(tableName(), id, score == null ? 0 : score, withoutNull(fields));
+                for (Map.Entry<String, String> index : indexes.entrySet()) {
+                    if (index.getValue() != null) {
+                        putIndex(batch, index.getKey(), index.getValue(), id);
+                    }
+                }
+                return true;
+            });
+            if (!inserted) {
+                return new ResponseData<Integer>(
+                        FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+            }
+            return new ResponseData<Integer>(SUCCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Insert row into {{}} with exception", embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 更新本地表已存在的一行数据, 同时维护二级索引与标记集合.
+     *
+     * @param id 主键
+     * @param fields 需要更新的字段, 值为null的字段不更新
+     * @param indexes 二级索引的新值, 字段名到字段值, 值为null时不更新
+     * @param flags 标记集合的新状态, 字段名到是否标记
+     * @return 返回受影响的行数, 数据不存在时为0, 唯一索引值已被其他行占用时失败
+     */
+    @Override
+    public ResponseData<Integer> executeHashUpdate(String id, Map<String, String> fields,
+                                                   Map<String, String> indexes,
+                                                   Map<String, Boolean> flags) {
+
+        try {
+            int status = store.write(batch -> {
+                EmbeddedTable table = table();
+                Map<String, String> old = table.rows.get(id);
+                if (old == null) {
+                    return 0;
+                }
+                for (Map.Entry<String, String> index : indexes.entrySet()) {
+                    if (isUsedByOthers(table, index.getKey(), index.getValue(), id)) {
+                        return -1;
+                    }
+                }
+                Map<String, String> row = new HashMap<String, String>(old);
+                row.putAll(withoutNull(fields));
+                EmbeddedTable.OrderKey key = table.orderKeys.get(id);
+                batch.putRow(tableName(), id, key == null ? 0 : key.score, row);
+                for (Map.Entry<String, String> index : indexes.entrySet()) {
+                    String oldValue = old.get(index.getKey());
+                    if (index.getValue() == null || index.getValue().equals(oldValue)) {
+                        continue;
+                    }
+                    if (oldValue != null) {
+                        removeIndex(batch, index.getKey(), oldValue, id);
+                    }
+                    putIndex(batch, index.getKey(), index.getValue(), id);
+                }
+                for (Map.Entry<String, Boolean> flag : flags.entrySet()) {
+                    if (flag.getValue()) {
+                        batch.addFlag(tableName(), flag.getKey(), id);
+                    } else {
+                        batch.removeFlag(tableName(), flag.getKey(), id);
+                    }
+                }
+                return 1;
+            });
+            if (status < 0) {
+                logger.error("Update row of {{}} failed, the index value is used by another row.",
+                        embeddedDomain.getTableDomain());
+                return new ResponseData<Integer>(
+                        FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+            }
+            return new ResponseData<Integer>(
+                    status == 1 ? SUCCESS_STATUS : FAILED_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Update row of {{}} with exception", embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 删除本地表的一行数据, 同时清理主键顺序、二级索引与标记集合.
+     *
+     * @param id 主键
+     * @param indexFields 建立了二级索引的字段
+     * @param flagFields 建立了标记集合的字段
+     * @return 返回受影响的行数, 数据不存在时为0
+     */
+    @Override
+    public ResponseData<Integer> executeHashDelete(String id, Collection<String> indexFields,
+                                                   Collection<String> flagFields) {
+
+        try {
+            boolean deleted = store.write(batch -> {
+                Map<String, String> old = table().rows.get(id);
+                if (old == null) {
+                    return false;
+                }
+                batch.deleteRow(tableName(), id);
+                for (String field : indexFields) {
+                    if (old.get(field) != null) {
+                        removeIndex(batch, field, old.get(field), id);
+                    }
+                }
+                for (String field : flagFields) {
+                    batch.removeFlag(tableName(), field, id);
+                }
+                return true;
+            });
+            return new ResponseData<Integer>(
+                    deleted ? SUCCESS_STATUS : FAILED_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Delete row of {{}} with exception", embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 在本地表的追加记录列表末尾新增一条记录, 不读取已有记录.
+     *
+     * @param id 主键
+     * @param record 编码后的记录
+     * @return 返回执行成功或失败
+     */
+    @Override
+    public ResponseData<Integer> executeListAppend(String id, String record) {
+
+        try {
+            store.write(batch -> {
+                batch.appendList(tableName(), id, record);
+                return null;
+            });
+            return new ResponseData<Integer>(SUCCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Append record into {{}} with exception",
+                    embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 按追加顺序查询本地表的全部追加记录.
+     *
+     * @param id 主键
+     * @return 返回编码后的记录, 没有记录时为空列表
+     */
+    @Override
+    public ResponseData<List<String>> executeListQuery(String id) {
+        return new ResponseData<List<String>>(table().getList(id), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 在本地表主键的成员集合中新增成员, 已存在的成员不做修改.
+     *
+     * @param id 主键
+     * @param member 成员
+     * @return 新增成功返回1, 成员已存在返回0
+     */
+    @Override
+    public ResponseData<Integer> executeMemberAdd(String id, String member) {
+
+        try {
+            boolean added = store.write(batch -> {
+                if (table().isMember(id, member)) {
+                    return false;
+                }
+                batch.addMember(tableName(), id, member);
+                return true;
+            });
+            return new ResponseData<Integer>(added ? 1 : 0, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Add member into {{}} with exception",
+                    embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 从本地表主键的成员集合中删除成员.
+     *
+     * @param id 主键
+     * @param member 成员
+     * @return 删除成功返回1, 成员不存在返回0
+     */
+    @Override
+    public ResponseData<Integer> executeMemberRemove(String id, String member) {
+
+        try {
+            boolean removed = store.write(batch -> {
+                if (!table().isMember(id, member)) {
+                    return false;
+                }
+                batch.removeMember(tableName(), id, member);
+                return true;
+            });
+            return new ResponseData<Integer>(removed ? 1 : 0, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Remove member from {{}} with exception",
+                    embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(FAILED_STATUS, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 查询成员是否属于本地表主键的成员集合.
+     *
+     * @param id 主键
+     * @param member 成员
+     * @return 返回是否为成员, 成员集合为空时返回null
+     */
+    @Override
+    public ResponseData<Boolean> executeMemberQuery(String id, String member) {
+        return new ResponseData<Boolean>(table().findMember(id, member), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 按加入顺序查询本地表主键成员集合中指定排名范围内的成员.
+     *
+     * @param id 主键
+     * @param start 起始排名, 包含
+     * @param end 结束排名, 包含
+     * @return 返回成员列表
+     */
+    @Override
+    public ResponseData<List<String>> executeMemberRange(String id, int start, int end) {
+
+        if (end < start) {
+            return new ResponseData<List<String>>(new ArrayList<String>(), ErrorCode.SUCCESS);
+        }
+        return new ResponseData<List<String>>(
+                table().getMemberRange(id, start, end), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 查询本地表主键成员集合的成员数量.
+     *
+     * @param id 主键
+     * @return 返回成员数量
+     */
+    @Override
+    public ResponseData<Integer> executeMemberAmounts(String id) {
+        return new ResponseData<Integer>(table().getMemberAmounts(id), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 原子地预留一段序号, 序列不存在时从初始值开始.
+     *
+     * @param name 序列名称
+     * @param initialValue 序列不存在时的第一个序号
+     * @param blockSize 预留的序号个数
+     * @return 返回预留序号段的第一个序号
+     */
+    @Override
+    public ResponseData<Integer> executeSequenceAllocate(String name, int initialValue,
+                                                         int blockSize) {
+
+        try {
+            long first = store.write(batch -> {
+                Long next = table().sequences.get(name);
+                long current = next == null ? initialValue : next;
+                batch.setSequence(tableName(), name, current + blockSize);
+                return current;
+            });
+            return new ResponseData<Integer>((int) first, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Allocate sequence of {{}} with exception",
+                    embeddedDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 查询本地表的总行数.
+     *
+     * @return 返回总行数
+     */
+    @Override
+    public ResponseData<Integer> executeQueryAmounts() {
+        return new ResponseData<Integer>(table().rows.size(), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 查询本地表中被标记的行数.
+     *
+     * @param field 建立了标记集合的字段
+     * @return 返回被标记的行数
+     */
+    @Override
+    public ResponseData<Integer> executeQueryFlagAmounts(String field) {
+        return new ResponseData<Integer>(table().getFlagAmounts(field), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 按排名区间查询本地表的主键.
+     *
+     * @param start 起始排名, 从0开始
+     * @param end 结束排名, 包含
+     * @return 返回主键列表
+     */
+    @Override
+    public ResponseData<List<String>> executeQueryRange(int start, int end) {
+
+        if (end < start) {
+            return new ResponseData<List<String>>(new ArrayList<String>(), ErrorCode.SUCCESS);
+        }
+        return new ResponseData<List<String>>(table().getRange(start, end), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 按字典序查询字符串主键之后的若干主键.
+     *
+     * @param after 上一页最后一个主键, 为空时从头开始
+     * @param num 查询的数量
+     * @return 返回主键列表
+     */
+    @Override
+    public ResponseData<List<String>> executeQueryAfter(String after, int num) {
+
+        if (num <= 0) {
+            return new ResponseData<List<String>>(new ArrayList<String>(), ErrorCode.SUCCESS);
+        }
+        return new ResponseData<List<String>>(table().getAfter(
+                StringUtils.isEmpty(after) ? null : new EmbeddedTable.OrderKey(0, after), num),
+                ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 按分值查询数字主键之后的若干主键.
+     *
+     * @param after 上一页最后一个主键
+     * @param num 查询的数量
+     * @return 返回主键列表
+     */
+    @Override
+    public ResponseData<List<String>> executeQueryAfter(double after, int num) {
+
+        if (num <= 0) {
+            return new ResponseData<List<String>>(new ArrayList<String>(), ErrorCode.SUCCESS);
+        }
+        return new ResponseData<List<String>>(
+                table().getAfter(new EmbeddedTable.OrderKey(after, null), num), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 按主键顺序遍历本地表的游标, 每次读取一页主键.
+     *
+     * @param fetchSize 每页读取的数量
+     * @param numeric 是否为数字主键
+     * @param converter 主键转换方法
+     * @param <T> 游标返回的数据类型
+     * @return 返回游标
+     */
+    @Override
+    public <T> ResponseData<PersistenceCursor<T>> executeQueryCursor(int fetchSize,
+                                                                     boolean numeric,
+                                                                     Function<String, T> converter) {
+
+        return new ResponseData<PersistenceCursor<T>>(
+                new EmbeddedCursor<T>(this, fetchSize, numeric, converter), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 把时间转换为哈希字段值, 以毫秒数保存.
+     *
+     * @param date 时间
+     * @return 哈希字段值
+     */
+    public static String fromDate(Date date) {
+        return RedisExecutor.fromDate(date);
+    }
+
+    private EmbeddedTable table() {
+        return store.table(tableName());
+    }
+
+    /**
+     * 唯一索引的字段值是否已指向其他行, 非唯一索引总是允许.
+     */
+    private boolean isUsedByOthers(EmbeddedTable table, String field, String value, String id) {
+        if (value == null || nonUniqueIndexes.contains(field)) {
+            return false;
+        }
+        List<String> ids = table.getIndex(field, value);
+        return !ids.isEmpty() && !ids.contains(id);
+    }
+
+    private void putIndex(LogBatch batch, String field, String value, String id) {
+        if (nonUniqueIndexes.contains(field)) {
+            batch.addIndex(tableName(), field, value, id);
+        } else {
+            batch.putIndex(tableName(), field, value, id);
+        }
+    }
+
+    private void removeIndex(LogBatch batch, String field, String value, String id) {
+        if (nonUniqueIndexes.contains(field)) {
+            batch.removeIndex(tableName(), field, value, id);
+        } else {
+            batch.deleteIndex(tableName(), field, value);
+        }
+    }
+
+    private String tableName() {
+        return embeddedDomain.getTableDomain();
+    }
+
+    /**
+     * 根据domain的超时时间计算过期时间, 超时时间不大于0时不过期.
+     */
+    private Date expireOf(Date now) {
+        long timeout = embeddedDomain.getTimeout();
+        return timeout > 0 ? new Date(now.getTime() + timeout) : null;
+    }
+
+    private static Map<String, String> withoutNull(Map<String, String> fields) {
+
+        Map<String, String> result = new HashMap<String, String>();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (field.getValue() != null) {
+                result.put(field.getKey(), field.getValue());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,590 @@
+package com.webank.weid.suite.persistence.embedded;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.suite.persistence.DefaultValue;
+import com.webank.weid.util.PropertyUtils;
+
+/**
+ * 嵌入式存储引擎, 数据全部保存在本地目录下的一个追加写日志文件中.
+ * 每次写操作作为一帧追加到日志, 帧由长度、CRC32校验值和日志记录组成, 写入日志后再更新内存索引,
+ * 读操作只访问内存索引. 启动时重放日志恢复内存索引, 日志末尾写了一半的帧被截断,
+ * 其他位置的帧长度无效、校验失败或无法重放时拒绝启动, 日志保持不变.
+ * 日志增长到上次整理后大小的若干倍时, 把内存中的有效数据重写为新日志, 通过原子重命名替换旧日志.
+ * 内存存储不写日志, 写操作直接更新内存索引, 进程退出后数据丢失.
+ */
+public class EmbeddedStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedStore.class);
+
+    static final String LOG_FILE = "weid.log";
+
+    static final String COMPACT_FILE = "weid.log.compact";
+
+    /**
+     * 帧头的长度, 包括日志记录长度和CRC32校验值.
+     */
+    private static final int FRAME_HEADER_SIZE = 8;
+
+    /**
+     * 整理日志时每帧的最大长度.
+     */
+    private static final int COMPACT_FRAME_SIZE = 1 << 20;
+
+    /**
+     * 恢复时查找损坏帧之后的有效帧, 每次读取的字节数.
+     */
+    private static final int SCAN_CHUNK_SIZE = 1 << 16;
+
+    /**
+     * 内存存储在注册表中的key, 与目录的绝对路径不会冲突.
+     */
+    private static final String MEMORY_KEY = "";
+
+    private static final Map<String, EmbeddedStore> STORES = new ConcurrentHashMap<>();
+
+    private final String key;
+
+    private final Path directory;
+
+    private final Path logPath;
+
+    private final Map<String, EmbeddedTable> tables = new ConcurrentHashMap<>();
+
+    private final Object writeLock = new Object();
+
+    private final long syncInterval;
+
+    private final long compactMinSize;
+
+    private final double compactRatio;
+
+    private final ScheduledExecutorService scheduler;
+
+    private FileChannel channel;
+
+    private long logSize;
+
+    private long compactedSize;
+
+    private boolean dirty;
+
+    private EmbeddedStore(String key, Path directory) {
+        this.key = key;
+        this.directory = directory;
+        this.logPath = directory == null ? null : directory.resolve(LOG_FILE);
+        this.syncInterval = Long.parseLong(PropertyUtils.getProperty(
+            DataDriverConstant.EMBEDDED_SYNC_INTERVAL,
+            DataDriverConstant.EMBEDDED_SYNC_INTERVAL_DEFAULT_VALUE));
+        this.compactMinSize = Long.parseLong(PropertyUtils.getProperty(
+            DataDriverConstant.EMBEDDED_COMPACT_MIN_SIZE,
+            DataDriverConstant.EMBEDDED_COMPACT_MIN_SIZE_DEFAULT_VALUE));
+        this.compactRatio = Double.parseDouble(PropertyUtils.getProperty(
+            DataDriverConstant.EMBEDDED_COMPACT_RATIO,
+            DataDriverConstant.EMBEDDED_COMPACT_RATIO_DEFAULT_VALUE));
+        long compactInterval = Long.parseLong(PropertyUtils.getProperty(
+            DataDriverConstant.EMBEDDED_COMPACT_INTERVAL,
+            DataDriverConstant.EMBEDDED_COMPACT_INTERVAL_DEFAULT_VALUE));
+        if (directory == null) {
+            this.scheduler = null;
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            logger.error("[EmbeddedStore] open the store {} error.", directory, e);
+            throw new WeIdBaseException(ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "weid-embedded-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (syncInterval > 0) {
+            scheduler.scheduleWithFixedDelay(
+                this::syncQuietly, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+        }
+        if (compactInterval > 0) {
+            scheduler.scheduleWithFixedDelay(
+                this::compactQuietly, compactInterval, compactInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 打开目录下的存储, 同一目录在进程内只打开一次.
+     *
+     * @param directory 数据目录
+     * @return 返回存储
+     */
+    public static EmbeddedStore open(String directory) {
+        String path = Paths.get(directory).toAbsolutePath().normalize().toString();
+        return STORES.computeIfAbsent(path, p -> new EmbeddedStore(p, Paths.get(p)));
+    }
+
+    /**
+     * 打开进程内共享的内存存储, 关闭后再次打开得到一个空的存储.
+     *
+     * @return 返回存储
+     */
+    public static EmbeddedStore memory() {
+        return STORES.computeIfAbsent(MEMORY_KEY, k -> new EmbeddedStore(k, null));
+    }
+
+    EmbeddedTable table(String name) {
+        return tables.computeIfAbsent(name, n -> new EmbeddedTable());
+    }
+
+    /**
+     * 在写锁内执行写操作, 操作产生的日志记录写入日志文件后再直接应用到内存索引,
+     * 内存存储不编码日志记录.
+     *
+     * @param <T> 操作结果类型
+     * @param action 写操作, 可以读取当前数据并向日志记录中添加修改
+     * @return 返回写操作的结果
+     * @throws IOException 写日志文件失败, 此时内存索引不变
+     */
+    <T> T write(Function<LogBatch, T> action) throws IOException {
+        synchronized (writeLock) {
+            LogBatch batch = LogBatch.forWrite(channel != null);
+            T result = action.apply(batch);
+            if (!batch.isEmpty()) {
+                if (channel != null) {
+                    append(batch.toByteArray());
+                }
+                batch.apply(this::table);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 把缓冲的日志写入磁盘.
+     *
+     * @throws IOException 写磁盘失败
+     */
+    public void sync() throws IOException {
+        synchronized (writeLock) {
+            if (dirty && channel.isOpen()) {
+                channel.force(false);
+                dirty = false;
+            }
+        }
+    }
+
+    /**
+     * 日志超过整理阈值时整理日志.
+     *
+     * @return 返回是否整理了日志
+     * @throws IOException 整理日志失败
+     */
+    public boolean compactIfNeeded() throws IOException {
+        synchronized (writeLock) {
+            if (channel == null
+                || logSize < compactMinSize || logSize < compactedSize * compactRatio) {
+                return false;
+            }
+            compact();
+            return true;
+        }
+    }
+
+    /**
+     * 把内存中的有效数据重写为新日志并替换旧日志, 已过期的默认domain数据不再写入.
+     * 整理期间写操作等待, 读操作不受影响.
+     *
+     * @throws IOException 整理日志失败, 此时旧日志保持不变
+     */
+    public void compact() throws IOException {
+        synchronized (writeLock) {
+            if (channel == null) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            long oldSize = logSize;
+            Path compactPath = directory.resolve(COMPACT_FILE);
+            try (FileChannel out = FileChannel.open(compactPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                LogBatch batch = LogBatch.forSnapshot();
+                for (Map.Entry<String, EmbeddedTable> entry : tables.entrySet()) {
+                    batch = snapshot(entry.getKey(), entry.getValue(), batch, out, start);
+                }
+                if (!batch.isEmpty()) {
+                    writeFrame(out, batch.toByteArray());
+                }
+                out.force(true);
+            }
+            channel.close();
+            try {
+                Files.move(compactPath, logPath,
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                syncDirectory();
+            } finally {
+                channel = FileChannel.open(logPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                logSize = channel.size();
+                channel.position(logSize);
+                compactedSize = logSize;
+                dirty = false;
+            }
+            logger.info("[compact] compact the log of {} from {} to {} bytes in {} ms.",
+                directory, oldSize, logSize, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * 关闭存储, 关闭后同一目录可以重新打开.
+     *
+     * @throws IOException 关闭日志文件失败
+     */
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        synchronized (writeLock) {
+            STORES.remove(key, this);
+            if (channel != null && channel.isOpen()) {
+                sync();
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * 日志文件当前的大小.
+     *
+     * @return 返回字节数
+     */
+    public long getLogSize() {
+        synchronized (writeLock) {
+            return logSize;
+        }
+    }
+
+    private void recover() throws IOException {
+        // 上次整理未完成, 旧日志仍然完整
+        Files.deleteIfExists(directory.resolve(COMPACT_FILE));
+        channel = FileChannel.open(logPath, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        while (position + FRAME_HEADER_SIZE <= size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            int length = header.getInt();
+            long crc = header.getInt() & 0xFFFFFFFFL;
+            if (length < 0 || position + FRAME_HEADER_SIZE + length > size) {
+                // 长度损坏时无法定位下一帧, 之后还能找到有效帧说明不是末尾写了一半的帧
+                if (hasFrameAfter(position, size)) {
+                    failRecover("[recover] the length of the frame at {} of {} is corrupted.",
+                        position, null);
+                }
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + FRAME_HEADER_SIZE);
+            long next = position + FRAME_HEADER_SIZE + length;
+            if (crc(payload.array()) != crc) {
+                // 只有最后一帧可能是写了一半的帧, 之后还有数据说明日志已损坏
+                if (next < size || hasFrameAfter(position, size)) {
+                    failRecover("[recover] the frame at {} of {} is corrupted.", position, null);
+                }
+                break;
+            }
+            try {
+                replay(payload.array());
+            } catch (IOException | RuntimeException e) {
+                failRecover("[recover] replay the frame at {} of {} error.", position, e);
+            }
+            position = next;
+        }
+        if (position < size) {
+            logger.warn("[recover] the log {} is truncated from {} to {} bytes.",
+                logPath, size, position);
+            channel.truncate(position);
+            channel.force(false);
+        }
+        channel.position(position);
+        logSize = position;
+        compactedSize = position;
+        logger.info("[recover] recover the store {} from {} bytes of log.", directory, position);
+    }
+
+    /**
+     * 逐字节查找损坏帧之后是否还有长度有效且校验正确的帧.
+     */
+    private boolean hasFrameAfter(long start, long size) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(SCAN_CHUNK_SIZE + FRAME_HEADER_SIZE - 1);
+        for (long base = start + 1; base + FRAME_HEADER_SIZE <= size; base += SCAN_CHUNK_SIZE) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), size - base));
+            readFully(chunk, base);
+            for (int offset = 0;
+                offset < SCAN_CHUNK_SIZE && offset + FRAME_HEADER_SIZE <= chunk.limit(); offset++) {
+                int length = chunk.getInt(offset);
+                long position = base + offset;
+                // 全零的数据也能通过空帧的校验, 写入的帧不会为空
+                if (length <= 0 || position + FRAME_HEADER_SIZE + length > size) {
+                    continue;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(payload, position + FRAME_HEADER_SIZE);
+                if (crc(payload.array()) == (chunk.getInt(offset + 4) & 0xFFFFFFFFL)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 恢复失败, 关闭日志文件且不做截断, 避免删除之后的有效帧.
+     */
+    private void failRecover(String message, long position, Exception cause) throws IOException {
+        logger.error(message, position, logPath, cause);
+        channel.close();
+        channel = null;
+        throw new IOException("recover the log " + logPath + " failed at " + position, cause);
+    }
+
+    /**
+     * 同步目录, 使重命名在崩溃后仍然有效, 不支持打开目录的平台上忽略.
+     */
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            logger.debug("[syncDirectory] sync the directory {} is unsupported.", directory, e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("unexpected end of " + logPath);
+            }
+        }
+    }
+
+    private void append(byte[] payload) throws IOException {
+        try {
+            logSize += writeFrame(channel, payload);
+        } catch (IOException e) {
+            // 丢弃写了一半的帧, 否则之后追加的帧在恢复时会被一起截断
+            channel.truncate(logSize);
+            channel.position(logSize);
+            throw e;
+        }
+        if (syncInterval > 0) {
+            dirty = true;
+        } else {
+            channel.force(false);
+        }
+    }
+
+    private static int writeFrame(FileChannel out, byte[] payload) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + payload.length);
+        frame.putInt(payload.length);
+        frame.putInt((int) crc(payload));
+        frame.put(payload);
+        frame.flip();
+        while (frame.hasRemaining()) {
+            out.write(frame);
+        }
+        return FRAME_HEADER_SIZE + payload.length;
+    }
+
+    private static long crc(byte[] payload) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload, 0, payload.length);
+        return crc32.getValue();
+    }
+
+    private LogBatch snapshot(String name, EmbeddedTable table, LogBatch batch, FileChannel out,
+        long now) throws IOException {
+
+        for (Map.Entry<String, DefaultValue> entry : table.values.entrySet()) {
+            DefaultValue value = table.getValue(entry.getKey(), now);
+            if (value != null) {
+                batch.putValue(name, entry.getKey(), value.getData(), value.getCreated(),
+                    value.getUpdated(), value.getExpire());
+                batch = flushIfFull(batch, out);
+            }
+        }
+        for (Map.Entry<String, Map<String, String>> entry : table.rows.entrySet()) {
+            EmbeddedTable.OrderKey key = table.orderKeys.get(entry.getKey());
+            batch.putRow(name, entry.getKey(), key == null ? 0 : key.score, entry.getValue());
+            batch = flushIfFull(batch, out);
+        }
+        for (Map.Entry<String, ? extends Map<String, ? extends Set<String>>> index
+            : table.indexes.entrySet()) {
+            for (Map.Entry<String, ? extends Set<String>> entry : index.getValue().entrySet()) {
+                for (String id : entry.getValue()) {
+                    batch.addIndex(name, index.getKey(), entry.getKey(), id);
+                    batch = flushIfFull(batch, out);
+                }
+            }
+        }
+        for (Map.Entry<String, Set<String>> flag : table.flags.entrySet()) {
+            for (String id : flag.getValue()) {
+                batch.addFlag(name, flag.getKey(), id);
+                batch = flushIfFull(batch, out);
+            }
+        }
+        for (Map.Entry<String, List<String>> list : table.lists.entrySet()) {
+            for (String record : list.getValue()) {
+                batch.appendList(name, list.getKey(), record);
+                batch = flushIfFull(batch, out);
+            }
+        }
+        for (String id : table.members.keySet()) {
+            for (String member : table.getMemberRange(id, 0, Integer.MAX_VALUE)) {
+                batch.addMember(name, id, member);
+                batch = flushIfFull(batch, out);
+            }
+        }
+        for (Map.Entry<String, Long> sequence : table.sequences.entrySet()) {
+            batch.setSequence(name, sequence.getKey(), sequence.getValue());
+            batch = flushIfFull(batch, out);
+        }
+        return batch;
+    }
+
+    private static LogBatch flushIfFull(LogBatch batch, FileChannel out) throws IOException {
+        if (batch.size() < COMPACT_FRAME_SIZE) {
+            return batch;
+        }
+        writeFrame(out, batch.toByteArray());
+        return LogBatch.forSnapshot();
+    }
+
+    /**
+     * 恢复时把一帧日志记录应用到内存索引.
+     */
+    private void replay(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        while (in.available() > 0) {
+            byte op = in.readByte();
+            EmbeddedTable table = table(readString(in));
+            switch (op) {
+                case LogBatch.VALUE_PUT:
+                    String key = readString(in);
+                    DefaultValue value = new DefaultValue();
+                    value.setId(key);
+                    value.setData(readString(in));
+                    value.setCreated(readDate(in));
+                    value.setUpdated(readDate(in));
+                    value.setExpire(readDate(in));
+                    table.putValue(key, value);
+                    break;
+                case LogBatch.VALUE_DELETE:
+                    table.removeValue(readString(in));
+                    break;
+                case LogBatch.ROW_PUT:
+                    String id = readString(in);
+                    double score = in.readDouble();
+                    int fieldCount = in.readInt();
+                    Map<String, String> fields = new HashMap<>(fieldCount * 2);
+                    for (int i = 0; i < fieldCount; i++) {
+                        fields.put(readString(in), readString(in));
+                    }
+                    table.putRow(id, score, fields);
+                    break;
+                case LogBatch.ROW_DELETE:
+                    table.removeRow(readString(in));
+                    break;
+                case LogBatch.INDEX_PUT:
+                    table.putIndex(readString(in), readString(in), readString(in));
+                    break;
+                case LogBatch.INDEX_DELETE:
+                    table.removeIndex(readString(in), readString(in));
+                    break;
+                case LogBatch.INDEX_ADD:
+                    table.addIndex(readString(in), readString(in), readString(in));
+                    break;
+                case LogBatch.INDEX_REMOVE:
+                    table.removeIndex(readString(in), readString(in), readString(in));
+                    break;
+                case LogBatch.FLAG_ADD:
+                    table.addFlag(readString(in), readString(in));
+                    break;
+                case LogBatch.FLAG_REMOVE:
+                    table.removeFlag(readString(in), readString(in));
+                    break;
+                case LogBatch.LIST_APPEND:
+                    table.appendList(readString(in), readString(in));
+                    break;
+                case LogBatch.MEMBER_ADD:
+                    table.addMember(readString(in), readString(in));
+                    break;
+                case LogBatch.MEMBER_REMOVE:
+                    table.removeMember(readString(in), readString(in));
+                    break;
+                case LogBatch.SEQUENCE_SET:
+                    table.setSequence(readString(in), in.readLong());
+                    break;
+                default:
+                    throw new IOException("unknown log record type " + op);
+            }
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static Date readDate(DataInputStream in) throws IOException {
+        long time = in.readLong();
+        return time < 0 ? null : new Date(time);
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            logger.error("[sync] sync the log of {} error.", directory, e);
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compactIfNeeded();
+        } catch (IOException e) {
+            logger.error("[compact] compact the log of {} error.", directory, e);
+        }
+    }
+}
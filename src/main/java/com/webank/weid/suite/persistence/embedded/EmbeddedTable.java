@@ -0,0 +1,306 @@
+package com.webank.weid.suite.persistence.embedded;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.webank.weid.suite.persistence.DefaultValue;
+
+/**
+ * 嵌入式存储中一张表的内存索引.
+ * 表的数据只由EmbeddedStore在持有写锁时修改, 读操作不加锁.
+ * 与redis的数据布局一致: 默认domain的键值数据, 本地表的行、主键顺序、二级索引、标记集合、
+ * 追加记录列表、成员集合以及序列计数器.
+ */
+class EmbeddedTable {
+
+    final ConcurrentMap<String, DefaultValue> values = new ConcurrentHashMap<>();
+
+    /**
+     * 本地表的行, 每行的字段在写入后不再修改, 更新时整体替换.
+     */
+    final ConcurrentMap<String, Map<String, String>> rows = new ConcurrentHashMap<>();
+
+    /**
+     * 主键顺序, 数字主键按分值排列, 字符串主键分值为0, 按字典序排列.
+     */
+    final NavigableSet<OrderKey> order = new ConcurrentSkipListSet<>();
+
+    final ConcurrentMap<String, OrderKey> orderKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 二级索引, 字段名到字段值再到按主键排序的主键集合, 唯一索引的集合中只有一个主键.
+     */
+    final ConcurrentMap<String, ConcurrentMap<String, NavigableSet<String>>> indexes =
+        new ConcurrentHashMap<>();
+
+    final ConcurrentMap<String, Set<String>> flags = new ConcurrentHashMap<>();
+
+    final ConcurrentMap<String, List<String>> lists = new ConcurrentHashMap<>();
+
+    final ConcurrentMap<String, Set<String>> members = new ConcurrentHashMap<>();
+
+    final ConcurrentMap<String, Long> sequences = new ConcurrentHashMap<>();
+
+    /**
+     * 查询默认domain的数据, 已过期的数据视为不存在.
+     */
+    DefaultValue getValue(String key, long now) {
+        DefaultValue value = values.get(key);
+        if (value == null || (value.getExpire() != null && value.getExpire().getTime() <= now)) {
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * 按主键顺序查询字段值对应的全部主键.
+     */
+    List<String> getIndex(String field, String value) {
+        Map<String, NavigableSet<String>> index = indexes.get(field);
+        NavigableSet<String> ids = index == null ? null : index.get(value);
+        return ids == null ? new ArrayList<String>() : new ArrayList<String>(ids);
+    }
+
+    int getFlagAmounts(String field) {
+        Set<String> flagSet = flags.get(field);
+        return flagSet == null ? 0 : flagSet.size();
+    }
+
+    List<String> getList(String id) {
+        List<String> list = lists.get(id);
+        return list == null ? new ArrayList<String>() : new ArrayList<String>(list);
+    }
+
+    boolean isMember(String id, String member) {
+        Set<String> memberSet = members.get(id);
+        if (memberSet == null) {
+            return false;
+        }
+        synchronized (memberSet) {
+            return memberSet.contains(member);
+        }
+    }
+
+    /**
+     * 查询是否为成员, 成员集合为空时返回null.
+     */
+    Boolean findMember(String id, String member) {
+        Set<String> memberSet = members.get(id);
+        if (memberSet == null) {
+            return null;
+        }
+        synchronized (memberSet) {
+            if (memberSet.contains(member)) {
+                return Boolean.TRUE;
+            }
+            return memberSet.isEmpty() ? null : Boolean.FALSE;
+        }
+    }
+
+    int getMemberAmounts(String id) {
+        Set<String> memberSet = members.get(id);
+        if (memberSet == null) {
+            return 0;
+        }
+        synchronized (memberSet) {
+            return memberSet.size();
+        }
+    }
+
+    /**
+     * 按加入顺序查询排名区间内的成员.
+     */
+    List<String> getMemberRange(String id, int start, int end) {
+        List<String> result = new ArrayList<String>();
+        Set<String> memberSet = members.get(id);
+        if (memberSet == null) {
+            return result;
+        }
+        synchronized (memberSet) {
+            int rank = 0;
+            for (String member : memberSet) {
+                if (rank > end) {
+                    break;
+                }
+                if (rank >= start) {
+                    result.add(member);
+                }
+                rank++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按排名区间查询主键.
+     */
+    List<String> getRange(int start, int end) {
+        List<String> result = new ArrayList<String>();
+        int rank = 0;
+        for (OrderKey key : order) {
+            if (rank > end) {
+                break;
+            }
+            if (rank >= start) {
+                result.add(key.id);
+            }
+            rank++;
+        }
+        return result;
+    }
+
+    /**
+     * 查询排在指定位置之后的若干主键.
+     */
+    List<String> getAfter(OrderKey after, int num) {
+        List<String> result = new ArrayList<String>();
+        Iterator<OrderKey> iterator = after == null
+            ? order.iterator() : order.tailSet(after, false).iterator();
+        while (iterator.hasNext() && result.size() < num) {
+            result.add(iterator.next().id);
+        }
+        return result;
+    }
+
+    void putValue(String key, DefaultValue value) {
+        values.put(key, value);
+    }
+
+    void removeValue(String key) {
+        values.remove(key);
+    }
+
+    void putRow(String id, double score, Map<String, String> fields) {
+        rows.put(id, Collections.unmodifiableMap(fields));
+        OrderKey key = new OrderKey(score, id);
+        OrderKey old = orderKeys.put(id, key);
+        if (old != null && !old.equals(key)) {
+            order.remove(old);
+        }
+        order.add(key);
+    }
+
+    void removeRow(String id) {
+        rows.remove(id);
+        OrderKey old = orderKeys.remove(id);
+        if (old != null) {
+            order.remove(old);
+        }
+    }
+
+    /**
+     * 唯一索引的字段值指向主键, 替换已有的主键.
+     */
+    void putIndex(String field, String value, String id) {
+        NavigableSet<String> ids = new ConcurrentSkipListSet<>();
+        ids.add(id);
+        indexes.computeIfAbsent(field, k -> new ConcurrentHashMap<>()).put(value, ids);
+    }
+
+    void removeIndex(String field, String value) {
+        Map<String, NavigableSet<String>> index = indexes.get(field);
+        if (index != null) {
+            index.remove(value);
+        }
+    }
+
+    /**
+     * 非唯一索引的字段值增加一个主键.
+     */
+    void addIndex(String field, String value, String id) {
+        indexes.computeIfAbsent(field, k -> new ConcurrentHashMap<>())
+            .computeIfAbsent(value, k -> new ConcurrentSkipListSet<>()).add(id);
+    }
+
+    /**
+     * 非唯一索引的字段值去掉一个主键, 没有主键后删除字段值.
+     */
+    void removeIndex(String field, String value, String id) {
+        Map<String, NavigableSet<String>> index = indexes.get(field);
+        if (index != null) {
+            index.computeIfPresent(value, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    void addFlag(String field, String id) {
+        flags.computeIfAbsent(field, k -> ConcurrentHashMap.newKeySet()).add(id);
+    }
+
+    void removeFlag(String field, String id) {
+        Set<String> flagSet = flags.get(field);
+        if (flagSet != null) {
+            flagSet.remove(id);
+        }
+    }
+
+    void appendList(String id, String record) {
+        lists.computeIfAbsent(id, k -> new CopyOnWriteArrayList<>()).add(record);
+    }
+
+    void addMember(String id, String member) {
+        Set<String> memberSet = members.computeIfAbsent(
+            id, k -> Collections.synchronizedSet(new LinkedHashSet<>()));
+        memberSet.add(member);
+    }
+
+    void removeMember(String id, String member) {
+        Set<String> memberSet = members.get(id);
+        if (memberSet != null) {
+            memberSet.remove(member);
+        }
+    }
+
+    void setSequence(String name, long next) {
+        sequences.put(name, next);
+    }
+
+    /**
+     * 主键的排序键, 先按分值再按主键排列, 主键为null时排在同分值的所有主键之后.
+     */
+    static final class OrderKey implements Comparable<OrderKey> {
+
+        final double score;
+
+        final String id;
+
+        OrderKey(double score, String id) {
+            this.score = score;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(OrderKey other) {
+            int result = Double.compare(score, other.score);
+            if (result != 0) {
+                return result;
+            }
+            if (id == null || other.id == null) {
+                return id == null ? (other.id == null ? 0 : 1) : -1;
+            }
+            return id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof OrderKey && compareTo((OrderKey) obj) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(score) * 31 + (id == null ? 0 : id.hashCode());
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.webank.weid.suite.persistence.embedded;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.webank.weid.suite.persistence.DefaultValue;
+
+/**
+ * 一次写操作产生的日志记录, 作为一帧原子地追加到日志文件.
+ * 记录描述的是修改后的状态, 写入时直接把记录的修改应用到内存索引, 只有恢复时才解码日志重放.
+ * 内存存储不编码日志, 整理日志时只编码不应用.
+ */
+class LogBatch {
+
+    static final byte VALUE_PUT = 1;
+    static final byte VALUE_DELETE = 2;
+    static final byte ROW_PUT = 3;
+    static final byte ROW_DELETE = 4;
+    static final byte INDEX_PUT = 5;
+    static final byte INDEX_DELETE = 6;
+    static final byte FLAG_ADD = 7;
+    static final byte FLAG_REMOVE = 8;
+    static final byte LIST_APPEND = 9;
+    static final byte MEMBER_ADD = 10;
+    static final byte MEMBER_REMOVE = 11;
+    static final byte SEQUENCE_SET = 12;
+    static final byte INDEX_ADD = 13;
+    static final byte INDEX_REMOVE = 14;
+
+    private final ByteArrayOutputStream bytes;
+
+    private final DataOutputStream out;
+
+    private final List<String> tables;
+
+    private final List<Consumer<EmbeddedTable>> actions;
+
+    private int count;
+
+    private LogBatch(boolean encoded, boolean applied) {
+        this.bytes = encoded ? new ByteArrayOutputStream() : null;
+        this.out = encoded ? new DataOutputStream(bytes) : null;
+        this.tables = applied ? new ArrayList<>() : null;
+        this.actions = applied ? new ArrayList<>() : null;
+    }
+
+    /**
+     * 写操作使用的日志记录, 修改会应用到内存索引.
+     *
+     * @param durable 是否需要编码后写入日志文件
+     * @return 返回日志记录
+     */
+    static LogBatch forWrite(boolean durable) {
+        return new LogBatch(durable, true);
+    }
+
+    /**
+     * 整理日志使用的日志记录, 只编码不应用.
+     *
+     * @return 返回日志记录
+     */
+    static LogBatch forSnapshot() {
+        return new LogBatch(true, false);
+    }
+
+    void putValue(String table, String key, String data, Date created, Date updated, Date expire) {
+        begin(VALUE_PUT, table, t -> {
+            DefaultValue value = new DefaultValue();
+            value.setId(key);
+            value.setData(data);
+            value.setCreated(created);
+            value.setUpdated(updated);
+            value.setExpire(expire);
+            t.putValue(key, value);
+        });
+        writeString(key);
+        writeString(data);
+        writeDate(created);
+        writeDate(updated);
+        writeDate(expire);
+    }
+
+    void deleteValue(String table, String key) {
+        begin(VALUE_DELETE, table, t -> t.removeValue(key));
+        writeString(key);
+    }
+
+    void putRow(String table, String id, double score, Map<String, String> fields) {
+        Map<String, String> copy = actions == null ? fields : new HashMap<>(fields);
+        begin(ROW_PUT, table, t -> t.putRow(id, score, copy));
+        if (out == null) {
+            return;
+        }
+        writeString(id);
+        try {
+            out.writeDouble(score);
+            out.writeInt(fields.size());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            writeString(field.getKey());
+            writeString(field.getValue());
+        }
+    }
+
+    void deleteRow(String table, String id) {
+        begin(ROW_DELETE, table, t -> t.removeRow(id));
+        writeString(id);
+    }
+
+    void putIndex(String table, String field, String value, String id) {
+        begin(INDEX_PUT, table, t -> t.putIndex(field, value, id));
+        writeString(field);
+        writeString(value);
+        writeString(id);
+    }
+
+    void deleteIndex(String table, String field, String value) {
+        begin(INDEX_DELETE, table, t -> t.removeIndex(field, value));
+        writeString(field);
+        writeString(value);
+    }
+
+    void addIndex(String table, String field, String value, String id) {
+        begin(INDEX_ADD, table, t -> t.addIndex(field, value, id));
+        writeString(field);
+        writeString(value);
+        writeString(id);
+    }
+
+    void removeIndex(String table, String field, String value, String id) {
+        begin(INDEX_REMOVE, table, t -> t.removeIndex(field, value, id));
+        writeString(field);
+        writeString(value);
+        writeString(id);
+    }
+
+    void addFlag(String table, String field, String id) {
+        begin(FLAG_ADD, table, t -> t.addFlag(field, id));
+        writeString(field);
+        writeString(id);
+    }
+
+    void removeFlag(String table, String field, String id) {
+        begin(FLAG_REMOVE, table, t -> t.removeFlag(field, id));
+        writeString(field);
+        writeString(id);
+    }
+
+    void appendList(String table, String id, String record) {
+        begin(LIST_APPEND, table, t -> t.appendList(id, record));
+        writeString(id);
+        writeString(record);
+    }
+
+    void addMember(String table, String id, String member) {
+        begin(MEMBER_ADD, table, t -> t.addMember(id, member));
+        writeString(id);
+        writeString(member);
+    }
+
+    void removeMember(String table, String id, String member) {
+        begin(MEMBER_REMOVE, table, t -> t.removeMember(id, member));
+        writeString(id);
+        writeString(member);
+    }
+
+    void setSequence(String table, String name, long next) {
+        begin(SEQUENCE_SET, table, t -> t.setSequence(name, next));
+        if (out == null) {
+            return;
+        }
+        writeString(name);
+        try {
+            out.writeLong(next);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    int size() {
+        return bytes.size();
+    }
+
+    /**
+     * 按记录顺序把修改应用到内存索引.
+     *
+     * @param tableOf 按表名获取内存表
+     */
+    void apply(Function<String, EmbeddedTable> tableOf) {
+        for (int i = 0; i < actions.size(); i++) {
+            actions.get(i).accept(tableOf.apply(tables.get(i)));
+        }
+    }
+
+    byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+
+    private void begin(byte op, String table, Consumer<EmbeddedTable> action) {
+        count++;
+        if (actions != null) {
+            tables.add(table);
+            actions.add(action);
+        }
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(op);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        writeString(table);
+    }
+
+    private void writeDate(Date date) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeLong(date == null ? -1L : date.getTime());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void writeString(String value) {
+        if (out == null) {
+            return;
+        }
+        try {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] data = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(data.length);
+            out.write(data);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.webank.weid.suite.persistence.embedded.driver;
+
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.suite.persistence.embedded.EmbeddedDomain;
+import com.webank.weid.suite.persistence.embedded.EmbeddedExecutor;
+import com.webank.weid.suite.persistence.embedded.EmbeddedStore;
+import com.webank.weid.suite.persistence.redis.HashTableExecutor;
+import com.webank.weid.suite.persistence.redis.driver.HashTableDriver;
+import com.webank.weid.util.PropertyUtils;
+
+import java.util.Set;
+
+/**
+ * embedded Driver, 数据保存在本地目录的嵌入式存储中, 不依赖mysql或redis服务.
+ */
+public class EmbeddedDriver extends HashTableDriver<EmbeddedDomain> {
+
+    private final EmbeddedStore store;
+
+    public EmbeddedDriver() {
+        this(EmbeddedStore.open(PropertyUtils.getProperty(
+                DataDriverConstant.EMBEDDED_DIR, DataDriverConstant.EMBEDDED_DIR_DEFAULT_VALUE)));
+    }
+
+    public EmbeddedDriver(EmbeddedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    protected EmbeddedDomain resolveDomain(String domain) {
+        return new EmbeddedDomain(domain);
+    }
+
+    @Override
+    protected HashTableExecutor getExecutor(EmbeddedDomain domain, Set<String> nonUniqueIndexes) {
+        return new EmbeddedExecutor(domain, store, nonUniqueIndexes);
+    }
+}
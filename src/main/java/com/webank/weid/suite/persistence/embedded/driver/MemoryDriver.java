@@ -0,0 +1,14 @@
+package com.webank.weid.suite.persistence.embedded.driver;
+
+import com.webank.weid.suite.persistence.embedded.EmbeddedStore;
+
+/**
+ * memory Driver, 数据只保存在进程内共享的内存存储中, 不写磁盘, 进程退出后数据丢失.
+ * 行为与embedded Driver一致, 用于测试以及不需要持久化的压测场景.
+ */
+public class MemoryDriver extends EmbeddedDriver {
+
+    public MemoryDriver() {
+        super(EmbeddedStore.memory());
+    }
+}
@@ -6,13 +6,17 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.commons.dbcp2.BasicDataSourceFactory;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +30,27 @@ public class ConnectionPool {
     private static  Map<String, BasicDataSource> connectionPoolMap = new ConcurrentHashMap<>();
     
     private static final LinkedList<String> SOURCE_NAME_LIST = new LinkedList<String>();
+
+    /**
+     * 数据源名称与其只读副本集合的映射, 未配置副本的数据源不在其中.
+     */
+    private static final Map<String, ReplicaSet> REPLICA_SET_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 数据源名称与其数据库方言的映射.
+     */
+    private static final Map<String, SqlDialect> DIALECT_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 未配置方言且无法从连接URL识别时使用的方言.
+     */
+    private static final SqlDialect DEFAULT_DIALECT = new MysqlDialect();
+
+    /**
+     * 当前线程工作单元中各数据源绑定的连接, 不在工作单元内时为null.
+     */
+    private static final ThreadLocal<Map<String, Connection>> UNIT_CONNECTIONS =
+        new ThreadLocal<Map<String, Connection>>();
     
     static {
         init();
@@ -40,14 +65,15 @@ public class ConnectionPool {
      * 
      * @return 返回配置对象
      */
-    private static Properties initProperties(String dsNamePrefix) {
+    private static Properties initProperties(String dsNamePrefix, SqlDialect dialect) {
         // 连接URL
-        String dbUrl = PropertyUtils.getProperty(dsNamePrefix + DataDriverConstant.JDBC_URL);
+        String dbUrl = dialect.decorateUrl(
+            PropertyUtils.getProperty(dsNamePrefix + DataDriverConstant.JDBC_URL));
         // 驱动名称
         String driverNameKey = dsNamePrefix + DataDriverConstant.JDBC_DRIVER;
         String driverClass = PropertyUtils.getProperty(
             driverNameKey,
-            DataDriverConstant.POOL_DRIVER_NAME_DEFAULT_VALUE
+            dialect.getDriverClass()
         );
         // 用户名
         String userNameKey = dsNamePrefix + DataDriverConstant.JDBC_USER_NAME;
@@ -103,6 +129,18 @@ public class ConnectionPool {
             initSizeKey,
             DataDriverConstant.POOL_INIT_DEFAULT_VALUE
         );
+        // 是否缓存预编译语句
+        String poolPsKey = dsNamePrefix + DataDriverConstant.JDBC_POOL_PREPARED_STATEMENTS;
+        String poolPs = PropertyUtils.getProperty(
+            poolPsKey,
+            DataDriverConstant.POOL_PREPARED_STATEMENTS_DEFAULT_VALUE
+        );
+        // 每个连接缓存的最大预编译语句数
+        String maxOpenPsKey = dsNamePrefix + DataDriverConstant.JDBC_MAX_OPEN_PREPARED_STATEMENTS;
+        String maxOpenPs = PropertyUtils.getProperty(
+            maxOpenPsKey,
+            DataDriverConstant.POOL_MAX_OPEN_PREPARED_STATEMENTS_DEFAULT_VALUE
+        );
         Properties p = new Properties();
         p.setProperty(DataDriverConstant.POOL_URL, dbUrl);
         p.setProperty(DataDriverConstant.POOL_DRIVER_CLASS_NAME, driverClass);
@@ -145,6 +183,8 @@ public class ConnectionPool {
             DataDriverConstant.JDBC_VALIDATION_QUERY
         );
         p.setProperty(DataDriverConstant.POOL_MIN_EITM, minEitm);
+        p.setProperty(DataDriverConstant.POOL_PREPARED_STATEMENTS, poolPs);
+        p.setProperty(DataDriverConstant.POOL_MAX_OPEN_PREPARED_STATEMENTS, maxOpenPs);
         return p;
     }
     
@@ -158,16 +198,112 @@ public class ConnectionPool {
             String[] dataSourceNames = dataSourceNameStr.split(",");
             for (String string : dataSourceNames) {
                 SOURCE_NAME_LIST.add(string);
-                Properties properties = initProperties(string + ".");
+                SqlDialect dialect = resolveDialect(string);
+                DIALECT_MAP.put(string, dialect);
+                Properties properties = initProperties(string + ".", dialect);
                 BasicDataSource connectionPool = 
                     (BasicDataSource) BasicDataSourceFactory.createDataSource(properties);
                 connectionPoolMap.put(string, connectionPool);
+                initReplicas(string);
             }
         } catch (Exception e) {
             logger.error("init ConnectionPool error, please check the log.", e);
         }
     }
     
+    /**
+     * 初始化数据源的只读副本, 副本的连接池配置方式与数据源相同.
+     *
+     * @param dataSourceName 数据源名称
+     */
+    private static void initReplicas(String dataSourceName) throws Exception {
+        String replicaNameStr = PropertyUtils.getProperty(
+            dataSourceName + "." + DataDriverConstant.JDBC_REPLICAS);
+        if (StringUtils.isBlank(replicaNameStr)) {
+            return;
+        }
+        List<String> replicaNames = new ArrayList<String>();
+        for (String replicaName : replicaNameStr.split(",")) {
+            replicaName = replicaName.trim();
+            if (StringUtils.isBlank(replicaName)) {
+                continue;
+            }
+            Properties properties = initProperties(replicaName + ".", resolveDialect(replicaName));
+            BasicDataSource connectionPool =
+                (BasicDataSource) BasicDataSourceFactory.createDataSource(properties);
+            connectionPoolMap.put(replicaName, connectionPool);
+            replicaNames.add(replicaName);
+        }
+        if (!replicaNames.isEmpty()) {
+            REPLICA_SET_MAP.put(dataSourceName, new ReplicaSet(dataSourceName, replicaNames));
+            logger.info("[initReplicas] the data source {} reads from replicas {}.",
+                dataSourceName, replicaNames);
+        }
+    }
+
+    /**
+     * 解析数据源的方言, 未配置jdbc.dialect时根据连接URL识别.
+     *
+     * @param dataSourceName 数据源名称
+     * @return 返回数据库方言
+     * @throws ClassNotFoundException 使用H2方言但没有引入H2的驱动
+     */
+    private static SqlDialect resolveDialect(String dataSourceName)
+        throws ClassNotFoundException {
+        String dialectName = PropertyUtils.getProperty(
+            dataSourceName + "." + DataDriverConstant.JDBC_DIALECT);
+        if (StringUtils.isBlank(dialectName)) {
+            String dbUrl = PropertyUtils.getProperty(
+                dataSourceName + "." + DataDriverConstant.JDBC_URL);
+            return StringUtils.startsWithIgnoreCase(dbUrl, H2Dialect.URL_PREFIX)
+                ? newH2Dialect(dataSourceName) : DEFAULT_DIALECT;
+        }
+        if (H2Dialect.NAME.equalsIgnoreCase(dialectName.trim())) {
+            return newH2Dialect(dataSourceName);
+        }
+        if (!MysqlDialect.NAME.equalsIgnoreCase(dialectName.trim())) {
+            logger.error("[resolveDialect] the dialect {} of {} is not supported, use {}.",
+                dialectName, dataSourceName, MysqlDialect.NAME);
+        }
+        return DEFAULT_DIALECT;
+    }
+
+    /**
+     * 创建H2方言, H2只是weid的测试依赖, 没有引入H2的驱动时给出明确的错误.
+     */
+    private static SqlDialect newH2Dialect(String dataSourceName) throws ClassNotFoundException {
+        H2Dialect dialect = new H2Dialect();
+        try {
+            Class.forName(dialect.getDriverClass());
+        } catch (ClassNotFoundException e) {
+            throw new ClassNotFoundException("the datasource " + dataSourceName
+                + " uses h2, which is a test-only dependency of weid, add "
+                + "com.h2database:h2 to the classpath to use it.", e);
+        }
+        return dialect;
+    }
+
+    /**
+     * 获取数据源的方言, 只读副本与其数据源使用同一方言.
+     *
+     * @param dsName 数据源名称
+     * @return 返回数据库方言, 数据源未初始化时返回MySQL方言
+     */
+    public static SqlDialect getDialect(String dsName) {
+        SqlDialect dialect = dsName == null ? null : DIALECT_MAP.get(dsName);
+        return dialect == null ? DEFAULT_DIALECT : dialect;
+    }
+
+    /**
+     * 获取数据源的只读副本集合.
+     *
+     * @param dsName 数据源名称
+     * @return 返回只读副本集合, 未配置副本时返回null
+     */
+    static ReplicaSet getReplicaSet(String dsName) {
+        return REPLICA_SET_MAP.get(dsName);
+    }
+
     /**
      * 从连接池中获取连接.
      * 
@@ -175,6 +311,10 @@ public class ConnectionPool {
      * @return 返回连接对象
      */
     public static Connection getConnection(String dsName) {
+        Map<String, Connection> unitConnections = UNIT_CONNECTIONS.get();
+        if (unitConnections != null) {
+            return getUnitConnection(unitConnections, dsName);
+        }
         Connection conn = null;
         try {
             conn = connectionPoolMap.get(dsName).getConnection();
@@ -185,6 +325,94 @@ public class ConnectionPool {
         return conn;
     }
     
+    /**
+     * 工作单元内第一次使用数据源时借出连接并关闭自动提交, 之后复用该连接.
+     */
+    private static Connection getUnitConnection(
+        Map<String, Connection> unitConnections,
+        String dsName
+    ) {
+        Connection conn = unitConnections.get(dsName);
+        if (conn != null) {
+            return conn;
+        }
+        try {
+            conn = connectionPoolMap.get(dsName).getConnection();
+            conn.setAutoCommit(false);
+            unitConnections.put(dsName, conn);
+        } catch (Exception e) {
+            logger.error("get connection of unit error, please check the log.", e);
+            closeResources(conn);
+            conn = null;
+        }
+        return conn;
+    }
+
+    /**
+     * 在当前线程开始工作单元, 之后获取的连接按数据源绑定到工作单元, 直到工作单元结束才归还.
+     *
+     * @return 开始了新的工作单元返回true, 已在工作单元内返回false
+     */
+    public static boolean beginUnit() {
+        if (UNIT_CONNECTIONS.get() != null) {
+            return false;
+        }
+        UNIT_CONNECTIONS.set(new LinkedHashMap<String, Connection>());
+        return true;
+    }
+
+    /**
+     * 结束当前线程的工作单元, 提交或回滚绑定的连接并归还连接池.
+     * 涉及多个数据源时依次提交, 某个数据源提交失败后其余数据源回滚.
+     *
+     * @param commit 是否提交
+     * @return 提交成功或回滚时返回true, 提交失败返回false
+     */
+    public static boolean endUnit(boolean commit) {
+        Map<String, Connection> unitConnections = UNIT_CONNECTIONS.get();
+        UNIT_CONNECTIONS.remove();
+        if (unitConnections == null) {
+            return true;
+        }
+        boolean success = true;
+        for (Map.Entry<String, Connection> entry : unitConnections.entrySet()) {
+            Connection conn = entry.getValue();
+            try {
+                if (commit && success) {
+                    conn.commit();
+                } else {
+                    conn.rollback();
+                }
+            } catch (SQLException e) {
+                logger.error("end unit of {{}} with exception.", entry.getKey(), e);
+                success = false;
+            } finally {
+                closeResources(conn);
+            }
+        }
+        return success || !commit;
+    }
+
+    /**
+     * 当前线程是否在工作单元内.
+     *
+     * @return 在工作单元内返回true
+     */
+    public static boolean inUnit() {
+        return UNIT_CONNECTIONS.get() != null;
+    }
+
+    /**
+     * 连接是否绑定在当前线程的工作单元上, 这样的连接由工作单元提交和归还.
+     *
+     * @param conn 数据库连接对象
+     * @return 绑定在工作单元上返回true
+     */
+    static boolean isUnitConnection(Connection conn) {
+        Map<String, Connection> unitConnections = UNIT_CONNECTIONS.get();
+        return conn != null && unitConnections != null && unitConnections.containsValue(conn);
+    }
+
     /**
      * 关闭数据库连接资源.
      * 
@@ -195,7 +423,9 @@ public class ConnectionPool {
     public static void close(Connection conn, PreparedStatement pstmt, ResultSet rs) {
         closeResources(rs);
         closeResources(pstmt);
-        closeResources(conn);
+        if (!isUnitConnection(conn)) {
+            closeResources(conn);
+        }
     }
 
     /**
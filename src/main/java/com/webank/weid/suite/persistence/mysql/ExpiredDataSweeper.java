@@ -0,0 +1,205 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.util.PropertyUtils;
+
+/**
+ * 过期数据清理器.
+ * 按配置的周期在后台线程中删除各domain表中已过期的数据, 每条语句最多删除batch_size行,
+ * 每个domain每次最多执行max_batches条语句, 语句之间暂停batch_pause毫秒, 以限制对数据库的压力.
+ */
+public class ExpiredDataSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredDataSweeper.class);
+
+    private static ExpiredDataSweeper instance;
+
+    private final Map<String, SweepMetrics> metrics = new LinkedHashMap<String, SweepMetrics>();
+
+    private final long interval;
+
+    private final int batchSize;
+
+    private final int maxBatches;
+
+    private final long batchPause;
+
+    private ScheduledExecutorService scheduler;
+
+    ExpiredDataSweeper(Collection<String> domainKeys) {
+        this.interval = Long.parseLong(PropertyUtils.getProperty(
+            DataDriverConstant.SWEEPER_INTERVAL,
+            DataDriverConstant.SWEEPER_INTERVAL_DEFAULT_VALUE));
+        this.batchSize = Integer.parseInt(PropertyUtils.getProperty(
+            DataDriverConstant.SWEEPER_BATCH_SIZE,
+            DataDriverConstant.SWEEPER_BATCH_SIZE_DEFAULT_VALUE));
+        this.maxBatches = Integer.parseInt(PropertyUtils.getProperty(
+            DataDriverConstant.SWEEPER_MAX_BATCHES,
+            DataDriverConstant.SWEEPER_MAX_BATCHES_DEFAULT_VALUE));
+        this.batchPause = Long.parseLong(PropertyUtils.getProperty(
+            DataDriverConstant.SWEEPER_BATCH_PAUSE,
+            DataDriverConstant.SWEEPER_BATCH_PAUSE_DEFAULT_VALUE));
+        for (String domainKey : domainKeys) {
+            metrics.put(domainKey, new SweepMetrics());
+        }
+    }
+
+    /**
+     * 启动清理器, 重复调用只启动一次, 配置persistence_sweeper.enabled为false时不启动.
+     *
+     * @param domainKeys 需要清理的domain配置项key
+     */
+    public static synchronized void start(Collection<String> domainKeys) {
+        if (instance != null) {
+            return;
+        }
+        boolean enabled = Boolean.parseBoolean(PropertyUtils.getProperty(
+            DataDriverConstant.SWEEPER_ENABLED,
+            DataDriverConstant.SWEEPER_ENABLED_DEFAULT_VALUE));
+        if (!enabled || domainKeys.isEmpty()) {
+            logger.info("[start] the expired data sweeper is disabled.");
+            return;
+        }
+        ExpiredDataSweeper sweeper = new ExpiredDataSweeper(domainKeys);
+        sweeper.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weid-expired-data-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduler.scheduleWithFixedDelay(
+            sweeper::sweep, sweeper.interval, sweeper.interval, TimeUnit.MILLISECONDS);
+        instance = sweeper;
+        logger.info("[start] the expired data sweeper started, domains: {}, interval: {}ms.",
+            domainKeys, sweeper.interval);
+    }
+
+    /**
+     * 停止清理器.
+     */
+    public static synchronized void stop() {
+        if (instance != null) {
+            instance.scheduler.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /**
+     * 获取各domain的清理统计, 清理器未启动时为空.
+     *
+     * @return domain配置项key到清理统计的映射
+     */
+    public static synchronized Map<String, SweepMetrics> getMetrics() {
+        if (instance == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(instance.metrics);
+    }
+
+    /**
+     * 清理全部domain, 单个domain失败不影响其他domain.
+     * 异常不能抛出到调度线程, 否则之后的清理会被取消.
+     */
+    void sweep() {
+        for (Map.Entry<String, SweepMetrics> entry : metrics.entrySet()) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                sweepDomain(entry.getKey(), entry.getValue());
+            } catch (RuntimeException e) {
+                logger.error("[sweep] sweep the domain {} error.", entry.getKey(), e);
+                entry.getValue().failedRuns.incrementAndGet();
+            }
+        }
+    }
+
+    private void sweepDomain(String domainKey, SweepMetrics domainMetrics) {
+        SqlExecutor sqlExecutor = new SqlExecutor(SqlDomain.resolve(domainKey));
+        Date now = new Date();
+        long deleted = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            ResponseData<Integer> response =
+                sqlExecutor.execute(SqlExecutor.SQL_DELETE_EXPIRED, now, batchSize);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                logger.error("[sweepDomain] delete the expired data of {} fail, code:{}.",
+                    domainKey, response.getErrorCode());
+                domainMetrics.sweptRows.addAndGet(deleted);
+                domainMetrics.failedRuns.incrementAndGet();
+                return;
+            }
+            deleted += response.getResult();
+            if (response.getResult() < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(batchPause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        domainMetrics.sweptRows.addAndGet(deleted);
+        domainMetrics.sweepRuns.incrementAndGet();
+        domainMetrics.lastSweepTime.set(now.getTime());
+        if (deleted > 0) {
+            logger.info("[sweepDomain] deleted {} expired rows of {}.", deleted, domainKey);
+        }
+    }
+
+    /**
+     * 单个domain的清理统计.
+     */
+    public static class SweepMetrics {
+
+        private final AtomicLong sweptRows = new AtomicLong();
+
+        private final AtomicLong sweepRuns = new AtomicLong();
+
+        private final AtomicLong failedRuns = new AtomicLong();
+
+        private final AtomicLong lastSweepTime = new AtomicLong();
+
+        /**
+         * 累计删除的过期数据行数.
+         */
+        public long getSweptRows() {
+            return sweptRows.get();
+        }
+
+        /**
+         * 累计成功的清理次数.
+         */
+        public long getSweepRuns() {
+            return sweepRuns.get();
+        }
+
+        /**
+         * 累计失败次数.
+         */
+        public long getFailedRuns() {
+            return failedRuns.get();
+        }
+
+        /**
+         * 最近一次清理的时间戳, 未清理过时为0.
+         */
+        public long getLastSweepTime() {
+            return lastSweepTime.get();
+        }
+    }
+}
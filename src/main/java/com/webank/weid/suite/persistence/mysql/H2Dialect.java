@@ -0,0 +1,196 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.webank.weid.constant.DataDriverConstant;
+
+/**
+ * H2嵌入式数据库方言, 可在进程内运行, 用于开发机上的集成测试和性能测试.
+ * 连接使用H2的MySQL兼容模式, on duplicate key update由H2直接支持,
+ * 方言负责翻译H2不兼容的建表语法, 分页语法以及表和索引的检查.
+ * H2的索引和约束名称在schema内唯一, 方言生成的索引名称均以表名为前缀.
+ * H2只是weid的测试依赖, 不随weid发布, 在测试以外使用时需要自行引入com.h2database:h2,
+ * 否则初始化连接池时以ClassNotFoundException失败.
+ */
+public class H2Dialect implements SqlDialect {
+
+    /**
+     * 方言名称.
+     */
+    public static final String NAME = "h2";
+
+    /**
+     * 连接URL的前缀, 未配置jdbc.dialect时据此识别H2数据源.
+     */
+    public static final String URL_PREFIX = "jdbc:h2:";
+
+    private static final String DRIVER_CLASS = "org.h2.Driver";
+
+    /**
+     * MySQL兼容模式, 标识符统一转为小写以与MySQL的表名保持一致.
+     */
+    private static final String COMPATIBILITY_MODE = "MODE=MySQL";
+
+    private static final String DATABASE_TO_LOWER = "DATABASE_TO_LOWER=TRUE";
+
+    /**
+     * 主键或唯一索引冲突的SQLState.
+     */
+    private static final String DUPLICATE_KEY_STATE = "23505";
+
+    private static final String CHECK_TABLE_SQL =
+        "SELECT table_name "
+            + DataDriverConstant.SQL_COLUMN_DATA
+            + " FROM information_schema.TABLES "
+            + " WHERE upper(table_name) = upper('$1')"
+            + " and upper(table_schema) = upper(CURRENT_SCHEMA)";
+
+    private static final String CHECK_INDEX_SQL =
+        "SELECT index_name "
+            + DataDriverConstant.SQL_COLUMN_DATA
+            + " FROM information_schema.INDEXES "
+            + " WHERE upper(table_name) = upper('$1')"
+            + " and upper(table_schema) = upper(CURRENT_SCHEMA)"
+            + " and upper(index_name) = upper(concat('$1_', ?))";
+
+    private static final Pattern TABLE_OPTIONS =
+        Pattern.compile("\\)\\s*ENGINE\\s*=.*$", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final Pattern COLUMN_COMMENT =
+        Pattern.compile("\\s+COMMENT\\s+'[^']*'", Pattern.CASE_INSENSITIVE);
+
+    // H2要求DEFAULT位于约束之前, null本身即为默认值
+    private static final Pattern DEFAULT_NULL =
+        Pattern.compile("\\s+DEFAULT\\s+NULL", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern BLOB = Pattern.compile("\\bblob\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern AUTO_INCREMENT =
+        Pattern.compile("\\bNOT\\s+NULL\\s+AUTO_INCREMENT\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern UNIQUE_KEY = Pattern.compile(
+        ",\\s*UNIQUE\\s+KEY\\s+(\\w+)\\s*\\(([^)]*)\\)", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern KEY =
+        Pattern.compile(",\\s*KEY\\s+(\\w+)\\s*\\(([^)]*)\\)", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern PAGING =
+        Pattern.compile("\\bLIMIT\\s+\\?\\s*,\\s*\\?", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern LIMIT =
+        Pattern.compile("\\bLIMIT\\s+(\\?|\\d+)", Pattern.CASE_INSENSITIVE);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getDriverClass() {
+        return DRIVER_CLASS;
+    }
+
+    @Override
+    public String decorateUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+        StringBuilder decorated = new StringBuilder(url);
+        String upperUrl = url.toUpperCase();
+        if (!upperUrl.contains(";MODE=")) {
+            decorated.append(';').append(COMPATIBILITY_MODE);
+        }
+        if (!upperUrl.contains(";DATABASE_TO_LOWER=")) {
+            decorated.append(';').append(DATABASE_TO_LOWER);
+        }
+        return decorated.toString();
+    }
+
+    @Override
+    public String getCheckTableSql() {
+        return CHECK_TABLE_SQL;
+    }
+
+    @Override
+    public String getCheckIndexSql() {
+        return CHECK_INDEX_SQL;
+    }
+
+    @Override
+    public List<String> createTable(String createTableSql) {
+        String ddl = createTableSql.replace("`", "");
+        ddl = TABLE_OPTIONS.matcher(ddl).replaceFirst(")");
+        ddl = COLUMN_COMMENT.matcher(ddl).replaceAll("");
+        ddl = DEFAULT_NULL.matcher(ddl).replaceAll("");
+        ddl = BLOB.matcher(ddl).replaceAll("clob");
+        ddl = AUTO_INCREMENT.matcher(ddl)
+            .replaceAll("GENERATED BY DEFAULT AS IDENTITY NOT NULL");
+
+        StringBuffer table = new StringBuffer();
+        Matcher uniqueKey = UNIQUE_KEY.matcher(ddl);
+        while (uniqueKey.find()) {
+            uniqueKey.appendReplacement(table, Matcher.quoteReplacement(
+                ", CONSTRAINT " + SqlExecutor.TABLE_CHAR + "_" + uniqueKey.group(1)
+                    + " UNIQUE (" + uniqueKey.group(2) + ")"));
+        }
+        uniqueKey.appendTail(table);
+
+        // 内联的普通索引拆分为单独的建索引语句, 在建表之后执行
+        List<String> statements = new ArrayList<String>();
+        List<String> indexes = new ArrayList<String>();
+        StringBuffer withoutKeys = new StringBuffer();
+        Matcher key = KEY.matcher(table);
+        while (key.find()) {
+            indexes.add(addIndex(key.group(1), key.group(2)));
+            key.appendReplacement(withoutKeys, "");
+        }
+        key.appendTail(withoutKeys);
+        statements.add(withoutKeys.toString());
+        statements.addAll(indexes);
+        return statements;
+    }
+
+    @Override
+    public String addIndex(String indexName, String columns) {
+        return new StringBuffer("CREATE INDEX IF NOT EXISTS ")
+            .append(SqlExecutor.TABLE_CHAR)
+            .append('_')
+            .append(indexName.replace("`", ""))
+            .append(" ON ")
+            .append(SqlExecutor.TABLE_CHAR)
+            .append(" (")
+            .append(columns.replace("`", ""))
+            .append(')')
+            .toString();
+    }
+
+    @Override
+    public String translate(String sql) {
+        // 分页参数的顺序与MySQL的LIMIT ?, ?一致, 均为先偏移量后行数
+        String translated = PAGING.matcher(sql.replace("`", ""))
+            .replaceAll("OFFSET ? ROWS FETCH NEXT ? ROWS ONLY");
+        return LIMIT.matcher(translated).replaceAll("FETCH FIRST $1 ROWS ONLY");
+    }
+
+    /**
+     * H2没有跨连接的命名锁, 嵌入式数据库只被一个进程使用, 迁移在进程内加锁.
+     */
+    @Override
+    public String getLockSql() {
+        return null;
+    }
+
+    @Override
+    public String getUnlockSql() {
+        return null;
+    }
+
+    @Override
+    public boolean isDuplicateKey(SQLException e) {
+        return DUPLICATE_KEY_STATE.equals(e.getSQLState());
+    }
+}
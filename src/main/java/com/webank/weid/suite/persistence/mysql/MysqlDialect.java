@@ -0,0 +1,112 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import com.webank.weid.constant.DataDriverConstant;
+
+/**
+ * MySQL方言, SQL模板本身即为MySQL语法, 无需翻译.
+ */
+public class MysqlDialect implements SqlDialect {
+
+    /**
+     * 方言名称.
+     */
+    public static final String NAME = "mysql";
+
+    /**
+     * 批量写入时把多条insert改写为一条, 批量写入依赖此参数.
+     */
+    private static final String REWRITE_BATCHED_STATEMENTS = "rewriteBatchedStatements=true";
+
+    /**
+     * 主键或唯一索引冲突的错误码, ER_DUP_ENTRY和ER_DUP_ENTRY_WITH_KEY_NAME.
+     */
+    private static final int ER_DUP_ENTRY = 1062;
+
+    private static final int ER_DUP_ENTRY_WITH_KEY_NAME = 1586;
+
+    private static final String LOCK_SQL = "SELECT GET_LOCK(?, ?)";
+
+    private static final String UNLOCK_SQL = "SELECT RELEASE_LOCK(?)";
+
+    private static final String CHECK_TABLE_SQL =
+        "SELECT table_name "
+            + DataDriverConstant.SQL_COLUMN_DATA
+            + " FROM information_schema.TABLES "
+            + " WHERE upper(table_name) = upper('$1')"
+            + " and upper(table_schema) = upper('$2')";
+
+    private static final String CHECK_INDEX_SQL =
+        "SELECT index_name "
+            + DataDriverConstant.SQL_COLUMN_DATA
+            + " FROM information_schema.STATISTICS "
+            + " WHERE upper(table_name) = upper('$1')"
+            + " and upper(table_schema) = upper('$2')"
+            + " and upper(index_name) = upper(?)";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String getDriverClass() {
+        return DataDriverConstant.POOL_DRIVER_NAME_DEFAULT_VALUE;
+    }
+
+    @Override
+    public String decorateUrl(String url) {
+        if (url == null || url.contains("rewriteBatchedStatements=")) {
+            return url;
+        }
+        return url + (url.contains("?") ? "&" : "?") + REWRITE_BATCHED_STATEMENTS;
+    }
+
+    @Override
+    public String getCheckTableSql() {
+        return CHECK_TABLE_SQL;
+    }
+
+    @Override
+    public String getCheckIndexSql() {
+        return CHECK_INDEX_SQL;
+    }
+
+    @Override
+    public List<String> createTable(String createTableSql) {
+        return Collections.singletonList(createTableSql);
+    }
+
+    @Override
+    public String addIndex(String indexName, String columns) {
+        return new StringBuffer("ALTER TABLE `$1` ADD INDEX `")
+            .append(indexName)
+            .append("` (")
+            .append(columns)
+            .append("), ALGORITHM=INPLACE, LOCK=NONE")
+            .toString();
+    }
+
+    @Override
+    public String translate(String sql) {
+        return sql;
+    }
+
+    @Override
+    public String getLockSql() {
+        return LOCK_SQL;
+    }
+
+    @Override
+    public String getUnlockSql() {
+        return UNLOCK_SQL;
+    }
+
+    @Override
+    public boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == ER_DUP_ENTRY || e.getErrorCode() == ER_DUP_ENTRY_WITH_KEY_NAME;
+    }
+}
@@ -0,0 +1,300 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.util.PropertyUtils;
+
+/**
+ * 主数据源的只读副本集合.
+ * 只读查询在可用的副本间按负载均衡选择, 连续失败的副本在一段时间内不再使用,
+ * 没有可用副本或副本查询失败时回退到主数据源.
+ * 开启对冲读后, 查询超过近期延迟分位数仍未返回时, 向另一个副本再发一次相同的查询, 取先返回的结果,
+ * 对冲后仍超时未返回时回退到主数据源. 对冲线程全忙时查询在调用线程上执行, 不再对冲.
+ */
+class ReplicaSet {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaSet.class);
+
+    /**
+     * 用于计算延迟分位数的最近查询数.
+     */
+    private static final int LATENCY_WINDOW = 256;
+
+    /**
+     * 每记录多少次延迟重新计算一次对冲等待时间.
+     */
+    private static final int HEDGE_DELAY_REFRESH = 32;
+
+    /**
+     * 延迟滑动平均的权重.
+     */
+    private static final double LATENCY_EWMA_WEIGHT = 0.2;
+
+    private static final boolean HEDGE_ENABLED = Boolean.parseBoolean(PropertyUtils.getProperty(
+        DataDriverConstant.REPLICA_HEDGE_ENABLED,
+        DataDriverConstant.REPLICA_HEDGE_ENABLED_DEFAULT_VALUE));
+
+    private static final int HEDGE_PERCENTILE = Integer.parseInt(PropertyUtils.getProperty(
+        DataDriverConstant.REPLICA_HEDGE_PERCENTILE,
+        DataDriverConstant.REPLICA_HEDGE_PERCENTILE_DEFAULT_VALUE));
+
+    private static final long HEDGE_MIN_DELAY = Long.parseLong(PropertyUtils.getProperty(
+        DataDriverConstant.REPLICA_HEDGE_MIN_DELAY,
+        DataDriverConstant.REPLICA_HEDGE_MIN_DELAY_DEFAULT_VALUE));
+
+    private static final long HEDGE_TIMEOUT = Long.parseLong(PropertyUtils.getProperty(
+        DataDriverConstant.REPLICA_HEDGE_TIMEOUT,
+        DataDriverConstant.REPLICA_HEDGE_TIMEOUT_DEFAULT_VALUE));
+
+    private static final int HEDGE_THREADS = Integer.parseInt(PropertyUtils.getProperty(
+        DataDriverConstant.REPLICA_HEDGE_THREADS,
+        DataDriverConstant.REPLICA_HEDGE_THREADS_DEFAULT_VALUE));
+
+    private static final int FAILURE_THRESHOLD = Integer.parseInt(PropertyUtils.getProperty(
+        DataDriverConstant.REPLICA_FAILURE_THRESHOLD,
+        DataDriverConstant.REPLICA_FAILURE_THRESHOLD_DEFAULT_VALUE));
+
+    private static final long DOWN_INTERVAL = Long.parseLong(PropertyUtils.getProperty(
+        DataDriverConstant.REPLICA_DOWN_INTERVAL,
+        DataDriverConstant.REPLICA_DOWN_INTERVAL_DEFAULT_VALUE));
+
+    /**
+     * 执行对冲读的线程池, 开启对冲读后副本查询在此线程池中执行, 线程数有上限且不排队.
+     */
+    private static final ThreadPoolExecutor HEDGE_EXECUTOR = newHedgeExecutor();
+
+    private final String primary;
+
+    private final List<Replica> replicas;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+
+    private final AtomicInteger latencyCount = new AtomicInteger();
+
+    private volatile long hedgeDelay = HEDGE_MIN_DELAY;
+
+    ReplicaSet(String primary, List<String> replicaNames) {
+        this.primary = primary;
+        this.replicas = new ArrayList<Replica>(replicaNames.size());
+        for (String replicaName : replicaNames) {
+            this.replicas.add(new Replica(replicaName));
+        }
+    }
+
+    /**
+     * 在副本上执行只读查询.
+     *
+     * @param <T> 查询结果类型
+     * @param query 以数据源名称为参数的查询
+     * @return 返回查询结果
+     */
+    <T> ResponseData<T> read(Function<String, ResponseData<T>> query) {
+        Replica first = choose(null);
+        if (first == null) {
+            return query.apply(primary);
+        }
+        ResponseData<T> response = HEDGE_ENABLED ? hedgedRead(first, query) : attempt(first, query);
+        if (response != null) {
+            return response;
+        }
+        return query.apply(primary);
+    }
+
+    private <T> ResponseData<T> hedgedRead(Replica first, Function<String, ResponseData<T>> query) {
+        CompletableFuture<ResponseData<T>> winner = new CompletableFuture<ResponseData<T>>();
+        AtomicInteger pending = new AtomicInteger(1);
+        if (!submit(first, query, winner, pending)) {
+            return attempt(first, query);
+        }
+        try {
+            try {
+                return winner.get(hedgeDelay, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                Replica second = choose(first);
+                if (second != null) {
+                    logger.debug("[hedgedRead] {} is slow, hedge to {}.", first.name, second.name);
+                    pending.incrementAndGet();
+                    if (!submit(second, query, winner, pending)
+                        && pending.decrementAndGet() == 0) {
+                        winner.complete(null);
+                    }
+                }
+            }
+            return winner.get(HEDGE_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("[hedgedRead] replicas of {} did not answer in {} ms, read from primary.",
+                primary, HEDGE_TIMEOUT);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResponseData<T>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        } catch (ExecutionException e) {
+            logger.error("[hedgedRead] read from replicas of {} with exception.", primary, e);
+            return null;
+        }
+    }
+
+    /**
+     * 在对冲线程池中执行副本查询, 线程全忙时返回false.
+     */
+    private <T> boolean submit(
+        Replica replica,
+        Function<String, ResponseData<T>> query,
+        CompletableFuture<ResponseData<T>> winner,
+        AtomicInteger pending
+    ) {
+        try {
+            HEDGE_EXECUTOR.execute(() -> {
+                ResponseData<T> response = null;
+                try {
+                    response = attempt(replica, query);
+                } finally {
+                    if (response != null) {
+                        winner.complete(response);
+                    } else if (pending.decrementAndGet() == 0) {
+                        winner.complete(null);
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            logger.debug("[submit] the hedged read threads are busy.");
+            return false;
+        }
+    }
+
+    private static ThreadPoolExecutor newHedgeExecutor() {
+        int threads = Math.max(1, HEDGE_THREADS);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            60L,
+            TimeUnit.SECONDS,
+            new SynchronousQueue<Runnable>(),
+            r -> {
+                Thread thread = new Thread(r, "weid-replica-read");
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 在指定副本上执行查询, 查询失败时返回null.
+     */
+    private <T> ResponseData<T> attempt(Replica replica, Function<String, ResponseData<T>> query) {
+        replica.inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            ResponseData<T> response = query.apply(replica.name);
+            if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()) {
+                long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                replica.onSuccess(latency);
+                recordLatency(latency);
+                return response;
+            }
+            replica.onFailure();
+            return null;
+        } catch (RuntimeException e) {
+            logger.error("[attempt] read from replica {} with exception.", replica.name, e);
+            replica.onFailure();
+            return null;
+        } finally {
+            replica.inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * 从可用副本中随机取两个, 选择负载较低的一个.
+     */
+    private Replica choose(Replica exclude) {
+        long now = System.currentTimeMillis();
+        List<Replica> candidates = new ArrayList<Replica>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica != exclude && replica.downUntil <= now) {
+                candidates.add(replica);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(candidates.size());
+        int j = random.nextInt(candidates.size() - 1);
+        if (j >= i) {
+            j++;
+        }
+        Replica a = candidates.get(i);
+        Replica b = candidates.get(j);
+        return a.load() <= b.load() ? a : b;
+    }
+
+    private void recordLatency(long latency) {
+        int count = latencyCount.getAndIncrement();
+        latencies[count % LATENCY_WINDOW] = latency;
+        if (count + 1 >= LATENCY_WINDOW && (count + 1) % HEDGE_DELAY_REFRESH == 0) {
+            long[] window = latencies.clone();
+            Arrays.sort(window);
+            int index = Math.min(LATENCY_WINDOW - 1, LATENCY_WINDOW * HEDGE_PERCENTILE / 100);
+            hedgeDelay = Math.max(HEDGE_MIN_DELAY, window[index]);
+        }
+    }
+
+    private static class Replica {
+
+        private final String name;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        private volatile double latency;
+
+        private volatile long downUntil;
+
+        Replica(String name) {
+            this.name = name;
+        }
+
+        private double load() {
+            return (inFlight.get() + 1) * (latency + 1);
+        }
+
+        private void onSuccess(long cost) {
+            failures.set(0);
+            latency = latency + LATENCY_EWMA_WEIGHT * (cost - latency);
+        }
+
+        private void onFailure() {
+            if (failures.incrementAndGet() >= FAILURE_THRESHOLD) {
+                failures.set(0);
+                downUntil = System.currentTimeMillis() + DOWN_INTERVAL;
+                logger.warn("[onFailure] replica {} failed {} times, skip it for {} ms.",
+                    name, FAILURE_THRESHOLD, DOWN_INTERVAL);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 结果集行映射器, 按列序号把当前行直接映射为值对象.
+ *
+ * @param <T> 映射后的值对象类型
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * 映射结果集的当前行, 调用方负责移动游标.
+     *
+     * @param rs 已定位到当前行的结果集
+     * @return 映射后的值对象
+     * @throws SQLException 读取列数据异常
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
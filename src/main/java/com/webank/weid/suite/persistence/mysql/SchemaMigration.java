@@ -0,0 +1,79 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import lombok.Getter;
+
+/**
+ * 表结构的单个前向迁移步骤, 版本号在同一张表内递增.
+ * 迁移SQL中使用$1表示表名.
+ */
+@Getter
+public class SchemaMigration {
+
+    /**
+     * 迁移后的表结构版本.
+     */
+    private final int version;
+
+    /**
+     * 迁移说明.
+     */
+    private final String description;
+
+    /**
+     * 迁移创建的索引名称, 用于判断迁移是否已经生效, 非索引迁移为null.
+     */
+    private final String indexName;
+
+    /**
+     * 迁移创建的索引列, 索引的DDL由数据源的方言生成, 非索引迁移为null.
+     */
+    private final String indexColumns;
+
+    /**
+     * 迁移执行的DDL语句, 索引迁移为null.
+     */
+    private final String migrateSql;
+
+    public SchemaMigration(int version, String description, String indexName, String migrateSql) {
+        this(version, description, indexName, null, migrateSql);
+    }
+
+    private SchemaMigration(
+        int version,
+        String description,
+        String indexName,
+        String indexColumns,
+        String migrateSql
+    ) {
+        this.version = version;
+        this.description = description;
+        this.indexName = indexName;
+        this.indexColumns = indexColumns;
+        this.migrateSql = migrateSql;
+    }
+
+    /**
+     * 获取迁移在指定方言下执行的DDL语句.
+     *
+     * @param dialect 数据源的方言
+     * @return 返回迁移执行的DDL语句
+     */
+    public String getMigrateSql(SqlDialect dialect) {
+        if (indexColumns != null) {
+            return dialect.addIndex(indexName, indexColumns);
+        }
+        return migrateSql;
+    }
+
+    /**
+     * 构建一个在线添加普通索引的迁移.
+     *
+     * @param version 迁移后的表结构版本
+     * @param indexName 索引名称
+     * @param columns 索引列, 多列以逗号分隔
+     * @return 返回迁移步骤
+     */
+    public static SchemaMigration addIndex(int version, String indexName, String columns) {
+        return new SchemaMigration(version, "add index " + indexName, indexName, columns, null);
+    }
+}
@@ -0,0 +1,197 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.exception.WeIdBaseException;
+
+/**
+ * 表结构版本迁移执行器.
+ * 每张表已执行的迁移记录在同一数据源的版本表中, 初始化时按版本号顺序执行尚未执行的迁移.
+ * 多个节点同时启动时在数据库的命名锁内串行迁移, 不支持命名锁的进程内数据库在进程内加锁.
+ * 锁外并发迁移时, 已被其他节点创建的索引和已记录的版本视为迁移已执行.
+ */
+public class SchemaMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    /**
+     * 表结构版本记录表.
+     */
+    private static final String SCHEMA_VERSION_TABLE = "weidentity_schema_version";
+
+    private static final String CREATE_SCHEMA_VERSION_TABLE_SQL =
+        "CREATE TABLE IF NOT EXISTS `" + SCHEMA_VERSION_TABLE + "` ("
+            + "`table_name` varchar(128) NOT NULL COMMENT 'table name',"
+            + "`version` int NOT NULL COMMENT 'schema version', "
+            + "`description` varchar(200) DEFAULT NULL COMMENT 'migration description', "
+            + "`created` datetime DEFAULT NULL COMMENT 'created', "
+            + "PRIMARY KEY (`table_name`, `version`) "
+            + ") ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='the schema version table'";
+
+    private static final String SQL_QUERY_SCHEMA_VERSION =
+        "select max(version) from `" + SCHEMA_VERSION_TABLE + "` where table_name = ?";
+
+    private static final String SQL_SAVE_SCHEMA_VERSION =
+        "insert into `" + SCHEMA_VERSION_TABLE
+            + "` (table_name,version,description,created) values(?,?,?,?)";
+
+    /**
+     * 迁移命名锁的名称和等待秒数.
+     */
+    private static final String MIGRATION_LOCK = "weidentity_schema_migration";
+
+    private static final int MIGRATION_LOCK_TIMEOUT = 60;
+
+    private static final Object LOCAL_MIGRATION_LOCK = new Object();
+
+    private final SqlDomain sqlDomain;
+
+    private final SqlExecutor sqlExecutor;
+
+    public SchemaMigrator(SqlDomain sqlDomain) {
+        this.sqlDomain = sqlDomain;
+        this.sqlExecutor = new SqlExecutor(sqlDomain).usePrimary();
+    }
+
+    /**
+     * 按版本号顺序执行尚未执行的迁移, 迁移列表需按版本号升序排列.
+     *
+     * @param migrations 该表的全部迁移
+     */
+    public void migrate(List<SchemaMigration> migrations) {
+        if (migrations == null || migrations.isEmpty()) {
+            return;
+        }
+        SqlDialect dialect = sqlExecutor.getDialect();
+        for (String ddl : dialect.createTable(CREATE_SCHEMA_VERSION_TABLE_SQL)) {
+            checkResult(sqlExecutor.execute(ddl));
+        }
+        if (dialect.getLockSql() == null) {
+            synchronized (LOCAL_MIGRATION_LOCK) {
+                doMigrate(migrations, dialect);
+            }
+            return;
+        }
+        Connection lockConn = lock(dialect);
+        try {
+            doMigrate(migrations, dialect);
+        } finally {
+            unlock(lockConn, dialect);
+        }
+    }
+
+    private void doMigrate(List<SchemaMigration> migrations, SqlDialect dialect) {
+        String tableName = sqlDomain.getTableName();
+        ResponseData<Integer> versionRes = sqlExecutor.executeQueryObject(
+            SQL_QUERY_SCHEMA_VERSION,
+            SqlExecutor.INTEGER_MAPPER,
+            tableName
+        );
+        checkResult(versionRes);
+        int current = versionRes.getResult() == null ? 0 : versionRes.getResult();
+        for (SchemaMigration migration : migrations) {
+            if (migration.getVersion() <= current) {
+                continue;
+            }
+            if (!isApplied(migration)) {
+                logger.info(
+                    "[migrate] migrate table {} to version {}: {}.",
+                    tableName,
+                    migration.getVersion(),
+                    migration.getDescription()
+                );
+                ResponseData<Integer> migrateRes =
+                    sqlExecutor.execute(migration.getMigrateSql(dialect));
+                if (migrateRes.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()
+                    && !isApplied(migration)) {
+                    checkResult(migrateRes);
+                }
+            }
+            checkResult(sqlExecutor.executeIfAbsent(
+                SQL_SAVE_SCHEMA_VERSION,
+                tableName,
+                migration.getVersion(),
+                migration.getDescription(),
+                sqlDomain.getNow()
+            ));
+            current = migration.getVersion();
+        }
+    }
+
+    // 获取迁移命名锁, 锁由返回的连接持有
+    private Connection lock(SqlDialect dialect) {
+        Connection conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
+        if (conn == null) {
+            throw new WeIdBaseException(ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+        }
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = conn.prepareStatement(dialect.getLockSql());
+            ps.setString(1, MIGRATION_LOCK);
+            ps.setInt(2, MIGRATION_LOCK_TIMEOUT);
+            rs = ps.executeQuery();
+            if (rs.next() && rs.getInt(1) == 1) {
+                ConnectionPool.close(null, ps, rs);
+                return conn;
+            }
+            logger.error("[migrate] wait for the migration lock of {} timeout.",
+                sqlDomain.getBaseDomain());
+        } catch (SQLException e) {
+            logger.error("[migrate] get the migration lock of {} with exception.",
+                sqlDomain.getBaseDomain(), e);
+        }
+        ConnectionPool.close(conn, ps, rs);
+        throw new WeIdBaseException(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+    }
+
+    private void unlock(Connection conn, SqlDialect dialect) {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(dialect.getUnlockSql());
+            ps.setString(1, MIGRATION_LOCK);
+            ps.execute();
+        } catch (SQLException e) {
+            logger.error("[migrate] release the migration lock of {} with exception.",
+                sqlDomain.getBaseDomain(), e);
+        } finally {
+            ConnectionPool.close(conn, ps);
+        }
+    }
+
+    // 索引已存在时说明迁移已经生效, 只需补记版本
+    private boolean isApplied(SchemaMigration migration) {
+        if (StringUtils.isBlank(migration.getIndexName())) {
+            return false;
+        }
+        ResponseData<Map<String, String>> indexRes =
+            sqlExecutor.executeQuery(
+                sqlExecutor.getDialect().getCheckIndexSql(), migration.getIndexName());
+        checkResult(indexRes);
+        return indexRes.getResult() != null;
+    }
+
+    private void checkResult(ResponseData<?> response) {
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            logger.error(
+                "[migrate] migrate the domain {{}:{}} fail, code:{}, message:{}.",
+                sqlDomain.getKey(),
+                sqlDomain.getValue(),
+                response.getErrorCode(),
+                response.getErrorMessage()
+            );
+            throw new WeIdBaseException(ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+    }
+}
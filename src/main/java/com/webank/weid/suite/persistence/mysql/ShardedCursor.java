@@ -0,0 +1,72 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import com.webank.weid.suite.persistence.PersistenceCursor;
+
+/**
+ * 归并各分片有序游标的游标, 每次返回所有分片中最小的下一个值.
+ *
+ * @param <T> 游标返回的数据类型
+ */
+class ShardedCursor<T extends Comparable<? super T>> implements PersistenceCursor<T> {
+
+    private final List<PersistenceCursor<T>> cursors;
+
+    private final PriorityQueue<Head<T>> heads = new PriorityQueue<Head<T>>();
+
+    ShardedCursor(List<PersistenceCursor<T>> cursors) {
+        this.cursors = cursors;
+        for (PersistenceCursor<T> cursor : cursors) {
+            advance(cursor);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Head<T> head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        advance(head.cursor);
+        return head.value;
+    }
+
+    @Override
+    public void close() {
+        heads.clear();
+        for (PersistenceCursor<T> cursor : cursors) {
+            cursor.close();
+        }
+    }
+
+    private void advance(PersistenceCursor<T> cursor) {
+        if (cursor.hasNext()) {
+            heads.add(new Head<T>(cursor.next(), cursor));
+        }
+    }
+
+    private static class Head<T extends Comparable<? super T>> implements Comparable<Head<T>> {
+
+        private final T value;
+
+        private final PersistenceCursor<T> cursor;
+
+        Head(T value, PersistenceCursor<T> cursor) {
+            this.value = value;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public int compareTo(Head<T> other) {
+            return value.compareTo(other.value);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.suite.persistence.PersistenceCursor;
+
+/**
+ * 分片表操作辅助类.
+ * 按主键读写的操作路由到主键所在的分片, 计数和列表操作在全部分片上执行后合并结果.
+ * 未分片的domain只有一个分片, 所有操作直接在该分片上执行.
+ */
+public class ShardedSqlExecutor {
+
+    private final SqlDomain sqlDomain;
+
+    public ShardedSqlExecutor(SqlDomain sqlDomain) {
+        this.sqlDomain = sqlDomain;
+    }
+
+    /**
+     * 获取主键所在分片的SQL执行器.
+     *
+     * @param shardKey 主键
+     * @return 主键所在分片的SQL执行器
+     */
+    public SqlExecutor route(Object shardKey) {
+        return new SqlExecutor(sqlDomain.route(shardKey));
+    }
+
+    /**
+     * 在全部分片上查询总数并求和.
+     *
+     * @param sql 查询总数的SQL语句
+     * @return 返回全部分片的总数
+     */
+    public ResponseData<Integer> executeQueryAmounts(String sql) {
+        int amounts = 0;
+        for (SqlDomain shard : sqlDomain.getShards()) {
+            ResponseData<Integer> response = new SqlExecutor(shard).executeQueryAmounts(sql);
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return response;
+            }
+            amounts += response.getResult() == null ? 0 : response.getResult();
+        }
+        return new ResponseData<Integer>(amounts, ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 按序号分页查询, 分片按配置顺序排列, 先用各分片的总行数定位起始分片, 再依次读取.
+     *
+     * @param sql 含有起始序号和数量占位符的SQL语句
+     * @param first 起始序号
+     * @param num 查询的数量
+     * @return 返回查询出来的多行数据
+     */
+    public ResponseData<List<String>> executeQueryLines(String sql, int first, int num) {
+        if (!sqlDomain.isSharded()) {
+            return new SqlExecutor(sqlDomain).executeQueryLines(sql, first, num);
+        }
+        List<String> lines = new ArrayList<String>();
+        int skip = first;
+        for (SqlDomain shard : sqlDomain.getShards()) {
+            if (lines.size() >= num) {
+                break;
+            }
+            SqlExecutor sqlExecutor = new SqlExecutor(shard);
+            ResponseData<Integer> amounts =
+                sqlExecutor.executeQueryAmounts(SqlExecutor.SQL_QUERY_TOTAL_LINE);
+            if (amounts.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<List<String>>(
+                    null, ErrorCode.getTypeByErrorCode(amounts.getErrorCode()));
+            }
+            if (skip >= amounts.getResult()) {
+                skip -= amounts.getResult();
+                continue;
+            }
+            ResponseData<List<String>> response =
+                sqlExecutor.executeQueryLines(sql, skip, num - lines.size());
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return response;
+            }
+            lines.addAll(response.getResult());
+            skip = 0;
+        }
+        return new ResponseData<List<String>>(lines, ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 查询主键之后的若干主键, 各分片分别查询后合并排序.
+     *
+     * @param <T> 主键类型
+     * @param sql 含有起始主键和数量占位符且按主键排序的SQL语句
+     * @param rowMapper 行映射器
+     * @param after 上一页最后一个主键
+     * @param num 查询的数量
+     * @return 返回按主键排序的主键列表
+     */
+    public <T extends Comparable<? super T>> ResponseData<List<T>> executeQueryAfter(
+        String sql,
+        RowMapper<T> rowMapper,
+        T after,
+        int num
+    ) {
+        List<T> merged = new ArrayList<T>();
+        for (SqlDomain shard : sqlDomain.getShards()) {
+            ResponseData<List<T>> response =
+                new SqlExecutor(shard).executeQueryList(sql, rowMapper, after, num);
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return response;
+            }
+            merged.addAll(response.getResult());
+        }
+        if (sqlDomain.isSharded()) {
+            Collections.sort(merged);
+            if (merged.size() > num) {
+                merged = new ArrayList<T>(merged.subList(0, num));
+            }
+        }
+        return new ResponseData<List<T>>(merged, ErrorCode.SUCCESS);
+    }
+
+    /**
+     * IN条件批量查询, 主键按分片分组后分别查询.
+     *
+     * @param <T> 值对象类型
+     * @param sql 含有IN条件占位符的SQL语句
+     * @param rowMapper 行映射器
+     * @param keys 主键列表
+     * @return 返回查询出来的值对象列表, 不存在的数据不返回
+     */
+    public <T> ResponseData<List<T>> executeQueryIn(
+        String sql,
+        RowMapper<T> rowMapper,
+        List<?> keys
+    ) {
+        if (!sqlDomain.isSharded()) {
+            return new SqlExecutor(sqlDomain).executeQueryIn(sql, rowMapper, keys);
+        }
+        Map<SqlDomain, List<Object>> groups = new LinkedHashMap<SqlDomain, List<Object>>();
+        for (Object key : keys) {
+            groups.computeIfAbsent(sqlDomain.route(key), shard -> new ArrayList<Object>()).add(key);
+        }
+        List<T> dataList = new ArrayList<T>();
+        for (Map.Entry<SqlDomain, List<Object>> group : groups.entrySet()) {
+            ResponseData<List<T>> response =
+                new SqlExecutor(group.getKey()).executeQueryIn(sql, rowMapper, group.getValue());
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return response;
+            }
+            dataList.addAll(response.getResult());
+        }
+        return new ResponseData<List<T>>(dataList, ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 按非主键条件查询单个值对象, 依次查询各分片, 返回第一个查询到的结果.
+     *
+     * @param <T> 值对象类型
+     * @param sql 需要被执行的SQL语句
+     * @param rowMapper 行映射器
+     * @param data 占位符所需要的数据
+     * @return 返回查询出来的单个值对象, 无数据时结果为null
+     */
+    public <T> ResponseData<T> executeQueryFirst(
+        String sql,
+        RowMapper<T> rowMapper,
+        Object... data
+    ) {
+        for (SqlDomain shard : sqlDomain.getShards()) {
+            ResponseData<T> response = new SqlExecutor(shard).executeQueryObject(sql, rowMapper, data);
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()
+                || response.getResult() != null) {
+                return response;
+            }
+        }
+        return new ResponseData<T>(null, ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 批量写入, 数据行按主键分组后分别写入各分片.
+     *
+     * @param sql 需要被执行的SQL语句, 一般为insert ... on duplicate key update
+     * @param rows 每行占位符所需要的数据
+     * @param keyIndex 主键在每行数据中的位置
+     * @return 返回每行的执行结果, 顺序与rows一致, 成功为1, 失败为0
+     */
+    public ResponseData<List<Integer>> batchUpsert(String sql, List<Object[]> rows, int keyIndex) {
+        if (!sqlDomain.isSharded()) {
+            return new SqlExecutor(sqlDomain).batchUpsert(sql, rows);
+        }
+        Map<SqlDomain, List<Integer>> groups = new LinkedHashMap<SqlDomain, List<Integer>>();
+        for (int i = 0; i < rows.size(); i++) {
+            groups.computeIfAbsent(sqlDomain.route(rows.get(i)[keyIndex]),
+                shard -> new ArrayList<Integer>()).add(i);
+        }
+        Integer[] rowResults = new Integer[rows.size()];
+        ErrorCode errorCode = ErrorCode.SUCCESS;
+        for (Map.Entry<SqlDomain, List<Integer>> group : groups.entrySet()) {
+            List<Object[]> shardRows = new ArrayList<Object[]>(group.getValue().size());
+            for (Integer index : group.getValue()) {
+                shardRows.add(rows.get(index));
+            }
+            ResponseData<List<Integer>> response =
+                new SqlExecutor(group.getKey()).batchUpsert(sql, shardRows);
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                errorCode = ErrorCode.getTypeByErrorCode(response.getErrorCode());
+            }
+            for (int i = 0; i < group.getValue().size(); i++) {
+                rowResults[group.getValue().get(i)] = response.getResult() == null
+                    ? DataDriverConstant.SQL_EXECUTE_FAILED_STATUS
+                    : response.getResult().get(i);
+            }
+        }
+        List<Integer> result = new ArrayList<Integer>(rowResults.length);
+        Collections.addAll(result, rowResults);
+        return new ResponseData<List<Integer>>(result, errorCode);
+    }
+
+    /**
+     * 以只进游标方式查询全部分片, 各分片按主键排序的结果归并为一个有序游标.
+     * 返回的游标持有每个分片的数据库连接, 调用方必须在使用完毕后关闭.
+     *
+     * @param <T> 主键类型
+     * @param sql 按主键排序的SQL语句
+     * @param rowMapper 行映射器
+     * @param fetchSize 每次从数据库读取的行数
+     * @return 返回只进游标
+     */
+    public <T extends Comparable<? super T>> ResponseData<PersistenceCursor<T>> executeQueryCursor(
+        String sql,
+        RowMapper<T> rowMapper,
+        int fetchSize
+    ) {
+        if (!sqlDomain.isSharded()) {
+            return new SqlExecutor(sqlDomain).executeQueryCursor(sql, rowMapper, fetchSize);
+        }
+        List<PersistenceCursor<T>> cursors = new ArrayList<PersistenceCursor<T>>();
+        for (SqlDomain shard : sqlDomain.getShards()) {
+            ResponseData<PersistenceCursor<T>> response =
+                new SqlExecutor(shard).executeQueryCursor(sql, rowMapper, fetchSize);
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                for (PersistenceCursor<T> cursor : cursors) {
+                    cursor.close();
+                }
+                return response;
+            }
+            cursors.add(response.getResult());
+        }
+        return new ResponseData<PersistenceCursor<T>>(
+            new ShardedCursor<T>(cursors), ErrorCode.SUCCESS);
+    }
+}
@@ -0,0 +1,83 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.suite.persistence.PersistenceCursor;
+
+/**
+ * 基于只进结果集的游标, 持有连接直到遍历结束或被关闭.
+ *
+ * @param <T> 游标返回的数据类型
+ */
+class SqlCursor<T> implements PersistenceCursor<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlCursor.class);
+
+    private final Connection conn;
+
+    private final PreparedStatement ps;
+
+    private final ResultSet rs;
+
+    private final RowMapper<T> rowMapper;
+
+    private T next;
+
+    private boolean closed;
+
+    SqlCursor(Connection conn, PreparedStatement ps, ResultSet rs, RowMapper<T> rowMapper) {
+        this.conn = conn;
+        this.ps = ps;
+        this.rs = rs;
+        this.rowMapper = rowMapper;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (closed) {
+            return false;
+        }
+        try {
+            if (rs.next()) {
+                next = rowMapper.mapRow(rs);
+                return true;
+            }
+        } catch (SQLException e) {
+            logger.error("[hasNext] read the next row with exception.", e);
+            close();
+            throw new WeIdBaseException(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+        close();
+        return false;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T value = next;
+        next = null;
+        return value;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            ConnectionPool.close(conn, ps, rs);
+        }
+    }
+}
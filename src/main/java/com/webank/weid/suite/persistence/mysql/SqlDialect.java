@@ -0,0 +1,96 @@
+package com.webank.weid.suite.persistence.mysql;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 数据库方言, 负责生成与具体数据库相关的SQL.
+ * SQL模板统一按MySQL语法编写, 使用$1表示表名, 由方言翻译为目标数据库可执行的语句.
+ */
+public interface SqlDialect {
+
+    /**
+     * 方言名称, 与数据源的jdbc.dialect配置项对应.
+     *
+     * @return 方言名称
+     */
+    String getName();
+
+    /**
+     * 未配置jdbc.driver时使用的驱动类.
+     *
+     * @return 驱动类名
+     */
+    String getDriverClass();
+
+    /**
+     * 补充连接URL中的方言相关参数, 如批量写入改写等, 已配置的参数保持不变.
+     *
+     * @param url 配置的连接URL
+     * @return 返回补充后的连接URL
+     */
+    String decorateUrl(String url);
+
+    /**
+     * 检查表是否存在的SQL, 表存在时返回表名列, 列别名为data.
+     * $1表示表名, $2表示库名.
+     *
+     * @return 检查表的SQL
+     */
+    String getCheckTableSql();
+
+    /**
+     * 检查索引是否存在的SQL, 索引存在时返回一行, 唯一的占位符为索引名称.
+     * $1表示表名, $2表示库名.
+     *
+     * @return 检查索引的SQL
+     */
+    String getCheckIndexSql();
+
+    /**
+     * 把建表语句翻译为目标数据库的DDL, 不支持内联索引的数据库会拆分出单独的建索引语句.
+     *
+     * @param createTableSql MySQL语法的建表语句
+     * @return 按顺序执行的DDL
+     */
+    List<String> createTable(String createTableSql);
+
+    /**
+     * 为已存在的表添加普通索引的DDL.
+     *
+     * @param indexName 索引名称
+     * @param columns 索引列, 多列以逗号分隔
+     * @return 添加索引的DDL
+     */
+    String addIndex(String indexName, String columns);
+
+    /**
+     * 把增删改查语句翻译为目标数据库的语法, 包括分页和插入或更新.
+     *
+     * @param sql MySQL语法的SQL模板
+     * @return 翻译后的SQL模板
+     */
+    String translate(String sql);
+
+    /**
+     * 获取命名锁的SQL, 参数为锁名称和等待秒数, 查询结果为1时获取成功, 锁随连接释放.
+     *
+     * @return 获取命名锁的SQL, 不支持命名锁时为null
+     */
+    String getLockSql();
+
+    /**
+     * 释放命名锁的SQL, 参数为锁名称.
+     *
+     * @return 释放命名锁的SQL, 不支持命名锁时为null
+     */
+    String getUnlockSql();
+
+    /**
+     * 判断执行异常是否由主键或唯一索引冲突引起.
+     *
+     * @param e 执行SQL抛出的异常
+     * @return 主键或唯一索引冲突时返回true
+     */
+    boolean isDuplicateKey(SQLException e);
+}
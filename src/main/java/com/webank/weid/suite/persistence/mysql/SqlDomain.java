@@ -2,6 +2,17 @@
 
 package com.webank.weid.suite.persistence.mysql;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -47,6 +58,53 @@ public class SqlDomain extends BaseDomain {
      * 表名分隔符.
      */
     private static final String TABLE_SPLIT_CHAR = "_";
+
+    /**
+     * 分片数据源的前缀和后缀, 配置格式为shard(datasource1,datasource2):table.
+     */
+    private static final String SHARD_PREFIX = "shard(";
+
+    private static final String SHARD_SUFFIX = ")";
+
+    /**
+     * 分片数据源名称分隔符.
+     */
+    private static final String SHARD_SPLIT_CHAR = ",";
+
+    /**
+     * 一致性哈希环上每个分片的虚拟节点数.
+     */
+    private static final int SHARD_VIRTUAL_NODES = 160;
+
+    /**
+     * 已解析的domain注册表, key为domain配置项.
+     */
+    private static final Map<String, SqlDomain> DOMAIN_REGISTRY =
+        new ConcurrentHashMap<String, SqlDomain>();
+
+    /**
+     * 表名, 首次获取时生成.
+     */
+    @Getter(AccessLevel.NONE)
+    private String tableName;
+
+    /**
+     * SQL模板与最终可执行SQL的映射.
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, String> executeSqlCache = new ConcurrentHashMap<String, String>();
+
+    /**
+     * 分片domain, 每个数据源一个, 未分片时为空.
+     */
+    @Getter(AccessLevel.NONE)
+    private List<SqlDomain> shards = Collections.emptyList();
+
+    /**
+     * 分片的一致性哈希环, 未分片时为空.
+     */
+    @Getter(AccessLevel.NONE)
+    private final TreeMap<Long, SqlDomain> shardRing = new TreeMap<Long, SqlDomain>();
     
     public SqlDomain() {
         resolveDomain();
@@ -57,11 +115,39 @@ public class SqlDomain extends BaseDomain {
         resolveDomain();
     }
 
+    private SqlDomain(SqlDomain parent, String baseDomain) {
+        this.key = parent.key;
+        this.value = parent.value;
+        this.tableDomain = parent.tableDomain;
+        this.timeout = parent.timeout;
+        this.baseDomain = baseDomain;
+    }
+
+    /**
+     * 从注册表中获取domain, 每个domain只解析一次.
+     *
+     * @param domainKey domain配置项
+     * @return 已解析的domain
+     */
+    public static SqlDomain resolve(String domainKey) {
+        String key = StringUtils.isBlank(domainKey) 
+            ? DataDriverConstant.DOMAIN_DEFAULT_INFO : domainKey;
+        SqlDomain sqlDomain = DOMAIN_REGISTRY.get(key);
+        if (sqlDomain == null) {
+            sqlDomain = new SqlDomain(key);
+            SqlDomain exists = DOMAIN_REGISTRY.putIfAbsent(key, sqlDomain);
+            if (exists != null) {
+                sqlDomain = exists;
+            }
+        }
+        return sqlDomain;
+    }
+
     private void resolveDomain() {
         if (StringUtils.isBlank(this.key)) {
             this.key = DataDriverConstant.DOMAIN_DEFAULT_INFO;
         }
-        this.value = PropertyUtils.getProperty(this.key);
+        this.value = getDomainValue(this.key);
         if (StringUtils.isBlank(this.value) 
             && DataDriverConstant.DOMAIN_DEFAULT_INFO.equals(this.key)) {
             this.baseDomain = ConnectionPool.getFirstDataSourceName();
@@ -69,8 +155,14 @@ public class SqlDomain extends BaseDomain {
         } else if (StringUtils.isNotBlank(this.value) 
             && this.value.split(VALUE_SPLIT_CHAR).length == 2) {
             String[] domains = this.value.split(VALUE_SPLIT_CHAR);
-            this.baseDomain = domains[0];
             this.tableDomain = domains[1];
+            if (domains[0].startsWith(SHARD_PREFIX) && domains[0].endsWith(SHARD_SUFFIX)) {
+                resolveShards(domains[0].substring(
+                    SHARD_PREFIX.length(), domains[0].length() - SHARD_SUFFIX.length()));
+                resolveDomainTimeout();
+                return;
+            }
+            this.baseDomain = domains[0];
             if (!ConnectionPool.checkDataSourceName(this.baseDomain)) {
                 logger.error(
                     "[resolveDomain] the domain {{}:{}} is invalid, {} is not exists.",
@@ -90,20 +182,127 @@ public class SqlDomain extends BaseDomain {
         resolveDomainTimeout();
     }
     
+    private void resolveShards(String dataSourceNames) {
+        if (!this.key.startsWith(LOCAL_PREFIX)) {
+            logger.error("[resolveShards] the domain {{}:{}} is illegal, only local table can be sharded.",
+                this.key,
+                this.value
+            );
+            throw new WeIdBaseException(ErrorCode.PRESISTENCE_DOMAIN_ILLEGAL);
+        }
+        List<SqlDomain> shardList = new ArrayList<SqlDomain>();
+        for (String dataSourceName : dataSourceNames.split(SHARD_SPLIT_CHAR)) {
+            String name = dataSourceName.trim();
+            if (!ConnectionPool.checkDataSourceName(name)) {
+                logger.error(
+                    "[resolveShards] the domain {{}:{}} is invalid, {} is not exists.",
+                    this.key,
+                    this.value,
+                    name
+                );
+                throw new WeIdBaseException(ErrorCode.PRESISTENCE_DOMAIN_INVALID);
+            }
+            SqlDomain shard = new SqlDomain(this, name);
+            shardList.add(shard);
+            // 虚拟节点以数据源名称计算, 增减分片时只迁移相邻区间的数据
+            for (int i = 0; i < SHARD_VIRTUAL_NODES / 4; i++) {
+                byte[] digest = md5(name + SHARD_SPLIT_CHAR + i);
+                for (int h = 0; h < 4; h++) {
+                    shardRing.put(ringPoint(digest, h), shard);
+                }
+            }
+        }
+        this.baseDomain = shardList.get(0).getBaseDomain();
+        this.shards = Collections.unmodifiableList(shardList);
+        logger.info("[resolveShards] the domain {} is sharded to {}.", this.key, dataSourceNames);
+    }
+
+    /**
+     * 是否为分片domain.
+     *
+     * @return 分片时返回true
+     */
+    public boolean isSharded() {
+        return !this.shards.isEmpty();
+    }
+
+    /**
+     * 获取全部分片, 未分片时只包含自身.
+     *
+     * @return 分片domain列表
+     */
+    public List<SqlDomain> getShards() {
+        return isSharded() ? this.shards : Collections.singletonList(this);
+    }
+
+    /**
+     * 按主键的一致性哈希选择分片, 未分片时返回自身.
+     *
+     * @param shardKey 主键
+     * @return 主键所在的分片domain
+     */
+    public SqlDomain route(Object shardKey) {
+        if (!isSharded()) {
+            return this;
+        }
+        long point = ringPoint(md5(String.valueOf(shardKey)), 0);
+        Map.Entry<Long, SqlDomain> entry = shardRing.ceilingEntry(point);
+        return entry != null ? entry.getValue() : shardRing.firstEntry().getValue();
+    }
+
+    private static byte[] md5(String value) {
+        try {
+            return MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long ringPoint(byte[] digest, int index) {
+        return ((long) (digest[3 + index * 4] & 0xFF) << 24)
+            | ((long) (digest[2 + index * 4] & 0xFF) << 16)
+            | ((long) (digest[1 + index * 4] & 0xFF) << 8)
+            | (digest[index * 4] & 0xFF);
+    }
+
     /**
      * get the table name.
      * @return the tableName
      */
     public String getTableName() {
+        if (this.tableName != null) {
+            return this.tableName;
+        }
         if (StringUtils.isBlank(ORG_ID)) {
             logger.error("[getTableName] the orgid is blank.");
             throw new WeIdBaseException(ErrorCode.ORG_ID_IS_NULL);
         }
-        return new StringBuffer(DEFAULT_TABLE_PREFIX)
+        this.tableName = new StringBuffer(DEFAULT_TABLE_PREFIX)
             .append(TABLE_SPLIT_CHAR)
             .append(ORG_ID)
             .append(TABLE_SPLIT_CHAR)
             .append(this.tableDomain).toString();
+        return this.tableName;
+    }
+
+    /**
+     * 获取已替换好表名和库名的SQL.
+     *
+     * @param sqlTemplate SQL模板
+     * @return 可执行SQL, 未缓存时返回null
+     */
+    String getExecuteSql(String sqlTemplate) {
+        return executeSqlCache.get(sqlTemplate);
+    }
+
+    /**
+     * 缓存已替换好表名和库名的SQL.
+     *
+     * @param sqlTemplate SQL模板
+     * @param executeSql 可执行SQL
+     */
+    void putExecuteSql(String sqlTemplate, String executeSql) {
+        executeSqlCache.put(sqlTemplate, executeSql);
     }
     
     /**
@@ -112,5 +311,6 @@ public class SqlDomain extends BaseDomain {
      */
     void setBaseDomain(String baseDomain) {
         this.baseDomain = baseDomain;
+        this.executeSqlCache.clear();
     }
 }
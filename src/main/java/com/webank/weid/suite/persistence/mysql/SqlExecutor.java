@@ -7,10 +7,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -21,10 +23,23 @@ import com.webank.weid.constant.DataDriverConstant;
 import com.webank.weid.blockchain.constant.ErrorCode;
 import com.webank.weid.exception.WeIdBaseException;
 import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.suite.persistence.AuthorityIssuerInfo;
+import com.webank.weid.suite.persistence.CptValue;
+import com.webank.weid.suite.persistence.DefaultValue;
+import com.webank.weid.suite.persistence.EvidenceLogValue;
+import com.webank.weid.suite.persistence.EvidenceValue;
+import com.webank.weid.suite.persistence.PersistenceCursor;
+import com.webank.weid.suite.persistence.PolicyValue;
+import com.webank.weid.suite.persistence.PresentationValue;
+import com.webank.weid.suite.persistence.RoleValue;
+import com.webank.weid.suite.persistence.SpecificTypeValue;
+import com.webank.weid.suite.persistence.WeIdDocumentValue;
+import com.webank.weid.util.PropertyUtils;
 
 
 /**
  * 数据库操作辅助类.
+ * SQL模板按MySQL语法编写, 执行前由数据源的方言翻译为目标数据库的语法.
  *
  * @author v_wbgyang
  */
@@ -38,10 +53,18 @@ public class SqlExecutor {
      * 库占位符.
      */
     public static final String DATABASE_CHAR = "$2";
+    /**
+     * IN条件占位符, 执行时替换为与数据个数相同的?.
+     */
+    public static final String IN_CHAR = "$3";
     /**
      * sql for query.
      */
     public static final String SQL_QUERY = "select id,data,created,expire from $1 where id =?";
+    /**
+     * sql for query several data by id.
+     */
+    public static final String SQL_QUERY_IN = "select id,data,created,expire from $1 where id in ($3)";
     /**
      * sql for add.
      */
@@ -52,10 +75,21 @@ public class SqlExecutor {
      */
     public static final String SQL_UPDATE = "update $1 set updated = ?, data = ?, expire = ? "
             + "where id = ?";
+    /**
+     * sql for add or update.
+     */
+    public static final String SQL_UPSERT = "insert into $1(id, data, expire, created, updated) "
+            + "values(?,?,?,?,?) on duplicate key update "
+            + "data = values(data), expire = values(expire), updated = values(updated)";
     /**
      * sql for delete.
      */
     public static final String SQL_DELETE = "delete from $1 where id = ?";
+    /**
+     * sql for delete expired data in bounded batches.
+     */
+    public static final String SQL_DELETE_EXPIRED =
+            "delete from $1 where expire is not null and expire < ? limit ?";
     /**
      * sql for add transaction.
      */
@@ -71,6 +105,14 @@ public class SqlExecutor {
      * sql for query several weId from firstIndex.
      */
     public static final String SQL_QUERY_SEVERAL_WEID = "select weid from $1 LIMIT ?, ?";
+    /**
+     * sql for query several weId after the given weId.
+     */
+    public static final String SQL_QUERY_WEID_AFTER = "select weid from $1 where weid > ? order by weid LIMIT ?";
+    /**
+     * sql for scan all weId.
+     */
+    public static final String SQL_SCAN_WEID = "select weid from $1 order by weid";
     /**
      * sql for insert weIdDocument and metaDta.
      */
@@ -79,10 +121,21 @@ public class SqlExecutor {
      * sql for query weIdDocument and metaDta.
      */
     public static final String SQL_QUERY_WEID = "select weid,created,updated,version,deactivated,document_schema from $1 where weid=?";
+    /**
+     * sql for query several weIdDocument by weId.
+     */
+    public static final String SQL_QUERY_WEID_IN = "select weid,created,updated,version,deactivated,document_schema from $1 where weid in ($3)";
     /**
      * sql for update weIdDocument and metaDta.
      */
     public static final String SQL_UPDATE_WEID = "update $1 set updated = ?, version = ?, deactivated = ?, document_schema = ? where weid = ?";
+    /**
+     * sql for add or update weIdDocument, the deactivated weId is not updated.
+     */
+    public static final String SQL_UPSERT_WEID = "insert into $1 (weid,created,updated,version,deactivated,document_schema) values(?,?,?,?,?,?) "
+            + "on duplicate key update updated = case when deactivated = 1 then updated else values(updated) end, "
+            + "version = case when deactivated = 1 then version else version + 1 end, "
+            + "document_schema = case when deactivated = 1 then document_schema else values(document_schema) end";
     /**
      * sql for query cpt.
      */
@@ -95,6 +148,12 @@ public class SqlExecutor {
      * sql for update cpt.
      */
     public static final String SQL_UPDATE_CPT = "update $1 set updated = ?, cpt_version = ?, publisher = ?, description = ?, cpt_schema = ?, cpt_signature = ? where cpt_id = ?";
+    /**
+     * sql for add or update cpt.
+     */
+    public static final String SQL_UPSERT_CPT = "insert into $1 (cpt_id,created,updated,cpt_version,publisher,description,cpt_schema,cpt_signature) values(?,?,?,?,?,?,?,?) "
+            + "on duplicate key update updated = values(updated), cpt_version = values(cpt_version), publisher = values(publisher), "
+            + "description = values(description), cpt_schema = values(cpt_schema), cpt_signature = values(cpt_signature)";
     /**
      * sql for update credential template.
      */
@@ -107,6 +166,14 @@ public class SqlExecutor {
      * sql for query several cpt_id from firstIndex.
      */
     public static final String SQL_QUERY_SEVERAL_CPT = "select cpt_id from $1 LIMIT ?, ?";
+    /**
+     * sql for query several cpt_id after the given cpt_id.
+     */
+    public static final String SQL_QUERY_CPT_ID_AFTER = "select cpt_id from $1 where cpt_id > ? order by cpt_id LIMIT ?";
+    /**
+     * sql for scan all cpt_id.
+     */
+    public static final String SQL_SCAN_CPT_ID = "select cpt_id from $1 order by cpt_id";
     /**
      * sql for insert policy.
      */
@@ -119,6 +186,10 @@ public class SqlExecutor {
      * sql for query several policy_id from firstIndex.
      */
     public static final String SQL_QUERY_SEVERAL_POLICY = "select policy_id from $1 LIMIT ?, ?";
+    /**
+     * sql for query several policy_id after the given policy_id.
+     */
+    public static final String SQL_QUERY_POLICY_ID_AFTER = "select policy_id from $1 where policy_id > ? order by policy_id LIMIT ?";
     /**
      * sql for insert presentation.
      */
@@ -135,6 +206,10 @@ public class SqlExecutor {
      * sql for query authority issuer by weId.
      */
     public static final String SQL_QUERY_AUTHORITY_ISSUER_BY_ADDRESS = "select weid,name,description,created,updated,recognize,acc_value,extra_str,extra_int from $1 where weid =?";
+    /**
+     * sql for query several authority issuer by weId.
+     */
+    public static final String SQL_QUERY_AUTHORITY_ISSUER_IN = "select weid,name,description,created,updated,recognize,acc_value,extra_str,extra_int from $1 where weid in ($3)";
     /**
      * sql for query authority issuer by name.
      */
@@ -163,6 +238,12 @@ public class SqlExecutor {
      * sql for update role.
      */
     public static final String SQL_UPDATE_ROLE = "update $1 set updated = ?, authority_role = ?, committee_role = ?, admin_role = ? where weid = ?";
+    /**
+     * sql for add or update role.
+     */
+    public static final String SQL_UPSERT_ROLE = "insert into $1 (weid,created,updated,authority_role,committee_role,admin_role) values(?,?,?,?,?,?) "
+            + "on duplicate key update updated = values(updated), authority_role = values(authority_role), "
+            + "committee_role = values(committee_role), admin_role = values(admin_role)";
     /**
      * sql for insert specific type.
      */
@@ -171,6 +252,10 @@ public class SqlExecutor {
      * sql for query specific type by type_name.
      */
     public static final String SQL_QUERY_SPECIFIC_TYPE = "select type_name,fellow,created,updated,owner from $1 where type_name =?";
+    /**
+     * sql for query several specific issuer by type_name.
+     */
+    public static final String SQL_QUERY_SPECIFIC_TYPE_IN = "select type_name,fellow,created,updated,owner from $1 where type_name in ($3)";
     /**
      * sql for delete specific type.
      */
@@ -179,14 +264,43 @@ public class SqlExecutor {
      * sql for update specific issuer, only update fellow.
      */
     public static final String SQL_UPDATE_SPECIFIC_TYPE_FELLOW = "update $1 set fellow = ? where type_name = ?";
+    /**
+     * sql for add specific type member, executed by executeIfAbsent to skip the existing member.
+     */
+    public static final String SQL_SAVE_SPECIFIC_TYPE_ISSUER = "insert into $1 (type_name,issuer,created) values(?,?,?)";
+    /**
+     * sql for delete specific type member.
+     */
+    public static final String SQL_DELETE_SPECIFIC_TYPE_ISSUER = "delete from $1 where type_name = ? and issuer = ?";
+    /**
+     * sql for check specific type member and whether the type has any member.
+     */
+    public static final String SQL_QUERY_SPECIFIC_TYPE_ISSUER = "select exists(select 1 from $1 where type_name = ? and issuer = ?), "
+        + "exists(select 1 from $1 where type_name = ?)";
+    /**
+     * sql for query several specific type members in add order.
+     */
+    public static final String SQL_QUERY_SEVERAL_SPECIFIC_TYPE_ISSUER = "select issuer from $1 where type_name = ? order by id LIMIT ?, ?";
+    /**
+     * sql for count specific type members.
+     */
+    public static final String SQL_QUERY_TOTAL_SPECIFIC_TYPE_ISSUER = "select COUNT(*) totalCount from $1 where type_name = ?";
     /**
      * sql for query several policy_id from firstIndex.
      */
     public static final String SQL_QUERY_SEVERAL_SPECIFIC_TYPE = "select type_name from $1 LIMIT ?, ?";
+    /**
+     * sql for query several type_name after the given type_name.
+     */
+    public static final String SQL_QUERY_SPECIFIC_TYPE_AFTER = "select type_name from $1 where type_name > ? order by type_name LIMIT ?";
     /**
      * sql for query evidence by hash.
      */
     public static final String SQL_QUERY_EVIDENCE_BY_HASH = "select hash,signers,signatures,logs,updated,revoked,extra_key,extra_data,group_id from $1 where hash =?";
+    /**
+     * sql for query several evidence by hash.
+     */
+    public static final String SQL_QUERY_EVIDENCE_IN = "select hash,signers,signatures,logs,updated,revoked,extra_key,extra_data,group_id from $1 where hash in ($3)";
     /**
      * sql for query evidence by extra_key.
      */
@@ -203,14 +317,200 @@ public class SqlExecutor {
      * sql for update evidence.
      */
     public static final String SQL_UPDATE_EVIDENCE = "update $1 set signers = ?, signatures = ?, logs = ?, updated = ?, revoked = ?, extra_key = ? where hash = ?";
+    /**
+     * sql for add or update evidence.
+     */
+    public static final String SQL_UPSERT_EVIDENCE = "insert into $1 (hash,signers,signatures,logs,updated,revoked,extra_key,group_id) values(?,?,?,?,?,?,?,?) "
+            + "on duplicate key update signers = values(signers), signatures = values(signatures), logs = values(logs), "
+            + "updated = values(updated), revoked = values(revoked), extra_key = values(extra_key)";
+    /**
+     * sql for update the extra_key of evidence.
+     */
+    public static final String SQL_UPDATE_EVIDENCE_EXTRAKEY = "update $1 set extra_key = ? where hash = ?";
+    /**
+     * sql for append evidence log.
+     */
+    public static final String SQL_SAVE_EVIDENCE_LOG = "insert into $1 (hash,type,signer,signature,log,updated,revoked) values(?,?,?,?,?,?,?)";
+    /**
+     * sql for query the logs of evidence in append order.
+     */
+    public static final String SQL_QUERY_EVIDENCE_LOG = "select id,hash,type,signer,signature,log,updated,revoked from $1 where hash = ? order by id";
+    /**
+     * sql for create sequence, executed by executeIfAbsent to keep the existing sequence.
+     */
+    public static final String SQL_SAVE_SEQUENCE = "insert into $1 (name,next_value,updated) values(?,?,?)";
+    /**
+     * sql for query the next value of sequence.
+     */
+    public static final String SQL_QUERY_SEQUENCE = "select next_value from $1 where name = ?";
+    /**
+     * sql for move the next value of sequence if it is not changed by others.
+     */
+    public static final String SQL_UPDATE_SEQUENCE = "update $1 set next_value = ?, updated = ? where name = ? and next_value = ?";
+
+    /**
+     * row mapper for single string column.
+     */
+    public static final RowMapper<String> STRING_MAPPER = rs -> rs.getString(1);
+    /**
+     * row mapper for single int column.
+     */
+    public static final RowMapper<Integer> INTEGER_MAPPER = rs -> rs.getInt(1);
+    /**
+     * row mapper for SQL_QUERY_SPECIFIC_TYPE_ISSUER, null when the type has no member.
+     */
+    public static final RowMapper<Boolean> SPECIFIC_TYPE_ISSUER_MAPPER =
+        rs -> rs.getBoolean(1) ? Boolean.TRUE : rs.getBoolean(2) ? Boolean.FALSE : null;
+    /**
+     * row mapper for SQL_QUERY.
+     */
+    public static final RowMapper<DefaultValue> DEFAULT_VALUE_MAPPER = rs -> {
+        DefaultValue value = new DefaultValue();
+        value.setId(rs.getString(1));
+        value.setData(rs.getString(2));
+        value.setCreated(toDate(rs.getTimestamp(3)));
+        value.setExpire(toDate(rs.getTimestamp(4)));
+        return value;
+    };
+    /**
+     * row mapper for SQL_QUERY_WEID.
+     */
+    public static final RowMapper<WeIdDocumentValue> WEID_DOCUMENT_MAPPER = rs -> {
+        WeIdDocumentValue value = new WeIdDocumentValue();
+        value.setWeid(rs.getString(1));
+        value.setCreated(toDate(rs.getTimestamp(2)));
+        value.setUpdated(toDate(rs.getTimestamp(3)));
+        value.setVersion(rs.getInt(4));
+        value.setDeactivated(rs.getInt(5));
+        value.setDocument_schema(rs.getString(6));
+        return value;
+    };
+    /**
+     * row mapper for SQL_QUERY_CPT.
+     */
+    public static final RowMapper<CptValue> CPT_MAPPER = rs -> {
+        CptValue value = new CptValue();
+        value.setCpt_id(rs.getInt(1));
+        value.setCreated(toDate(rs.getTimestamp(2)));
+        value.setUpdated(toDate(rs.getTimestamp(3)));
+        value.setCpt_version(rs.getInt(4));
+        value.setPublisher(rs.getString(5));
+        value.setDescription(rs.getString(6));
+        value.setCpt_schema(rs.getString(7));
+        value.setCpt_signature(rs.getString(8));
+        value.setCredential_publicKey(rs.getString(9));
+        value.setCredential_proof(rs.getString(10));
+        value.setClaim_policies(rs.getString(11));
+        return value;
+    };
+    /**
+     * row mapper for SQL_QUERY_POLICY.
+     */
+    public static final RowMapper<PolicyValue> POLICY_MAPPER = rs -> {
+        PolicyValue value = new PolicyValue();
+        value.setPolicy_id(rs.getInt(1));
+        value.setCreated(toDate(rs.getTimestamp(2)));
+        value.setUpdated(toDate(rs.getTimestamp(3)));
+        value.setPolicy_version(rs.getInt(4));
+        value.setPublisher(rs.getString(5));
+        value.setDescription(rs.getString(6));
+        value.setPolicy_schema(rs.getString(7));
+        value.setPolicy_signature(rs.getString(8));
+        value.setCredential_publicKey(rs.getString(9));
+        value.setCredential_proof(rs.getString(10));
+        value.setClaim_policies(rs.getString(11));
+        return value;
+    };
+    /**
+     * row mapper for SQL_QUERY_PRESENTATION.
+     */
+    public static final RowMapper<PresentationValue> PRESENTATION_MAPPER = rs -> {
+        PresentationValue value = new PresentationValue();
+        value.setPresentation_id(rs.getInt(1));
+        value.setCreator(rs.getString(2));
+        value.setClaim_policies(rs.getString(3));
+        return value;
+    };
+    /**
+     * row mapper for SQL_QUERY_AUTHORITY_ISSUER_BY_ADDRESS and SQL_QUERY_AUTHORITY_ISSUER_BY_NAME.
+     */
+    public static final RowMapper<AuthorityIssuerInfo> AUTHORITY_ISSUER_MAPPER = rs -> {
+        AuthorityIssuerInfo value = new AuthorityIssuerInfo();
+        value.setWeid(rs.getString(1));
+        value.setName(rs.getString(2));
+        value.setDescription(rs.getString(3));
+        value.setCreated(toDate(rs.getTimestamp(4)));
+        value.setUpdated(toDate(rs.getTimestamp(5)));
+        value.setRecognize(rs.getInt(6));
+        value.setAcc_value(rs.getString(7));
+        value.setExtra_str(rs.getString(8));
+        value.setExtra_int(rs.getString(9));
+        return value;
+    };
+    /**
+     * row mapper for SQL_QUERY_ROLE.
+     */
+    public static final RowMapper<RoleValue> ROLE_MAPPER = rs -> {
+        RoleValue value = new RoleValue();
+        value.setWeid(rs.getString(1));
+        value.setCreated(toDate(rs.getTimestamp(2)));
+        value.setUpdated(toDate(rs.getTimestamp(3)));
+        value.setAuthority_role(rs.getInt(4));
+        value.setCommittee_role(rs.getInt(5));
+        value.setAdmin_role(rs.getInt(6));
+        return value;
+    };
+    /**
+     * row mapper for SQL_QUERY_SPECIFIC_TYPE.
+     */
+    public static final RowMapper<SpecificTypeValue> SPECIFIC_TYPE_MAPPER = rs -> {
+        SpecificTypeValue value = new SpecificTypeValue();
+        value.setType_name(rs.getString(1));
+        value.setFellow(rs.getString(2));
+        value.setCreated(toDate(rs.getTimestamp(3)));
+        value.setUpdated(toDate(rs.getTimestamp(4)));
+        value.setOwner(rs.getString(5));
+        return value;
+    };
+    /**
+     * row mapper for SQL_QUERY_EVIDENCE_BY_HASH and SQL_QUERY_EVIDENCE_BY_EXTRAKEY.
+     */
+    public static final RowMapper<EvidenceValue> EVIDENCE_MAPPER = rs -> {
+        EvidenceValue value = new EvidenceValue();
+        value.setHash(rs.getString(1));
+        value.setSigners(rs.getString(2));
+        value.setSignatures(rs.getString(3));
+        value.setLogs(rs.getString(4));
+        value.setUpdated(rs.getString(5));
+        value.setRevoked(rs.getString(6));
+        value.setExtra_key(rs.getString(7));
+        value.setExtra_data(rs.getString(8));
+        value.setGroup_id(rs.getString(9));
+        return value;
+    };
+    /**
+     * row mapper for SQL_QUERY_EVIDENCE_LOG.
+     */
+    public static final RowMapper<EvidenceLogValue> EVIDENCE_LOG_MAPPER = rs -> {
+        EvidenceLogValue value = new EvidenceLogValue();
+        value.setId(rs.getLong(1));
+        value.setHash(rs.getString(2));
+        value.setType(rs.getInt(3));
+        value.setSigner(rs.getString(4));
+        value.setSignature(rs.getString(5));
+        value.setLog(rs.getString(6));
+        value.setUpdated(rs.getString(7));
+        value.setRevoked(rs.getString(8));
+        return value;
+    };
 
     private static final Logger logger = LoggerFactory.getLogger(SqlExecutor.class);
     /**
-     * 批次提交个数.
+     * IN查询每批的最大数据个数.
      */
-    private static final int BATCH_COMMIT_COUNT = 200;
+    private static final int IN_QUERY_CHUNK_SIZE = 500;
     /**
-     * tableDomain 与 tableName的映射.
+     * tableDomain 与 tableName的映射, key为数据源和domain配置项, 分片domain的每个分片各有一项.
      */
     private static final Map<String, String> TABLE_CACHE = new ConcurrentHashMap<String, String>();
 
@@ -219,6 +519,11 @@ public class SqlExecutor {
      */
     private SqlDomain sqlDomain;
 
+    /**
+     * 只读查询是否使用主数据源.
+     */
+    private boolean primaryRead;
+
     /**
      * 根据domain创建SQL执行器.
      *
@@ -232,6 +537,16 @@ public class SqlExecutor {
         }
     }
 
+    /**
+     * 只读查询使用主数据源, 用于读后写的场景, 避免读到副本上尚未同步的数据.
+     *
+     * @return 返回当前SQL执行器
+     */
+    public SqlExecutor usePrimary() {
+        this.primaryRead = true;
+        return this;
+    }
+
     /**
      * 根据数据源名称构建SQL执行器.
      * 
@@ -250,12 +565,20 @@ public class SqlExecutor {
      * @return 返回查询出来的单个数据
      */
     public ResponseData<Map<String, String>> executeQuery(String sql, Object... data) {
+        return read(dataSourceName -> doExecuteQuery(dataSourceName, sql, data));
+    }
+
+    private ResponseData<Map<String, String>> doExecuteQuery(
+        String dataSourceName,
+        String sql,
+        Object... data
+    ) {
         ResponseData<Map<String, String>> result = new ResponseData<Map<String, String>>();
         Connection conn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
         try {
-            conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
+            conn = ConnectionPool.getConnection(dataSourceName);
             if (conn == null) {
                 return
                     new ResponseData<Map<String, String>>(
@@ -293,7 +616,115 @@ public class SqlExecutor {
             result.setErrorCode(ErrorCode.SUCCESS);
             result.setResult(dataMap);
         } catch (SQLException e) {
-            logger.error("Query data from {{}} with exception", sqlDomain.getBaseDomain(), e);
+            logger.error("Query data from {{}} with exception", dataSourceName, e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        } finally {
+            ConnectionPool.close(conn, ps, rs);
+        }
+        return result;
+    }
+
+    /**
+     * 查询操作, 使用行映射器直接将结果映射为值对象.
+     *
+     * @param <T> 值对象类型
+     * @param sql 需要被执行的SQL语句
+     * @param rowMapper 行映射器
+     * @param data 占位符所需要的数据
+     * @return 返回查询出来的单个值对象, 无数据时结果为null
+     */
+    public <T> ResponseData<T> executeQueryObject(
+        String sql,
+        RowMapper<T> rowMapper,
+        Object... data
+    ) {
+        return read(dataSourceName -> doExecuteQueryObject(dataSourceName, sql, rowMapper, data));
+    }
+
+    private <T> ResponseData<T> doExecuteQueryObject(
+        String dataSourceName,
+        String sql,
+        RowMapper<T> rowMapper,
+        Object... data
+    ) {
+        ResponseData<T> result = new ResponseData<T>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionPool.getConnection(dataSourceName);
+            if (conn == null) {
+                return new ResponseData<T>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+
+            ps = conn.prepareStatement(buildExecuteSql(sql, conn));
+            for (int i = 0; i < data.length; i++) {
+                ps.setObject(i + 1, data[i]);
+            }
+
+            rs = ps.executeQuery();
+            T value = null;
+            if (rs.next()) {
+                value = rowMapper.mapRow(rs);
+            }
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(value);
+        } catch (SQLException e) {
+            logger.error("Query data from {{}} with exception", dataSourceName, e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        } finally {
+            ConnectionPool.close(conn, ps, rs);
+        }
+        return result;
+    }
+
+    /**
+     * 查询操作, 使用行映射器将结果集逐行映射为值对象列表.
+     *
+     * @param <T> 值对象类型
+     * @param sql 需要被执行的SQL语句
+     * @param rowMapper 行映射器
+     * @param data 占位符所需要的数据
+     * @return 返回查询出来的值对象列表
+     */
+    public <T> ResponseData<List<T>> executeQueryList(
+        String sql,
+        RowMapper<T> rowMapper,
+        Object... data
+    ) {
+        return read(dataSourceName -> doExecuteQueryList(dataSourceName, sql, rowMapper, data));
+    }
+
+    private <T> ResponseData<List<T>> doExecuteQueryList(
+        String dataSourceName,
+        String sql,
+        RowMapper<T> rowMapper,
+        Object... data
+    ) {
+        ResponseData<List<T>> result = new ResponseData<List<T>>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionPool.getConnection(dataSourceName);
+            if (conn == null) {
+                return new ResponseData<List<T>>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+
+            ps = conn.prepareStatement(buildExecuteSql(sql, conn));
+            for (int i = 0; i < data.length; i++) {
+                ps.setObject(i + 1, data[i]);
+            }
+
+            rs = ps.executeQuery();
+            List<T> dataList = new ArrayList<T>();
+            while (rs.next()) {
+                dataList.add(rowMapper.mapRow(rs));
+            }
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(dataList);
+        } catch (SQLException e) {
+            logger.error("Query data from {{}} with exception", dataSourceName, e);
             result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
         } finally {
             ConnectionPool.close(conn, ps, rs);
@@ -301,6 +732,119 @@ public class SqlExecutor {
         return result;
     }
 
+    /**
+     * IN条件批量查询, 数据按批拆分后在同一个连接上依次查询.
+     *
+     * @param <T> 值对象类型
+     * @param sql 含有IN条件占位符的SQL语句
+     * @param rowMapper 行映射器
+     * @param keys IN条件的数据
+     * @return 返回查询出来的值对象列表, 不存在的数据不返回
+     */
+    public <T> ResponseData<List<T>> executeQueryIn(
+        String sql,
+        RowMapper<T> rowMapper,
+        List<?> keys
+    ) {
+        return read(dataSourceName -> doExecuteQueryIn(dataSourceName, sql, rowMapper, keys));
+    }
+
+    private <T> ResponseData<List<T>> doExecuteQueryIn(
+        String dataSourceName,
+        String sql,
+        RowMapper<T> rowMapper,
+        List<?> keys
+    ) {
+        ResponseData<List<T>> result = new ResponseData<List<T>>();
+        List<T> dataList = new ArrayList<T>();
+        if (CollectionUtils.isEmpty(keys)) {
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(dataList);
+            return result;
+        }
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionPool.getConnection(dataSourceName);
+            if (conn == null) {
+                return new ResponseData<List<T>>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            for (int from = 0; from < keys.size(); from += IN_QUERY_CHUNK_SIZE) {
+                List<?> chunk = keys.subList(from, Math.min(from + IN_QUERY_CHUNK_SIZE, keys.size()));
+                ps = conn.prepareStatement(buildExecuteSql(buildInSql(sql, chunk.size()), conn));
+                for (int i = 0; i < chunk.size(); i++) {
+                    ps.setObject(i + 1, chunk.get(i));
+                }
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    dataList.add(rowMapper.mapRow(rs));
+                }
+                rs.close();
+                ps.close();
+            }
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(dataList);
+        } catch (SQLException e) {
+            logger.error("Query data from {{}} with exception", dataSourceName, e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        } finally {
+            ConnectionPool.close(conn, ps, rs);
+        }
+        return result;
+    }
+
+    /**
+     * 以只进游标方式查询, 结果按fetchSize分批从数据库读取.
+     * 返回的游标持有数据库连接, 调用方必须在使用完毕后关闭.
+     *
+     * @param <T> 值对象类型
+     * @param sql 需要被执行的SQL语句
+     * @param rowMapper 行映射器
+     * @param fetchSize 每次从数据库读取的行数
+     * @param data 占位符所需要的数据
+     * @return 返回只进游标
+     */
+    public <T> ResponseData<PersistenceCursor<T>> executeQueryCursor(
+        String sql,
+        RowMapper<T> rowMapper,
+        int fetchSize,
+        Object... data
+    ) {
+        ResponseData<PersistenceCursor<T>> result = new ResponseData<PersistenceCursor<T>>();
+        Connection conn = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
+            if (conn == null) {
+                return new ResponseData<PersistenceCursor<T>>(
+                    null,
+                    ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR
+                );
+            }
+
+            ps = conn.prepareStatement(
+                buildExecuteSql(sql, conn),
+                ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY
+            );
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < data.length; i++) {
+                ps.setObject(i + 1, data[i]);
+            }
+
+            rs = ps.executeQuery();
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(new SqlCursor<T>(conn, ps, rs, rowMapper));
+        } catch (SQLException e) {
+            logger.error("Query data from {{}} with exception", sqlDomain.getBaseDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+            ConnectionPool.close(conn, ps, rs);
+        }
+        return result;
+    }
+
     /**
      * 增删改的通用执行方法.
      *
@@ -309,6 +853,21 @@ public class SqlExecutor {
      * @return 返回执行受影响的行数
      */
     public ResponseData<Integer> execute(String sql, Object... data) {
+        return doExecute(sql, false, data);
+    }
+
+    /**
+     * 插入数据, 主键或唯一索引冲突时不写入, 其他约束或数据错误仍返回失败.
+     *
+     * @param sql 需要被执行的insert语句
+     * @param data 占位符所需要的数据
+     * @return 返回执行受影响的行数, 数据已存在时为0
+     */
+    public ResponseData<Integer> executeIfAbsent(String sql, Object... data) {
+        return doExecute(sql, true, data);
+    }
+
+    private ResponseData<Integer> doExecute(String sql, boolean ignoreDuplicate, Object... data) {
         ResponseData<Integer> result = new ResponseData<Integer>();
         Connection conn = null;
         PreparedStatement ps = null;
@@ -334,6 +893,11 @@ public class SqlExecutor {
             result.setErrorCode(ErrorCode.SUCCESS);
             result.setResult(rs);
         } catch (SQLException e) {
+            if (ignoreDuplicate && getDialect().isDuplicateKey(e)) {
+                result.setErrorCode(ErrorCode.SUCCESS);
+                result.setResult(0);
+                return result;
+            }
             logger.error("Update data into {{}} with exception", sqlDomain.getBaseDomain(), e);
             result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
             result.setResult(DataDriverConstant.SQL_EXECUTE_FAILED_STATUS);
@@ -351,12 +915,20 @@ public class SqlExecutor {
      * @return 返回查询出来的多行数据，每行仅查询一列，仅用于按序号查询多个weid
      */
     public ResponseData<List<String>> executeQueryLines(String sql, Object... data) {
+        return read(dataSourceName -> doExecuteQueryLines(dataSourceName, sql, data));
+    }
+
+    private ResponseData<List<String>> doExecuteQueryLines(
+        String dataSourceName,
+        String sql,
+        Object... data
+    ) {
         ResponseData<List<String>> result = new ResponseData<List<String>>();
         Connection conn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
         try {
-            conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
+            conn = ConnectionPool.getConnection(dataSourceName);
             if (conn == null) {
                 return
                         new ResponseData<List<String>>(
@@ -391,7 +963,7 @@ public class SqlExecutor {
             result.setErrorCode(ErrorCode.SUCCESS);
             result.setResult(dataList);
         } catch (SQLException e) {
-            logger.error("Query data from {{}} with exception", sqlDomain.getBaseDomain(), e);
+            logger.error("Query data from {{}} with exception", dataSourceName, e);
             result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
         } finally {
             ConnectionPool.close(conn, ps, rs);
@@ -406,12 +978,16 @@ public class SqlExecutor {
      * @return 返回查询数据总行数
      */
     public ResponseData<Integer> executeQueryAmounts(String sql) {
+        return read(dataSourceName -> doExecuteQueryAmounts(dataSourceName, sql));
+    }
+
+    private ResponseData<Integer> doExecuteQueryAmounts(String dataSourceName, String sql) {
         ResponseData<Integer> result = new ResponseData<Integer>();
         Connection conn = null;
         PreparedStatement ps = null;
         ResultSet rs = null;
         try {
-            conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
+            conn = ConnectionPool.getConnection(dataSourceName);
             if (conn == null) {
                 return
                         new ResponseData<Integer>(
@@ -430,7 +1006,7 @@ public class SqlExecutor {
             result.setErrorCode(ErrorCode.SUCCESS);
             result.setResult(rowCount);
         } catch (SQLException e) {
-            logger.error("Query data from {{}} with exception", sqlDomain.getBaseDomain(), e);
+            logger.error("Query data from {{}} with exception", dataSourceName, e);
             result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
         } finally {
             ConnectionPool.close(conn, ps, rs);
@@ -470,28 +1046,29 @@ public class SqlExecutor {
             }
             conn.setAutoCommit(false);
             psts = conn.prepareStatement(buildExecuteSql(sql, conn));
+            int chunkSize = getBatchChunkSize();
             int count = 0;
+            int pending = 0;
             for (int i = 0; i < values.size(); i++) {
                 for (int j = 0; j < dataList.size(); j++) {
                     psts.setObject(j + 1, dataList.get(j).get(i));
                 }
                 psts.addBatch();
-                // 每500提交一次
-                if (i % BATCH_COMMIT_COUNT == 0) {
-                    int[] counts = psts.executeBatch();
-                    conn.commit();
+                pending++;
+                // 每chunkSize条提交一次
+                if (pending == chunkSize) {
+                    count += countAffected(psts.executeBatch());
+                    commitChunk(conn);
                     psts.clearBatch();
-                    for (int j : counts) {
-                        count += j;
-                    }
+                    pending = 0;
                 }
             }
-            int[] counts = psts.executeBatch();
-            conn.commit();
-            psts.clearBatch();
-            for (int j : counts) {
-                count += j;
+            if (pending > 0) {
+                count += countAffected(psts.executeBatch());
+                commitChunk(conn);
+                psts.clearBatch();
             }
+            result.setErrorCode(ErrorCode.SUCCESS);
             result.setResult(count);
         } catch (SQLException e) {
             logger.error("Batch add data to {{}} with exception", sqlDomain.getBaseDomain(), e);
@@ -503,6 +1080,131 @@ public class SqlExecutor {
         return result;
     }
 
+    /**
+     * 批量写入, 数据按批执行并提交, 单批失败时回滚该批并继续执行后续批次.
+     *
+     * @param sql 需要被执行的SQL语句, 一般为insert ... on duplicate key update
+     * @param rows 每行占位符所需要的数据
+     * @return 返回每行的执行结果, 成功为1, 失败为0, 有失败行时错误码为执行失败
+     */
+    public ResponseData<List<Integer>> batchUpsert(String sql, List<Object[]> rows) {
+        ResponseData<List<Integer>> result = new ResponseData<List<Integer>>();
+        List<Integer> rowResults = new ArrayList<Integer>(rows.size());
+        Connection conn = null;
+        PreparedStatement psts = null;
+        try {
+            conn = ConnectionPool.getConnection(sqlDomain.getBaseDomain());
+            if (conn == null) {
+                return new ResponseData<List<Integer>>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            conn.setAutoCommit(false);
+            psts = conn.prepareStatement(buildExecuteSql(sql, conn));
+            int chunkSize = getBatchChunkSize();
+            boolean allSuccess = true;
+            for (int from = 0; from < rows.size(); from += chunkSize) {
+                List<Object[]> chunk = rows.subList(from, Math.min(from + chunkSize, rows.size()));
+                try {
+                    for (Object[] row : chunk) {
+                        for (int i = 0; i < row.length; i++) {
+                            setParameter(psts, i + 1, row[i]);
+                        }
+                        psts.addBatch();
+                    }
+                    int[] counts = psts.executeBatch();
+                    commitChunk(conn);
+                    for (int count : counts) {
+                        rowResults.add(count == Statement.EXECUTE_FAILED
+                            ? DataDriverConstant.SQL_EXECUTE_FAILED_STATUS
+                            : DataDriverConstant.SQL_EXECUTE_SUCCESS_STATUS);
+                    }
+                } catch (SQLException e) {
+                    logger.error("Batch upsert data to {{}} with exception, rollback rows {} to {}",
+                        sqlDomain.getBaseDomain(), from, from + chunk.size() - 1, e);
+                    rollbackChunk(conn);
+                    allSuccess = false;
+                    for (int i = 0; i < chunk.size(); i++) {
+                        rowResults.add(DataDriverConstant.SQL_EXECUTE_FAILED_STATUS);
+                    }
+                } finally {
+                    psts.clearBatch();
+                }
+            }
+            result.setErrorCode(allSuccess ? ErrorCode.SUCCESS : ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+            result.setResult(rowResults);
+        } catch (SQLException e) {
+            logger.error("Batch upsert data to {{}} with exception", sqlDomain.getBaseDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        } finally {
+            ConnectionPool.close(conn, psts);
+        }
+        return result;
+    }
+
+    /**
+     * 获取当前数据源的方言.
+     *
+     * @return 返回数据库方言
+     */
+    public SqlDialect getDialect() {
+        return ConnectionPool.getDialect(sqlDomain.getBaseDomain());
+    }
+
+    /**
+     * 执行只读查询, 数据源配置了只读副本时在副本上执行, 工作单元内始终在主数据源上执行.
+     */
+    private <T> ResponseData<T> read(Function<String, ResponseData<T>> query) {
+        ReplicaSet replicaSet = ConnectionPool.getReplicaSet(sqlDomain.getBaseDomain());
+        if (primaryRead || replicaSet == null || ConnectionPool.inUnit()) {
+            return query.apply(sqlDomain.getBaseDomain());
+        }
+        return replicaSet.read(query);
+    }
+
+    /**
+     * 提交一批数据, 工作单元内的连接由工作单元统一提交.
+     */
+    private static void commitChunk(Connection conn) throws SQLException {
+        if (!ConnectionPool.isUnitConnection(conn)) {
+            conn.commit();
+        }
+    }
+
+    /**
+     * 回滚一批数据, 工作单元内的连接由工作单元统一回滚.
+     */
+    private static void rollbackChunk(Connection conn) throws SQLException {
+        if (!ConnectionPool.isUnitConnection(conn)) {
+            conn.rollback();
+        }
+    }
+
+    private int getBatchChunkSize() {
+        String chunkSize = PropertyUtils.getProperty(
+            sqlDomain.getBaseDomain() + SqlDomain.KEY_SPLIT_CHAR
+                + DataDriverConstant.JDBC_BATCH_CHUNK_SIZE,
+            DataDriverConstant.JDBC_BATCH_CHUNK_SIZE_DEFAULT_VALUE
+        );
+        return Math.max(1, Integer.parseInt(chunkSize));
+    }
+
+    private static int countAffected(int[] counts) {
+        int count = 0;
+        for (int j : counts) {
+            // rewriteBatchedStatements下每行返回SUCCESS_NO_INFO
+            count += j == Statement.SUCCESS_NO_INFO ? 1 : Math.max(j, 0);
+        }
+        return count;
+    }
+
+    private static void setParameter(PreparedStatement ps, int index, Object data)
+        throws SQLException {
+        if (data instanceof Date) {
+            ps.setTimestamp(index, new Timestamp(((Date) data).getTime()));
+        } else {
+            ps.setObject(index, data);
+        }
+    }
+
     /**
      * 检查表是否存在，如果不存在则创建表.
      *
@@ -511,7 +1213,7 @@ public class SqlExecutor {
      */
     public void resolveTableDomain(String checkTableSql, String createTableSql) {
         synchronized (TABLE_CACHE) {
-            String tableName = TABLE_CACHE.get(sqlDomain.getKey());
+            String tableName = TABLE_CACHE.get(getTableCacheKey());
             //说明本地没有此tableDomain
             if (StringUtils.isBlank(tableName)) {
                 if (this.initLocalTable(checkTableSql)) {
@@ -530,10 +1232,15 @@ public class SqlExecutor {
         }
     }
     
+    private String getTableCacheKey() {
+        return sqlDomain.getBaseDomain() + SqlDomain.VALUE_SPLIT_CHAR + sqlDomain.getKey();
+    }
+
     // 检查表是否存在，如果存在则返回表名
     private Map<String, String> checkTable(String checkTableSql) {
         //检查数据库中是否存在此表
-        ResponseData<Map<String, String>> resultRes = this.executeQuery(checkTableSql);
+        ResponseData<Map<String, String>> resultRes =
+            doExecuteQuery(sqlDomain.getBaseDomain(), checkTableSql);
         if (resultRes.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
             logger.error(
                 "[initLocalTable] execute query table name fail, code:{}, message:{}.",
@@ -558,7 +1265,7 @@ public class SqlExecutor {
         if (result != null
             && tableName.equalsIgnoreCase(result.get(DataDriverConstant.SQL_COLUMN_DATA))) {
             //本地缓存记录此表
-            TABLE_CACHE.put(sqlDomain.getKey(), tableName);
+            TABLE_CACHE.put(getTableCacheKey(), tableName);
             logger.info(
                 "[initLocalTable] the domain {{}:{}} is init success.",
                 sqlDomain.getKey(),
@@ -570,17 +1277,19 @@ public class SqlExecutor {
     }
 
     private void createTable(String createTableSql) {
-        //动态创建此表
-        ResponseData<Integer> createRes = this.execute(createTableSql);
-        //创建失败
-        if (createRes.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
-            logger.error(
-                "[createTable] execute create table fail, code:{}, message:{}.",
-                createRes.getErrorCode(),
-                createRes.getErrorMessage()
-            );
-            throw new WeIdBaseException(
-                ErrorCode.getTypeByErrorCode(createRes.getErrorCode()));
+        //动态创建此表, 建表语句由方言翻译, 可能包含多条DDL
+        for (String ddl : getDialect().createTable(createTableSql)) {
+            ResponseData<Integer> createRes = this.execute(ddl);
+            //创建失败
+            if (createRes.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                logger.error(
+                    "[createTable] execute create table fail, code:{}, message:{}.",
+                    createRes.getErrorCode(),
+                    createRes.getErrorMessage()
+                );
+                throw new WeIdBaseException(
+                    ErrorCode.getTypeByErrorCode(createRes.getErrorCode()));
+            }
         }
     }
     
@@ -606,9 +1315,31 @@ public class SqlExecutor {
         return true;
     }
 
-    private String buildExecuteSql(String exeSql, Connection conn) throws SQLException {
-        exeSql = exeSql.replace(TABLE_CHAR, sqlDomain.getTableName());
-        exeSql = exeSql.replace(DATABASE_CHAR, conn.getCatalog());
+    private static String buildInSql(String sql, int size) {
+        StringBuilder placeholders = new StringBuilder(size * 2);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                placeholders.append(',');
+            }
+            placeholders.append('?');
+        }
+        return sql.replace(IN_CHAR, placeholders.toString());
+    }
+
+    private static Date toDate(Timestamp timestamp) {
+        return timestamp == null ? null : new Date(timestamp.getTime());
+    }
+
+    private String buildExecuteSql(String sqlTemplate, Connection conn) throws SQLException {
+        String exeSql = sqlDomain.getExecuteSql(sqlTemplate);
+        if (exeSql != null) {
+            return exeSql;
+        }
+        exeSql = getDialect().translate(sqlTemplate).replace(TABLE_CHAR, sqlDomain.getTableName());
+        if (exeSql.contains(DATABASE_CHAR)) {
+            exeSql = exeSql.replace(DATABASE_CHAR, conn.getCatalog());
+        }
+        sqlDomain.putExecuteSql(sqlTemplate, exeSql);
         return exeSql;
     }
 }
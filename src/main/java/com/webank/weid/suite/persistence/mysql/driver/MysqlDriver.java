@@ -16,6 +16,11 @@ import com.webank.weid.protocol.request.TransactionArgs;
 import com.webank.weid.blockchain.protocol.response.ResponseData;
 import com.webank.weid.service.local.CptServiceLocal;
 import com.webank.weid.suite.persistence.*;
+import com.webank.weid.suite.persistence.mysql.ConnectionPool;
+import com.webank.weid.suite.persistence.mysql.ExpiredDataSweeper;
+import com.webank.weid.suite.persistence.mysql.SchemaMigration;
+import com.webank.weid.suite.persistence.mysql.SchemaMigrator;
+import com.webank.weid.suite.persistence.mysql.ShardedSqlExecutor;
 import com.webank.weid.suite.persistence.mysql.SqlDomain;
 import com.webank.weid.suite.persistence.mysql.SqlExecutor;
 import com.webank.weid.util.DataToolUtils;
@@ -27,6 +32,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * mysql operations.
@@ -38,13 +44,6 @@ public class MysqlDriver implements Persistence {
     private static final Logger logger = LoggerFactory.getLogger(
             MysqlDriver.class);
 
-    private static final String CHECK_TABLE_SQL =
-        "SELECT table_name "
-            + DataDriverConstant.SQL_COLUMN_DATA
-            + " FROM information_schema.TABLES "
-            + " WHERE upper(table_name) = upper('$1')"
-            + " and upper(table_schema) = upper('$2')";
-
     private static final String CREATE_TABLE_SQL =
         "CREATE TABLE `$1` ("
             + "`id` varchar(128) NOT NULL COMMENT 'primary key',"
@@ -147,6 +146,17 @@ public class MysqlDriver implements Persistence {
                     + "PRIMARY KEY (`type_name`) "
                     + ") ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='the specific issuer table'";
 
+    private static final String CREATE_TABLE_SPECIFIC_ISSUER_MEMBER_SQL =
+            "CREATE TABLE `$1` ("
+                    + "`id` bigint NOT NULL AUTO_INCREMENT COMMENT 'add order',"
+                    + "`type_name` varchar(60) NOT NULL COMMENT 'specific issuer type name',"
+                    + "`issuer` varchar(100) NOT NULL COMMENT 'issuer address',"
+                    + "`created` datetime DEFAULT NULL COMMENT 'created', "
+                    + "PRIMARY KEY (`id`), "
+                    + "UNIQUE KEY `uk_type_issuer` (`type_name`, `issuer`), "
+                    + "KEY `idx_type_id` (`type_name`, `id`) "
+                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='the specific issuer member table'";
+
     private static final String CREATE_TABLE_EVIDENCE_SQL =
             "CREATE TABLE `$1` ("
                     + "`hash` varchar(100) NOT NULL UNIQUE COMMENT 'hash of evidence',"
@@ -161,14 +171,73 @@ public class MysqlDriver implements Persistence {
                     + "PRIMARY KEY (`hash`) "
                     + ") ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='the evidence table'";
 
+    private static final String CREATE_TABLE_EVIDENCE_LOG_SQL =
+            "CREATE TABLE `$1` ("
+                    + "`id` bigint NOT NULL AUTO_INCREMENT COMMENT 'append order',"
+                    + "`hash` varchar(100) NOT NULL COMMENT 'hash of evidence',"
+                    + "`type` int NOT NULL COMMENT '0 for log, 1 for revoke',"
+                    + "`signer` varchar(100) NOT NULL COMMENT 'signer',"
+                    + "`signature` blob DEFAULT NULL COMMENT 'signature', "
+                    + "`log` blob DEFAULT NULL COMMENT 'log', "
+                    + "`updated` varchar(32) DEFAULT NULL COMMENT 'updated', "
+                    + "`revoked` varchar(8) DEFAULT NULL COMMENT 'revoked',"
+                    + "PRIMARY KEY (`id`), "
+                    + "KEY `idx_hash` (`hash`, `id`) "
+                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='the evidence log table'";
+
+    private static final String CREATE_TABLE_SEQUENCE_SQL =
+            "CREATE TABLE `$1` ("
+                    + "`name` varchar(60) NOT NULL COMMENT 'sequence name',"
+                    + "`next_value` int NOT NULL COMMENT 'the first id not reserved',"
+                    + "`updated` datetime DEFAULT NULL COMMENT 'updated', "
+                    + "PRIMARY KEY (`name`) "
+                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='the id sequence table'";
+
+    /**
+     * 本地表的表结构迁移, 建表语句为版本0, 新增迁移只能追加在列表末尾.
+     */
+    private static final Map<String, List<SchemaMigration>> LOCAL_MIGRATIONS =
+            new HashMap<String, List<SchemaMigration>>();
+
+    static {
+        LOCAL_MIGRATIONS.put(DataDriverConstant.LOCAL_WEID_DOCUMENT, Arrays.asList(
+                SchemaMigration.addIndex(1, "idx_created", "`created`")));
+        LOCAL_MIGRATIONS.put(DataDriverConstant.LOCAL_CPT, Arrays.asList(
+                SchemaMigration.addIndex(1, "idx_created", "`created`")));
+        LOCAL_MIGRATIONS.put(DataDriverConstant.LOCAL_POLICY, Arrays.asList(
+                SchemaMigration.addIndex(1, "idx_created", "`created`")));
+        LOCAL_MIGRATIONS.put(DataDriverConstant.LOCAL_ROLE, Arrays.asList(
+                SchemaMigration.addIndex(1, "idx_created", "`created`")));
+        LOCAL_MIGRATIONS.put(DataDriverConstant.LOCAL_AUTHORITY_ISSUER, Arrays.asList(
+                SchemaMigration.addIndex(1, "idx_recognize", "`recognize`"),
+                SchemaMigration.addIndex(2, "idx_created", "`created`")));
+        LOCAL_MIGRATIONS.put(DataDriverConstant.LOCAL_SPECIFIC_ISSUER, Arrays.asList(
+                SchemaMigration.addIndex(1, "idx_created", "`created`")));
+        LOCAL_MIGRATIONS.put(DataDriverConstant.LOCAL_EVIDENCE, Arrays.asList(
+                SchemaMigration.addIndex(1, "idx_extra_key", "`extra_key`")));
+    }
+
+    /**
+     * domain表的表结构迁移, 过期时间索引用于清理过期数据.
+     */
+    private static final List<SchemaMigration> DOMAIN_MIGRATIONS = Arrays.asList(
+            SchemaMigration.addIndex(1, "idx_expire", "`expire`"));
+
     private static final Integer FAILED_STATUS = DataDriverConstant.SQL_EXECUTE_FAILED_STATUS;
 
+    /**
+     * 并发预留序列号段时比较更新的最大重试次数.
+     */
+    private static final int SEQUENCE_MAX_RETRY = 50;
+
     private static final ErrorCode KEY_INVALID = ErrorCode.PRESISTENCE_DATA_KEY_INVALID;
 
     private static Boolean isinit = false;
 
     private static int CPT_DEFAULT_VERSION = 1;
 
+    private static final int SCAN_FETCH_SIZE = 500;
+
     /**
      * the Constructor and init all domain.
      */
@@ -194,13 +263,12 @@ public class MysqlDriver implements Persistence {
         try {
             ResponseData<String> result = new ResponseData<String>();
             result.setResult(StringUtils.EMPTY);
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                .executeQuery(SqlExecutor.SQL_QUERY, dataKey);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<DefaultValue> response = new SqlExecutor(sqlDomain)
+                .executeQueryObject(SqlExecutor.SQL_QUERY, SqlExecutor.DEFAULT_VALUE_MAPPER, dataKey);
             if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
                 && response.getResult() != null) {
-                DefaultValue tableData = DataToolUtils.deserialize(
-                    DataToolUtils.serialize(response.getResult()), DefaultValue.class);
+                DefaultValue tableData = response.getResult();
                 if (tableData.getExpire() != null && tableData.getExpire().before(new Date())) {
                     logger.error("[mysql->get] the data is expire.");
                     return new ResponseData<String>(StringUtils.EMPTY,
@@ -218,6 +286,41 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<Map<String, String>> batchGet(String domain, List<String> ids) {
+
+        Map<String, String> idMap = new HashMap<>();
+        for (String id : ids) {
+            if (StringUtils.isEmpty(id)) {
+                logger.error("[mysql->batchGet] the id of the data is empty.");
+                return new ResponseData<>(null, KEY_INVALID);
+            }
+            idMap.put(DataToolUtils.hash(id), id);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<List<DefaultValue>> response = new SqlExecutor(sqlDomain).executeQueryIn(
+                    SqlExecutor.SQL_QUERY_IN,
+                    SqlExecutor.DEFAULT_VALUE_MAPPER,
+                    new ArrayList<>(idMap.keySet()));
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Date now = new Date();
+            Map<String, String> result = new HashMap<>();
+            for (DefaultValue tableData : response.getResult()) {
+                if ((tableData.getExpire() == null || !tableData.getExpire().before(now))
+                        && StringUtils.isNotBlank(tableData.getData())) {
+                    result.put(idMap.get(tableData.getId()), tableData.getData());
+                }
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->batchGet] batchGet the data error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     /* (non-Javadoc)
      * @see com.webank.weid.connectivity.driver.DBDriver#add(java.lang.String, java.lang.String)
      */
@@ -230,7 +333,7 @@ public class MysqlDriver implements Persistence {
         }
         String dataKey = DataToolUtils.hash(id);
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {dataKey, data, sqlDomain.getExpire(), now, now};
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE, datas);
@@ -260,7 +363,7 @@ public class MysqlDriver implements Persistence {
                 idHashList.add(DataToolUtils.hash(id));
                 dataList.add(data);
             }
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             List<List<Object>> dataLists = new ArrayList<List<Object>>();
             dataLists.add(idHashList);
             dataLists.add(Arrays.asList(dataList.toArray()));
@@ -297,7 +400,7 @@ public class MysqlDriver implements Persistence {
         }
         String dataKey = DataToolUtils.hash(id);
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_DELETE, dataKey);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->delete] delete the data error.", e);
@@ -318,7 +421,7 @@ public class MysqlDriver implements Persistence {
         String dataKey = DataToolUtils.hash(id);
         Date date = new Date();
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Object[] datas = {date, data, sqlDomain.getExpire(), dataKey};
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPDATE, datas);
         } catch (WeIdBaseException e) {
@@ -334,27 +437,42 @@ public class MysqlDriver implements Persistence {
         Set<String> domainKeySet = analyzeDomainValue();
         Set<String> localKeySet = analyzeLocalValue();
         for (String domainKey : domainKeySet) {
-            SqlExecutor sqlExecutor = new SqlExecutor(new SqlDomain(domainKey));
-            sqlExecutor.resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_SQL);
+            SqlExecutor sqlExecutor = new SqlExecutor(SqlDomain.resolve(domainKey));
+            sqlExecutor.resolveTableDomain(
+                sqlExecutor.getDialect().getCheckTableSql(), CREATE_TABLE_SQL);
+            new SchemaMigrator(SqlDomain.resolve(domainKey)).migrate(DOMAIN_MIGRATIONS);
         }
+        ExpiredDataSweeper.start(domainKeySet);
         String type = PropertyUtils.getProperty("deploy.style");
         if (type.equals("database")) {
             // 初始化表
             for (String localKey : localKeySet) {
-                SqlExecutor sqlExecutor = new SqlExecutor(new SqlDomain(localKey));
-                switch (localKey) {
-                    case "local.weIdDocument" : sqlExecutor.resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_WEID_DOCUMENT_SQL);
-                    case "local.cpt" : sqlExecutor.resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_CPT_SQL);
-                    case "local.policy" : sqlExecutor.resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_POLICY_SQL);
-                    case "local.presentation" : sqlExecutor.resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_PRESENTATION_SQL);
-                    case "local.role" : sqlExecutor.resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_ROLE_SQL);
-                    case "local.authorityIssuer" : sqlExecutor.resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_AUTHORITY_ISSUER_SQL);
-                    case "local.specificIssuer" : sqlExecutor.resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_SPECIFIC_ISSUER_SQL);
-                    case "local.evidence" : sqlExecutor.resolveTableDomain(CHECK_TABLE_SQL, CREATE_TABLE_EVIDENCE_SQL);
+                // 分片表在每个分片上建表和迁移
+                for (SqlDomain shard : SqlDomain.resolve(localKey).getShards()) {
+                    SqlExecutor sqlExecutor = new SqlExecutor(shard);
+                    String checkTableSql = sqlExecutor.getDialect().getCheckTableSql();
+                    switch (localKey) {
+                        case "local.weIdDocument" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_WEID_DOCUMENT_SQL);
+                        case "local.cpt" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_CPT_SQL);
+                        case "local.policy" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_POLICY_SQL);
+                        case "local.presentation" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_PRESENTATION_SQL);
+                        case "local.role" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_ROLE_SQL);
+                        case "local.authorityIssuer" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_AUTHORITY_ISSUER_SQL);
+                        case "local.specificIssuer" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_SPECIFIC_ISSUER_SQL);
+                        case "local.specificIssuerMember" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_SPECIFIC_ISSUER_MEMBER_SQL);
+                        case "local.evidence" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_EVIDENCE_SQL);
+                        case "local.evidenceLog" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_EVIDENCE_LOG_SQL);
+                        case "local.sequence" : sqlExecutor.resolveTableDomain(checkTableSql, CREATE_TABLE_SEQUENCE_SQL);
+                    }
+                    new SchemaMigrator(shard).migrate(LOCAL_MIGRATIONS.get(localKey));
                 }
             }
             // 初始化管理员权限
             String privateKey = getAddressFromFile("private_key");
+            if (StringUtils.isBlank(privateKey)) {
+                logger.warn("[initDomain] the private_key file is not found, skip init admin role.");
+                return;
+            }
             RoleValue result = getRole(DataDriverConstant.LOCAL_ROLE, WeIdUtils.getWeIdFromPrivateKey(privateKey)).getResult();
             if(result == null) {
                 ResponseData<Integer> resp = addRole(DataDriverConstant.LOCAL_ROLE, WeIdUtils.getWeIdFromPrivateKey(privateKey), 7);
@@ -427,6 +545,12 @@ public class MysqlDriver implements Persistence {
                 localKeySet.add(key);
             }
         }
+        // 旧配置中没有的新表, 由所依附的表推导出配置后同样需要建表
+        for (String derivedKey : BaseDomain.getDerivedDomainKeys()) {
+            if (StringUtils.isNotBlank(BaseDomain.getDomainValue(derivedKey))) {
+                localKeySet.add(derivedKey);
+            }
+        }
         return localKeySet;
     }
 
@@ -436,14 +560,53 @@ public class MysqlDriver implements Persistence {
      */
     @Override
     public ResponseData<Integer> addOrUpdate(String domain, String id, String data) {
-        ResponseData<String> getRes = this.get(domain, id);
-        //如果查询数据存在，或者失效 则进行更新 否则进行新增
-        if ((StringUtils.isNotBlank(getRes.getResult())
-            && getRes.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode())
-            || getRes.getErrorCode().intValue() == ErrorCode.PERSISTENCE_DATA_EXPIRE.getCode()) {
-            return this.update(domain, id, data);
+
+        if (StringUtils.isEmpty(id)) {
+            logger.error("[mysql->addOrUpdate] the id of the data is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        String dataKey = DataToolUtils.hash(id);
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Date now = sqlDomain.getNow();
+            Object[] datas = {dataKey, data, sqlDomain.getExpire(), now, now};
+            ResponseData<Integer> response =
+                new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPSERT, datas);
+            // 插入时影响行数为1, 更新时为2
+            if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
+                && response.getResult() != null && response.getResult() > 0) {
+                response.setResult(DataDriverConstant.SQL_EXECUTE_SUCCESS_STATUS);
+            }
+            return response;
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->addOrUpdate] addOrUpdate the data error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<Integer>> batchAddOrUpdate(
+        String domain,
+        Map<String, String> keyValueList) {
+
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Date now = sqlDomain.getNow();
+            Date expire = sqlDomain.getExpire();
+            List<Object[]> rows = new ArrayList<>(keyValueList.size());
+            for (Map.Entry<String, String> entry : keyValueList.entrySet()) {
+                if (StringUtils.isEmpty(entry.getKey())) {
+                    logger.error("[mysql->batchAddOrUpdate] the id of the data is empty.");
+                    return new ResponseData<>(null, KEY_INVALID);
+                }
+                rows.add(new Object[]{
+                    DataToolUtils.hash(entry.getKey()), entry.getValue(), expire, now, now});
+            }
+            return new SqlExecutor(sqlDomain).batchUpsert(SqlExecutor.SQL_UPSERT, rows);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->batchAddOrUpdate] batchAddOrUpdate the data error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
         }
-        return this.add(domain, id, data);
     }
 
 
@@ -459,7 +622,7 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(DataDriverConstant.DOMAIN_DEFAULT_INFO);
+            SqlDomain sqlDomain = SqlDomain.resolve(DataDriverConstant.DOMAIN_DEFAULT_INFO);
             Object[] datas = {
                 transactionArgs.getRequestId(),
                 transactionArgs.getMethod(),
@@ -475,6 +638,33 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<List<Integer>> batchAddTransaction(List<TransactionArgs> transactionArgsList) {
+
+        List<Object[]> rows = new ArrayList<>(transactionArgsList.size());
+        for (TransactionArgs transactionArgs : transactionArgsList) {
+            if (StringUtils.isEmpty(transactionArgs.getRequestId())) {
+                logger.error("[mysql->batchAddTransaction] the id of the data is empty.");
+                return new ResponseData<>(null, KEY_INVALID);
+            }
+            rows.add(new Object[]{
+                transactionArgs.getRequestId(),
+                transactionArgs.getMethod(),
+                transactionArgs.getArgs(),
+                transactionArgs.getTimeStamp(),
+                transactionArgs.getExtra(),
+                transactionArgs.getBatch()
+            });
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(DataDriverConstant.DOMAIN_DEFAULT_INFO);
+            return new SqlExecutor(sqlDomain).batchUpsert(SqlExecutor.SQL_SAVE_TRANSACTION, rows);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->batchAddTransaction] batchAddTransaction error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> addWeId(String domain, String weId, String documentSchema) {
 
@@ -483,16 +673,36 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {weId, now, now, 1, 0, documentSchema};
-            return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE_WEID, datas);
+            return new ShardedSqlExecutor(sqlDomain).route(weId).execute(SqlExecutor.SQL_SAVE_WEID, datas);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->addWeId] addWeId error.", e);
             return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
         }
     }
 
+    @Override
+    public ResponseData<Integer> addWeIdIfAbsent(String domain, String weId, String documentSchema) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[mysql->addWeIdIfAbsent] the weId is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Date now = sqlDomain.getNow();
+            Object[] datas = {weId, now, now, 1, 0, documentSchema};
+            ResponseData<Integer> result = new ShardedSqlExecutor(sqlDomain).route(weId)
+                    .executeIfAbsent(SqlExecutor.SQL_SAVE_WEID, datas);
+            return checkInserted(result, ErrorCode.WEID_ALREADY_EXIST);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->addWeIdIfAbsent] addWeIdIfAbsent error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> updateWeId(String domain, String weId, String documentSchema) {
 
@@ -502,13 +712,12 @@ public class MysqlDriver implements Persistence {
         }
         Date date = new Date();
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_WEID, weId);
+            SqlExecutor sqlExecutor = new ShardedSqlExecutor(SqlDomain.resolve(domain)).route(weId);
+            ResponseData<WeIdDocumentValue> response = sqlExecutor.usePrimary()
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_WEID, SqlExecutor.WEID_DOCUMENT_MAPPER, weId);
             if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                WeIdDocumentValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), WeIdDocumentValue.class);
+                WeIdDocumentValue tableData = response.getResult();
                 if(tableData.getDeactivated() == 1){
                     logger.error("[mysql->updateWeId] the weid is deactivated.");
                     return new ResponseData<>(FAILED_STATUS,
@@ -518,7 +727,7 @@ public class MysqlDriver implements Persistence {
                     int version = tableData.getVersion();
                     version++;
                     Object[] datas = {date, version, tableData.getDeactivated(), documentSchema, weId};
-                    return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPDATE_WEID, datas);
+                    return sqlExecutor.execute(SqlExecutor.SQL_UPDATE_WEID, datas);
                 }
             }
             return new ResponseData<>(FAILED_STATUS, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
@@ -528,6 +737,29 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<List<Integer>> batchAddOrUpdateWeIds(
+            String domain,
+            List<WeIdDocumentValue> weIdDocuments) {
+
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Date now = sqlDomain.getNow();
+            List<Object[]> rows = new ArrayList<>(weIdDocuments.size());
+            for (WeIdDocumentValue value : weIdDocuments) {
+                if (StringUtils.isEmpty(value.getWeid())) {
+                    logger.error("[mysql->batchAddOrUpdateWeIds] the weId is empty.");
+                    return new ResponseData<>(null, KEY_INVALID);
+                }
+                rows.add(new Object[]{value.getWeid(), now, now, 1, 0, value.getDocument_schema()});
+            }
+            return new ShardedSqlExecutor(sqlDomain).batchUpsert(SqlExecutor.SQL_UPSERT_WEID, rows, 0);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->batchAddOrUpdateWeIds] batchAddOrUpdateWeIds error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<WeIdDocument> getWeIdDocument(String domain, String weId) {
 
@@ -537,13 +769,12 @@ public class MysqlDriver implements Persistence {
         }
         //String dataKey = DataToolUtils.hash(weId);
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_WEID, weId);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<WeIdDocumentValue> response = new ShardedSqlExecutor(sqlDomain).route(weId)
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_WEID, SqlExecutor.WEID_DOCUMENT_MAPPER, weId);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                WeIdDocumentValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), WeIdDocumentValue.class);
+                WeIdDocumentValue tableData = response.getResult();
                 if (StringUtils.isNotBlank(tableData.getDocument_schema())) {
                     return new ResponseData<>(WeIdDocument.fromJson(tableData.getDocument_schema()), ErrorCode.SUCCESS);
                 }
@@ -556,6 +787,31 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<Map<String, WeIdDocumentValue>> getWeIdDocuments(
+            String domain,
+            List<String> weIds) {
+
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<List<WeIdDocumentValue>> response = new ShardedSqlExecutor(sqlDomain)
+                    .executeQueryIn(SqlExecutor.SQL_QUERY_WEID_IN, SqlExecutor.WEID_DOCUMENT_MAPPER, weIds);
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Map<String, WeIdDocumentValue> result = new HashMap<>();
+            for (WeIdDocumentValue tableData : response.getResult()) {
+                if (StringUtils.isNotBlank(tableData.getDocument_schema())) {
+                    result.put(tableData.getWeid(), tableData);
+                }
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getWeIdDocuments] get the weIdDocuments error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<WeIdDocumentMetadata> getMeta(String domain, String weId) {
 
@@ -565,13 +821,12 @@ public class MysqlDriver implements Persistence {
         }
         //String dataKey = DataToolUtils.hash(weId);
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_WEID, weId);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<WeIdDocumentValue> response = new ShardedSqlExecutor(sqlDomain).route(weId)
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_WEID, SqlExecutor.WEID_DOCUMENT_MAPPER, weId);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                WeIdDocumentValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), WeIdDocumentValue.class);
+                WeIdDocumentValue tableData = response.getResult();
                 if (StringUtils.isNotBlank(tableData.getDocument_schema())) {
                     WeIdDocumentMetadata weIdDocumentMetadata = new WeIdDocumentMetadata();
                     weIdDocumentMetadata.setCreated(tableData.getCreated().getTime());
@@ -599,13 +854,12 @@ public class MysqlDriver implements Persistence {
         String dataKey = DataToolUtils.hash(weId);
         Date date = new Date();
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_WEID, dataKey);
+            SqlExecutor sqlExecutor = new ShardedSqlExecutor(SqlDomain.resolve(domain)).route(weId);
+            ResponseData<WeIdDocumentValue> response = sqlExecutor.usePrimary()
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_WEID, SqlExecutor.WEID_DOCUMENT_MAPPER, dataKey);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                WeIdDocumentValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), WeIdDocumentValue.class);
+                WeIdDocumentValue tableData = response.getResult();
                 if(tableData.getDeactivated() == 1){
                     logger.error("[mysql->deactivateWeId] the weid is deactivated.");
                     return new ResponseData<>(FAILED_STATUS,
@@ -613,7 +867,7 @@ public class MysqlDriver implements Persistence {
                 }
                 if (StringUtils.isNotBlank(tableData.getDocument_schema())) {
                     Object[] datas = {date, tableData.getVersion(), state ? 1:0, tableData.getDocument_schema(), weId};
-                    return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPDATE_WEID, datas);
+                    return sqlExecutor.execute(SqlExecutor.SQL_UPDATE_WEID, datas);
                 }
             }
             return new ResponseData<>(FAILED_STATUS, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
@@ -626,10 +880,9 @@ public class MysqlDriver implements Persistence {
     @Override
     public ResponseData<List<String>> getWeIdList(String domain, Integer first, Integer last) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            Object[] datas = {first, last - first + 1};
-            ResponseData<List<String>> response = new SqlExecutor(sqlDomain)
-                    .executeQueryLines(SqlExecutor.SQL_QUERY_SEVERAL_WEID, datas);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<List<String>> response = new ShardedSqlExecutor(sqlDomain)
+                    .executeQueryLines(SqlExecutor.SQL_QUERY_SEVERAL_WEID, first, last - first + 1);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
                     return new ResponseData<>(response.getResult(), ErrorCode.SUCCESS);
@@ -641,11 +894,44 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<List<String>> getWeIdListAfter(String domain, String afterWeId, Integer num) {
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<List<String>> response = new ShardedSqlExecutor(sqlDomain).executeQueryAfter(
+                    SqlExecutor.SQL_QUERY_WEID_AFTER, SqlExecutor.STRING_MAPPER,
+                    afterWeId == null ? StringUtils.EMPTY : afterWeId, num);
+            if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
+                    && response.getResult() != null) {
+                return new ResponseData<>(response.getResult(), ErrorCode.SUCCESS);
+            }
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getWeIdListAfter] get the weId list error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<PersistenceCursor<String>> scanWeIds(String domain, Integer fetchSize) {
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            int size = (fetchSize == null || fetchSize <= 0) ? SCAN_FETCH_SIZE : fetchSize;
+            ResponseData<PersistenceCursor<String>> response = new ShardedSqlExecutor(sqlDomain)
+                    .executeQueryCursor(SqlExecutor.SQL_SCAN_WEID, SqlExecutor.STRING_MAPPER, size);
+            return new ResponseData<>(
+                    response.getResult(), ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->scanWeIds] scan the weId error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> getWeIdCount(String domain) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Integer> response = new SqlExecutor(sqlDomain)
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<Integer> response = new ShardedSqlExecutor(sqlDomain)
                     .executeQueryAmounts(SqlExecutor.SQL_QUERY_TOTAL_LINE);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
@@ -667,13 +953,12 @@ public class MysqlDriver implements Persistence {
         }
         try {
             ResponseData<CptValue> result = new ResponseData<CptValue>();
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_CPT, cptId);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<CptValue> response = new ShardedSqlExecutor(sqlDomain).route(cptId)
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_CPT, SqlExecutor.CPT_MAPPER, cptId);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                CptValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), CptValue.class);
+                CptValue tableData = response.getResult();
                 if (StringUtils.isNotBlank(tableData.getCpt_schema())) {
                     result.setResult(tableData);
                     return new ResponseData<>(tableData, ErrorCode.SUCCESS);
@@ -696,10 +981,10 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<CptBaseInfo>(null, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {cptId, now, now, CPT_DEFAULT_VERSION, publisher, description, cptSchema, cptSignature};
-            ResponseData<Integer> result = new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE_CPT, datas);
+            ResponseData<Integer> result = new ShardedSqlExecutor(sqlDomain).route(cptId).execute(SqlExecutor.SQL_SAVE_CPT, datas);
             if (result.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
                 logger.error("[addCpt] add Cpt to db failed.");
                 throw new DatabaseException("database error!");
@@ -714,6 +999,35 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<CptBaseInfo> addCptIfAbsent(String domain, int cptId, String publisher, String description, String cptSchema, String cptSignature) {
+
+        if (cptId <= 0) {
+            logger.error("[mysql->addCptIfAbsent] the cptId is invalid.");
+            return new ResponseData<CptBaseInfo>(null, KEY_INVALID);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Date now = sqlDomain.getNow();
+            Object[] datas = {cptId, now, now, CPT_DEFAULT_VERSION, publisher, description, cptSchema, cptSignature};
+            ResponseData<Integer> result = checkInserted(
+                    new ShardedSqlExecutor(sqlDomain).route(cptId)
+                            .executeIfAbsent(SqlExecutor.SQL_SAVE_CPT, datas),
+                    ErrorCode.CPT_ALREADY_EXIST);
+            if (result.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<CptBaseInfo>(null,
+                        ErrorCode.getTypeByErrorCode(result.getErrorCode()));
+            }
+            CptBaseInfo cptBaseInfo = new CptBaseInfo();
+            cptBaseInfo.setCptId(cptId);
+            cptBaseInfo.setCptVersion(CPT_DEFAULT_VERSION);
+            return new ResponseData<>(cptBaseInfo, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->addCptIfAbsent] addCptIfAbsent error.", e);
+            return new ResponseData<CptBaseInfo>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> updateCpt(String domain, int cptId, int cptVersion, String publisher, String description, String cptSchema, String cptSignature) {
 
@@ -722,23 +1036,41 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {now, cptVersion, publisher, description, cptSchema, cptSignature, cptId};
-            return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPDATE_CPT, datas);
+            return new ShardedSqlExecutor(sqlDomain).route(cptId).execute(SqlExecutor.SQL_UPDATE_CPT, datas);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->updateCpt] updateCpt error.", e);
             return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
         }
     }
 
+    @Override
+    public ResponseData<List<Integer>> batchAddOrUpdateCpts(String domain, List<CptValue> cpts) {
+
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Date now = sqlDomain.getNow();
+            List<Object[]> rows = new ArrayList<>(cpts.size());
+            for (CptValue value : cpts) {
+                int cptVersion = value.getCpt_version() > 0 ? value.getCpt_version() : CPT_DEFAULT_VERSION;
+                rows.add(new Object[]{value.getCpt_id(), now, now, cptVersion, value.getPublisher(),
+                        value.getDescription(), value.getCpt_schema(), value.getCpt_signature()});
+            }
+            return new ShardedSqlExecutor(sqlDomain).batchUpsert(SqlExecutor.SQL_UPSERT_CPT, rows, 0);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->batchAddOrUpdateCpts] batchAddOrUpdateCpts error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<List<Integer>> getCptIdList(String domain, Integer first, Integer last) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            Object[] datas = {first, last - first};
-            ResponseData<List<String>> response = new SqlExecutor(sqlDomain)
-                    .executeQueryLines(SqlExecutor.SQL_QUERY_SEVERAL_CPT, datas);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<List<String>> response = new ShardedSqlExecutor(sqlDomain)
+                    .executeQueryLines(SqlExecutor.SQL_QUERY_SEVERAL_CPT, first, last - first);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
                 List<Integer> cptList = new ArrayList<>();
@@ -754,11 +1086,44 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<List<Integer>> getCptIdListAfter(String domain, Integer afterCptId, Integer num) {
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<List<Integer>> response = new ShardedSqlExecutor(sqlDomain).executeQueryAfter(
+                    SqlExecutor.SQL_QUERY_CPT_ID_AFTER, SqlExecutor.INTEGER_MAPPER,
+                    afterCptId == null ? Integer.MIN_VALUE : afterCptId, num);
+            if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
+                    && response.getResult() != null) {
+                return new ResponseData<>(response.getResult(), ErrorCode.SUCCESS);
+            }
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getCptIdListAfter] get the CptIdList error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<PersistenceCursor<Integer>> scanCptIds(String domain, Integer fetchSize) {
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            int size = (fetchSize == null || fetchSize <= 0) ? SCAN_FETCH_SIZE : fetchSize;
+            ResponseData<PersistenceCursor<Integer>> response = new ShardedSqlExecutor(sqlDomain)
+                    .executeQueryCursor(SqlExecutor.SQL_SCAN_CPT_ID, SqlExecutor.INTEGER_MAPPER, size);
+            return new ResponseData<>(
+                    response.getResult(), ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->scanCptIds] scan the cptId error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> getCptCount(String domain) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Integer> response = new SqlExecutor(sqlDomain)
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<Integer> response = new ShardedSqlExecutor(sqlDomain)
                     .executeQueryAmounts(SqlExecutor.SQL_QUERY_TOTAL_LINE);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
@@ -774,7 +1139,7 @@ public class MysqlDriver implements Persistence {
     @Override
     public ResponseData<List<Integer>> getPolicyIdList(String domain, Integer first, Integer last) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Object[] datas = {first, last - first};
             ResponseData<List<String>> response = new SqlExecutor(sqlDomain)
                     .executeQueryLines(SqlExecutor.SQL_QUERY_SEVERAL_POLICY, datas);
@@ -793,10 +1158,28 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<List<Integer>> getPolicyIdListAfter(String domain, Integer afterPolicyId, Integer num) {
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Object[] datas = {afterPolicyId == null ? Integer.MIN_VALUE : afterPolicyId, num};
+            ResponseData<List<Integer>> response = new SqlExecutor(sqlDomain)
+                    .executeQueryList(SqlExecutor.SQL_QUERY_POLICY_ID_AFTER, SqlExecutor.INTEGER_MAPPER, datas);
+            if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
+                    && response.getResult() != null) {
+                return new ResponseData<>(response.getResult(), ErrorCode.SUCCESS);
+            }
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getPolicyIdListAfter] get the PolicyIdList error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> getPolicyCount(String domain) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             ResponseData<Integer> response = new SqlExecutor(sqlDomain)
                     .executeQueryAmounts(SqlExecutor.SQL_QUERY_TOTAL_LINE);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
@@ -818,10 +1201,10 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {credentialPublicKey, credentialProof, cptId};
-            return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPDATE_CREDENTIAL_TEMPLATE, datas);
+            return new ShardedSqlExecutor(sqlDomain).route(cptId).execute(SqlExecutor.SQL_UPDATE_CREDENTIAL_TEMPLATE, datas);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->putCredentialTemplate] updateCpt error.", e);
             return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
@@ -836,10 +1219,10 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {policies, cptId};
-            return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPDATE_CLAIM_POLICIES, datas);
+            return new ShardedSqlExecutor(sqlDomain).route(cptId).execute(SqlExecutor.SQL_UPDATE_CLAIM_POLICIES, datas);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->updateCptClaimPolicies] updateCptClaimPolicies error.", e);
             return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
@@ -854,7 +1237,7 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(null, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {policyId, now, now, CPT_DEFAULT_VERSION, publisher, description, cptSchema, cptSignature};
             ResponseData<Integer> result = new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE_POLICY, datas);
@@ -878,13 +1261,12 @@ public class MysqlDriver implements Persistence {
         }
         try {
             ResponseData<PolicyValue> result = new ResponseData<PolicyValue>();
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_POLICY, policyId);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<PolicyValue> response = new SqlExecutor(sqlDomain)
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_POLICY, SqlExecutor.POLICY_MAPPER, policyId);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                PolicyValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), PolicyValue.class);
+                PolicyValue tableData = response.getResult();
                 if (StringUtils.isNotBlank(tableData.getPolicy_schema())) {
                     result.setResult(tableData);
                     return new ResponseData<>(tableData, ErrorCode.SUCCESS);
@@ -907,7 +1289,7 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(null, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {presentationId, creator, policies};
             ResponseData<Integer> result = new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE_PRESENTATION, datas);
@@ -930,13 +1312,12 @@ public class MysqlDriver implements Persistence {
         }
         try {
             ResponseData<PresentationValue> result = new ResponseData<PresentationValue>();
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_PRESENTATION, presentationId);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<PresentationValue> response = new SqlExecutor(sqlDomain)
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_PRESENTATION, SqlExecutor.PRESENTATION_MAPPER, presentationId);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                PresentationValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), PresentationValue.class);
+                PresentationValue tableData = response.getResult();
                 if (StringUtils.isNotBlank(tableData.getClaim_policies())) {
                     result.setResult(tableData);
                     return new ResponseData<>(tableData, ErrorCode.SUCCESS);
@@ -960,13 +1341,12 @@ public class MysqlDriver implements Persistence {
         }
         try {
             ResponseData<AuthorityIssuerInfo> result = new ResponseData<AuthorityIssuerInfo>();
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_AUTHORITY_ISSUER_BY_ADDRESS, weId);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<AuthorityIssuerInfo> response = new SqlExecutor(sqlDomain)
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_AUTHORITY_ISSUER_BY_ADDRESS, SqlExecutor.AUTHORITY_ISSUER_MAPPER, weId);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                AuthorityIssuerInfo tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), AuthorityIssuerInfo.class);
+                AuthorityIssuerInfo tableData = response.getResult();
                 if (StringUtils.isNotBlank(tableData.getName())) {
                     result.setResult(tableData);
                     return new ResponseData<>(tableData, ErrorCode.SUCCESS);
@@ -981,6 +1361,31 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<Map<String, AuthorityIssuerInfo>> getAuthorityIssuersByWeIds(
+            String domain,
+            List<String> weIds) {
+
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<List<AuthorityIssuerInfo>> response = new SqlExecutor(sqlDomain)
+                    .executeQueryIn(SqlExecutor.SQL_QUERY_AUTHORITY_ISSUER_IN, SqlExecutor.AUTHORITY_ISSUER_MAPPER, weIds);
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Map<String, AuthorityIssuerInfo> result = new HashMap<>();
+            for (AuthorityIssuerInfo tableData : response.getResult()) {
+                if (StringUtils.isNotBlank(tableData.getName())) {
+                    result.put(tableData.getWeid(), tableData);
+                }
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getAuthorityIssuersByWeIds] get the authority issuers error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<AuthorityIssuerInfo> getAuthorityIssuerByName(String domain, String name) {
 
@@ -990,13 +1395,12 @@ public class MysqlDriver implements Persistence {
         }
         try {
             ResponseData<AuthorityIssuerInfo> result = new ResponseData<AuthorityIssuerInfo>();
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_AUTHORITY_ISSUER_BY_NAME, name);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<AuthorityIssuerInfo> response = new SqlExecutor(sqlDomain)
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_AUTHORITY_ISSUER_BY_NAME, SqlExecutor.AUTHORITY_ISSUER_MAPPER, name);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                AuthorityIssuerInfo tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), AuthorityIssuerInfo.class);
+                AuthorityIssuerInfo tableData = response.getResult();
                 if (StringUtils.isNotBlank(tableData.getWeid())) {
                     result.setResult(tableData);
                     return new ResponseData<>(tableData, ErrorCode.SUCCESS);
@@ -1018,7 +1422,7 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {weId, name, desc, now, now, 0, accValue, extraStr, extraInt};
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE_AUTHORITY_ISSUER, datas);
@@ -1035,7 +1439,7 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_DELETE_AUTHORITY_ISSUER, weId);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->removeAuthorityIssuer] addAuthorityIssuer error.", e);
@@ -1050,14 +1454,13 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_AUTHORITY_ISSUER_BY_ADDRESS, weId);
+            ResponseData<AuthorityIssuerInfo> response = new SqlExecutor(sqlDomain).usePrimary()
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_AUTHORITY_ISSUER_BY_ADDRESS, SqlExecutor.AUTHORITY_ISSUER_MAPPER, weId);
             if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                AuthorityIssuerInfo tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), AuthorityIssuerInfo.class);
+                AuthorityIssuerInfo tableData = response.getResult();
 
                 if (StringUtils.isNotBlank(tableData.getName())) {
                     return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPDATE_AUTHORITY_ISSUER, new Object[]{now, recognize, weId});
@@ -1073,7 +1476,7 @@ public class MysqlDriver implements Persistence {
     @Override
     public ResponseData<Integer> getAuthorityIssuerCount(String domain) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             ResponseData<Integer> response = new SqlExecutor(sqlDomain)
                     .executeQueryAmounts(SqlExecutor.SQL_QUERY_TOTAL_LINE);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
@@ -1090,7 +1493,7 @@ public class MysqlDriver implements Persistence {
     @Override
     public ResponseData<Integer> getRecognizedIssuerCount(String domain) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             ResponseData<Integer> response = new SqlExecutor(sqlDomain)
                     .executeQueryAmounts(SqlExecutor.SQL_QUERY_TOTAL_RECOGNIZED_ISSUER);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
@@ -1113,14 +1516,13 @@ public class MysqlDriver implements Persistence {
         }
         try {
             ResponseData<RoleValue> result = new ResponseData<RoleValue>();
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_ROLE, weId);
+            ResponseData<RoleValue> response = new SqlExecutor(sqlDomain)
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_ROLE, SqlExecutor.ROLE_MAPPER, weId);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                RoleValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), RoleValue.class);
+                RoleValue tableData = response.getResult();
                 if (tableData.getUpdated().before(now)) {
                     result.setResult(tableData);
                     return new ResponseData<>(tableData, ErrorCode.SUCCESS);
@@ -1147,7 +1549,7 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             switch (roleValue) {
                 case 1 : return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE_ROLE, new Object[]{weId, now, now, 1, 0, 0});
@@ -1176,14 +1578,13 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_ROLE, weId);
+            ResponseData<RoleValue> response = new SqlExecutor(sqlDomain).usePrimary()
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_ROLE, SqlExecutor.ROLE_MAPPER, weId);
             if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                RoleValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), RoleValue.class);
+                RoleValue tableData = response.getResult();
 
                 if (tableData.getUpdated().before(now)) {
                     switch (roleValue) {
@@ -1205,6 +1606,28 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<List<Integer>> batchAddOrUpdateRoles(String domain, List<RoleValue> roles) {
+
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Date now = sqlDomain.getNow();
+            List<Object[]> rows = new ArrayList<>(roles.size());
+            for (RoleValue value : roles) {
+                if (StringUtils.isEmpty(value.getWeid())) {
+                    logger.error("[mysql->batchAddOrUpdateRoles] the weId is empty.");
+                    return new ResponseData<>(null, KEY_INVALID);
+                }
+                rows.add(new Object[]{value.getWeid(), now, now, value.getAuthority_role(),
+                        value.getCommittee_role(), value.getAdmin_role()});
+            }
+            return new SqlExecutor(sqlDomain).batchUpsert(SqlExecutor.SQL_UPSERT_ROLE, rows);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->batchAddOrUpdateRoles] batchAddOrUpdateRoles error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> addSpecificType(String domain, String typeName, String owner) {
         if (StringUtils.isEmpty(typeName)) {
@@ -1212,7 +1635,7 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {typeName, now, now, owner};
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE_SPECIFIC_TYPE, datas);
@@ -1229,7 +1652,7 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_DELETE_SPECIFIC_TYPE, typeName);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->removeSpecificType] removeSpecificType error.", e);
@@ -1246,14 +1669,13 @@ public class MysqlDriver implements Persistence {
         }
         try {
             ResponseData<SpecificTypeValue> result = new ResponseData<SpecificTypeValue>();
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_SPECIFIC_TYPE, typeName);
+            ResponseData<SpecificTypeValue> response = new SqlExecutor(sqlDomain)
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_SPECIFIC_TYPE, SqlExecutor.SPECIFIC_TYPE_MAPPER, typeName);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                SpecificTypeValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), SpecificTypeValue.class);
+                SpecificTypeValue tableData = response.getResult();
                 if (tableData.getUpdated().before(now)) {
                     result.setResult(tableData);
                     return new ResponseData<>(tableData, ErrorCode.SUCCESS);
@@ -1268,10 +1690,36 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<Map<String, SpecificTypeValue>> getSpecificTypes(
+            String domain,
+            List<String> typeNames) {
+
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<List<SpecificTypeValue>> response = new SqlExecutor(sqlDomain)
+                    .executeQueryIn(SqlExecutor.SQL_QUERY_SPECIFIC_TYPE_IN, SqlExecutor.SPECIFIC_TYPE_MAPPER, typeNames);
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Date now = new Date();
+            Map<String, SpecificTypeValue> result = new HashMap<>();
+            for (SpecificTypeValue tableData : response.getResult()) {
+                if (tableData.getUpdated() != null && tableData.getUpdated().before(now)) {
+                    result.put(tableData.getType_name(), tableData);
+                }
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getSpecificTypes] get the specific types error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> updateSpecificTypeFellow(String domain, String typeName, String fellow) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {fellow, typeName};
             return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPDATE_SPECIFIC_TYPE_FELLOW, datas);
@@ -1281,10 +1729,100 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<Integer> addSpecificTypeIssuer(String domain, String typeName, String issuer) {
+
+        if (StringUtils.isEmpty(typeName) || StringUtils.isEmpty(issuer)) {
+            logger.error("[mysql->addSpecificTypeIssuer] the typeName or issuer is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Object[] datas = {typeName, issuer, sqlDomain.getNow()};
+            return new SqlExecutor(sqlDomain)
+                .executeIfAbsent(SqlExecutor.SQL_SAVE_SPECIFIC_TYPE_ISSUER, datas);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->addSpecificTypeIssuer] addSpecificTypeIssuer error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> removeSpecificTypeIssuer(String domain, String typeName, String issuer) {
+
+        if (StringUtils.isEmpty(typeName) || StringUtils.isEmpty(issuer)) {
+            logger.error("[mysql->removeSpecificTypeIssuer] the typeName or issuer is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            return new SqlExecutor(sqlDomain).execute(
+                    SqlExecutor.SQL_DELETE_SPECIFIC_TYPE_ISSUER, typeName, issuer);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->removeSpecificTypeIssuer] removeSpecificTypeIssuer error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Boolean> isSpecificTypeIssuer(String domain, String typeName, String issuer) {
+
+        if (StringUtils.isEmpty(typeName) || StringUtils.isEmpty(issuer)) {
+            logger.error("[mysql->isSpecificTypeIssuer] the typeName or issuer is empty.");
+            return new ResponseData<>(false, KEY_INVALID);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<Boolean> response = new SqlExecutor(sqlDomain).executeQueryObject(
+                    SqlExecutor.SQL_QUERY_SPECIFIC_TYPE_ISSUER,
+                    SqlExecutor.SPECIFIC_TYPE_ISSUER_MAPPER, typeName, issuer, typeName);
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(false, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            return new ResponseData<>(response.getResult(), ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->isSpecificTypeIssuer] isSpecificTypeIssuer error.", e);
+            return new ResponseData<>(false, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<String>> getSpecificTypeIssuerList(
+            String domain, String typeName, Integer first, Integer num) {
+
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Object[] datas = {typeName, first, num};
+            return new SqlExecutor(sqlDomain).executeQueryList(
+                    SqlExecutor.SQL_QUERY_SEVERAL_SPECIFIC_TYPE_ISSUER, SqlExecutor.STRING_MAPPER, datas);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getSpecificTypeIssuerList] getSpecificTypeIssuerList error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> getSpecificTypeIssuerCount(String domain, String typeName) {
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<Integer> response = new SqlExecutor(sqlDomain).executeQueryObject(
+                    SqlExecutor.SQL_QUERY_TOTAL_SPECIFIC_TYPE_ISSUER, SqlExecutor.INTEGER_MAPPER,
+                    typeName);
+            if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
+                    && response.getResult() != null) {
+                return new ResponseData<>(response.getResult(), ErrorCode.SUCCESS);
+            }
+            return new ResponseData<>(0, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getSpecificTypeIssuerCount] getSpecificTypeIssuerCount error.", e);
+            return new ResponseData<>(0, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> getIssuerTypeCount(String domain) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             ResponseData<Integer> response = new SqlExecutor(sqlDomain)
                     .executeQueryAmounts(SqlExecutor.SQL_QUERY_TOTAL_LINE);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
@@ -1301,7 +1839,7 @@ public class MysqlDriver implements Persistence {
     @Override
     public ResponseData<List<String>> getIssuerTypeList(String domain, Integer first, Integer last) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Object[] datas = {first, last - first};
             ResponseData<List<String>> response = new SqlExecutor(sqlDomain)
                     .executeQueryLines(SqlExecutor.SQL_QUERY_SEVERAL_SPECIFIC_TYPE, datas);
@@ -1316,6 +1854,24 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<List<String>> getIssuerTypeListAfter(String domain, String afterTypeName, Integer num) {
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Object[] datas = {afterTypeName == null ? StringUtils.EMPTY : afterTypeName, num};
+            ResponseData<List<String>> response = new SqlExecutor(sqlDomain)
+                    .executeQueryList(SqlExecutor.SQL_QUERY_SPECIFIC_TYPE_AFTER, SqlExecutor.STRING_MAPPER, datas);
+            if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
+                    && response.getResult() != null) {
+                return new ResponseData<>(response.getResult(), ErrorCode.SUCCESS);
+            }
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getIssuerTypeListAfter] get the IssuerTypeList error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<EvidenceValue> getEvidenceByHash(String domain, String hash) {
 
@@ -1325,13 +1881,12 @@ public class MysqlDriver implements Persistence {
         }
         try {
             ResponseData<EvidenceValue> result = new ResponseData<EvidenceValue>();
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_EVIDENCE_BY_HASH, hash);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<EvidenceValue> response = new ShardedSqlExecutor(sqlDomain).route(hash)
+                    .executeQueryObject(SqlExecutor.SQL_QUERY_EVIDENCE_BY_HASH, SqlExecutor.EVIDENCE_MAPPER, hash);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                EvidenceValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), EvidenceValue.class);
+                EvidenceValue tableData = response.getResult();
                 if (StringUtils.isNotBlank(tableData.getSigners())) {
                     result.setResult(tableData);
                     return new ResponseData<>(tableData, ErrorCode.SUCCESS);
@@ -1346,6 +1901,31 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<Map<String, EvidenceValue>> getEvidenceByHashes(
+            String domain,
+            List<String> hashes) {
+
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<List<EvidenceValue>> response = new ShardedSqlExecutor(sqlDomain)
+                    .executeQueryIn(SqlExecutor.SQL_QUERY_EVIDENCE_IN, SqlExecutor.EVIDENCE_MAPPER, hashes);
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Map<String, EvidenceValue> result = new HashMap<>();
+            for (EvidenceValue tableData : response.getResult()) {
+                if (StringUtils.isNotBlank(tableData.getSigners())) {
+                    result.put(tableData.getHash(), tableData);
+                }
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getEvidenceByHashes] get the evidences error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> addEvidenceByHash(String domain, String hashValue, String signer, String signature, String log, String updated, String revoked, String extraKey, String group_id) {
         if (StringUtils.isEmpty(hashValue)) {
@@ -1353,32 +1933,74 @@ public class MysqlDriver implements Persistence {
             return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
         }
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             if(extraKey.equals(StringUtils.EMPTY)){
                 Object[] datas = {hashValue, signer, signature, log, updated, revoked, group_id};
-                return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE_EVIDENCE_BY_HASH, datas);
+                return new ShardedSqlExecutor(sqlDomain).route(hashValue).execute(SqlExecutor.SQL_SAVE_EVIDENCE_BY_HASH, datas);
             }
             Object[] datas = {hashValue, signer, signature, log, updated, revoked, extraKey, group_id};
-            return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_SAVE_EVIDENCE_EXTRAKEY, datas);
+            return new ShardedSqlExecutor(sqlDomain).route(hashValue).execute(SqlExecutor.SQL_SAVE_EVIDENCE_EXTRAKEY, datas);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->addEvidenceByHash] addEvidenceByHash error.", e);
             return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
         }
     }
 
+    @Override
+    public ResponseData<Integer> addEvidenceByHashIfAbsent(String domain, String hashValue, String signer, String signature, String log, String updated, String revoked, String group_id) {
+        if (StringUtils.isEmpty(hashValue)) {
+            logger.error("[mysql->addEvidenceByHashIfAbsent] the hashValue is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Object[] datas = {hashValue, signer, signature, log, updated, revoked, group_id};
+            ResponseData<Integer> result = new ShardedSqlExecutor(sqlDomain).route(hashValue)
+                    .executeIfAbsent(SqlExecutor.SQL_SAVE_EVIDENCE_BY_HASH, datas);
+            return checkInserted(result, ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->addEvidenceByHashIfAbsent] addEvidenceByHashIfAbsent error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<Integer> addSignatureAndLogs(String domain, String hashValue, String signer, String signature, String log, String updated, String revoked, String extraKey) {
         try {
-            SqlDomain sqlDomain = new SqlDomain(domain);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
             Date now = sqlDomain.getNow();
             Object[] datas = {signer, signature, log, updated, revoked, extraKey, hashValue};
-            return new SqlExecutor(sqlDomain).execute(SqlExecutor.SQL_UPDATE_EVIDENCE, datas);
+            return new ShardedSqlExecutor(sqlDomain).route(hashValue).execute(SqlExecutor.SQL_UPDATE_EVIDENCE, datas);
         } catch (WeIdBaseException e) {
             logger.error("[mysql->addSignatureAndLogs] addSignatureAndLogs error.", e);
             return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
         }
     }
 
+    @Override
+    public ResponseData<List<Integer>> batchAddOrUpdateEvidences(
+            String domain,
+            List<EvidenceValue> evidences) {
+
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            List<Object[]> rows = new ArrayList<>(evidences.size());
+            for (EvidenceValue value : evidences) {
+                if (StringUtils.isEmpty(value.getHash())) {
+                    logger.error("[mysql->batchAddOrUpdateEvidences] the hash is empty.");
+                    return new ResponseData<>(null, KEY_INVALID);
+                }
+                rows.add(new Object[]{value.getHash(), value.getSigners(), value.getSignatures(),
+                        value.getLogs(), value.getUpdated(), value.getRevoked(),
+                        value.getExtra_key(), value.getGroup_id()});
+            }
+            return new ShardedSqlExecutor(sqlDomain).batchUpsert(SqlExecutor.SQL_UPSERT_EVIDENCE, rows, 0);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->batchAddOrUpdateEvidences] batchAddOrUpdateEvidences error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
     @Override
     public ResponseData<EvidenceValue> getEvidenceByExtraKey(String domain, String extraKey) {
 
@@ -1388,13 +2010,12 @@ public class MysqlDriver implements Persistence {
         }
         try {
             ResponseData<EvidenceValue> result = new ResponseData<EvidenceValue>();
-            SqlDomain sqlDomain = new SqlDomain(domain);
-            ResponseData<Map<String, String>> response = new SqlExecutor(sqlDomain)
-                    .executeQuery(SqlExecutor.SQL_QUERY_EVIDENCE_BY_EXTRAKEY, extraKey);
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            ResponseData<EvidenceValue> response = new ShardedSqlExecutor(sqlDomain)
+                    .executeQueryFirst(SqlExecutor.SQL_QUERY_EVIDENCE_BY_EXTRAKEY, SqlExecutor.EVIDENCE_MAPPER, extraKey);
             if (response.getErrorCode() == ErrorCode.SUCCESS.getCode()
                     && response.getResult() != null) {
-                EvidenceValue tableData = DataToolUtils.deserialize(
-                        DataToolUtils.serialize(response.getResult()), EvidenceValue.class);
+                EvidenceValue tableData = response.getResult();
                 if (StringUtils.isNotBlank(tableData.getSigners())) {
                     result.setResult(tableData);
                     return new ResponseData<>(tableData, ErrorCode.SUCCESS);
@@ -1409,4 +2030,138 @@ public class MysqlDriver implements Persistence {
         }
     }
 
+    @Override
+    public ResponseData<Integer> addEvidenceLog(String domain, EvidenceLogValue evidenceLog) {
+
+        if (StringUtils.isEmpty(evidenceLog.getHash())) {
+            logger.error("[mysql->addEvidenceLog] the hash is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            Object[] datas = {evidenceLog.getHash(), evidenceLog.getType(), evidenceLog.getSigner(),
+                    evidenceLog.getSignature(), evidenceLog.getLog(), evidenceLog.getUpdated(),
+                    evidenceLog.getRevoked()};
+            return new ShardedSqlExecutor(sqlDomain).route(evidenceLog.getHash()).execute(SqlExecutor.SQL_SAVE_EVIDENCE_LOG, datas);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->addEvidenceLog] addEvidenceLog error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<EvidenceLogValue>> getEvidenceLogs(String domain, String hash) {
+
+        if (StringUtils.isEmpty(hash)) {
+            logger.error("[mysql->getEvidenceLogs] the hash is empty.");
+            return new ResponseData<>(null, KEY_INVALID);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            return new ShardedSqlExecutor(sqlDomain).route(hash).executeQueryList(
+                    SqlExecutor.SQL_QUERY_EVIDENCE_LOG, SqlExecutor.EVIDENCE_LOG_MAPPER, hash);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->getEvidenceLogs] getEvidenceLogs error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> updateEvidenceExtraKey(String domain, String hash, String extraKey) {
+
+        if (StringUtils.isEmpty(hash)) {
+            logger.error("[mysql->updateEvidenceExtraKey] the hash is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            return new ShardedSqlExecutor(sqlDomain).route(hash).execute(
+                    SqlExecutor.SQL_UPDATE_EVIDENCE_EXTRAKEY, extraKey, hash);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->updateEvidenceExtraKey] updateEvidenceExtraKey error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> allocateSequence(
+            String domain, String name, Integer initialValue, Integer blockSize) {
+
+        if (StringUtils.isEmpty(name) || blockSize == null || blockSize <= 0) {
+            logger.error("[mysql->allocateSequence] the name or blockSize is illegal.");
+            return new ResponseData<>(null, KEY_INVALID);
+        }
+        try {
+            SqlDomain sqlDomain = SqlDomain.resolve(domain);
+            SqlExecutor sqlExecutor = new SqlExecutor(sqlDomain).usePrimary();
+            ResponseData<Integer> response = sqlExecutor.executeIfAbsent(
+                    SqlExecutor.SQL_SAVE_SEQUENCE, name, initialValue, sqlDomain.getNow());
+            if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            // 读取当前值后仅在未被其他进程修改时前移, 否则重新读取
+            for (int i = 0; i < SEQUENCE_MAX_RETRY; i++) {
+                ResponseData<Integer> current = sqlExecutor.executeQueryObject(
+                        SqlExecutor.SQL_QUERY_SEQUENCE, SqlExecutor.INTEGER_MAPPER, name);
+                if (current.getErrorCode() != ErrorCode.SUCCESS.getCode()
+                        || current.getResult() == null) {
+                    return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(current.getErrorCode()));
+                }
+                int start = current.getResult();
+                response = sqlExecutor.execute(SqlExecutor.SQL_UPDATE_SEQUENCE,
+                        start + blockSize, sqlDomain.getNow(), name, start);
+                if (response.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                    return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+                }
+                if (response.getResult() == 1) {
+                    return new ResponseData<>(start, ErrorCode.SUCCESS);
+                }
+            }
+            logger.error("[mysql->allocateSequence] the sequence {} is contended.", name);
+            return new ResponseData<>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        } catch (WeIdBaseException e) {
+            logger.error("[mysql->allocateSequence] allocateSequence error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public <T> ResponseData<T> executeInUnit(Function<Persistence, ResponseData<T>> work) {
+
+        if (!ConnectionPool.beginUnit()) {
+            return work.apply(this);
+        }
+        ResponseData<T> result = null;
+        boolean ended = false;
+        try {
+            result = work.apply(this);
+            boolean commit = result != null && result.getErrorCode() != null
+                    && result.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode();
+            ended = ConnectionPool.endUnit(commit);
+        } finally {
+            // 异常或Error时回滚, 保证连接不会残留在线程池线程上
+            if (ConnectionPool.inUnit()) {
+                ConnectionPool.endUnit(false);
+            }
+        }
+        if (!ended) {
+            logger.error("[mysql->executeInUnit] commit the unit of work failed.");
+            return new ResponseData<T>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+        return result;
+    }
+
+    /**
+     * 主键冲突未写入数据时说明数据已存在, 返回对应的错误码.
+     */
+    private static ResponseData<Integer> checkInserted(
+            ResponseData<Integer> result,
+            ErrorCode existed) {
+
+        if (result.getErrorCode() == ErrorCode.SUCCESS.getCode()
+                && result.getResult() != null && result.getResult() == 0) {
+            return new ResponseData<Integer>(FAILED_STATUS, existed);
+        }
+        return result;
+    }
 }
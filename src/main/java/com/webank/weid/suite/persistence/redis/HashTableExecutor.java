@@ -0,0 +1,286 @@
+package com.webank.weid.suite.persistence.redis;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.suite.persistence.DefaultValue;
+import com.webank.weid.suite.persistence.PersistenceCursor;
+
+/**
+ * 按redis数据布局保存数据的存储操作接口, 由redis和嵌入式存储分别实现.
+ * 默认domain保存为键值数据, 本地表的行保存为字段名与mysql列名一致的哈希,
+ * 并维护主键顺序、二级索引、标记集合、追加记录列表、成员集合以及序列计数器.
+ */
+public interface HashTableExecutor {
+
+    /**
+     * 查询默认domain的数据.
+     *
+     * @param tableDomain 数据所在的表
+     * @param datakey Hash(id)
+     * @return 返回查询出来的数据, 不存在时为null
+     */
+    ResponseData<DefaultValue> executeQuery(String tableDomain, String datakey);
+
+    /**
+     * 批量查询默认domain的数据.
+     *
+     * @param tableDomain 数据所在的表
+     * @param dataKeys Hash(id)列表
+     * @return 返回查询出来的数据, 与dataKeys顺序一致, 不存在的数据为null
+     */
+    ResponseData<List<DefaultValue>> executeBatchQuery(String tableDomain, List<String> dataKeys);
+
+    /**
+     * 写入数据, 6个参数时为离线交易, 2个参数时为更新, 否则为新增.
+     *
+     * @param dataKey Hash(id)
+     * @param datas 所需要的数据
+     * @return 返回执行成功或失败
+     */
+    ResponseData<Integer> execute(String dataKey, Object... datas);
+
+    /**
+     * 数据不存在或已过期时新增.
+     *
+     * @param dataKey Hash(id)
+     * @param data 数据
+     * @param now 当前时间
+     * @return 返回执行成功或失败, 数据已存在时失败
+     */
+    ResponseData<Integer> executeInsert(String dataKey, String data, Date now);
+
+    /**
+     * 数据存在时更新并重新计算过期时间.
+     *
+     * @param dataKey Hash(id)
+     * @param data 数据
+     * @param now 当前时间
+     * @return 返回执行成功或失败, 数据不存在时返回key无效
+     */
+    ResponseData<Integer> executeUpdate(String dataKey, String data, Date now);
+
+    /**
+     * 新增或更新并重新计算过期时间.
+     *
+     * @param dataKey Hash(id)
+     * @param data 数据
+     * @param now 当前时间
+     * @return 返回执行成功或失败
+     */
+    ResponseData<Integer> executeUpsert(String dataKey, String data, Date now);
+
+    /**
+     * 删除默认domain的数据.
+     *
+     * @param dataKey Hash(id)
+     * @return 返回执行成功或失败
+     */
+    ResponseData<Integer> executeDelete(String dataKey);
+
+    /**
+     * 批量新增默认domain的数据.
+     *
+     * @param dataList 数据列表, 依次为Hash(id)、数据、创建时间和更新时间
+     * @return 返回受影响的行数
+     */
+    ResponseData<Integer> batchAdd(List<List<Object>> dataList);
+
+    /**
+     * 按主键查询本地表的一行数据.
+     *
+     * @param id 主键
+     * @param mapper 哈希映射器
+     * @param <T> 值对象类型
+     * @return 返回查询出来的数据, 不存在时为null
+     */
+    <T> ResponseData<T> executeHashQuery(String id, RedisHashMapper<T> mapper);
+
+    /**
+     * 按主键批量查询本地表数据.
+     *
+     * @param ids 主键列表
+     * @param mapper 哈希映射器
+     * @param <T> 值对象类型
+     * @return 返回存在的数据, 不存在的主键被跳过
+     */
+    <T> ResponseData<List<T>> executeBatchHashQuery(List<String> ids, RedisHashMapper<T> mapper);
+
+    /**
+     * 通过二级索引查询本地表的数据, 非唯一索引对应多行时按主键顺序返回全部行.
+     *
+     * @param field 建立索引的字段
+     * @param value 字段值
+     * @param mapper 哈希映射器
+     * @param <T> 值对象类型
+     * @return 返回查询出来的数据, 不存在时为空列表
+     */
+    <T> ResponseData<List<T>> executeIndexQuery(String field, String value,
+                                                RedisHashMapper<T> mapper);
+
+    /**
+     * 新增本地表的一行数据, 同时维护主键顺序与二级索引.
+     *
+     * @param id 主键
+     * @param score 数字主键的分值, 字符串主键为null
+     * @param fields 行数据, 值为null的字段不写入
+     * @param indexes 二级索引, 字段名到字段值, 值为null时不建立索引
+     * @return 返回执行成功或失败, 主键或唯一索引值已存在时失败
+     */
+    ResponseData<Integer> executeHashInsert(String id, Double score, Map<String, String> fields,
+                                            Map<String, String> indexes);
+
+    /**
+     * 更新本地表已存在的一行数据, 同时维护二级索引与标记集合.
+     *
+     * @param id 主键
+     * @param fields 需要更新的字段, 值为null的字段不更新
+     * @param indexes 二级索引的新值, 字段名到字段值, 值为null时不更新
+     * @param flags 标记集合的新状态, 字段名到是否标记
+     * @return 返回受影响的行数, 数据不存在时为0, 唯一索引值已被其他行占用时失败
+     */
+    ResponseData<Integer> executeHashUpdate(String id, Map<String, String> fields,
+                                            Map<String, String> indexes,
+                                            Map<String, Boolean> flags);
+
+    /**
+     * 删除本地表的一行数据, 同时清理主键顺序、二级索引与标记集合.
+     *
+     * @param id 主键
+     * @param indexFields 建立了二级索引的字段
+     * @param flagFields 建立了标记集合的字段
+     * @return 返回受影响的行数, 数据不存在时为0
+     */
+    ResponseData<Integer> executeHashDelete(String id, Collection<String> indexFields,
+                                            Collection<String> flagFields);
+
+    /**
+     * 在本地表的追加记录列表末尾新增一条记录.
+     *
+     * @param id 主键
+     * @param record 编码后的记录
+     * @return 返回执行成功或失败
+     */
+    ResponseData<Integer> executeListAppend(String id, String record);
+
+    /**
+     * 按追加顺序查询本地表的全部追加记录.
+     *
+     * @param id 主键
+     * @return 返回编码后的记录, 没有记录时为空列表
+     */
+    ResponseData<List<String>> executeListQuery(String id);
+
+    /**
+     * 在本地表主键的成员集合中新增成员, 已存在的成员不做修改.
+     *
+     * @param id 主键
+     * @param member 成员
+     * @return 新增成功返回1, 成员已存在返回0
+     */
+    ResponseData<Integer> executeMemberAdd(String id, String member);
+
+    /**
+     * 从本地表主键的成员集合中删除成员.
+     *
+     * @param id 主键
+     * @param member 成员
+     * @return 删除成功返回1, 成员不存在返回0
+     */
+    ResponseData<Integer> executeMemberRemove(String id, String member);
+
+    /**
+     * 查询成员是否属于本地表主键的成员集合.
+     *
+     * @param id 主键
+     * @param member 成员
+     * @return 返回是否为成员, 成员集合为空时返回null
+     */
+    ResponseData<Boolean> executeMemberQuery(String id, String member);
+
+    /**
+     * 按加入顺序查询本地表主键成员集合中指定排名范围内的成员.
+     *
+     * @param id 主键
+     * @param start 起始排名, 包含
+     * @param end 结束排名, 包含
+     * @return 返回成员列表
+     */
+    ResponseData<List<String>> executeMemberRange(String id, int start, int end);
+
+    /**
+     * 查询本地表主键成员集合的成员数量.
+     *
+     * @param id 主键
+     * @return 返回成员数量
+     */
+    ResponseData<Integer> executeMemberAmounts(String id);
+
+    /**
+     * 原子地预留一段序号, 序列不存在时从初始值开始.
+     *
+     * @param name 序列名称
+     * @param initialValue 序列不存在时的第一个序号
+     * @param blockSize 预留的序号个数
+     * @return 返回预留序号段的第一个序号
+     */
+    ResponseData<Integer> executeSequenceAllocate(String name, int initialValue, int blockSize);
+
+    /**
+     * 查询本地表的总行数.
+     *
+     * @return 返回总行数
+     */
+    ResponseData<Integer> executeQueryAmounts();
+
+    /**
+     * 查询本地表中被标记的行数.
+     *
+     * @param field 建立了标记集合的字段
+     * @return 返回被标记的行数
+     */
+    ResponseData<Integer> executeQueryFlagAmounts(String field);
+
+    /**
+     * 按排名区间查询本地表的主键.
+     *
+     * @param start 起始排名, 从0开始
+     * @param end 结束排名, 包含
+     * @return 返回主键列表
+     */
+    ResponseData<List<String>> executeQueryRange(int start, int end);
+
+    /**
+     * 按字典序查询字符串主键之后的若干主键.
+     *
+     * @param after 上一页最后一个主键, 为空时从头开始
+     * @param num 查询的数量
+     * @return 返回主键列表
+     */
+    ResponseData<List<String>> executeQueryAfter(String after, int num);
+
+    /**
+     * 按分值查询数字主键之后的若干主键.
+     *
+     * @param after 上一页最后一个主键
+     * @param num 查询的数量
+     * @return 返回主键列表
+     */
+    ResponseData<List<String>> executeQueryAfter(double after, int num);
+
+    /**
+     * 按主键顺序遍历本地表的游标, 每次读取一页主键.
+     *
+     * @param fetchSize 每页读取的数量
+     * @param numeric 是否为数字主键
+     * @param converter 主键转换方法
+     * @param <T> 游标返回的数据类型
+     * @return 返回游标
+     */
+    <T> ResponseData<PersistenceCursor<T>> executeQueryCursor(int fetchSize, boolean numeric,
+                                                              Function<String, T> converter);
+}
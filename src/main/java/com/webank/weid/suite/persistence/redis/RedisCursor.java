@@ -0,0 +1,87 @@
+package com.webank.weid.suite.persistence.redis;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.suite.persistence.PersistenceCursor;
+
+/**
+ * 基于主键有序集合的游标, 以上一页最后一个主键为起点逐页读取, 不持有连接.
+ *
+ * @param <T> 游标返回的数据类型
+ */
+class RedisCursor<T> implements PersistenceCursor<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCursor.class);
+
+    private final RedisExecutor executor;
+
+    private final int fetchSize;
+
+    private final boolean numeric;
+
+    private final Function<String, T> converter;
+
+    private Iterator<String> page;
+
+    private String last;
+
+    private boolean exhausted;
+
+    RedisCursor(RedisExecutor executor, int fetchSize, boolean numeric,
+                Function<String, T> converter) {
+        this.executor = executor;
+        this.fetchSize = fetchSize;
+        this.numeric = numeric;
+        this.converter = converter;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (page != null && page.hasNext()) {
+            return true;
+        }
+        if (exhausted) {
+            return false;
+        }
+        ResponseData<List<String>> response = numeric
+                ? executor.executeQueryAfter(
+                        last == null ? Double.NEGATIVE_INFINITY : Double.parseDouble(last),
+                        fetchSize)
+                : executor.executeQueryAfter(last, fetchSize);
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            logger.error("[hasNext] read the next page with error {}.", response.getErrorCode());
+            close();
+            throw new WeIdBaseException(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+        List<String> ids = response.getResult();
+        if (ids.size() < fetchSize) {
+            exhausted = true;
+        }
+        page = ids.iterator();
+        return page.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        last = page.next();
+        return converter.apply(last);
+    }
+
+    @Override
+    public void close() {
+        exhausted = true;
+        page = null;
+    }
+}
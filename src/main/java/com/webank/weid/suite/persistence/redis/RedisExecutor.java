@@ -2,16 +2,35 @@
 
 package com.webank.weid.suite.persistence.redis;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.redisson.api.BatchResult;
+import org.redisson.api.RFuture;
+import org.redisson.api.RAtomicLong;
 import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
+import org.redisson.api.RMap;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
 import org.redisson.client.RedisException;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.StringCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,15 +38,27 @@ import com.webank.weid.constant.DataDriverConstant;
 import com.webank.weid.blockchain.constant.ErrorCode;
 import com.webank.weid.protocol.request.TransactionArgs;
 import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.suite.persistence.AuthorityIssuerInfo;
+import com.webank.weid.suite.persistence.CptValue;
 import com.webank.weid.suite.persistence.DefaultValue;
+import com.webank.weid.suite.persistence.EvidenceValue;
+import com.webank.weid.suite.persistence.PersistenceCursor;
+import com.webank.weid.suite.persistence.PolicyValue;
+import com.webank.weid.suite.persistence.PresentationValue;
+import com.webank.weid.suite.persistence.RoleValue;
+import com.webank.weid.suite.persistence.SpecificTypeValue;
+import com.webank.weid.suite.persistence.WeIdDocumentValue;
+import com.webank.weid.suite.persistence.codec.ValueCodec;
+import com.webank.weid.suite.persistence.codec.ValueCodecFactory;
 import com.webank.weid.util.DataToolUtils;
+import com.webank.weid.util.PropertyUtils;
 
 /**
  * redis操作辅助类.
  *
  * @author karenli
  */
-public class RedisExecutor {
+public class RedisExecutor implements HashTableExecutor {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisExecutor.class);
 
@@ -36,22 +67,308 @@ public class RedisExecutor {
      */
     private static final String VALUE_SPLIT_CHAR = ":";
 
+    /**
+     * 本地表中每行数据哈希的key前缀: {table}:row:{id}.
+     * 表名用花括号作为hash tag, 同一张表的所有key位于同一个集群槽位, 脚本可以同时操作它们.
+     */
+    private static final String ROW_KEY = "row";
+
+    /**
+     * 本地表中每个主键追加记录列表的key前缀: {table}:list:{id}.
+     */
+    private static final String LIST_KEY = "list";
+
+    /**
+     * 本地表中每个主键成员有序集合的key前缀: {table}:members:{id}, 分值为加入时间.
+     */
+    private static final String MEMBER_KEY = "members";
+
+    /**
+     * 本地表中序列计数器的key前缀: {table}:seq:{name}, 值为下一个未预留的序号.
+     */
+    private static final String SEQUENCE_KEY = "seq";
+
+    /**
+     * 本地表主键有序集合的key: {table}:ids, 字符串主键按字典序排列, 数字主键按分值排列.
+     */
+    private static final String ORDER_KEY = "ids";
+
+    /**
+     * 本地表二级索引的key前缀: {table}:by_{field}.
+     * 唯一索引为哈希, 保存字段值到主键的映射;
+     * 非唯一索引为分值均为0的有序集合, 成员为字段值和主键以INDEX_SEPARATOR连接, 按字典序范围查询.
+     */
+    private static final String INDEX_KEY_PREFIX = "by_";
+
+    private static final String INDEX_SEPARATOR = "\0";
+
+    private static final String NEXT_SEPARATOR = "\1";
+
+    /**
+     * 本地表标记集合的key前缀: {table}:flag_{field}, 集合中保存标记为真的主键.
+     */
+    private static final String FLAG_KEY_PREFIX = "flag_";
+
+    private static final String UNIQUE = "1";
+
+    private static final String NON_UNIQUE = "0";
+
+    /**
+     * 行不存在且唯一索引值未被占用时, 写入全部字段, 二级索引和主键有序集合.
+     * KEYS: 行, 主键有序集合, 各索引; ARGV: 主键, 分值, 索引数, 各索引的值和是否唯一, 字段和值.
+     */
+    private static final String HASH_INSERT_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 1 then return 0 end "
+            + "local id = ARGV[1] "
+            + "local n = tonumber(ARGV[3]) "
+            + "for i = 1, n do "
+            + "  if ARGV[3 + 2 * i] == '1' "
+            + "    and redis.call('hexists', KEYS[2 + i], ARGV[2 + 2 * i]) == 1 then return 0 end "
+            + "end "
+            + "for i = 1, n do "
+            + "  if ARGV[3 + 2 * i] == '1' then "
+            + "    redis.call('hset', KEYS[2 + i], ARGV[2 + 2 * i], id) "
+            + "  else "
+            + "    redis.call('zadd', KEYS[2 + i], 0, ARGV[2 + 2 * i] .. '\\0' .. id) "
+            + "  end "
+            + "end "
+            + "redis.call('hset', KEYS[1], unpack(ARGV, 4 + 2 * n)) "
+            + "redis.call('zadd', KEYS[2], ARGV[2], id) "
+            + "return 1";
+
+    /**
+     * 行存在且新的唯一索引值未被其他行占用时, 更新字段, 二级索引和标记集合.
+     * KEYS: 行, 各索引, 各标记集合; ARGV: 主键, 索引数, 标记数,
+     * 各索引的字段, 新值和是否唯一, 各标记是否为真, 字段和值.
+     * 返回1为更新成功, 0为行不存在, -1为唯一索引值已被占用.
+     */
+    private static final String HASH_UPDATE_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end "
+            + "local id = ARGV[1] "
+            + "local n = tonumber(ARGV[2]) "
+            + "local m = tonumber(ARGV[3]) "
+            + "for i = 1, n do "
+            + "  if ARGV[3 + 3 * i] == '1' then "
+            + "    local owner = redis.call('hget', KEYS[1 + i], ARGV[2 + 3 * i]) "
+            + "    if owner and owner ~= id then return -1 end "
+            + "  end "
+            + "end "
+            + "for i = 1, n do "
+            + "  local old = redis.call('hget', KEYS[1], ARGV[1 + 3 * i]) "
+            + "  local new = ARGV[2 + 3 * i] "
+            + "  if ARGV[3 + 3 * i] == '1' then "
+            + "    if old and old ~= new and redis.call('hget', KEYS[1 + i], old) == id then "
+            + "      redis.call('hdel', KEYS[1 + i], old) "
+            + "    end "
+            + "    redis.call('hset', KEYS[1 + i], new, id) "
+            + "  else "
+            + "    if old and old ~= new then "
+            + "      redis.call('zrem', KEYS[1 + i], old .. '\\0' .. id) "
+            + "    end "
+            + "    redis.call('zadd', KEYS[1 + i], 0, new .. '\\0' .. id) "
+            + "  end "
+            + "end "
+            + "for j = 1, m do "
+            + "  if ARGV[3 + 3 * n + j] == '1' then "
+            + "    redis.call('sadd', KEYS[1 + n + j], id) "
+            + "  else "
+            + "    redis.call('srem', KEYS[1 + n + j], id) "
+            + "  end "
+            + "end "
+            + "if #ARGV >= 4 + 3 * n + m then "
+            + "  redis.call('hset', KEYS[1], unpack(ARGV, 4 + 3 * n + m)) "
+            + "end "
+            + "return 1";
+
+    /**
+     * 行存在时删除行, 并从主键有序集合, 二级索引和标记集合中移除.
+     * KEYS: 行, 主键有序集合, 各索引, 各标记集合; ARGV: 主键, 索引数, 各索引的字段和是否唯一.
+     */
+    private static final String HASH_DELETE_SCRIPT =
+            "if redis.call('exists', KEYS[1]) == 0 then return 0 end "
+            + "local id = ARGV[1] "
+            + "local n = tonumber(ARGV[2]) "
+            + "for i = 1, n do "
+            + "  local old = redis.call('hget', KEYS[1], ARGV[1 + 2 * i]) "
+            + "  if old then "
+            + "    if ARGV[2 + 2 * i] == '1' then "
+            + "      if redis.call('hget', KEYS[2 + i], old) == id then "
+            + "        redis.call('hdel', KEYS[2 + i], old) "
+            + "      end "
+            + "    else "
+            + "      redis.call('zrem', KEYS[2 + i], old .. '\\0' .. id) "
+            + "    end "
+            + "  end "
+            + "end "
+            + "for j = 3 + n, #KEYS do redis.call('srem', KEYS[j], id) end "
+            + "redis.call('del', KEYS[1]) "
+            + "redis.call('zrem', KEYS[2], id) "
+            + "return 1";
+
+    /**
+     * hash mapper for weIdDocument rows.
+     */
+    public static final RedisHashMapper<WeIdDocumentValue> WEID_DOCUMENT_MAPPER = fields -> {
+        WeIdDocumentValue value = new WeIdDocumentValue();
+        value.setWeid(fields.get("weid"));
+        value.setCreated(toDate(fields.get("created")));
+        value.setUpdated(toDate(fields.get("updated")));
+        value.setVersion(toInt(fields.get("version")));
+        value.setDeactivated(toInt(fields.get("deactivated")));
+        value.setDocument_schema(fields.get("document_schema"));
+        return value;
+    };
+    /**
+     * hash mapper for cpt rows.
+     */
+    public static final RedisHashMapper<CptValue> CPT_MAPPER = fields -> {
+        CptValue value = new CptValue();
+        value.setCpt_id(toInt(fields.get("cpt_id")));
+        value.setCreated(toDate(fields.get("created")));
+        value.setUpdated(toDate(fields.get("updated")));
+        value.setCpt_version(toInt(fields.get("cpt_version")));
+        value.setPublisher(fields.get("publisher"));
+        value.setDescription(fields.get("description"));
+        value.setCpt_schema(fields.get("cpt_schema"));
+        value.setCpt_signature(fields.get("cpt_signature"));
+        value.setCredential_publicKey(fields.get("credential_publicKey"));
+        value.setCredential_proof(fields.get("credential_proof"));
+        value.setClaim_policies(fields.get("claim_policies"));
+        return value;
+    };
+    /**
+     * hash mapper for policy rows.
+     */
+    public static final RedisHashMapper<PolicyValue> POLICY_MAPPER = fields -> {
+        PolicyValue value = new PolicyValue();
+        value.setPolicy_id(toInt(fields.get("policy_id")));
+        value.setCreated(toDate(fields.get("created")));
+        value.setUpdated(toDate(fields.get("updated")));
+        value.setPolicy_version(toInt(fields.get("policy_version")));
+        value.setPublisher(fields.get("publisher"));
+        value.setDescription(fields.get("description"));
+        value.setPolicy_schema(fields.get("policy_schema"));
+        value.setPolicy_signature(fields.get("policy_signature"));
+        value.setCredential_publicKey(fields.get("credential_publicKey"));
+        value.setCredential_proof(fields.get("credential_proof"));
+        value.setClaim_policies(fields.get("claim_policies"));
+        return value;
+    };
+    /**
+     * hash mapper for presentation rows.
+     */
+    public static final RedisHashMapper<PresentationValue> PRESENTATION_MAPPER = fields -> {
+        PresentationValue value = new PresentationValue();
+        value.setPresentation_id(toInt(fields.get("presentation_id")));
+        value.setCreator(fields.get("creator"));
+        value.setClaim_policies(fields.get("claim_policies"));
+        return value;
+    };
+    /**
+     * hash mapper for authority issuer rows.
+     */
+    public static final RedisHashMapper<AuthorityIssuerInfo> AUTHORITY_ISSUER_MAPPER = fields -> {
+        AuthorityIssuerInfo value = new AuthorityIssuerInfo();
+        value.setWeid(fields.get("weid"));
+        value.setName(fields.get("name"));
+        value.setDescription(fields.get("description"));
+        value.setCreated(toDate(fields.get("created")));
+        value.setUpdated(toDate(fields.get("updated")));
+        value.setRecognize(toInt(fields.get("recognize")));
+        value.setAcc_value(fields.get("acc_value"));
+        value.setExtra_str(fields.get("extra_str"));
+        value.setExtra_int(fields.get("extra_int"));
+        return value;
+    };
+    /**
+     * hash mapper for role rows.
+     */
+    public static final RedisHashMapper<RoleValue> ROLE_MAPPER = fields -> {
+        RoleValue value = new RoleValue();
+        value.setWeid(fields.get("weid"));
+        value.setCreated(toDate(fields.get("created")));
+        value.setUpdated(toDate(fields.get("updated")));
+        value.setAuthority_role(toInt(fields.get("authority_role")));
+        value.setCommittee_role(toInt(fields.get("committee_role")));
+        value.setAdmin_role(toInt(fields.get("admin_role")));
+        return value;
+    };
+    /**
+     * hash mapper for specific issuer type rows.
+     */
+    public static final RedisHashMapper<SpecificTypeValue> SPECIFIC_TYPE_MAPPER = fields -> {
+        SpecificTypeValue value = new SpecificTypeValue();
+        value.setType_name(fields.get("type_name"));
+        value.setFellow(fields.get("fellow"));
+        value.setCreated(toDate(fields.get("created")));
+        value.setUpdated(toDate(fields.get("updated")));
+        value.setOwner(fields.get("owner"));
+        return value;
+    };
+    /**
+     * hash mapper for evidence rows.
+     */
+    public static final RedisHashMapper<EvidenceValue> EVIDENCE_MAPPER = fields -> {
+        EvidenceValue value = new EvidenceValue();
+        value.setHash(fields.get("hash"));
+        value.setSigners(fields.get("signers"));
+        value.setSignatures(fields.get("signatures"));
+        value.setLogs(fields.get("logs"));
+        value.setUpdated(fields.get("updated"));
+        value.setRevoked(fields.get("revoked"));
+        value.setExtra_key(fields.get("extra_key"));
+        value.setExtra_data(fields.get("extra_data"));
+        value.setGroup_id(fields.get("group_id"));
+        return value;
+    };
+
     private RedisDomain redisDomain;
 
+    /**
+     * 默认数据域的数据编码器.
+     */
+    private ValueCodec valueCodec;
 
+    /**
+     * 非唯一二级索引的字段, 其余字段的二级索引均为唯一索引.
+     */
+    private Set<String> nonUniqueIndexes;
+
+    /**
+     * redisson连接入口.
+     */
+    private RedissonClient client;
 
     /**
      * 根据domain创建Redis执行器.
      *
      * @param redisDomain the redisDomain
+     * @param client redisson连接入口
      */
-    public RedisExecutor(RedisDomain redisDomain) {
+    public RedisExecutor(RedisDomain redisDomain, RedissonClient client) {
+        this(redisDomain, Collections.<String>emptySet(), client);
+    }
 
+    /**
+     * 根据domain创建Redis执行器, 并指定本地表的非唯一二级索引.
+     *
+     * @param redisDomain the redisDomain
+     * @param nonUniqueIndexes 非唯一二级索引的字段
+     * @param client redisson连接入口
+     */
+    public RedisExecutor(RedisDomain redisDomain, Set<String> nonUniqueIndexes,
+                         RedissonClient client) {
+
+        this.nonUniqueIndexes = nonUniqueIndexes;
+        this.client = client;
         if (redisDomain != null) {
             this.redisDomain = redisDomain;
         } else {
             this.redisDomain = new RedisDomain();
         }
+        this.valueCodec = ValueCodecFactory.build(PropertyUtils.getProperty(
+                DataDriverConstant.REDIS_VALUE_CODEC,
+                DataDriverConstant.REDIS_VALUE_CODEC_DEFAULT_VALUE));
     }
 
     /**
@@ -59,21 +376,21 @@ public class RedisExecutor {
      *
      * @param tableDomain key的部分映射
      * @param datakey 查询所需要的数据
-     * @param client redisson连接入口
-     * @return 返回查询出来的单个数据
+     * @return 返回查询出来的单个数据, 不存在时为null
      */
-    public ResponseData<String> executeQuery(String tableDomain, String datakey,
-                                             RedissonClient client) {
+    @Override
+    public ResponseData<DefaultValue> executeQuery(String tableDomain, String datakey) {
 
-        ResponseData<String> result = new ResponseData<String>();
+        ResponseData<DefaultValue> result = new ResponseData<DefaultValue>();
         try {
             if (client == null) {
-                return
-                        new ResponseData<String>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+                return new ResponseData<DefaultValue>(
+                        null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
             }
-            RBucket<String>  rbucket = client.getBucket(tableDomain + VALUE_SPLIT_CHAR + datakey);
+            RBucket<byte[]> rbucket = client.getBucket(
+                    tableDomain + VALUE_SPLIT_CHAR + datakey, ByteArrayCodec.INSTANCE);
             result.setErrorCode(ErrorCode.SUCCESS);
-            result.setResult(rbucket.get());
+            result.setResult(decodeValue(rbucket.get()));
         } catch (Exception e) {
             logger.error("Query data from {{}} with exception", redisDomain.getTableDomain(), e);
             result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
@@ -81,15 +398,101 @@ public class RedisExecutor {
         return result;
     }
 
+    /**
+     * 异步查询操作, 使用redisson的异步接口, 不占用调用线程.
+     * 返回的future在redisson的IO线程上完成, 调用方不应在回调中执行阻塞操作.
+     *
+     * @param tableDomain key的部分映射
+     * @param datakey 查询所需要的数据
+     * @return 返回查询出来的单个数据, 不存在时为null
+     */
+    public CompletableFuture<ResponseData<DefaultValue>> executeQueryAsync(String tableDomain,
+                                                                           String datakey) {
+
+        if (client == null) {
+            return CompletableFuture.completedFuture(new ResponseData<DefaultValue>(
+                    null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR));
+        }
+        return client.<byte[]>getBucket(
+                tableDomain + VALUE_SPLIT_CHAR + datakey, ByteArrayCodec.INSTANCE)
+                .getAsync()
+                .toCompletableFuture()
+                .handle((bytes, e) -> {
+                    try {
+                        if (e != null) {
+                            throw e;
+                        }
+                        return new ResponseData<DefaultValue>(
+                                decodeValue(bytes), ErrorCode.SUCCESS);
+                    } catch (Throwable t) {
+                        logger.error("Query data from {{}} with exception",
+                                redisDomain.getTableDomain(), t);
+                        return new ResponseData<DefaultValue>(
+                                null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+                    }
+                });
+    }
+
+    /**
+     * 批量查询操作, 所有查询通过一次pipeline发送.
+     *
+     * @param tableDomain key的部分映射
+     * @param dataKeys 查询所需要的数据
+     * @return 返回查询出来的数据, 与dataKeys顺序一致, 不存在的数据为null
+     */
+    @Override
+    public ResponseData<List<DefaultValue>> executeBatchQuery(String tableDomain,
+                                                              List<String> dataKeys) {
+
+        ResponseData<List<DefaultValue>> result = new ResponseData<List<DefaultValue>>();
+        try {
+            if (client == null) {
+                return new ResponseData<List<DefaultValue>>(
+                        null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            RBatch rbatch = client.createBatch();
+            for (String dataKey : dataKeys) {
+                rbatch.<byte[]>getBucket(
+                        tableDomain + VALUE_SPLIT_CHAR + dataKey, ByteArrayCodec.INSTANCE)
+                        .getAsync();
+            }
+            BatchResult<?> batchResult = rbatch.execute();
+            List<DefaultValue> dataList = new ArrayList<DefaultValue>(dataKeys.size());
+            for (Object data : batchResult.getResponses()) {
+                dataList.add(decodeValue((byte[]) data));
+            }
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(dataList);
+        } catch (Exception e) {
+            logger.error("Batch query data from {{}} with exception",
+                    redisDomain.getTableDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+        return result;
+    }
+
     /**
      * 增加的执行方法.
      *
-     * @param client redisson连接入口
      * @param dataKey Hash(id)
      * @param datas 所需要的数据
      * @return 返回执行成功或失败
      */
-    public ResponseData<Integer> execute(RedissonClient client, String dataKey, Object... datas) {
+    @Override
+    public ResponseData<Integer> execute(String dataKey, Object... datas) {
+
+        if (datas.length == 6) {
+            return executeTransaction(dataKey, datas);
+        }
+        //datas.lenth==2时为UpDate
+        if (datas.length == 2) {
+            return executeUpdate(dataKey, (String) datas[0], (Date) datas[1]);
+        }
+        return executeInsert(dataKey, (String) datas[0], (Date) datas[1]);
+    }
+
+    private ResponseData<Integer> executeTransaction(String dataKey,
+                                                     Object... datas) {
 
         ResponseData<Integer> result = new ResponseData<Integer>();
         try {
@@ -98,46 +501,19 @@ public class RedisExecutor {
                         new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
             }
             TransactionArgs transactionArgs = new TransactionArgs();
-            DefaultValue value = new DefaultValue();
-            if (datas.length == 6) {
-                transactionArgs.setRequestId((String) datas[0]);
-                transactionArgs.setMethod((String) datas[1]);
-                transactionArgs.setArgs((String) datas[2]);
-                transactionArgs.setTimeStamp((Long) datas[3]);
-                transactionArgs.setExtra((String)datas[4]);
-                transactionArgs.setBatch((String)datas[5]);
-
-                String valueString = DataToolUtils.serialize(transactionArgs);
-                RBucket<String> rbucket = client.getBucket(
-                        redisDomain.getTableDomain() + VALUE_SPLIT_CHAR + dataKey);
-                rbucket.set(valueString);
-            } else {
-                value.setData((String) datas[0]);
-                value.setId(dataKey);
-                value.setExpire(redisDomain.getExpire());
-                if (datas.length == 3) {
-                    value.setCreated((Date)datas[1]);
-                    value.setUpdated((Date)datas[2]);
-                    //datas.lenth==2时为UpDate
-                } else if (datas.length == 2) {
-                    value.setUpdated((Date)datas[1]);
-                }
-                String valueString = DataToolUtils.serialize(value);
-                RBucket<String> rbucket = client.getBucket(
-                        redisDomain.getTableDomain() + VALUE_SPLIT_CHAR + dataKey);
-                //解决重复写问题
-                if (datas.length == 3 &&  rbucket.get() != null) {
-                    return
-                            new ResponseData<Integer>(
-                                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
-                                    ErrorCode.PERSISTENCE_EXECUTE_FAILED
-                            );
-                }
-                rbucket.set(valueString);
-            }
+            transactionArgs.setRequestId((String) datas[0]);
+            transactionArgs.setMethod((String) datas[1]);
+            transactionArgs.setArgs((String) datas[2]);
+            transactionArgs.setTimeStamp((Long) datas[3]);
+            transactionArgs.setExtra((String)datas[4]);
+            transactionArgs.setBatch((String)datas[5]);
+
+            String valueString = DataToolUtils.serialize(transactionArgs);
+            RBucket<String> rbucket = client.getBucket(
+                    redisDomain.getTableDomain() + VALUE_SPLIT_CHAR + dataKey);
+            rbucket.set(valueString);
             result.setErrorCode(ErrorCode.SUCCESS);
             result.setResult(DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS);
-
         } catch (Exception e) {
             logger.error("Update data into {{}} with exception", redisDomain.getBaseDomain(), e);
             result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
@@ -147,30 +523,140 @@ public class RedisExecutor {
     }
 
     /**
-     * 删除执行方法.
+     * 数据不存在时新增, 通过一次SET NX完成, 过期时间使用key的TTL.
      *
      * @param dataKey Hash(id)
-     * @param client redisson连接入口
+     * @param data 数据
+     * @param now 当前时间
+     * @return 返回执行成功或失败, 数据已存在时失败
+     */
+    @Override
+    public ResponseData<Integer> executeInsert(String dataKey, String data, Date now) {
+
+        try {
+            if (client == null) {
+                return
+                        new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            byte[] value = valueCodec.encode(newValue(dataKey, data, now, now));
+            RBucket<byte[]> rbucket = getBucket(dataKey);
+            long ttl = redisDomain.getTimeout();
+            boolean inserted = ttl > 0
+                    ? rbucket.trySet(value, ttl, TimeUnit.MILLISECONDS)
+                    : rbucket.trySet(value);
+            //解决重复写问题
+            if (!inserted) {
+                return
+                        new ResponseData<Integer>(
+                                DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                                ErrorCode.PERSISTENCE_EXECUTE_FAILED
+                        );
+            }
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Insert data into {{}} with exception", redisDomain.getBaseDomain(), e);
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.PERSISTENCE_EXECUTE_FAILED
+            );
+        }
+    }
+
+    /**
+     * 数据存在时更新, 通过一次SET XX完成并重置TTL.
+     *
+     * @param dataKey Hash(id)
+     * @param data 数据
+     * @param now 当前时间
+     * @return 返回执行成功或失败, 数据不存在时返回key无效
+     */
+    @Override
+    public ResponseData<Integer> executeUpdate(String dataKey, String data, Date now) {
+
+        try {
+            if (client == null) {
+                return
+                        new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            byte[] value = valueCodec.encode(newValue(dataKey, data, null, now));
+            RBucket<byte[]> rbucket = getBucket(dataKey);
+            long ttl = redisDomain.getTimeout();
+            boolean updated = ttl > 0
+                    ? rbucket.setIfExists(value, ttl, TimeUnit.MILLISECONDS)
+                    : rbucket.setIfExists(value);
+            if (!updated) {
+                return new ResponseData<Integer>(
+                        DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                        ErrorCode.PRESISTENCE_DATA_KEY_INVALID
+                );
+            }
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Update data into {{}} with exception", redisDomain.getBaseDomain(), e);
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.PERSISTENCE_EXECUTE_FAILED
+            );
+        }
+    }
+
+    /**
+     * 新增或更新, 通过一次SET完成并重置TTL.
+     *
+     * @param dataKey Hash(id)
+     * @param data 数据
+     * @param now 当前时间
      * @return 返回执行成功或失败
      */
-    public ResponseData<Integer> executeDelete(String dataKey, RedissonClient client) {
+    @Override
+    public ResponseData<Integer> executeUpsert(String dataKey, String data, Date now) {
 
-        ResponseData<Integer> result = new ResponseData<Integer>();
         try {
             if (client == null) {
                 return
                         new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
             }
-            RBucket<String> rbucket = client.getBucket(
-                    redisDomain.getTableDomain() + VALUE_SPLIT_CHAR + dataKey);
-            if (rbucket.get() == null) {
-                result.setErrorCode(ErrorCode.SUCCESS);
-                result.setResult(DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS);
+            byte[] value = valueCodec.encode(newValue(dataKey, data, now, now));
+            RBucket<byte[]> rbucket = getBucket(dataKey);
+            long ttl = redisDomain.getTimeout();
+            if (ttl > 0) {
+                rbucket.set(value, ttl, TimeUnit.MILLISECONDS);
             } else {
-                rbucket.delete();
-                result.setErrorCode(ErrorCode.SUCCESS);
-                result.setResult(DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS);
+                rbucket.set(value);
+            }
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Upsert data into {{}} with exception", redisDomain.getBaseDomain(), e);
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.PERSISTENCE_EXECUTE_FAILED
+            );
+        }
+    }
+
+    /**
+     * 删除执行方法.
+     *
+     * @param dataKey Hash(id)
+     * @return 返回执行成功或失败
+     */
+    @Override
+    public ResponseData<Integer> executeDelete(String dataKey) {
+
+        ResponseData<Integer> result = new ResponseData<Integer>();
+        try {
+            if (client == null) {
+                return
+                        new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
             }
+            boolean deleted = getBucket(dataKey).delete();
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(deleted
+                    ? DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS
+                    : DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS);
         } catch (Exception e) {
             logger.error("Delete data into {{}} with exception", redisDomain.getBaseDomain(), e);
             result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
@@ -180,17 +666,15 @@ public class RedisExecutor {
     }
 
     /**
-     * 批量新增的语句.
+     * 批量新增的语句, 过期时间统一使用key的TTL.
      *
      * @param dataList 占位符所需要的数据
-     * @param client redisson连接入口
      * @return 返回受影响的行数
      */
-    public ResponseData<Integer> batchAdd(List<List<Object>> dataList, RedissonClient client) {
+    @Override
+    public ResponseData<Integer> batchAdd(List<List<Object>> dataList) {
 
         ResponseData<Integer> result = new ResponseData<Integer>();
-        List<DefaultValue> value = new ArrayList<>();
-        RBatch rbatch = client.createBatch();
         try {
             if (client == null) {
                 return
@@ -208,22 +692,25 @@ public class RedisExecutor {
                 }
             }
 
+            long ttl = redisDomain.getTimeout();
+            RBatch rbatch = client.createBatch();
             for (int i = 0; i < size; i++) {
-                DefaultValue val = new DefaultValue();
-                val.setId((String) dataList.get(0).get(i));
-                val.setData((String)dataList.get(1).get(i));
-                val.setExpire((Date)dataList.get(2).get(i));
-                val.setCreated((Date)dataList.get(3).get(i));
-                val.setUpdated((Date)dataList.get(4).get(i));
-                value.add(val);
-            }
-
-            for (DefaultValue val : value) {
-                rbatch.getBucket(redisDomain.getTableDomain() + VALUE_SPLIT_CHAR + val.getId())
-                        .setAsync(DataToolUtils.serialize(val));
+                String dataKey = (String) dataList.get(0).get(i);
+                byte[] value = valueCodec.encode(newValue(dataKey,
+                        (String) dataList.get(1).get(i),
+                        (Date) dataList.get(2).get(i),
+                        (Date) dataList.get(3).get(i)));
+                String key = redisDomain.getTableDomain() + VALUE_SPLIT_CHAR + dataKey;
+                if (ttl > 0) {
+                    rbatch.getBucket(key, ByteArrayCodec.INSTANCE)
+                            .setAsync(value, ttl, TimeUnit.MILLISECONDS);
+                } else {
+                    rbatch.getBucket(key, ByteArrayCodec.INSTANCE).setAsync(value);
+                }
             }
-            BatchResult<?> batchResult = rbatch.execute();
+            rbatch.execute();
 
+            result.setErrorCode(ErrorCode.SUCCESS);
             result.setResult(size);
         } catch (RedisException e) {
             logger.error("Batch add data to {{}} with exception", redisDomain.getBaseDomain(), e);
@@ -232,4 +719,794 @@ public class RedisExecutor {
         }
         return result;
     }
+
+    private RBucket<byte[]> getBucket(String dataKey) {
+        return client.getBucket(
+                redisDomain.getTableDomain() + VALUE_SPLIT_CHAR + dataKey, ByteArrayCodec.INSTANCE);
+    }
+
+    /**
+     * 解码保存的数据, 依次尝试当前编码器、其他编码器, 最后按旧版本的JSON字符串解析.
+     */
+    private DefaultValue decodeValue(byte[] bytes) throws IOException {
+
+        if (bytes == null) {
+            return null;
+        }
+        if (valueCodec.accept(bytes)) {
+            return valueCodec.decode(bytes);
+        }
+        ValueCodec codec = ValueCodecFactory.lookup(bytes);
+        if (codec != null) {
+            return codec.decode(bytes);
+        }
+        //旧版本的数据通过客户端默认的codec保存为JSON字符串
+        ByteBuf buf = Unpooled.wrappedBuffer(bytes);
+        Object legacy;
+        try {
+            legacy = client.getConfig().getCodec().getValueDecoder().decode(buf, null);
+        } finally {
+            buf.release();
+        }
+        DefaultValue value = DataToolUtils.deserialize((String) legacy, DefaultValue.class);
+        if (value != null && value.getData() != null) {
+            value.setData(new String(
+                    value.getData().getBytes(DataDriverConstant.STANDARDCHARSETS_ISO),
+                    DataDriverConstant.STANDARDCHARSETS_UTF_8));
+        }
+        return value;
+    }
+
+    /**
+     * 构造保存的数据, 过期由key的TTL控制, 不再写入expire字段.
+     */
+    private static DefaultValue newValue(String dataKey, String data, Date created, Date updated) {
+
+        DefaultValue value = new DefaultValue();
+        value.setId(dataKey);
+        value.setData(data);
+        value.setCreated(created);
+        value.setUpdated(updated);
+        return value;
+    }
+
+    /**
+     * 按主键查询本地表的一行数据.
+     *
+     * @param id 主键
+     * @param mapper 哈希映射器
+     * @param <T> 值对象类型
+     * @return 返回查询出来的数据, 不存在时为null
+     */
+    @Override
+    public <T> ResponseData<T> executeHashQuery(String id, RedisHashMapper<T> mapper) {
+
+        ResponseData<T> result = new ResponseData<T>();
+        try {
+            if (client == null) {
+                return new ResponseData<T>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            Map<String, String> fields = this.<String>getRow(id).readAllMap();
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(fields.isEmpty() ? null : mapper.mapHash(fields));
+        } catch (Exception e) {
+            logger.error("Query row from {{}} with exception", redisDomain.getTableDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+        return result;
+    }
+
+    /**
+     * 按主键异步查询本地表的一行数据, 使用redisson的异步接口, 不占用调用线程.
+     * 返回的future在redisson的IO线程上完成, 调用方不应在回调中执行阻塞操作.
+     *
+     * @param id 主键
+     * @param mapper 哈希映射器
+     * @param <T> 值对象类型
+     * @return 返回查询出来的数据, 不存在时为null
+     */
+    public <T> CompletableFuture<ResponseData<T>> executeHashQueryAsync(String id,
+                                                                        RedisHashMapper<T> mapper) {
+
+        if (client == null) {
+            return CompletableFuture.completedFuture(
+                    new ResponseData<T>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR));
+        }
+        return this.<String>getRow(id).readAllMapAsync()
+                .toCompletableFuture()
+                .handle((fields, e) -> {
+                    try {
+                        if (e != null) {
+                            throw e;
+                        }
+                        return new ResponseData<T>(
+                                fields.isEmpty() ? null : mapper.mapHash(fields), ErrorCode.SUCCESS);
+                    } catch (Throwable t) {
+                        logger.error("Query row from {{}} with exception",
+                                redisDomain.getTableDomain(), t);
+                        return new ResponseData<T>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+                    }
+                });
+    }
+
+    /**
+     * 按主键批量查询本地表数据, 所有查询通过一次pipeline发送.
+     *
+     * @param ids 主键列表
+     * @param mapper 哈希映射器
+     * @param <T> 值对象类型
+     * @return 返回存在的数据, 不存在的主键被跳过
+     */
+    @Override
+    public <T> ResponseData<List<T>> executeBatchHashQuery(List<String> ids,
+                                                           RedisHashMapper<T> mapper) {
+
+        ResponseData<List<T>> result = new ResponseData<List<T>>();
+        try {
+            if (client == null) {
+                return new ResponseData<List<T>>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            List<T> dataList = new ArrayList<T>(ids.size());
+            if (!ids.isEmpty()) {
+                RBatch rbatch = client.createBatch();
+                for (String id : ids) {
+                    rbatch.getMap(rowKey(id), StringCodec.INSTANCE).readAllMapAsync();
+                }
+                for (Object data : rbatch.execute().getResponses()) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, String> fields = (Map<String, String>) data;
+                    if (fields != null && !fields.isEmpty()) {
+                        dataList.add(mapper.mapHash(fields));
+                    }
+                }
+            }
+            result.setErrorCode(ErrorCode.SUCCESS);
+            result.setResult(dataList);
+        } catch (Exception e) {
+            logger.error("Batch query rows from {{}} with exception",
+                    redisDomain.getTableDomain(), e);
+            result.setErrorCode(ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+        return result;
+    }
+
+    /**
+     * 通过二级索引查询本地表的数据, 非唯一索引对应多行时按主键顺序返回全部行.
+     *
+     * @param field 建立索引的字段
+     * @param value 字段值
+     * @param mapper 哈希映射器
+     * @param <T> 值对象类型
+     * @return 返回查询出来的数据, 不存在时为空列表
+     */
+    @Override
+    public <T> ResponseData<List<T>> executeIndexQuery(String field, String value,
+                                                       RedisHashMapper<T> mapper) {
+
+        List<String> ids = new ArrayList<String>();
+        try {
+            if (client == null) {
+                return new ResponseData<List<T>>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            if (nonUniqueIndexes.contains(field)) {
+                for (String member : client.getLexSortedSet(indexKey(field)).range(
+                        value + INDEX_SEPARATOR, true, value + NEXT_SEPARATOR, false)) {
+                    ids.add(member.substring(value.length() + 1));
+                }
+            } else {
+                String id = this.<String>getIndex(field).get(value);
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Query index {{}} from {{}} with exception",
+                    field, redisDomain.getTableDomain(), e);
+            return new ResponseData<List<T>>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+        return executeBatchHashQuery(ids, mapper);
+    }
+
+    /**
+     * 新增本地表的一行数据, 同时维护主键有序集合与二级索引, 通过一个脚本原子地执行.
+     *
+     * @param id 主键
+     * @param score 数字主键的分值, 字符串主键为null
+     * @param fields 行数据, 值为null的字段不写入
+     * @param indexes 二级索引, 字段名到字段值, 值为null时不建立索引
+     * @return 返回执行成功或失败, 主键或唯一索引值已存在时失败
+     */
+    @Override
+    public ResponseData<Integer> executeHashInsert(String id, Double score,
+                                                   Map<String, String> fields,
+                                                   Map<String, String> indexes) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            Map<String, String> indexValues = withoutNull(indexes);
+            List<Object> keys = new ArrayList<Object>();
+            keys.add(rowKey(id));
+            keys.add(orderKey());
+            List<Object> args = new ArrayList<Object>();
+            args.add(id);
+            args.add(String.valueOf(score == null ? 0 : score));
+            args.add(String.valueOf(indexValues.size()));
+            for (Map.Entry<String, String> index : indexValues.entrySet()) {
+                keys.add(indexKey(index.getKey()));
+                args.add(index.getValue());
+                args.add(nonUniqueIndexes.contains(index.getKey()) ? NON_UNIQUE : UNIQUE);
+            }
+            addFields(args, fields);
+            Long status = evalScript(HASH_INSERT_SCRIPT, keys, args);
+            if (status == null || status != 1L) {
+                return new ResponseData<Integer>(
+                        DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                        ErrorCode.PERSISTENCE_EXECUTE_FAILED
+                );
+            }
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Insert row into {{}} with exception", redisDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.PERSISTENCE_EXECUTE_FAILED
+            );
+        }
+    }
+
+    /**
+     * 更新本地表已存在的一行数据, 同时维护二级索引与标记集合, 通过一个脚本原子地执行.
+     *
+     * @param id 主键
+     * @param fields 需要更新的字段, 值为null的字段不更新
+     * @param indexes 二级索引的新值, 字段名到字段值, 值为null时不更新
+     * @param flags 标记集合的新状态, 字段名到是否标记
+     * @return 返回受影响的行数, 数据不存在时为0, 唯一索引值已被其他行占用时失败
+     */
+    @Override
+    public ResponseData<Integer> executeHashUpdate(String id, Map<String, String> fields,
+                                                   Map<String, String> indexes,
+                                                   Map<String, Boolean> flags) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            Map<String, String> indexValues = withoutNull(indexes);
+            List<Object> keys = new ArrayList<Object>();
+            keys.add(rowKey(id));
+            List<Object> args = new ArrayList<Object>();
+            args.add(id);
+            args.add(String.valueOf(indexValues.size()));
+            args.add(String.valueOf(flags.size()));
+            for (Map.Entry<String, String> index : indexValues.entrySet()) {
+                keys.add(indexKey(index.getKey()));
+                args.add(index.getKey());
+                args.add(index.getValue());
+                args.add(nonUniqueIndexes.contains(index.getKey()) ? NON_UNIQUE : UNIQUE);
+            }
+            for (Map.Entry<String, Boolean> flag : flags.entrySet()) {
+                keys.add(flagKey(flag.getKey()));
+                args.add(flag.getValue() ? UNIQUE : NON_UNIQUE);
+            }
+            addFields(args, fields);
+            Long status = evalScript(HASH_UPDATE_SCRIPT, keys, args);
+            if (status != null && status < 0) {
+                logger.error("Update row of {{}} failed, the index value is used by another row.",
+                        redisDomain.getTableDomain());
+                return new ResponseData<Integer>(
+                        DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                        ErrorCode.PERSISTENCE_EXECUTE_FAILED
+                );
+            }
+            return new ResponseData<Integer>(
+                    status != null && status == 1L
+                            ? DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS
+                            : DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Update row of {{}} with exception", redisDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.PERSISTENCE_EXECUTE_FAILED
+            );
+        }
+    }
+
+    /**
+     * 删除本地表的一行数据, 同时清理主键有序集合、二级索引与标记集合, 通过一个脚本原子地执行.
+     *
+     * @param id 主键
+     * @param indexFields 建立了二级索引的字段
+     * @param flagFields 建立了标记集合的字段
+     * @return 返回受影响的行数, 数据不存在时为0
+     */
+    @Override
+    public ResponseData<Integer> executeHashDelete(String id, Collection<String> indexFields,
+                                                   Collection<String> flagFields) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            List<Object> keys = new ArrayList<Object>();
+            keys.add(rowKey(id));
+            keys.add(orderKey());
+            List<Object> args = new ArrayList<Object>();
+            args.add(id);
+            args.add(String.valueOf(indexFields.size()));
+            for (String field : indexFields) {
+                keys.add(indexKey(field));
+                args.add(field);
+                args.add(nonUniqueIndexes.contains(field) ? NON_UNIQUE : UNIQUE);
+            }
+            for (String field : flagFields) {
+                keys.add(flagKey(field));
+            }
+            Long status = evalScript(HASH_DELETE_SCRIPT, keys, args);
+            return new ResponseData<Integer>(
+                    status != null && status == 1L
+                            ? DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS
+                            : DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Delete row of {{}} with exception", redisDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.PERSISTENCE_EXECUTE_FAILED
+            );
+        }
+    }
+
+    /**
+     * 在本地表的追加记录列表末尾新增一条记录, 不读取已有记录.
+     *
+     * @param id 主键
+     * @param record 编码后的记录
+     * @return 返回执行成功或失败
+     */
+    @Override
+    public ResponseData<Integer> executeListAppend(String id, String record) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            client.<String>getList(listKey(id), StringCodec.INSTANCE).add(record);
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Append record into {{}} with exception",
+                    redisDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.PERSISTENCE_EXECUTE_FAILED
+            );
+        }
+    }
+
+    /**
+     * 按追加顺序查询本地表的全部追加记录.
+     *
+     * @param id 主键
+     * @return 返回编码后的记录, 没有记录时为空列表
+     */
+    @Override
+    public ResponseData<List<String>> executeListQuery(String id) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<List<String>>(
+                        null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            return new ResponseData<List<String>>(
+                    client.<String>getList(listKey(id), StringCodec.INSTANCE).readAll(),
+                    ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Query records from {{}} with exception",
+                    redisDomain.getTableDomain(), e);
+            return new ResponseData<List<String>>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 在本地表主键的成员集合中新增成员, 已存在的成员不做修改.
+     *
+     * @param id 主键
+     * @param member 成员
+     * @return 新增成功返回1, 成员已存在返回0
+     */
+    @Override
+    public ResponseData<Integer> executeMemberAdd(String id, String member) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            boolean added = client.<String>getScoredSortedSet(memberKey(id), StringCodec.INSTANCE)
+                    .addIfAbsent(System.currentTimeMillis(), member);
+            return new ResponseData<Integer>(added ? 1 : 0, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Add member into {{}} with exception",
+                    redisDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.PERSISTENCE_EXECUTE_FAILED
+            );
+        }
+    }
+
+    /**
+     * 从本地表主键的成员集合中删除成员.
+     *
+     * @param id 主键
+     * @param member 成员
+     * @return 删除成功返回1, 成员不存在返回0
+     */
+    @Override
+    public ResponseData<Integer> executeMemberRemove(String id, String member) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            boolean removed = client.<String>getScoredSortedSet(
+                    memberKey(id), StringCodec.INSTANCE).remove(member);
+            return new ResponseData<Integer>(removed ? 1 : 0, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Remove member from {{}} with exception",
+                    redisDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(
+                    DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+                    ErrorCode.PERSISTENCE_EXECUTE_FAILED
+            );
+        }
+    }
+
+    /**
+     * 查询成员是否属于本地表主键的成员集合.
+     *
+     * @param id 主键
+     * @param member 成员
+     * @return 返回是否为成员, 成员集合为空时返回null
+     */
+    @Override
+    public ResponseData<Boolean> executeMemberQuery(String id, String member) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Boolean>(false, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            // 空的有序集合不会保留在redis中, 同一批次内判断成员和集合是否存在
+            RBatch rbatch = client.createBatch();
+            RScoredSortedSetAsync<String> memberSet =
+                    rbatch.getScoredSortedSet(memberKey(id), StringCodec.INSTANCE);
+            RFuture<Double> score = memberSet.getScoreAsync(member);
+            RFuture<Boolean> exists = memberSet.isExistsAsync();
+            rbatch.execute();
+            if (score.getNow() != null) {
+                return new ResponseData<Boolean>(true, ErrorCode.SUCCESS);
+            }
+            return new ResponseData<Boolean>(exists.getNow() ? Boolean.FALSE : null, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Query member of {{}} with exception", redisDomain.getTableDomain(), e);
+            return new ResponseData<Boolean>(false, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 按加入顺序查询本地表主键成员集合中指定排名范围内的成员.
+     *
+     * @param id 主键
+     * @param start 起始排名, 包含
+     * @param end 结束排名, 包含
+     * @return 返回成员列表
+     */
+    @Override
+    public ResponseData<List<String>> executeMemberRange(String id, int start, int end) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<List<String>>(
+                        null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            if (end < start) {
+                return new ResponseData<List<String>>(new ArrayList<String>(), ErrorCode.SUCCESS);
+            }
+            return new ResponseData<List<String>>(
+                    new ArrayList<String>(client.<String>getScoredSortedSet(
+                            memberKey(id), StringCodec.INSTANCE).valueRange(start, end)),
+                    ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Query members of {{}} with exception", redisDomain.getTableDomain(), e);
+            return new ResponseData<List<String>>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 查询本地表主键成员集合的成员数量.
+     *
+     * @param id 主键
+     * @return 返回成员数量
+     */
+    @Override
+    public ResponseData<Integer> executeMemberAmounts(String id) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Integer>(0, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            return new ResponseData<Integer>(
+                    client.getScoredSortedSet(memberKey(id), StringCodec.INSTANCE).size(),
+                    ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Count members of {{}} with exception", redisDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(0, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 原子地预留一段序号, 序列不存在时从初始值开始.
+     *
+     * @param name 序列名称
+     * @param initialValue 序列不存在时的第一个序号
+     * @param blockSize 预留的序号个数
+     * @return 返回预留序号段的第一个序号
+     */
+    @Override
+    public ResponseData<Integer> executeSequenceAllocate(String name, int initialValue,
+                                                         int blockSize) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            RAtomicLong sequence = client.getAtomicLong(sequenceKey(name));
+            // 计数器不存在时读取为0, 仅由第一个预留者写入初始值
+            sequence.compareAndSet(0, initialValue);
+            return new ResponseData<Integer>(
+                    (int) sequence.getAndAdd(blockSize), ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Allocate sequence of {{}} with exception",
+                    redisDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 查询本地表的总行数.
+     *
+     * @return 返回总行数
+     */
+    @Override
+    public ResponseData<Integer> executeQueryAmounts() {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Integer>(0, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            return new ResponseData<Integer>(
+                    client.getScoredSortedSet(orderKey(), StringCodec.INSTANCE).size(),
+                    ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Count rows of {{}} with exception", redisDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(0, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 查询本地表中被标记的行数.
+     *
+     * @param field 建立了标记集合的字段
+     * @return 返回被标记的行数
+     */
+    @Override
+    public ResponseData<Integer> executeQueryFlagAmounts(String field) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<Integer>(0, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            return new ResponseData<Integer>(
+                    client.getSet(flagKey(field), StringCodec.INSTANCE).size(), ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Count flag {{}} of {{}} with exception",
+                    field, redisDomain.getTableDomain(), e);
+            return new ResponseData<Integer>(0, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 按排名区间查询本地表的主键.
+     *
+     * @param start 起始排名, 从0开始
+     * @param end 结束排名, 包含
+     * @return 返回主键列表
+     */
+    @Override
+    public ResponseData<List<String>> executeQueryRange(int start, int end) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<List<String>>(
+                        null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            if (end < start) {
+                return new ResponseData<List<String>>(new ArrayList<String>(), ErrorCode.SUCCESS);
+            }
+            return new ResponseData<List<String>>(
+                    new ArrayList<String>(client.<String>getScoredSortedSet(
+                            orderKey(), StringCodec.INSTANCE).valueRange(start, end)),
+                    ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Query ids of {{}} with exception", redisDomain.getTableDomain(), e);
+            return new ResponseData<List<String>>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 按字典序查询字符串主键之后的若干主键.
+     *
+     * @param after 上一页最后一个主键, 为空时从头开始
+     * @param num 查询的数量
+     * @return 返回主键列表
+     */
+    @Override
+    public ResponseData<List<String>> executeQueryAfter(String after, int num) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<List<String>>(
+                        null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            if (num <= 0) {
+                return new ResponseData<List<String>>(new ArrayList<String>(), ErrorCode.SUCCESS);
+            }
+            Collection<String> ids = StringUtils.isEmpty(after)
+                    ? client.getLexSortedSet(orderKey()).range(0, num - 1)
+                    : client.getLexSortedSet(orderKey()).rangeTail(after, false, 0, num);
+            return new ResponseData<List<String>>(new ArrayList<String>(ids), ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Query ids of {{}} with exception", redisDomain.getTableDomain(), e);
+            return new ResponseData<List<String>>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 按分值查询数字主键之后的若干主键.
+     *
+     * @param after 上一页最后一个主键
+     * @param num 查询的数量
+     * @return 返回主键列表
+     */
+    @Override
+    public ResponseData<List<String>> executeQueryAfter(double after, int num) {
+
+        try {
+            if (client == null) {
+                return new ResponseData<List<String>>(
+                        null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+            }
+            if (num <= 0) {
+                return new ResponseData<List<String>>(new ArrayList<String>(), ErrorCode.SUCCESS);
+            }
+            Collection<String> ids = client.<String>getScoredSortedSet(
+                    orderKey(), StringCodec.INSTANCE)
+                    .valueRange(after, false, Double.POSITIVE_INFINITY, true, 0, num);
+            return new ResponseData<List<String>>(new ArrayList<String>(ids), ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Query ids of {{}} with exception", redisDomain.getTableDomain(), e);
+            return new ResponseData<List<String>>(null, ErrorCode.PERSISTENCE_EXECUTE_FAILED);
+        }
+    }
+
+    /**
+     * 按主键顺序遍历本地表的游标, 每次从有序集合读取一页主键.
+     *
+     * @param fetchSize 每页读取的数量
+     * @param numeric 是否为数字主键
+     * @param converter 主键转换方法
+     * @param <T> 游标返回的数据类型
+     * @return 返回游标
+     */
+    @Override
+    public <T> ResponseData<PersistenceCursor<T>> executeQueryCursor(int fetchSize,
+                                                                     boolean numeric,
+                                                                     Function<String, T> converter) {
+
+        if (client == null) {
+            return new ResponseData<PersistenceCursor<T>>(
+                    null, ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR);
+        }
+        return new ResponseData<PersistenceCursor<T>>(
+                new RedisCursor<T>(this, fetchSize, numeric, converter),
+                ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 把时间转换为哈希字段值, 以毫秒数保存.
+     *
+     * @param date 时间
+     * @return 哈希字段值
+     */
+    public static String fromDate(Date date) {
+        return date == null ? null : String.valueOf(date.getTime());
+    }
+
+    private static Date toDate(String value) {
+        return StringUtils.isEmpty(value) ? null : new Date(Long.parseLong(value));
+    }
+
+    private static int toInt(String value) {
+        return StringUtils.isEmpty(value) ? 0 : Integer.parseInt(value);
+    }
+
+    private <V> RMap<String, V> getRow(String id) {
+        return client.getMap(rowKey(id), StringCodec.INSTANCE);
+    }
+
+    private <V> RMap<String, V> getIndex(String field) {
+        return client.getMap(indexKey(field), StringCodec.INSTANCE);
+    }
+
+    private String tableKey() {
+        return "{" + redisDomain.getTableDomain() + "}";
+    }
+
+    private String rowKey(String id) {
+        return tableKey() + VALUE_SPLIT_CHAR + ROW_KEY + VALUE_SPLIT_CHAR + id;
+    }
+
+    private String listKey(String id) {
+        return tableKey() + VALUE_SPLIT_CHAR + LIST_KEY + VALUE_SPLIT_CHAR + id;
+    }
+
+    private String memberKey(String id) {
+        return tableKey() + VALUE_SPLIT_CHAR + MEMBER_KEY + VALUE_SPLIT_CHAR + id;
+    }
+
+    private String sequenceKey(String name) {
+        return tableKey() + VALUE_SPLIT_CHAR + SEQUENCE_KEY + VALUE_SPLIT_CHAR + name;
+    }
+
+    private String orderKey() {
+        return tableKey() + VALUE_SPLIT_CHAR + ORDER_KEY;
+    }
+
+    private String indexKey(String field) {
+        return tableKey() + VALUE_SPLIT_CHAR + INDEX_KEY_PREFIX + field;
+    }
+
+    private String flagKey(String field) {
+        return tableKey() + VALUE_SPLIT_CHAR + FLAG_KEY_PREFIX + field;
+    }
+
+    private Long evalScript(String script, List<Object> keys, List<Object> args) {
+        return client.getScript(StringCodec.INSTANCE).eval(RScript.Mode.READ_WRITE,
+                script, RScript.ReturnType.INTEGER, keys, args.toArray());
+    }
+
+    private static void addFields(List<Object> args, Map<String, String> fields) {
+        for (Map.Entry<String, String> field : withoutNull(fields).entrySet()) {
+            args.add(field.getKey());
+            args.add(field.getValue());
+        }
+    }
+
+    private static Map<String, String> withoutNull(Map<String, String> fields) {
+
+        if (!fields.containsValue(null)) {
+            return fields;
+        }
+        Map<String, String> result = new HashMap<String, String>();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (field.getValue() != null) {
+                result.put(field.getKey(), field.getValue());
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,20 @@
+package com.webank.weid.suite.persistence.redis;
+
+import java.util.Map;
+
+/**
+ * Redis哈希映射器, 把一行数据对应的哈希字段直接映射为值对象.
+ *
+ * @param <T> 映射后的值对象类型
+ */
+@FunctionalInterface
+public interface RedisHashMapper<T> {
+
+    /**
+     * 映射一行数据的全部哈希字段.
+     *
+     * @param fields 哈希字段, 字段名与mysql表的列名一致
+     * @return 映射后的值对象
+     */
+    T mapHash(Map<String, String> fields);
+}
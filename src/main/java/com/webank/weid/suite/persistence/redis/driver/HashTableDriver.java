@@ -0,0 +1,1701 @@
+
+
+package com.webank.weid.suite.persistence.redis.driver;
+
+import com.webank.weid.blockchain.protocol.base.CptBaseInfo;
+import com.webank.weid.blockchain.protocol.base.WeIdDocument;
+import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.protocol.request.TransactionArgs;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.suite.persistence.*;
+import com.webank.weid.suite.persistence.redis.HashTableExecutor;
+import com.webank.weid.suite.persistence.redis.RedisExecutor;
+import com.webank.weid.suite.persistence.redis.RedisHashMapper;
+import com.webank.weid.util.DataToolUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * 按redis数据布局保存数据的Driver基类, 负责参数校验、数据组装以及返回结果的处理,
+ * 子类只需提供domain解析和对应存储的操作实现.
+ *
+ * @param <D> domain配置的类型
+ */
+public abstract class HashTableDriver<D extends BaseDomain> implements Persistence {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashTableDriver.class);
+
+    private static final Integer FAILED_STATUS = DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS;
+
+    private static final ErrorCode KEY_INVALID = ErrorCode.PRESISTENCE_DATA_KEY_INVALID;
+
+    private static final int CPT_DEFAULT_VERSION = 1;
+
+    private static final int SCAN_FETCH_SIZE = 500;
+
+    /**
+     * 机构名称的唯一二级索引, 与mysql表的唯一列对应.
+     */
+    private static final String INDEX_NAME = "name";
+
+    /**
+     * 存证extraKey的二级索引, 与mysql表一样不要求唯一, 多个存证可以使用同一个extraKey.
+     */
+    private static final String INDEX_EXTRA_KEY = "extra_key";
+
+    private static final Set<String> EVIDENCE_NON_UNIQUE_INDEXES =
+            Collections.singleton(INDEX_EXTRA_KEY);
+
+    /**
+     * 已认证机构的标记集合, 用于统计认证机构数量.
+     */
+    private static final String FLAG_RECOGNIZE = "recognize";
+
+    private static final Map<String, String> NO_INDEX = Collections.emptyMap();
+
+    private static final Map<String, Boolean> NO_FLAG = Collections.emptyMap();
+
+    private static final List<String> NO_FIELD = Collections.emptyList();
+
+    /**
+     * 解析domain对应的存储位置.
+     *
+     * @param domain domain名称
+     * @return 返回domain的配置
+     */
+    protected abstract D resolveDomain(String domain);
+
+    /**
+     * 创建domain对应的存储操作.
+     *
+     * @param domain domain的配置
+     * @param nonUniqueIndexes 允许多行使用同一个值的二级索引
+     * @return 返回存储操作
+     */
+    protected abstract HashTableExecutor getExecutor(D domain, Set<String> nonUniqueIndexes);
+
+    private HashTableExecutor getExecutor(D domain) {
+        return getExecutor(domain, Collections.emptySet());
+    }
+
+    @Override
+    public ResponseData<Integer> add(String domain, String id, String data) {
+
+        if (StringUtils.isEmpty(id)) {
+            logger.error("[add] the id of the data is empty.");
+            return new ResponseData<>(FAILED_STATUS, KEY_INVALID);
+        }
+        String dataKey = DataToolUtils.hash(id);
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeInsert(dataKey, data, new Date());
+        } catch (WeIdBaseException e) {
+            logger.error("[add] add the data error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> batchAdd(String domain, Map<String, String> keyValueList) {
+
+        try {
+            List<Object> idHashList = new ArrayList<>();
+            List<Object> dataList = new ArrayList<>();
+            Iterator<String> iterator = keyValueList.keySet().iterator();
+            while (iterator.hasNext()) {
+                String id = iterator.next();
+                String data = keyValueList.get(id);
+                if (StringUtils.isEmpty(id)) {
+                    logger.error("[batchAdd] the id of the data is empty.");
+                    return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+                }
+                idHashList.add(DataToolUtils.hash(id));
+                dataList.add(data);
+            }
+            D baseDomain = resolveDomain(domain);
+            List<List<Object>> dataLists = new ArrayList<List<Object>>();
+            dataLists.add(idHashList);
+            dataLists.add(Arrays.asList(dataList.toArray()));
+            //处理创建时间和更新时间
+            List<Object> nowList = fixedListWithDefault(idHashList.size(), baseDomain.getNow());
+            dataLists.add(nowList);
+            dataLists.add(nowList);
+            return getExecutor(baseDomain).batchAdd(dataLists);
+        } catch (WeIdBaseException e) {
+            logger.error("[batchAdd] batchAdd the data error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    private List<Object> fixedListWithDefault(int size, Object obj) {
+
+        Object[] dates = new Object[size];
+        Arrays.fill(dates, obj);
+        List<Object> list = new ArrayList<>();
+        list.addAll(Arrays.asList(dates));
+        return list;
+    }
+
+    private List<Integer> fixedList(int size, int value) {
+
+        Integer[] values = new Integer[size];
+        Arrays.fill(values, value);
+        return new ArrayList<>(Arrays.asList(values));
+    }
+
+    @Override
+    public ResponseData<String> get(String domain, String id) {
+
+        if (StringUtils.isEmpty(id)) {
+            logger.error("[get] the id of the data is empty.");
+            return new ResponseData<String>(StringUtils.EMPTY, KEY_INVALID);
+        }
+        //dataKey:id的hash值
+        String dataKey = DataToolUtils.hash(id);
+        try {
+            D baseDomain = resolveDomain(domain);
+            return checkData(getExecutor(baseDomain)
+                    .executeQuery(baseDomain.getTableDomain(), dataKey));
+        } catch (WeIdBaseException e) {
+            logger.error("[get] get the data error.", e);
+            return new ResponseData<String>(StringUtils.EMPTY, e.getErrorCode());
+        }
+    }
+
+    ResponseData<String> checkData(ResponseData<DefaultValue> response) {
+
+        ResponseData<String> result = new ResponseData<String>();
+        //设置result初始值为空字符串
+        result.setResult(StringUtils.EMPTY);
+        if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
+                && response.getResult() != null) {
+            DefaultValue data = response.getResult();
+            //新数据由key的TTL过期, 这里兼容仍带expire字段的旧数据
+            if (data.getExpire() != null && data.getExpire().before(new Date())) {
+                logger.error("[get] the data is expire.");
+                //输出empty以及超过超时时间错误代码
+                return new ResponseData<String>(StringUtils.EMPTY,
+                        ErrorCode.PERSISTENCE_DATA_EXPIRE);
+            }
+            if (StringUtils.isNotBlank(data.getData())) {
+                result.setResult(data.getData());
+            }
+        }
+        result.setErrorCode(ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        return result;
+    }
+
+    @Override
+    public ResponseData<Map<String, String>> batchGet(String domain, List<String> ids) {
+
+        List<String> dataKeys = new ArrayList<>();
+        for (String id : ids) {
+            if (StringUtils.isEmpty(id)) {
+                logger.error("[batchGet] the id of the data is empty.");
+                return new ResponseData<>(null, KEY_INVALID);
+            }
+            dataKeys.add(DataToolUtils.hash(id));
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<List<DefaultValue>> response = getExecutor(baseDomain)
+                    .executeBatchQuery(baseDomain.getTableDomain(), dataKeys);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Date now = new Date();
+            Map<String, String> result = new HashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                DefaultValue data = response.getResult().get(i);
+                if (data == null || StringUtils.isBlank(data.getData())
+                        || (data.getExpire() != null && data.getExpire().before(now))) {
+                    continue;
+                }
+                result.put(ids.get(i), data.getData());
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[batchGet] batchGet the data error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> delete(String domain, String id) {
+
+        if (StringUtils.isEmpty(id)) {
+            logger.error("[delete] the id of the data is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        String dataKey = DataToolUtils.hash(id);
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeDelete(dataKey);
+        } catch (WeIdBaseException e) {
+            logger.error("[delete] delete the data error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> update(String domain, String id, String data) {
+
+        if (StringUtils.isEmpty(id)) {
+            logger.error("[update] the id of the data is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        String dataKey = DataToolUtils.hash(id);
+        try {
+            D baseDomain = resolveDomain(domain);
+            //数据不存在时返回key无效
+            return getExecutor(baseDomain).executeUpdate(dataKey, data, new Date());
+        } catch (WeIdBaseException e) {
+            logger.error("[update] update the data error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> addOrUpdate(String domain, String id, String data) {
+
+        if (StringUtils.isEmpty(id)) {
+            logger.error("[addOrUpdate] the id of the data is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        String dataKey = DataToolUtils.hash(id);
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeUpsert(dataKey, data, new Date());
+        } catch (WeIdBaseException e) {
+            logger.error("[addOrUpdate] addOrUpdate the data error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<Integer>> batchAddOrUpdate(
+            String domain,
+            Map<String, String> keyValueList) {
+
+        // 批量写入直接覆盖已有数据, 与新增或更新语义一致
+        ResponseData<Integer> response = this.batchAdd(domain, keyValueList);
+        int status = response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
+                ? DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS
+                : DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS;
+        return new ResponseData<>(
+                fixedList(keyValueList.size(), status),
+                ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+    }
+
+    @Override
+    public ResponseData<Integer> addTransaction(TransactionArgs transactionArgs) {
+
+        if (StringUtils.isEmpty(transactionArgs.getRequestId())) {
+            logger.error("[add] the id of the data is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(
+                    DataDriverConstant.DOMAIN_OFFLINE_TRANSACTION_INFO);
+            String datakey = transactionArgs.getRequestId();
+            Object[] datas = {
+                    transactionArgs.getRequestId(),
+                    transactionArgs.getMethod(),
+                    transactionArgs.getArgs(),
+                    transactionArgs.getTimeStamp(),
+                    transactionArgs.getExtra(),
+                    transactionArgs.getBatch()
+            };
+            return getExecutor(baseDomain).execute(datakey, datas);
+        } catch (WeIdBaseException e) {
+            logger.error("[add] add the data error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<Integer>> batchAddTransaction(List<TransactionArgs> transactionArgsList) {
+        return batchExecute(transactionArgsList.size(), i -> addTransaction(transactionArgsList.get(i)));
+    }
+
+    @Override
+    public ResponseData<Integer> addWeId(String domain, String weId, String documentSchema) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[addWeId] the weId is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            String now = RedisExecutor.fromDate(baseDomain.getNow());
+            Map<String, String> fields = hashOf("weid", weId, "created", now, "updated", now,
+                    "version", "1", "deactivated", "0", "document_schema", documentSchema);
+            return getExecutor(baseDomain)
+                    .executeHashInsert(weId, null, fields, NO_INDEX);
+        } catch (WeIdBaseException e) {
+            logger.error("[addWeId] addWeId error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> addWeIdIfAbsent(String domain, String weId, String documentSchema) {
+        return checkInserted(domain, weId, addWeId(domain, weId, documentSchema),
+                RedisExecutor.WEID_DOCUMENT_MAPPER, ErrorCode.WEID_ALREADY_EXIST);
+    }
+
+    @Override
+    public ResponseData<Integer> updateWeId(String domain, String weId, String documentSchema) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[updateWeId] the weId is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            HashTableExecutor executor = getExecutor(baseDomain);
+            ResponseData<WeIdDocumentValue> response =
+                    executor.executeHashQuery(weId, RedisExecutor.WEID_DOCUMENT_MAPPER);
+            if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
+                    && response.getResult() != null) {
+                WeIdDocumentValue tableData = response.getResult();
+                if (tableData.getDeactivated() == 1) {
+                    logger.error("[updateWeId] the weid is deactivated.");
+                    return new ResponseData<>(FAILED_STATUS,
+                            ErrorCode.WEID_HAS_BEEN_DEACTIVATED);
+                }
+                if (StringUtils.isNotBlank(tableData.getDocument_schema())) {
+                    Map<String, String> fields = hashOf(
+                            "updated", RedisExecutor.fromDate(new Date()),
+                            "version", String.valueOf(tableData.getVersion() + 1),
+                            "document_schema", documentSchema);
+                    return executor.executeHashUpdate(weId, fields, NO_INDEX, NO_FLAG);
+                }
+            }
+            return new ResponseData<>(FAILED_STATUS,
+                    ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        } catch (WeIdBaseException e) {
+            logger.error("[updateWeId] update the weid error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<Integer>> batchAddOrUpdateWeIds(
+            String domain,
+            List<WeIdDocumentValue> weIdDocuments) {
+
+        return batchExecute(weIdDocuments.size(), i -> {
+            WeIdDocumentValue value = weIdDocuments.get(i);
+            return upsertRow(domain, value.getWeid(), RedisExecutor.WEID_DOCUMENT_MAPPER,
+                () -> addWeId(domain, value.getWeid(), value.getDocument_schema()),
+                () -> updateWeId(domain, value.getWeid(), value.getDocument_schema()));
+        });
+    }
+
+    @Override
+    public ResponseData<WeIdDocument> getWeIdDocument(String domain, String weId) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[getWeIdDocument] the weId is empty.");
+            return new ResponseData<>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return checkWeIdDocument(getExecutor(baseDomain)
+                    .executeHashQuery(weId, RedisExecutor.WEID_DOCUMENT_MAPPER));
+        } catch (WeIdBaseException e) {
+            logger.error("[getWeIdDocument] get the weIdDocument error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    ResponseData<WeIdDocument> checkWeIdDocument(ResponseData<WeIdDocumentValue> response) {
+
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        WeIdDocumentValue tableData = response.getResult();
+        if (tableData != null && StringUtils.isNotBlank(tableData.getDocument_schema())) {
+            return new ResponseData<>(
+                    WeIdDocument.fromJson(tableData.getDocument_schema()), ErrorCode.SUCCESS);
+        }
+        return new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
+    }
+
+    @Override
+    public ResponseData<Map<String, WeIdDocumentValue>> getWeIdDocuments(
+            String domain,
+            List<String> weIds) {
+
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<List<WeIdDocumentValue>> response = getExecutor(baseDomain)
+                    .executeBatchHashQuery(weIds, RedisExecutor.WEID_DOCUMENT_MAPPER);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null,
+                        ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Map<String, WeIdDocumentValue> result = new HashMap<>();
+            for (WeIdDocumentValue tableData : response.getResult()) {
+                if (StringUtils.isNotBlank(tableData.getDocument_schema())) {
+                    result.put(tableData.getWeid(), tableData);
+                }
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[getWeIdDocuments] get the weIdDocuments error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<WeIdDocumentMetadata> getMeta(String domain, String weId) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[getMeta] the weId is empty.");
+            return new ResponseData<>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return checkMeta(getExecutor(baseDomain)
+                    .executeHashQuery(weId, RedisExecutor.WEID_DOCUMENT_MAPPER));
+        } catch (WeIdBaseException e) {
+            logger.error("[getMeta] getMeta error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    ResponseData<WeIdDocumentMetadata> checkMeta(ResponseData<WeIdDocumentValue> response) {
+
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        WeIdDocumentValue tableData = response.getResult();
+        if (tableData != null && StringUtils.isNotBlank(tableData.getDocument_schema())) {
+            WeIdDocumentMetadata weIdDocumentMetadata = new WeIdDocumentMetadata();
+            weIdDocumentMetadata.setCreated(tableData.getCreated().getTime());
+            weIdDocumentMetadata.setUpdated(tableData.getUpdated().getTime());
+            weIdDocumentMetadata.setVersionId(tableData.getVersion());
+            weIdDocumentMetadata.setDeactivated(tableData.getDeactivated() == 1);
+            return new ResponseData<>(weIdDocumentMetadata, ErrorCode.SUCCESS);
+        }
+        return new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
+    }
+
+    @Override
+    public ResponseData<Integer> deactivateWeId(String domain, String weId, Boolean state) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[deactivateWeId] the weId is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            HashTableExecutor executor = getExecutor(baseDomain);
+            ResponseData<WeIdDocumentValue> response =
+                    executor.executeHashQuery(weId, RedisExecutor.WEID_DOCUMENT_MAPPER);
+            if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
+                    && response.getResult() != null) {
+                WeIdDocumentValue tableData = response.getResult();
+                if (tableData.getDeactivated() == 1) {
+                    logger.error("[deactivateWeId] the weid is deactivated.");
+                    return new ResponseData<>(FAILED_STATUS,
+                            ErrorCode.WEID_HAS_BEEN_DEACTIVATED);
+                }
+                Map<String, String> fields = hashOf(
+                        "updated", RedisExecutor.fromDate(new Date()),
+                        "deactivated", state ? "1" : "0");
+                return executor.executeHashUpdate(weId, fields, NO_INDEX, NO_FLAG);
+            }
+            return new ResponseData<>(FAILED_STATUS,
+                    ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        } catch (WeIdBaseException e) {
+            logger.error("[deactivateWeId] deactivate the weId error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<String>> getWeIdList(String domain, Integer first, Integer last) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeQueryRange(first, last);
+        } catch (WeIdBaseException e) {
+            logger.error("[getWeIdList] get the data error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<String>> getWeIdListAfter(String domain, String afterWeId, Integer num) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeQueryAfter(afterWeId, num);
+        } catch (WeIdBaseException e) {
+            logger.error("[getWeIdListAfter] get the weId list error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<PersistenceCursor<String>> scanWeIds(String domain, Integer fetchSize) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            int size = (fetchSize == null || fetchSize <= 0) ? SCAN_FETCH_SIZE : fetchSize;
+            return getExecutor(baseDomain)
+                    .executeQueryCursor(size, false, Function.identity());
+        } catch (WeIdBaseException e) {
+            logger.error("[scanWeIds] scan the weId error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> getWeIdCount(String domain) {
+        return getCount(domain);
+    }
+
+    @Override
+    public ResponseData<CptValue> getCpt(String domain, int cptId) {
+
+        if (cptId <= 0) {
+            logger.error("[getCpt] the cptId is invalid.");
+            return new ResponseData<CptValue>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return checkCpt(getExecutor(baseDomain)
+                    .executeHashQuery(String.valueOf(cptId), RedisExecutor.CPT_MAPPER));
+        } catch (WeIdBaseException e) {
+            logger.error("[getCpt] getCpt error.", e);
+            return new ResponseData<CptValue>(null, e.getErrorCode());
+        }
+    }
+
+    ResponseData<CptValue> checkCpt(ResponseData<CptValue> response) {
+
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        CptValue tableData = response.getResult();
+        if (tableData != null && StringUtils.isNotBlank(tableData.getCpt_schema())) {
+            return new ResponseData<>(tableData, ErrorCode.SUCCESS);
+        }
+        return new ResponseData<>(null, ErrorCode.CPT_NOT_EXISTS);
+    }
+
+    @Override
+    public ResponseData<CptBaseInfo> addCpt(String domain, int cptId, String publisher, String description, String cptSchema, String cptSignature) {
+
+        if (cptId <= 0) {
+            logger.error("[addCpt] the cptId is invalid.");
+            return new ResponseData<CptBaseInfo>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            String now = RedisExecutor.fromDate(baseDomain.getNow());
+            Map<String, String> fields = hashOf("cpt_id", String.valueOf(cptId),
+                    "created", now, "updated", now,
+                    "cpt_version", String.valueOf(CPT_DEFAULT_VERSION),
+                    "publisher", publisher, "description", description,
+                    "cpt_schema", cptSchema, "cpt_signature", cptSignature);
+            ResponseData<Integer> result = getExecutor(baseDomain).executeHashInsert(
+                    String.valueOf(cptId), (double) cptId, fields, NO_INDEX);
+            if (result.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                logger.error("[addCpt] add Cpt failed.");
+                return new ResponseData<CptBaseInfo>(null,
+                        ErrorCode.getTypeByErrorCode(result.getErrorCode()));
+            }
+            CptBaseInfo cptBaseInfo = new CptBaseInfo();
+            cptBaseInfo.setCptId(cptId);
+            cptBaseInfo.setCptVersion(CPT_DEFAULT_VERSION);
+            return new ResponseData<>(cptBaseInfo, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[addCpt] addCpt error.", e);
+            return new ResponseData<CptBaseInfo>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<CptBaseInfo> addCptIfAbsent(String domain, int cptId, String publisher, String description, String cptSchema, String cptSignature) {
+        return checkInserted(domain, String.valueOf(cptId),
+                addCpt(domain, cptId, publisher, description, cptSchema, cptSignature),
+                RedisExecutor.CPT_MAPPER, ErrorCode.CPT_ALREADY_EXIST);
+    }
+
+    @Override
+    public ResponseData<PolicyValue> getPolicy(String domain, int policyId) {
+
+        if (policyId <= 0) {
+            logger.error("[getPolicy] the policyId is invalid.");
+            return new ResponseData<PolicyValue>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return checkPolicy(getExecutor(baseDomain).executeHashQuery(
+                    String.valueOf(policyId), RedisExecutor.POLICY_MAPPER));
+        } catch (WeIdBaseException e) {
+            logger.error("[getPolicy] getPolicy error.", e);
+            return new ResponseData<PolicyValue>(null, e.getErrorCode());
+        }
+    }
+
+    ResponseData<PolicyValue> checkPolicy(ResponseData<PolicyValue> response) {
+
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        PolicyValue tableData = response.getResult();
+        if (tableData != null && StringUtils.isNotBlank(tableData.getPolicy_schema())) {
+            return new ResponseData<>(tableData, ErrorCode.SUCCESS);
+        }
+        return new ResponseData<>(null, ErrorCode.CPT_NOT_EXISTS);
+    }
+
+    @Override
+    public ResponseData<Integer> addPolicy(String domain, int policyId, String publisher, String description, String cptSchema, String cptSignature) {
+
+        if (policyId <= 0) {
+            logger.error("[addPolicy] the policyId is invalid.");
+            return new ResponseData<Integer>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            String now = RedisExecutor.fromDate(baseDomain.getNow());
+            Map<String, String> fields = hashOf("policy_id", String.valueOf(policyId),
+                    "created", now, "updated", now,
+                    "policy_version", String.valueOf(CPT_DEFAULT_VERSION),
+                    "publisher", publisher, "description", description,
+                    "policy_schema", cptSchema, "policy_signature", cptSignature);
+            return getExecutor(baseDomain).executeHashInsert(
+                    String.valueOf(policyId), (double) policyId, fields, NO_INDEX);
+        } catch (WeIdBaseException e) {
+            logger.error("[addPolicy] addPolicy error.", e);
+            return new ResponseData<Integer>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<PresentationValue> getPresentation(String domain, int presentationId) {
+
+        if (presentationId <= 0) {
+            logger.error("[getPresentation] the presentationId is invalid.");
+            return new ResponseData<PresentationValue>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<PresentationValue> response = getExecutor(baseDomain)
+                    .executeHashQuery(String.valueOf(presentationId),
+                            RedisExecutor.PRESENTATION_MAPPER);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null,
+                        ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            PresentationValue tableData = response.getResult();
+            if (tableData != null && StringUtils.isNotBlank(tableData.getClaim_policies())) {
+                return new ResponseData<>(tableData, ErrorCode.SUCCESS);
+            }
+            return new ResponseData<>(null, ErrorCode.PRESENTATION_POLICY_INVALID);
+        } catch (WeIdBaseException e) {
+            logger.error("[getPresentation] getPresentation error.", e);
+            return new ResponseData<PresentationValue>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> addPresentation(String domain, int presentationId, String creator, String policies) {
+
+        if (presentationId <= 0) {
+            logger.error("[addPresentation] the presentationId is invalid.");
+            return new ResponseData<Integer>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            Map<String, String> fields = hashOf(
+                    "presentation_id", String.valueOf(presentationId),
+                    "creator", creator, "claim_policies", policies);
+            return getExecutor(baseDomain).executeHashInsert(String.valueOf(presentationId),
+                    (double) presentationId, fields, NO_INDEX);
+        } catch (WeIdBaseException e) {
+            logger.error("[addPresentation] addPresentation error.", e);
+            return new ResponseData<Integer>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> updateCpt(String domain, int cptId, int cptVersion, String publisher, String description, String cptSchema, String cptSignature) {
+
+        if (cptId <= 0) {
+            logger.error("[updateCpt] the cptId is invalid.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            Map<String, String> fields = hashOf(
+                    "updated", RedisExecutor.fromDate(baseDomain.getNow()),
+                    "cpt_version", String.valueOf(cptVersion),
+                    "publisher", publisher, "description", description,
+                    "cpt_schema", cptSchema, "cpt_signature", cptSignature);
+            return getExecutor(baseDomain)
+                    .executeHashUpdate(String.valueOf(cptId), fields, NO_INDEX, NO_FLAG);
+        } catch (WeIdBaseException e) {
+            logger.error("[updateCpt] updateCpt error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<Integer>> batchAddOrUpdateCpts(String domain, List<CptValue> cpts) {
+
+        return batchExecute(cpts.size(), i -> {
+            CptValue value = cpts.get(i);
+            int cptVersion = value.getCpt_version() > 0 ? value.getCpt_version() : CPT_DEFAULT_VERSION;
+            return upsertRow(domain, String.valueOf(value.getCpt_id()), RedisExecutor.CPT_MAPPER,
+                () -> {
+                    ResponseData<CptBaseInfo> response = addCpt(domain, value.getCpt_id(),
+                            value.getPublisher(), value.getDescription(), value.getCpt_schema(),
+                            value.getCpt_signature());
+                    if (response.getResult() == null) {
+                        return new ResponseData<>(FAILED_STATUS,
+                                ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+                    }
+                    return cptVersion == CPT_DEFAULT_VERSION
+                            ? new ResponseData<>(DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS,
+                                    ErrorCode.SUCCESS)
+                            : updateCpt(domain, value.getCpt_id(), cptVersion, value.getPublisher(),
+                                    value.getDescription(), value.getCpt_schema(),
+                                    value.getCpt_signature());
+                },
+                () -> updateCpt(domain, value.getCpt_id(), cptVersion, value.getPublisher(),
+                        value.getDescription(), value.getCpt_schema(), value.getCpt_signature()));
+        });
+    }
+
+    @Override
+    public ResponseData<Integer> updateCredentialTemplate(String domain, int cptId, String credentialPublicKey, String credentialProof) {
+
+        if (cptId <= 0) {
+            logger.error("[updateCredentialTemplate] the cptId is invalid.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            Map<String, String> fields = hashOf("credential_publicKey", credentialPublicKey,
+                    "credential_proof", credentialProof);
+            return getExecutor(baseDomain)
+                    .executeHashUpdate(String.valueOf(cptId), fields, NO_INDEX, NO_FLAG);
+        } catch (WeIdBaseException e) {
+            logger.error("[updateCredentialTemplate] updateCredentialTemplate error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> updateCptClaimPolicies(String domain, int cptId, String policies) {
+
+        if (cptId <= 0) {
+            logger.error("[updateCptClaimPolicies] the cptId is invalid.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            Map<String, String> fields = hashOf("claim_policies", policies);
+            return getExecutor(baseDomain)
+                    .executeHashUpdate(String.valueOf(cptId), fields, NO_INDEX, NO_FLAG);
+        } catch (WeIdBaseException e) {
+            logger.error("[updateCptClaimPolicies] updateCptClaimPolicies error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<Integer>> getCptIdList(String domain, Integer first, Integer last) {
+        return getIntIdList(domain, first, last - 1);
+    }
+
+    @Override
+    public ResponseData<List<Integer>> getCptIdListAfter(String domain, Integer afterCptId, Integer num) {
+        return getIntIdListAfter(domain, afterCptId, num);
+    }
+
+    @Override
+    public ResponseData<PersistenceCursor<Integer>> scanCptIds(String domain, Integer fetchSize) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            int size = (fetchSize == null || fetchSize <= 0) ? SCAN_FETCH_SIZE : fetchSize;
+            return getExecutor(baseDomain)
+                    .executeQueryCursor(size, true, Integer::valueOf);
+        } catch (WeIdBaseException e) {
+            logger.error("[scanCptIds] scan the cptId error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> getCptCount(String domain) {
+        return getCount(domain);
+    }
+
+    @Override
+    public ResponseData<List<Integer>> getPolicyIdList(String domain, Integer first, Integer last) {
+        return getIntIdList(domain, first, last - 1);
+    }
+
+    @Override
+    public ResponseData<List<Integer>> getPolicyIdListAfter(String domain, Integer afterPolicyId, Integer num) {
+        return getIntIdListAfter(domain, afterPolicyId, num);
+    }
+
+    @Override
+    public ResponseData<Integer> getPolicyCount(String domain) {
+        return getCount(domain);
+    }
+
+    @Override
+    public ResponseData<Integer> addAuthorityIssuer(String domain, String weId, String name, String desc, String accValue, String extraStr, String extraInt) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[addAuthorityIssuer] the weId is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            String now = RedisExecutor.fromDate(baseDomain.getNow());
+            Map<String, String> fields = hashOf("weid", weId, "name", name,
+                    "description", desc, "created", now, "updated", now, "recognize", "0",
+                    "acc_value", accValue, "extra_str", extraStr, "extra_int", extraInt);
+            return getExecutor(baseDomain).executeHashInsert(
+                    weId, null, fields, Collections.singletonMap(INDEX_NAME, name));
+        } catch (WeIdBaseException e) {
+            logger.error("[addAuthorityIssuer] addAuthorityIssuer error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> removeAuthorityIssuer(String domain, String weId) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[removeAuthorityIssuer] the weId is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeHashDelete(weId,
+                    Collections.singletonList(INDEX_NAME),
+                    Collections.singletonList(FLAG_RECOGNIZE));
+        } catch (WeIdBaseException e) {
+            logger.error("[removeAuthorityIssuer] removeAuthorityIssuer error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<AuthorityIssuerInfo> getAuthorityIssuerByWeId(String domain, String weId) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[getAuthorityIssuerByWeId] the weId is empty.");
+            return new ResponseData<AuthorityIssuerInfo>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<AuthorityIssuerInfo> response = getExecutor(baseDomain)
+                    .executeHashQuery(weId, RedisExecutor.AUTHORITY_ISSUER_MAPPER);
+            return checkAuthorityIssuer(response);
+        } catch (WeIdBaseException e) {
+            logger.error("[getAuthorityIssuerByWeId] getAuthorityIssuerByWeId error.", e);
+            return new ResponseData<AuthorityIssuerInfo>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Map<String, AuthorityIssuerInfo>> getAuthorityIssuersByWeIds(
+            String domain,
+            List<String> weIds) {
+
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<List<AuthorityIssuerInfo>> response = getExecutor(baseDomain)
+                    .executeBatchHashQuery(weIds, RedisExecutor.AUTHORITY_ISSUER_MAPPER);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null,
+                        ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Map<String, AuthorityIssuerInfo> result = new HashMap<>();
+            for (AuthorityIssuerInfo tableData : response.getResult()) {
+                if (StringUtils.isNotBlank(tableData.getName())) {
+                    result.put(tableData.getWeid(), tableData);
+                }
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[getAuthorityIssuersByWeIds] get the authority issuers error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<AuthorityIssuerInfo> getAuthorityIssuerByName(String domain, String name) {
+
+        if (StringUtils.isEmpty(name)) {
+            logger.error("[getAuthorityIssuerByName] the name is empty.");
+            return new ResponseData<AuthorityIssuerInfo>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<List<AuthorityIssuerInfo>> response = getExecutor(baseDomain)
+                    .executeIndexQuery(INDEX_NAME, name, RedisExecutor.AUTHORITY_ISSUER_MAPPER);
+            return checkAuthorityIssuer(firstOf(response));
+        } catch (WeIdBaseException e) {
+            logger.error("[getAuthorityIssuerByName] getAuthorityIssuerByName error.", e);
+            return new ResponseData<AuthorityIssuerInfo>(null, e.getErrorCode());
+        }
+    }
+
+    ResponseData<AuthorityIssuerInfo> checkAuthorityIssuer(
+            ResponseData<AuthorityIssuerInfo> response) {
+
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        AuthorityIssuerInfo tableData = response.getResult();
+        if (tableData != null && StringUtils.isNotBlank(tableData.getName())) {
+            return new ResponseData<>(tableData, ErrorCode.SUCCESS);
+        }
+        return new ResponseData<>(null, ErrorCode.AUTHORITY_ISSUER_CONTRACT_ERROR_NOT_EXISTS);
+    }
+
+    @Override
+    public ResponseData<Integer> updateAuthorityIssuer(String domain, String weId, Integer recognize) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[updateAuthorityIssuer] the weId is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            Map<String, String> fields = hashOf(
+                    "updated", RedisExecutor.fromDate(baseDomain.getNow()),
+                    "recognize", String.valueOf(recognize));
+            return getExecutor(baseDomain).executeHashUpdate(weId, fields, NO_INDEX,
+                    Collections.singletonMap(FLAG_RECOGNIZE, recognize == 1));
+        } catch (WeIdBaseException e) {
+            logger.error("[updateAuthorityIssuer] update the AuthorityIssuer error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> getAuthorityIssuerCount(String domain) {
+        return getCount(domain);
+    }
+
+    @Override
+    public ResponseData<Integer> getRecognizedIssuerCount(String domain) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeQueryFlagAmounts(FLAG_RECOGNIZE);
+        } catch (WeIdBaseException e) {
+            logger.error("[getRecognizedIssuerCount] get the count of recognized authority issuer error.", e);
+            return new ResponseData<>(0, e.getErrorCode());
+        }
+    }
+
+    //1 as authority_role, 2 as committee_role, 4 as admin_role, others are combinations of them
+    @Override
+    public ResponseData<Integer> addRole(String domain, String weId, Integer roleValue) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[addRole] the weId is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        if (roleValue > 7 || roleValue < 1) {
+            logger.error("[addRole] the roleValue is not between 1 and 7.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            String now = RedisExecutor.fromDate(baseDomain.getNow());
+            Map<String, String> fields = roleHashOf(roleValue & 1, (roleValue >> 1) & 1,
+                    (roleValue >> 2) & 1);
+            fields.put("weid", weId);
+            fields.put("created", now);
+            fields.put("updated", now);
+            return getExecutor(baseDomain)
+                    .executeHashInsert(weId, null, fields, NO_INDEX);
+        } catch (WeIdBaseException e) {
+            logger.error("[addRole] addRole error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<RoleValue> getRole(String domain, String weId) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[getRole] the weId is empty.");
+            return new ResponseData<RoleValue>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return checkRole(getExecutor(baseDomain)
+                    .executeHashQuery(weId, RedisExecutor.ROLE_MAPPER));
+        } catch (WeIdBaseException e) {
+            logger.error("[getRole] getRole error.", e);
+            return new ResponseData<RoleValue>(null, e.getErrorCode());
+        }
+    }
+
+    ResponseData<RoleValue> checkRole(ResponseData<RoleValue> response) {
+
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        if (response.getResult() != null) {
+            return new ResponseData<>(response.getResult(), ErrorCode.SUCCESS);
+        }
+        return new ResponseData<>(null, ErrorCode.AUTHORITY_ISSUER_CONTRACT_ERROR_NOT_EXISTS);
+    }
+
+    @Override
+    public ResponseData<Integer> updateRole(String domain, String weId, Integer roleValue) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[updateRole] the weId is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        if (roleValue > 7 || roleValue < 1) {
+            logger.error("[updateRole] the roleValue is not between 1 and 7.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            Map<String, String> fields = roleHashOf(roleValue & 1, (roleValue >> 1) & 1,
+                    (roleValue >> 2) & 1);
+            fields.put("updated", RedisExecutor.fromDate(baseDomain.getNow()));
+            return getExecutor(baseDomain)
+                    .executeHashUpdate(weId, fields, NO_INDEX, NO_FLAG);
+        } catch (WeIdBaseException e) {
+            logger.error("[updateRole] update the role error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<Integer>> batchAddOrUpdateRoles(String domain, List<RoleValue> roles) {
+
+        return batchExecute(roles.size(), i -> {
+            RoleValue value = roles.get(i);
+            if (StringUtils.isEmpty(value.getWeid())) {
+                logger.error("[batchAddOrUpdateRoles] the weId is empty.");
+                return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+            }
+            try {
+                D baseDomain = resolveDomain(domain);
+                HashTableExecutor executor = getExecutor(baseDomain);
+                String now = RedisExecutor.fromDate(baseDomain.getNow());
+                Map<String, String> fields = roleHashOf(value.getAuthority_role(),
+                        value.getCommittee_role(), value.getAdmin_role());
+                fields.put("updated", now);
+                return upsertRow(domain, value.getWeid(), RedisExecutor.ROLE_MAPPER,
+                    () -> {
+                        Map<String, String> row = new HashMap<>(fields);
+                        row.put("weid", value.getWeid());
+                        row.put("created", now);
+                        return executor.executeHashInsert(
+                                value.getWeid(), null, row, NO_INDEX);
+                    },
+                    () -> executor.executeHashUpdate(
+                            value.getWeid(), fields, NO_INDEX, NO_FLAG));
+            } catch (WeIdBaseException e) {
+                logger.error("[batchAddOrUpdateRoles] batchAddOrUpdateRoles error.", e);
+                return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+            }
+        });
+    }
+
+    @Override
+    public ResponseData<Integer> addSpecificType(String domain, String typeName, String owner) {
+
+        if (StringUtils.isEmpty(typeName)) {
+            logger.error("[addSpecificType] the typeName is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            String now = RedisExecutor.fromDate(baseDomain.getNow());
+            Map<String, String> fields = hashOf("type_name", typeName,
+                    "created", now, "updated", now, "owner", owner);
+            return getExecutor(baseDomain)
+                    .executeHashInsert(typeName, null, fields, NO_INDEX);
+        } catch (WeIdBaseException e) {
+            logger.error("[addSpecificType] addSpecificType error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<SpecificTypeValue> getSpecificType(String domain, String typeName) {
+
+        if (StringUtils.isEmpty(typeName)) {
+            logger.error("[getSpecificType] the typeName is empty.");
+            return new ResponseData<SpecificTypeValue>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<SpecificTypeValue> response = getExecutor(baseDomain)
+                    .executeHashQuery(typeName, RedisExecutor.SPECIFIC_TYPE_MAPPER);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null,
+                        ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            if (response.getResult() != null) {
+                return new ResponseData<>(response.getResult(), ErrorCode.SUCCESS);
+            }
+            return new ResponseData<>(null,
+                    ErrorCode.SPECIFIC_ISSUER_CONTRACT_ERROR_ALREADY_NOT_EXIST);
+        } catch (WeIdBaseException e) {
+            logger.error("[getSpecificType] getSpecificType error.", e);
+            return new ResponseData<SpecificTypeValue>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Map<String, SpecificTypeValue>> getSpecificTypes(
+            String domain,
+            List<String> typeNames) {
+
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<List<SpecificTypeValue>> response = getExecutor(baseDomain)
+                    .executeBatchHashQuery(typeNames, RedisExecutor.SPECIFIC_TYPE_MAPPER);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null,
+                        ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Map<String, SpecificTypeValue> result = new HashMap<>();
+            for (SpecificTypeValue tableData : response.getResult()) {
+                result.put(tableData.getType_name(), tableData);
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[getSpecificTypes] get the specific types error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> removeSpecificType(String domain, String typeName) {
+
+        if (StringUtils.isEmpty(typeName)) {
+            logger.error("[removeSpecificType] the typeName is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeHashDelete(
+                    typeName, NO_FIELD, NO_FIELD);
+        } catch (WeIdBaseException e) {
+            logger.error("[removeSpecificType] removeSpecificType error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> updateSpecificTypeFellow(String domain, String typeName, String fellow) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeHashUpdate(
+                    typeName, hashOf("fellow", fellow), NO_INDEX, NO_FLAG);
+        } catch (WeIdBaseException e) {
+            logger.error("[updateSpecificTypeFellow] updateSpecificTypeFellow error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> addSpecificTypeIssuer(String domain, String typeName, String issuer) {
+
+        if (StringUtils.isEmpty(typeName) || StringUtils.isEmpty(issuer)) {
+            logger.error("[addSpecificTypeIssuer] the typeName or issuer is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeMemberAdd(typeName, issuer);
+        } catch (WeIdBaseException e) {
+            logger.error("[addSpecificTypeIssuer] addSpecificTypeIssuer error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> removeSpecificTypeIssuer(String domain, String typeName, String issuer) {
+
+        if (StringUtils.isEmpty(typeName) || StringUtils.isEmpty(issuer)) {
+            logger.error("[removeSpecificTypeIssuer] the typeName or issuer is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeMemberRemove(typeName, issuer);
+        } catch (WeIdBaseException e) {
+            logger.error("[removeSpecificTypeIssuer] removeSpecificTypeIssuer error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Boolean> isSpecificTypeIssuer(String domain, String typeName, String issuer) {
+
+        if (StringUtils.isEmpty(typeName) || StringUtils.isEmpty(issuer)) {
+            logger.error("[isSpecificTypeIssuer] the typeName or issuer is empty.");
+            return new ResponseData<>(false, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeMemberQuery(typeName, issuer);
+        } catch (WeIdBaseException e) {
+            logger.error("[isSpecificTypeIssuer] isSpecificTypeIssuer error.", e);
+            return new ResponseData<>(false, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<String>> getSpecificTypeIssuerList(
+            String domain, String typeName, Integer first, Integer num) {
+
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeMemberRange(
+                    typeName, first, first + num - 1);
+        } catch (WeIdBaseException e) {
+            logger.error("[getSpecificTypeIssuerList] getSpecificTypeIssuerList error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> getSpecificTypeIssuerCount(String domain, String typeName) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeMemberAmounts(typeName);
+        } catch (WeIdBaseException e) {
+            logger.error("[getSpecificTypeIssuerCount] getSpecificTypeIssuerCount error.", e);
+            return new ResponseData<>(0, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> getIssuerTypeCount(String domain) {
+        return getCount(domain);
+    }
+
+    @Override
+    public ResponseData<List<String>> getIssuerTypeList(String domain, Integer first, Integer last) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeQueryRange(first, last - 1);
+        } catch (WeIdBaseException e) {
+            logger.error("[getIssuerTypeList] get the IssuerTypeList error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<String>> getIssuerTypeListAfter(String domain, String afterTypeName, Integer num) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeQueryAfter(afterTypeName, num);
+        } catch (WeIdBaseException e) {
+            logger.error("[getIssuerTypeListAfter] get the IssuerTypeList error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> addEvidenceByHash(String domain, String hashValue, String signer, String signature, String log, String updated, String revoked, String extraKey, String group_id) {
+
+        if (StringUtils.isEmpty(hashValue)) {
+            logger.error("[addEvidenceByHash] the hashValue is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            String indexValue = StringUtils.isEmpty(extraKey) ? null : extraKey;
+            Map<String, String> fields = hashOf("hash", hashValue, "signers", signer,
+                    "signatures", signature, "logs", log, "updated", updated, "revoked", revoked,
+                    "extra_key", indexValue, "group_id", group_id);
+            return getExecutor(baseDomain, EVIDENCE_NON_UNIQUE_INDEXES).executeHashInsert(
+                    hashValue, null, fields,
+                    Collections.singletonMap(INDEX_EXTRA_KEY, indexValue));
+        } catch (WeIdBaseException e) {
+            logger.error("[addEvidenceByHash] addEvidenceByHash error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> addEvidenceByHashIfAbsent(String domain, String hashValue, String signer, String signature, String log, String updated, String revoked, String group_id) {
+        return checkInserted(domain, hashValue,
+                addEvidenceByHash(domain, hashValue, signer, signature, log, updated, revoked,
+                        StringUtils.EMPTY, group_id),
+                RedisExecutor.EVIDENCE_MAPPER, ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS);
+    }
+
+    @Override
+    public ResponseData<EvidenceValue> getEvidenceByHash(String domain, String hash) {
+
+        if (StringUtils.isEmpty(hash)) {
+            logger.error("[getEvidenceByHash] the hash is empty.");
+            return new ResponseData<EvidenceValue>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<EvidenceValue> response = getExecutor(baseDomain)
+                    .executeHashQuery(hash, RedisExecutor.EVIDENCE_MAPPER);
+            return checkEvidence(response);
+        } catch (WeIdBaseException e) {
+            logger.error("[getEvidenceByHash] getEvidenceByHash error.", e);
+            return new ResponseData<EvidenceValue>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Map<String, EvidenceValue>> getEvidenceByHashes(
+            String domain,
+            List<String> hashes) {
+
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<List<EvidenceValue>> response = getExecutor(baseDomain)
+                    .executeBatchHashQuery(hashes, RedisExecutor.EVIDENCE_MAPPER);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null,
+                        ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            Map<String, EvidenceValue> result = new HashMap<>();
+            for (EvidenceValue tableData : response.getResult()) {
+                if (StringUtils.isNotBlank(tableData.getSigners())) {
+                    result.put(tableData.getHash(), tableData);
+                }
+            }
+            return new ResponseData<>(result, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[getEvidenceByHashes] get the evidences error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> addSignatureAndLogs(String domain, String hashValue, String signer, String signature, String log, String updated, String revoked, String extraKey) {
+
+        if (StringUtils.isEmpty(hashValue)) {
+            logger.error("[addSignatureAndLogs] the hashValue is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            String indexValue = StringUtils.isEmpty(extraKey) ? null : extraKey;
+            Map<String, String> fields = hashOf("signers", signer, "signatures", signature,
+                    "logs", log, "updated", updated, "revoked", revoked, "extra_key", indexValue);
+            Map<String, String> indexes = indexValue == null
+                    ? NO_INDEX : Collections.singletonMap(INDEX_EXTRA_KEY, indexValue);
+            return getExecutor(baseDomain, EVIDENCE_NON_UNIQUE_INDEXES)
+                    .executeHashUpdate(hashValue, fields, indexes, NO_FLAG);
+        } catch (WeIdBaseException e) {
+            logger.error("[addSignatureAndLogs] addSignatureAndLogs error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<Integer>> batchAddOrUpdateEvidences(
+            String domain,
+            List<EvidenceValue> evidences) {
+
+        return batchExecute(evidences.size(), i -> {
+            EvidenceValue value = evidences.get(i);
+            return upsertRow(domain, value.getHash(), RedisExecutor.EVIDENCE_MAPPER,
+                () -> addEvidenceByHash(domain, value.getHash(), value.getSigners(),
+                        value.getSignatures(), value.getLogs(), value.getUpdated(),
+                        value.getRevoked(), value.getExtra_key(), value.getGroup_id()),
+                () -> addSignatureAndLogs(domain, value.getHash(), value.getSigners(),
+                        value.getSignatures(), value.getLogs(), value.getUpdated(),
+                        value.getRevoked(), value.getExtra_key()));
+        });
+    }
+
+    @Override
+    public ResponseData<EvidenceValue> getEvidenceByExtraKey(String domain, String extraKey) {
+
+        if (StringUtils.isEmpty(extraKey)) {
+            logger.error("[getEvidenceByExtraKey] the extraKey is empty.");
+            return new ResponseData<EvidenceValue>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<List<EvidenceValue>> response =
+                    getExecutor(baseDomain, EVIDENCE_NON_UNIQUE_INDEXES)
+                    .executeIndexQuery(INDEX_EXTRA_KEY, extraKey, RedisExecutor.EVIDENCE_MAPPER);
+            return checkEvidence(firstOf(response));
+        } catch (WeIdBaseException e) {
+            logger.error("[getEvidenceByExtraKey] getEvidenceByExtraKey error.", e);
+            return new ResponseData<EvidenceValue>(null, e.getErrorCode());
+        }
+    }
+
+    ResponseData<EvidenceValue> checkEvidence(ResponseData<EvidenceValue> response) {
+
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        EvidenceValue tableData = response.getResult();
+        if (tableData != null && StringUtils.isNotBlank(tableData.getSigners())) {
+            return new ResponseData<>(tableData, ErrorCode.SUCCESS);
+        }
+        return new ResponseData<>(null, ErrorCode.CREDENTIAL_EVIDENCE_NOT_EXIST);
+    }
+
+    private ResponseData<Integer> getCount(String domain) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeQueryAmounts();
+        } catch (WeIdBaseException e) {
+            logger.error("[getCount] get the count of {} error.", domain, e);
+            return new ResponseData<>(0, e.getErrorCode());
+        }
+    }
+
+    private ResponseData<List<Integer>> getIntIdList(String domain, int start, int end) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            return toIntIdList(getExecutor(baseDomain).executeQueryRange(start, end));
+        } catch (WeIdBaseException e) {
+            logger.error("[getIntIdList] get the id list of {} error.", domain, e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    private ResponseData<List<Integer>> getIntIdListAfter(String domain, Integer after, Integer num) {
+        try {
+            D baseDomain = resolveDomain(domain);
+            double score = after == null ? Double.NEGATIVE_INFINITY : after;
+            return toIntIdList(getExecutor(baseDomain).executeQueryAfter(score, num));
+        } catch (WeIdBaseException e) {
+            logger.error("[getIntIdListAfter] get the id list of {} error.", domain, e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    private static ResponseData<List<Integer>> toIntIdList(ResponseData<List<String>> response) {
+
+        if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()
+                || response.getResult() == null) {
+            return new ResponseData<>(null, ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+        }
+        List<Integer> idList = new ArrayList<>(response.getResult().size());
+        for (String id : response.getResult()) {
+            idList.add(Integer.valueOf(id));
+        }
+        return new ResponseData<>(idList, ErrorCode.SUCCESS);
+    }
+
+    /**
+     * 取二级索引查询结果中主键最小的一行, 与mysql按索引列查询时取第一行一致.
+     */
+    private static <T> ResponseData<T> firstOf(ResponseData<List<T>> response) {
+
+        List<T> dataList = response.getResult();
+        return new ResponseData<>(dataList == null || dataList.isEmpty() ? null : dataList.get(0),
+                ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+    }
+
+    /**
+     * 数据存在时更新, 否则新增.
+     */
+    private <T> ResponseData<Integer> upsertRow(String domain, String id, RedisHashMapper<T> mapper,
+                                                Supplier<ResponseData<Integer>> add,
+                                                Supplier<ResponseData<Integer>> update) {
+
+        if (StringUtils.isEmpty(id)) {
+            logger.error("[upsertRow] the id of the data is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<T> response = getExecutor(baseDomain)
+                    .executeHashQuery(id, mapper);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<Integer>(FAILED_STATUS,
+                        ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            return response.getResult() == null ? add.get() : update.get();
+        } catch (WeIdBaseException e) {
+            logger.error("[upsertRow] upsert the data error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    /**
+     * 逐行执行批量写入, 返回每一行的执行状态.
+     */
+    private ResponseData<List<Integer>> batchExecute(int size,
+                                                     IntFunction<ResponseData<Integer>> writer) {
+
+        List<Integer> result = new ArrayList<>(size);
+        ErrorCode errorCode = ErrorCode.SUCCESS;
+        for (int i = 0; i < size; i++) {
+            ResponseData<Integer> response = writer.apply(i);
+            if (response.getErrorCode().intValue() == ErrorCode.SUCCESS.getCode()
+                    && response.getResult() != null
+                    && response.getResult() == DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS) {
+                result.add(DataDriverConstant.REDISSON_EXECUTE_SUCESS_STATUS);
+            } else {
+                result.add(DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS);
+                if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                    errorCode = ErrorCode.getTypeByErrorCode(response.getErrorCode());
+                }
+            }
+        }
+        return new ResponseData<>(result, errorCode);
+    }
+
+    private static Map<String, String> hashOf(String... keyValues) {
+
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            fields.put(keyValues[i], keyValues[i + 1]);
+        }
+        return fields;
+    }
+
+    private static Map<String, String> roleHashOf(int authorityRole, int committeeRole,
+                                                  int adminRole) {
+        return hashOf("authority_role", String.valueOf(authorityRole),
+                "committee_role", String.valueOf(committeeRole),
+                "admin_role", String.valueOf(adminRole));
+    }
+
+    @Override
+    public ResponseData<Integer> addEvidenceLog(String domain, EvidenceLogValue evidenceLog) {
+
+        if (StringUtils.isEmpty(evidenceLog.getHash())) {
+            logger.error("[addEvidenceLog] the hash is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeListAppend(
+                    evidenceLog.getHash(), DataToolUtils.serialize(evidenceLog));
+        } catch (WeIdBaseException e) {
+            logger.error("[addEvidenceLog] addEvidenceLog error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<List<EvidenceLogValue>> getEvidenceLogs(String domain, String hash) {
+
+        if (StringUtils.isEmpty(hash)) {
+            logger.error("[getEvidenceLogs] the hash is empty.");
+            return new ResponseData<>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            ResponseData<List<String>> response =
+                    getExecutor(baseDomain).executeListQuery(hash);
+            if (response.getErrorCode().intValue() != ErrorCode.SUCCESS.getCode()) {
+                return new ResponseData<>(null,
+                        ErrorCode.getTypeByErrorCode(response.getErrorCode()));
+            }
+            List<EvidenceLogValue> logs = new ArrayList<>(response.getResult().size());
+            for (String record : response.getResult()) {
+                EvidenceLogValue value = DataToolUtils.deserialize(record, EvidenceLogValue.class);
+                value.setId((long) logs.size() + 1);
+                logs.add(value);
+            }
+            return new ResponseData<>(logs, ErrorCode.SUCCESS);
+        } catch (WeIdBaseException e) {
+            logger.error("[getEvidenceLogs] getEvidenceLogs error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> updateEvidenceExtraKey(String domain, String hash, String extraKey) {
+
+        if (StringUtils.isEmpty(hash)) {
+            logger.error("[updateEvidenceExtraKey] the hash is empty.");
+            return new ResponseData<Integer>(FAILED_STATUS, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            String indexValue = StringUtils.isEmpty(extraKey) ? null : extraKey;
+            Map<String, String> indexes = indexValue == null
+                    ? NO_INDEX : Collections.singletonMap(INDEX_EXTRA_KEY, indexValue);
+            return getExecutor(baseDomain, EVIDENCE_NON_UNIQUE_INDEXES).executeHashUpdate(
+                    hash, hashOf("extra_key", indexValue), indexes, NO_FLAG);
+        } catch (WeIdBaseException e) {
+            logger.error("[updateEvidenceExtraKey] updateEvidenceExtraKey error.", e);
+            return new ResponseData<Integer>(FAILED_STATUS, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public ResponseData<Integer> allocateSequence(
+            String domain, String name, Integer initialValue, Integer blockSize) {
+
+        if (StringUtils.isEmpty(name) || blockSize == null || blockSize <= 0) {
+            logger.error("[allocateSequence] the name or blockSize is illegal.");
+            return new ResponseData<>(null, KEY_INVALID);
+        }
+        try {
+            D baseDomain = resolveDomain(domain);
+            return getExecutor(baseDomain).executeSequenceAllocate(
+                    name, initialValue, blockSize);
+        } catch (WeIdBaseException e) {
+            logger.error("[allocateSequence] allocateSequence error.", e);
+            return new ResponseData<>(null, e.getErrorCode());
+        }
+    }
+
+    @Override
+    public <T> ResponseData<T> executeInUnit(Function<Persistence, ResponseData<T>> work) {
+        return work.apply(this);
+    }
+
+    /**
+     * 新增数据失败时检查主键是否已存在, 已存在时返回对应的错误码, 只在失败时多一次查询.
+     */
+    private <T> ResponseData<T> checkInserted(
+            String domain,
+            String id,
+            ResponseData<T> result,
+            RedisHashMapper<?> mapper,
+            ErrorCode existed) {
+
+        if (result.getErrorCode().intValue() != ErrorCode.PERSISTENCE_EXECUTE_FAILED.getCode()) {
+            return result;
+        }
+        try {
+            if (getExecutor(resolveDomain(domain))
+                    .executeHashQuery(id, mapper).getResult() != null) {
+                return new ResponseData<T>(result.getResult(), existed);
+            }
+        } catch (WeIdBaseException e) {
+            logger.error("[checkInserted] checkInserted error.", e);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,178 @@
+package com.webank.weid.suite.persistence.redis.driver;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.base.WeIdDocument;
+import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.suite.persistence.AuthorityIssuerInfo;
+import com.webank.weid.suite.persistence.CptValue;
+import com.webank.weid.suite.persistence.EvidenceValue;
+import com.webank.weid.suite.persistence.ExecutorAsyncPersistence;
+import com.webank.weid.suite.persistence.PolicyValue;
+import com.webank.weid.suite.persistence.RoleValue;
+import com.webank.weid.suite.persistence.redis.RedisDomain;
+import com.webank.weid.suite.persistence.redis.RedisExecutor;
+import com.webank.weid.suite.persistence.redis.RedisHashMapper;
+import com.webank.weid.util.DataToolUtils;
+
+/**
+ * redis异步驱动, 单条查询使用redisson的异步接口, 不占用线程池, 其他操作由线程池调用同步驱动.
+ * 查询结果在redisson的IO线程上转换, 之后交给异步线程池完成, 调用方的回调不占用IO线程,
+ * 线程池队列满时由IO线程完成, 已成功的查询不会因此失败.
+ */
+public class RedisAsyncDriver extends ExecutorAsyncPersistence {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisAsyncDriver.class);
+
+    private final RedisDriver driver;
+
+    public RedisAsyncDriver() {
+        this(new RedisDriver());
+    }
+
+    public RedisAsyncDriver(RedisDriver driver) {
+        super(driver);
+        this.driver = driver;
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<String>> get(String domain, String id) {
+
+        if (StringUtils.isEmpty(id)) {
+            logger.error("[redis->get] the id of the data is empty.");
+            return CompletableFuture.completedFuture(new ResponseData<String>(
+                    StringUtils.EMPTY, ErrorCode.PRESISTENCE_DATA_KEY_INVALID));
+        }
+        String dataKey = DataToolUtils.hash(id);
+        return query("get", domain, () -> StringUtils.EMPTY, redisDomain ->
+                handOff(new RedisExecutor(redisDomain, driver.client)
+                        .executeQueryAsync(redisDomain.getTableDomain(), dataKey)
+                        .thenApply(driver::checkData)));
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<WeIdDocument>> getWeIdDocument(
+            String domain,
+            String weId) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[redis->getWeIdDocument] the weId is empty.");
+            return invalidKey();
+        }
+        return queryHash("getWeIdDocument", domain, weId,
+                RedisExecutor.WEID_DOCUMENT_MAPPER, driver::checkWeIdDocument);
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<WeIdDocumentMetadata>> getMeta(
+            String domain,
+            String weId) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[redis->getMeta] the weId is empty.");
+            return invalidKey();
+        }
+        return queryHash("getMeta", domain, weId,
+                RedisExecutor.WEID_DOCUMENT_MAPPER, driver::checkMeta);
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<CptValue>> getCpt(String domain, int cptId) {
+
+        if (cptId <= 0) {
+            logger.error("[redis->getCpt] the cptId is invalid.");
+            return invalidKey();
+        }
+        return queryHash("getCpt", domain, String.valueOf(cptId),
+                RedisExecutor.CPT_MAPPER, driver::checkCpt);
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<PolicyValue>> getPolicy(String domain, int policyId) {
+
+        if (policyId <= 0) {
+            logger.error("[redis->getPolicy] the policyId is invalid.");
+            return invalidKey();
+        }
+        return queryHash("getPolicy", domain, String.valueOf(policyId),
+                RedisExecutor.POLICY_MAPPER, driver::checkPolicy);
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<AuthorityIssuerInfo>> getAuthorityIssuerByWeId(
+            String domain,
+            String weId) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[redis->getAuthorityIssuerByWeId] the weId is empty.");
+            return invalidKey();
+        }
+        return queryHash("getAuthorityIssuerByWeId", domain, weId,
+                RedisExecutor.AUTHORITY_ISSUER_MAPPER, driver::checkAuthorityIssuer);
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<RoleValue>> getRole(String domain, String weId) {
+
+        if (StringUtils.isEmpty(weId)) {
+            logger.error("[redis->getRole] the weId is empty.");
+            return invalidKey();
+        }
+        return queryHash("getRole", domain, weId, RedisExecutor.ROLE_MAPPER, driver::checkRole);
+    }
+
+    @Override
+    public CompletableFuture<ResponseData<EvidenceValue>> getEvidenceByHash(
+            String domain,
+            String hash) {
+
+        if (StringUtils.isEmpty(hash)) {
+            logger.error("[redis->getEvidenceByHash] the hash is empty.");
+            return invalidKey();
+        }
+        return queryHash("getEvidenceByHash", domain, hash,
+                RedisExecutor.EVIDENCE_MAPPER, driver::checkEvidence);
+    }
+
+    private <V, T> CompletableFuture<ResponseData<T>> queryHash(
+            String method,
+            String domain,
+            String id,
+            RedisHashMapper<V> mapper,
+            Function<ResponseData<V>, ResponseData<T>> check) {
+
+        return query(method, domain, () -> null, redisDomain ->
+                handOff(new RedisExecutor(redisDomain, driver.client)
+                        .executeHashQueryAsync(id, mapper)
+                        .thenApply(check)));
+    }
+
+    private <T> CompletableFuture<ResponseData<T>> query(
+            String method,
+            String domain,
+            Supplier<T> empty,
+            Function<RedisDomain, CompletableFuture<ResponseData<T>>> query) {
+
+        try {
+            return query.apply(new RedisDomain(domain));
+        } catch (WeIdBaseException e) {
+            logger.error("[redis->{}] {} error.", method, method, e);
+            return CompletableFuture.completedFuture(
+                    new ResponseData<T>(empty.get(), e.getErrorCode()));
+        }
+    }
+
+    private static <T> CompletableFuture<ResponseData<T>> invalidKey() {
+        return CompletableFuture.completedFuture(
+                new ResponseData<T>(null, ErrorCode.PRESISTENCE_DATA_KEY_INVALID));
+    }
+}
@@ -33,7 +33,9 @@ nodes=${BLOCKCHIAN_NODE_INFO}
 #                                                                                                     #
 #######################################################################################################
 # Persistence Layer configurations. Do NOT change this if you are not using Persistence Layer features!
-#Support the persistence of mysql and redis. You can choose the type of persistence.
+#Support the persistence of mysql, redis, embedded and memory. You can choose the type of persistence.
+#embedded keeps the data in a log file under persistence_embedded.dir and needs no database service.
+#memory keeps the data in the process only, it is lost when the process exits.
 persistence_type=${PERSISTENCE_TYPE}
 
 # MySQL connection config
@@ -41,7 +43,7 @@ persistence_type=${PERSISTENCE_TYPE}
 datasource.name=datasource1
 
 # The configuration of each data source is prefixed by the name of the data source.
-datasource1.jdbc.url=jdbc:mysql://${MYSQL_ADDRESS}/${MYSQL_DATABASE}?useUnicode=true&characterEncoding=utf-8&allowMultiQueries=true&useSSL=false&rewriteBatchedStatements=true&serverTimezone=Asia/Shanghai
+datasource1.jdbc.url=jdbc:mysql://${MYSQL_ADDRESS}/${MYSQL_DATABASE}?useUnicode=true&characterEncoding=utf-8&allowMultiQueries=true&useSSL=false&rewriteBatchedStatements=true&useCursorFetch=true&serverTimezone=Asia/Shanghai
 datasource1.jdbc.driver=com.mysql.cj.jdbc.Driver
 datasource1.jdbc.username=${MYSQL_USERNAME}
 datasource1.jdbc.password=${MYSQL_PASSWORD}
@@ -53,6 +55,62 @@ datasource1.jdbc.maxWait=10000
 datasource1.jdbc.timeBetweenEvictionRunsMillis=600000
 datasource1.jdbc.numTestsPerEvictionRun=5
 datasource1.jdbc.minEvictableIdleTimeMillis=1800000
+# Cache prepared statements per connection, combine with useServerPrepStmts=true&cachePrepStmts=true
+# in jdbc.url to reuse server-side statements.
+datasource1.jdbc.poolPreparedStatements=true
+datasource1.jdbc.maxOpenPreparedStatements=100
+# The number of rows committed in one transaction by batch writes.
+datasource1.jdbc.batchChunkSize=200
+# The SQL dialect of the data source, mysql or h2, inferred from jdbc.url if not set.
+# h2 runs in-process (e.g. jdbc:h2:mem:weid or jdbc:h2:./weid-data/weid) for development and tests,
+# the h2 driver jar must be on the classpath.
+#datasource1.jdbc.dialect=mysql
+
+# Read-only replicas of the data source, comma-separated data source names configured like datasource1,
+# e.g. datasource1.jdbc.replicas=replica1,replica2 with replica1.jdbc.url=..., replica1.jdbc.username=...
+# Queries are balanced over healthy replicas, writes always go to datasource1.
+#datasource1.jdbc.replicas=
+
+# Replica reads, a replica failing failure_threshold times in a row is skipped for down_interval milliseconds.
+# With hedge enabled, a read slower than the percentile latency (at least min_delay milliseconds)
+# is sent to another replica as well, and the first result is used. If neither replica answers within
+# timeout milliseconds after hedging, the read goes to the primary. At most threads hedged reads run at once,
+# further reads are not hedged.
+persistence_replica.hedge.enabled=false
+persistence_replica.hedge.percentile=95
+persistence_replica.hedge.min_delay=10
+persistence_replica.hedge.timeout=3000
+persistence_replica.hedge.threads=32
+persistence_replica.failure_threshold=3
+persistence_replica.down_interval=30000
+
+# Expired data sweeper, deletes expired rows of the domain tables in the background.
+# Every interval milliseconds, each domain runs at most max_batches deletes of batch_size rows.
+persistence_sweeper.enabled=true
+persistence_sweeper.interval=600000
+persistence_sweeper.batch_size=500
+persistence_sweeper.max_batches=20
+persistence_sweeper.batch_pause=100
+
+# Id sequence, CPT, policy and presentation ids are reserved from the database in blocks of block_size.
+# Ids left in a block when the process exits are skipped.
+persistence_sequence.block_size=20
+
+# Embedded store config, used when persistence_type=embedded.
+# The log is synced to disk every sync_interval milliseconds, 0 syncs on every write.
+# Every compact_interval milliseconds, a log larger than compact_min_size bytes that has grown to
+# compact_ratio times its size after the last compaction is rewritten with the live data only.
+persistence_embedded.dir=weid-data
+persistence_embedded.sync_interval=1000
+persistence_embedded.compact_interval=60000
+persistence_embedded.compact_min_size=16777216
+persistence_embedded.compact_ratio=2
+
+# Async persistence config. MySQL, embedded and memory run async calls on a fixed pool of worker threads.
+# At most queue_size calls wait for a thread, when the queue is full the caller runs the call itself.
+# Redis reads use the native async client of Redisson.
+persistence_async.threads=16
+persistence_async.queue_size=1024
 
 # Redis config
 # If you want to configure redis in cluster mode, enter multiple node addresses separated by commas.
@@ -66,6 +124,8 @@ redis_cluster.slave_connection_minimum_idle_size=10
 redis_cluster.slave_connection_pool_size=64
 redis_cluster.master_connection_minimum_idle_size=10
 redis_cluster.master_connection_pool_size=64
+# The encoding of the values in default domains, binary or json. Values in the other encoding can still be read.
+redis.value_codec=binary
 
 
 #######################################################################################################
@@ -108,6 +168,7 @@ domain.resourceInfo=datasource1:resource_info
 domain.resourceInfo.timeout=31556908799941
 
 # tables for running locally
+# a mysql table can be sharded by key across datasources, e.g. local.weIdDocument=shard(datasource1,datasource2):table_weid_document
 local.weIdDocument=datasource1:table_weid_document
 local.cpt=datasource1:table_cpt
 local.policy=datasource1:table_policy
@@ -115,7 +176,13 @@ local.presentation=datasource1:table_presentation
 local.role=datasource1:table_role
 local.authorityIssuer=datasource1:table_authority_issuer
 local.specificIssuer=datasource1:table_specific_issuer
+# when not set, local.specificIssuerMember uses the datasource of local.specificIssuer and its table name with the suffix _member
+local.specificIssuerMember=datasource1:table_specific_issuer_member
 local.evidence=datasource1:table_evidence
+# when not set, local.evidenceLog uses the datasource of local.evidence and its table name with the suffix _log
+local.evidenceLog=datasource1:table_evidence_log
+# when not set, local.sequence uses the datasource of local.cpt and its table name with the suffix _sequence
+local.sequence=datasource1:table_sequence
 
 
 #######################################################################################################
@@ -125,6 +192,32 @@ local.evidence=datasource1:table_evidence
 #######################################################################################################
 # You can configure the maximumSize of the default cache module through caffeineCache.maximumSize.xxx.
 caffeineCache.maximumSize.SYS_CPT=100
+# You can configure the expiry (ms) of the default cache module through caffeineCache.expireAfterWrite.xxx.
+# Resolved WeID documents are invalidated on local updates, the expiry bounds staleness across nodes.
+caffeineCache.maximumSize.SYS_WEID_DOCUMENT=1000
+caffeineCache.expireAfterWrite.SYS_WEID_DOCUMENT=60000
+# WeIDs found absent are remembered for a few seconds so repeated lookups skip the chain.
+caffeineCache.maximumSize.SYS_WEID_ABSENT=10000
+caffeineCache.expireAfterWrite.SYS_WEID_ABSENT=5000
+# You can share a cache module across SDK instances through caffeineCache.redis.xxx=true,
+# entries are then also kept in the redis configured by redis.url, so a restarted instance
+# reads them from redis instead of reloading from the chain or database.
+#caffeineCache.redis.SYS_CPT=true
+# Entries not read within caffeineCache.expireAfterAccess.xxx (ms) are evicted early.
+# Loading cache modules such as SYS_CPT reload an entry in the background once it is older than
+# caffeineCache.refreshAfterWrite.xxx (ms), while the old entry keeps being served.
+#caffeineCache.refreshAfterWrite.SYS_CPT=3600000
+# Broadcast cache removals (e.g. on CPT update) to all SDK instances through redis pub/sub,
+# so long expiry times can be used without serving stale entries. Requires redis.url.
+caffeineCache.invalidation.enable=false
+
+# Bloom filter of existing WeIDs, rebuilt from a full scan every rebuild_interval (ms).
+# WeIDs created on other nodes are reported absent until the next rebuild,
+# enable it only with a single writer node or when that delay is acceptable.
+weid.existence_filter.enable=false
+weid.existence_filter.expected_insertions=1000000
+weid.existence_filter.fpp=0.001
+weid.existence_filter.rebuild_interval=3600000
 
 # Salt length for Proof creation.
 salt.length=5
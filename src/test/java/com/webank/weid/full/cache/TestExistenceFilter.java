@@ -0,0 +1,32 @@
+package com.webank.weid.full.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.suite.cache.ExistenceFilter;
+
+public class TestExistenceFilter {
+
+    @Test
+    public void testRebuildAndPut() {
+        ExistenceFilter filter = new ExistenceFilter("Test", 1000, 0.001);
+        Assert.assertTrue(filter.mightContain("did:weid:101:0x1"));
+
+        Assert.assertTrue(filter.rebuild(consumer -> {
+            consumer.accept("did:weid:101:0x1");
+            return true;
+        }));
+        Assert.assertTrue(filter.mightContain("did:weid:101:0x1"));
+        Assert.assertFalse(filter.mightContain("did:weid:101:0x2"));
+
+        filter.put("did:weid:101:0x2");
+        Assert.assertTrue(filter.mightContain("did:weid:101:0x2"));
+    }
+
+    @Test
+    public void testRebuildFailed() {
+        ExistenceFilter filter = new ExistenceFilter("TestFailed", 1000, 0.001);
+        Assert.assertFalse(filter.rebuild(consumer -> false));
+        Assert.assertTrue(filter.mightContain("did:weid:101:0x1"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.webank.weid.full.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.suite.cache.CacheManager;
+import com.webank.weid.suite.cache.LoadingCacheNode;
+
+public class TestLoadingCacheNode {
+
+    @Test
+    public void testSingleFlight() {
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCacheNode<String> cacheNode = CacheManager.registerLoadingCacheNode(
+            "TestSingleFlight", 10000L, key -> {
+                loads.incrementAndGet();
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return key + "-value";
+            });
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> cacheNode.get("key")));
+        }
+        for (CompletableFuture<String> future : futures) {
+            Assert.assertEquals("key-value", future.join());
+        }
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1,
+            CacheManager.getMetrics().get("TestSingleFlight").loadSuccessCount());
+    }
+
+    @Test
+    public void testNullNotCached() {
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCacheNode<String> cacheNode = CacheManager.registerLoadingCacheNode(
+            "TestNullNotCached", 10000L, key -> {
+                loads.incrementAndGet();
+                return null;
+            });
+        Assert.assertNull(cacheNode.get("key"));
+        Assert.assertNull(cacheNode.get("key"));
+        Assert.assertEquals(2, loads.get());
+
+        cacheNode.put("key", "value");
+        Assert.assertEquals("value", cacheNode.get("key"));
+        Assert.assertEquals(1, CacheManager.getMetrics().get("TestNullNotCached").hitCount());
+    }
+}
@@ -0,0 +1,41 @@
+package com.webank.weid.full.persistence.codec;
+
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.suite.persistence.DefaultValue;
+import com.webank.weid.suite.persistence.codec.ValueCodec;
+import com.webank.weid.suite.persistence.codec.ValueCodecFactory;
+
+public class TestValueCodec {
+
+    private static DefaultValue buildValue() {
+        DefaultValue value = new DefaultValue();
+        value.setId("0x1234");
+        value.setData("{\"name\":\"数据\"}");
+        value.setCreated(new Date(1600000000000L));
+        value.setUpdated(new Date(1600000001000L));
+        return value;
+    }
+
+    @Test
+    public void testBinaryRoundTrip() {
+        ValueCodec codec = ValueCodecFactory.build("binary");
+        DefaultValue value = buildValue();
+        byte[] bytes = codec.encode(value);
+        Assert.assertTrue(codec.accept(bytes));
+        Assert.assertEquals(value, codec.decode(bytes));
+        Assert.assertTrue(bytes.length < ValueCodecFactory.build("json").encode(value).length);
+    }
+
+    @Test
+    public void testLookupOtherCodec() {
+        DefaultValue value = buildValue();
+        byte[] json = ValueCodecFactory.build("json").encode(value);
+        Assert.assertFalse(ValueCodecFactory.build("binary").accept(json));
+        Assert.assertEquals(value, ValueCodecFactory.lookup(json).decode(json));
+        Assert.assertNull(ValueCodecFactory.lookup(new byte[]{1, 2, 3}));
+    }
+}
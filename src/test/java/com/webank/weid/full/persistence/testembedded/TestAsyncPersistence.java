@@ -0,0 +1,48 @@
+package com.webank.weid.full.persistence.testembedded;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.base.WeIdDocumentMetadata;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.suite.persistence.AsyncPersistence;
+import com.webank.weid.suite.persistence.CptValue;
+import com.webank.weid.suite.persistence.PersistenceFactory;
+import com.webank.weid.suite.persistence.PersistenceType;
+import com.webank.weid.suite.persistence.embedded.EmbeddedStore;
+
+public class TestAsyncPersistence {
+
+    private static final String WEID = "did:weid:101:0x5678";
+
+    @After
+    public void close() throws IOException {
+        EmbeddedStore.memory().close();
+    }
+
+    @Test
+    public void testFanOut() {
+        AsyncPersistence persistence = PersistenceFactory.buildAsync(PersistenceType.Memory);
+        persistence.submit(driver -> driver.addWeId(
+            DataDriverConstant.LOCAL_WEID_DOCUMENT, WEID, "{}")).join();
+        persistence.submit(driver -> driver.addCpt(
+            DataDriverConstant.LOCAL_CPT, 1000, WEID, "cpt", "{}", "signature")).join();
+
+        CompletableFuture<ResponseData<WeIdDocumentMetadata>> meta =
+            persistence.getMeta(DataDriverConstant.LOCAL_WEID_DOCUMENT, WEID);
+        CompletableFuture<ResponseData<CptValue>> cpt =
+            persistence.getCpt(DataDriverConstant.LOCAL_CPT, 1000);
+        CompletableFuture.allOf(meta, cpt).join();
+        Assert.assertEquals(1, meta.join().getResult().getVersionId());
+        Assert.assertEquals(WEID, cpt.join().getResult().getPublisher());
+        Assert.assertEquals(ErrorCode.CPT_NOT_EXISTS.getCode(),
+            persistence.getCpt(DataDriverConstant.LOCAL_CPT, 1001).join()
+                .getErrorCode().intValue());
+    }
+}
@@ -0,0 +1,192 @@
+package com.webank.weid.full.persistence.testembedded;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.suite.persistence.EvidenceValue;
+import com.webank.weid.suite.persistence.Persistence;
+import com.webank.weid.suite.persistence.embedded.EmbeddedDomain;
+import com.webank.weid.suite.persistence.embedded.EmbeddedExecutor;
+import com.webank.weid.suite.persistence.embedded.EmbeddedStore;
+import com.webank.weid.suite.persistence.embedded.driver.EmbeddedDriver;
+import com.webank.weid.suite.persistence.embedded.driver.MemoryDriver;
+
+public class TestEmbeddedStore {
+
+    private static final String WEID = "did:weid:101:0x1234";
+
+    private Path directory;
+
+    private EmbeddedStore store;
+
+    @Before
+    public void open() throws IOException {
+        directory = Files.createTempDirectory("weid-embedded");
+        store = EmbeddedStore.open(directory.toString());
+    }
+
+    @After
+    public void close() throws IOException {
+        store.close();
+        FileUtils.deleteDirectory(directory.toFile());
+    }
+
+    private Persistence reopen() throws IOException {
+        store.close();
+        store = EmbeddedStore.open(directory.toString());
+        return new EmbeddedDriver(store);
+    }
+
+    @Test
+    public void testRecover() throws IOException {
+        Persistence persistence = new EmbeddedDriver(store);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(),
+            persistence.add(DataDriverConstant.DOMAIN_DEFAULT_INFO, "key", "value")
+                .getErrorCode().intValue());
+        persistence.addWeId(DataDriverConstant.LOCAL_WEID_DOCUMENT, WEID, "{}");
+        persistence.updateWeId(DataDriverConstant.LOCAL_WEID_DOCUMENT, WEID, "{\"v\":2}");
+        long size = store.getLogSize();
+
+        // 模拟写了一半的帧
+        Files.write(directory.resolve("weid.log"), new byte[]{0, 0, 1, 0, 7, 7},
+            StandardOpenOption.APPEND);
+        persistence = reopen();
+        Assert.assertEquals(size, store.getLogSize());
+        Assert.assertEquals("value",
+            persistence.get(DataDriverConstant.DOMAIN_DEFAULT_INFO, "key").getResult());
+        Assert.assertEquals(2, persistence.getMeta(
+            DataDriverConstant.LOCAL_WEID_DOCUMENT, WEID).getResult().getVersionId());
+        Assert.assertEquals(DataDriverConstant.REDISSON_EXECUTE_FAILED_STATUS,
+            persistence.addWeId(DataDriverConstant.LOCAL_WEID_DOCUMENT, WEID, "{}")
+                .getResult().intValue());
+    }
+
+    @Test
+    public void testCorruptedFrame() throws IOException {
+        Persistence persistence = new EmbeddedDriver(store);
+        persistence.add(DataDriverConstant.DOMAIN_DEFAULT_INFO, "key", "value");
+        store.close();
+        Path log = directory.resolve("weid.log");
+        byte[] valid = Files.readAllBytes(log);
+
+        // 校验正确但无法重放的帧, 之后的有效帧不能被截断
+        byte[] garbage = {1, 2, 3};
+        CRC32 crc32 = new CRC32();
+        crc32.update(garbage);
+        ByteBuffer frame = ByteBuffer.allocate(8 + garbage.length);
+        frame.putInt(garbage.length).putInt((int) crc32.getValue()).put(garbage);
+        Files.write(log, frame.array(), StandardOpenOption.APPEND);
+        Files.write(log, valid, StandardOpenOption.APPEND);
+        assertOpenFailed(Files.size(log));
+
+        // 中间的帧校验失败
+        byte[] corrupted = valid.clone();
+        corrupted[corrupted.length - 1] ^= 1;
+        Files.write(log, corrupted);
+        Files.write(log, valid, StandardOpenOption.APPEND);
+        assertOpenFailed(Files.size(log));
+
+        // 中间的帧长度为负数或超过文件末尾
+        for (int length : new int[]{-1, Integer.MAX_VALUE}) {
+            corrupted = valid.clone();
+            ByteBuffer.wrap(corrupted).putInt(0, length);
+            Files.write(log, corrupted);
+            Files.write(log, valid, StandardOpenOption.APPEND);
+            assertOpenFailed(Files.size(log));
+        }
+    }
+
+    private void assertOpenFailed(long size) throws IOException {
+        try {
+            EmbeddedStore.open(directory.toString());
+            Assert.fail();
+        } catch (WeIdBaseException e) {
+            Assert.assertEquals(ErrorCode.PERSISTENCE_GET_CONNECTION_ERROR, e.getErrorCode());
+        }
+        Assert.assertEquals(size, Files.size(directory.resolve("weid.log")));
+    }
+
+    @Test
+    public void testCompact() throws IOException {
+        Persistence persistence = new EmbeddedDriver(store);
+        for (int i = 0; i < 100; i++) {
+            persistence.addOrUpdate(DataDriverConstant.DOMAIN_DEFAULT_INFO, "key", "value" + i);
+        }
+        persistence.delete(DataDriverConstant.DOMAIN_DEFAULT_INFO, "key");
+        persistence.add(DataDriverConstant.DOMAIN_DEFAULT_INFO, "other", "value");
+        long size = store.getLogSize();
+        store.compact();
+        Assert.assertTrue(store.getLogSize() < size / 10);
+        Assert.assertFalse(new File(directory.toFile(), "weid.log.compact").exists());
+
+        persistence = reopen();
+        Assert.assertEquals("",
+            persistence.get(DataDriverConstant.DOMAIN_DEFAULT_INFO, "key").getResult());
+        Assert.assertEquals("value",
+            persistence.get(DataDriverConstant.DOMAIN_DEFAULT_INFO, "other").getResult());
+    }
+
+    @Test
+    public void testSharedExtraKey() throws IOException {
+        Persistence persistence = new EmbeddedDriver(store);
+        for (String hash : new String[]{"0x2", "0x1"}) {
+            Assert.assertEquals(ErrorCode.SUCCESS.getCode(), persistence.addEvidenceByHash(
+                DataDriverConstant.LOCAL_EVIDENCE, hash, "signer", "signature", "log", "1", "0",
+                "key", "1").getErrorCode().intValue());
+        }
+        assertExtraKey(Arrays.asList("0x1", "0x2"), "key");
+        Assert.assertEquals("0x1", persistence.getEvidenceByExtraKey(
+            DataDriverConstant.LOCAL_EVIDENCE, "key").getResult().getHash());
+
+        persistence.updateEvidenceExtraKey(DataDriverConstant.LOCAL_EVIDENCE, "0x1", "other");
+        assertExtraKey(Collections.singletonList("0x2"), "key");
+        store.compact();
+        persistence = reopen();
+        assertExtraKey(Collections.singletonList("0x2"), "key");
+        assertExtraKey(Collections.singletonList("0x1"), "other");
+        Assert.assertEquals("0x2", persistence.getEvidenceByExtraKey(
+            DataDriverConstant.LOCAL_EVIDENCE, "key").getResult().getHash());
+    }
+
+    private void assertExtraKey(List<String> hashes, String extraKey) {
+        List<EvidenceValue> evidences = new EmbeddedExecutor(
+            new EmbeddedDomain(DataDriverConstant.LOCAL_EVIDENCE), store,
+            Collections.singleton("extra_key"))
+            .executeIndexQuery("extra_key", extraKey, EmbeddedExecutor.EVIDENCE_MAPPER)
+            .getResult();
+        Assert.assertEquals(hashes.size(), evidences.size());
+        for (int i = 0; i < hashes.size(); i++) {
+            Assert.assertEquals(hashes.get(i), evidences.get(i).getHash());
+        }
+    }
+
+    @Test
+    public void testMemory() throws IOException {
+        Persistence persistence = new MemoryDriver();
+        persistence.addWeId(DataDriverConstant.LOCAL_WEID_DOCUMENT, WEID, "{}");
+        Assert.assertEquals(1, new MemoryDriver().getWeIdCount(
+            DataDriverConstant.LOCAL_WEID_DOCUMENT).getResult().intValue());
+        Assert.assertEquals(0L, EmbeddedStore.memory().getLogSize());
+
+        EmbeddedStore.memory().close();
+        Assert.assertEquals(0, new MemoryDriver().getWeIdCount(
+            DataDriverConstant.LOCAL_WEID_DOCUMENT).getResult().intValue());
+    }
+}
@@ -0,0 +1,52 @@
+package com.webank.weid.full.persistence.testembedded;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.suite.persistence.Persistence;
+import com.webank.weid.suite.persistence.embedded.EmbeddedStore;
+import com.webank.weid.suite.persistence.embedded.driver.MemoryDriver;
+
+public class TestInsertIfAbsent {
+
+    private static final String WEID = "did:weid:101:0x9abc";
+
+    private static final String HASH = "0x9abc";
+
+    @After
+    public void close() throws IOException {
+        EmbeddedStore.memory().close();
+    }
+
+    @Test
+    public void testIfAbsent() {
+        Persistence persistence = new MemoryDriver();
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), persistence.addWeIdIfAbsent(
+            DataDriverConstant.LOCAL_WEID_DOCUMENT, WEID, "{}").getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.WEID_ALREADY_EXIST.getCode(), persistence.addWeIdIfAbsent(
+            DataDriverConstant.LOCAL_WEID_DOCUMENT, WEID, "{}").getErrorCode().intValue());
+
+        Assert.assertEquals(1001, persistence.addCptIfAbsent(DataDriverConstant.LOCAL_CPT,
+            1001, WEID, "cpt", "{}", "signature").getResult().getCptId().intValue());
+        Assert.assertEquals(ErrorCode.CPT_ALREADY_EXIST.getCode(), persistence.addCptIfAbsent(
+            DataDriverConstant.LOCAL_CPT, 1001, WEID, "cpt", "{}", "signature")
+            .getErrorCode().intValue());
+
+        ResponseData<Integer> evidences = persistence.executeInUnit(driver -> {
+            driver.addEvidenceByHashIfAbsent(DataDriverConstant.LOCAL_EVIDENCE,
+                HASH, WEID, "signature", "log", "0", "0", "1");
+            return driver.addEvidenceByHashIfAbsent(DataDriverConstant.LOCAL_EVIDENCE,
+                HASH, WEID, "signature", "log", "0", "0", "1");
+        });
+        Assert.assertEquals(ErrorCode.CREDENTIAL_EVIDENCE_ALREADY_EXISTS.getCode(),
+            evidences.getErrorCode().intValue());
+        Assert.assertEquals(WEID, persistence.getEvidenceByHash(
+            DataDriverConstant.LOCAL_EVIDENCE, HASH).getResult().getSigners());
+    }
+}
@@ -0,0 +1,92 @@
+package com.webank.weid.full.persistence.testh2;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * 在独立的类加载器中运行使用内存H2数据库的测试场景.
+ * 连接池, 配置和表缓存都是静态的, 独立加载后每个场景都从冷启动开始, 且不影响同一JVM中的其他测试.
+ */
+public final class H2Sandbox {
+
+    private H2Sandbox() {
+    }
+
+    /**
+     * 以给定配置作为weidentity.properties运行场景.
+     *
+     * @param properties 场景使用的配置
+     * @param scenario 场景类, 需要有无参构造方法
+     */
+    public static void run(Properties properties, Class<? extends Runnable> scenario)
+        throws Exception {
+
+        Path directory = Files.createTempDirectory("weid-h2");
+        try {
+            try (OutputStream out =
+                Files.newOutputStream(directory.resolve("weidentity.properties"))) {
+                properties.store(out, null);
+            }
+            try (InputStream in = H2Sandbox.class.getClassLoader()
+                .getResourceAsStream("fisco.properties")) {
+                if (in != null) {
+                    Files.copy(in, directory.resolve("fisco.properties"),
+                        StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    Files.createFile(directory.resolve("fisco.properties"));
+                }
+            }
+            List<URL> urls = new ArrayList<URL>();
+            urls.add(directory.toUri().toURL());
+            for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+                urls.add(new File(path).toURI().toURL());
+            }
+            // 不关闭类加载器, 场景中的日志组件在JVM退出时仍需从中加载类
+            URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[0]),
+                ClassLoader.getSystemClassLoader().getParent());
+            Thread thread = Thread.currentThread();
+            ClassLoader original = thread.getContextClassLoader();
+            thread.setContextClassLoader(loader);
+            try {
+                ((Runnable) loader.loadClass(scenario.getName())
+                    .getDeclaredConstructor().newInstance()).run();
+            } finally {
+                thread.setContextClassLoader(original);
+            }
+        } finally {
+            FileUtils.deleteQuietly(directory.toFile());
+        }
+    }
+
+    /**
+     * 基础配置, 数据源为内存H2数据库, 按数据库模式部署.
+     *
+     * @param dataSources 数据源名称, 每个数据源对应一个独立的内存库
+     * @return 返回配置
+     */
+    public static Properties baseProperties(String... dataSources) {
+        Properties properties = new Properties();
+        properties.setProperty("deploy.style", "database");
+        properties.setProperty("persistence_type", "mysql");
+        properties.setProperty("blockchain.orgid", "test");
+        properties.setProperty("datasource.name", String.join(",", dataSources));
+        for (String dataSource : dataSources) {
+            properties.setProperty(dataSource + ".jdbc.url",
+                "jdbc:h2:mem:" + dataSource + "_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+            properties.setProperty(dataSource + ".jdbc.username", "sa");
+            properties.setProperty(dataSource + ".jdbc.password", "");
+        }
+        return properties;
+    }
+}
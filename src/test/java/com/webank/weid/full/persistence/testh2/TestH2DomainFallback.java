@@ -0,0 +1,95 @@
+package com.webank.weid.full.persistence.testh2;
+
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.suite.persistence.EvidenceLogValue;
+import com.webank.weid.suite.persistence.Persistence;
+import com.webank.weid.suite.persistence.mysql.SqlDomain;
+import com.webank.weid.suite.persistence.mysql.driver.MysqlDriver;
+
+/**
+ * 沿用旧版本配置升级时, 新增的本地表未配置, 由所依附的表推导数据源和表名.
+ */
+public class TestH2DomainFallback {
+
+    @Test
+    public void testDerivedDomains() throws Exception {
+        Properties properties = H2Sandbox.baseProperties("datasource1");
+        properties.setProperty(DataDriverConstant.LOCAL_ROLE, "datasource1:table_role");
+        properties.setProperty(DataDriverConstant.LOCAL_EVIDENCE, "datasource1:table_evidence");
+        properties.setProperty(DataDriverConstant.LOCAL_SPECIFIC_ISSUER,
+            "datasource1:table_specific_issuer");
+        properties.setProperty(DataDriverConstant.LOCAL_CPT, "datasource1:table_cpt");
+        H2Sandbox.run(properties, FallbackScenario.class);
+    }
+
+    public static class FallbackScenario implements Runnable {
+
+        @Override
+        public void run() {
+            Persistence persistence = new MysqlDriver();
+            testEvidenceLog(persistence);
+            testSpecificIssuerMember(persistence);
+            testSequence(persistence);
+        }
+
+        private static void testEvidenceLog(Persistence persistence) {
+            Assert.assertEquals("table_evidence_log",
+                SqlDomain.resolve(DataDriverConstant.LOCAL_EVIDENCE_LOG).getTableDomain());
+            EvidenceLogValue evidenceLog = new EvidenceLogValue();
+            evidenceLog.setHash("0x1");
+            evidenceLog.setType(EvidenceLogValue.TYPE_LOG);
+            evidenceLog.setSigner("signer");
+            evidenceLog.setSignature("signature");
+            evidenceLog.setLog("log");
+            evidenceLog.setUpdated("1");
+            evidenceLog.setRevoked("0");
+            assertSuccess(persistence.addEvidenceLog(
+                DataDriverConstant.LOCAL_EVIDENCE_LOG, evidenceLog));
+            List<EvidenceLogValue> logs = persistence.getEvidenceLogs(
+                DataDriverConstant.LOCAL_EVIDENCE_LOG, "0x1").getResult();
+            Assert.assertEquals(1, logs.size());
+            Assert.assertEquals("log", logs.get(0).getLog());
+        }
+
+        private static void testSpecificIssuerMember(Persistence persistence) {
+            Assert.assertEquals("table_specific_issuer_member", SqlDomain.resolve(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER).getTableDomain());
+            assertSuccess(persistence.addSpecificTypeIssuer(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, "college", "0x2"));
+            // 重复添加的成员被忽略
+            Assert.assertEquals(0, persistence.addSpecificTypeIssuer(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, "college", "0x2")
+                .getResult().intValue());
+            Assert.assertTrue(persistence.isSpecificTypeIssuer(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, "college", "0x2").getResult());
+            // 不是成员时区分类型是否还有其他成员
+            Assert.assertFalse(persistence.isSpecificTypeIssuer(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, "college", "0x3").getResult());
+            Assert.assertNull(persistence.isSpecificTypeIssuer(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, "school", "0x2").getResult());
+            Assert.assertEquals(1, persistence.getSpecificTypeIssuerCount(
+                DataDriverConstant.LOCAL_SPECIFIC_ISSUER_MEMBER, "college").getResult().intValue());
+        }
+
+        private static void testSequence(Persistence persistence) {
+            Assert.assertEquals("table_cpt_sequence",
+                SqlDomain.resolve(DataDriverConstant.LOCAL_SEQUENCE).getTableDomain());
+            Assert.assertEquals(1000, persistence.allocateSequence(
+                DataDriverConstant.LOCAL_SEQUENCE, "cpt", 1000, 10).getResult().intValue());
+            Assert.assertEquals(1010, persistence.allocateSequence(
+                DataDriverConstant.LOCAL_SEQUENCE, "cpt", 1000, 10).getResult().intValue());
+        }
+
+        private static void assertSuccess(ResponseData<?> response) {
+            Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        }
+    }
+}
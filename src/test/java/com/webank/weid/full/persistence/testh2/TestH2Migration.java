@@ -0,0 +1,101 @@
+package com.webank.weid.full.persistence.testh2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.suite.persistence.mysql.SchemaMigration;
+import com.webank.weid.suite.persistence.mysql.SchemaMigrator;
+import com.webank.weid.suite.persistence.mysql.SqlDomain;
+import com.webank.weid.suite.persistence.mysql.SqlExecutor;
+import com.webank.weid.suite.persistence.mysql.driver.MysqlDriver;
+
+public class TestH2Migration {
+
+    private static final int NODES = 8;
+
+    private static final String SQL_QUERY_VERSIONS =
+        "select version from `weidentity_schema_version` "
+            + "where table_name = ? and version >= 100 order by version";
+
+    @Test
+    public void testConcurrentMigrate() throws Exception {
+        Properties properties = H2Sandbox.baseProperties("datasource1");
+        properties.setProperty(DataDriverConstant.LOCAL_WEID_DOCUMENT,
+            "datasource1:table_weid_document");
+        properties.setProperty(DataDriverConstant.LOCAL_ROLE, "datasource1:table_role");
+        H2Sandbox.run(properties, MigrateScenario.class);
+    }
+
+    public static class MigrateScenario implements Runnable {
+
+        @Override
+        public void run() {
+            new MysqlDriver();
+            migrateConcurrently(Arrays.asList(
+                SchemaMigration.addIndex(100, "idx_test_created", "created"),
+                SchemaMigration.addIndex(101, "idx_test_updated", "updated")));
+
+            SqlDomain sqlDomain = SqlDomain.resolve(DataDriverConstant.LOCAL_WEID_DOCUMENT);
+            SqlExecutor sqlExecutor = new SqlExecutor(sqlDomain);
+            Assert.assertEquals(Arrays.asList(100, 101), queryVersions(sqlExecutor, sqlDomain));
+            assertIndexExists(sqlExecutor, "idx_test_created");
+            assertIndexExists(sqlExecutor, "idx_test_updated");
+
+            // 已执行的版本不再执行, 迁移语句无效也不会报错
+            migrateConcurrently(Arrays.asList(
+                new SchemaMigration(100, "executed again", null, "invalid sql"),
+                new SchemaMigration(101, "executed again", null, "invalid sql")));
+            Assert.assertEquals(Arrays.asList(100, 101), queryVersions(sqlExecutor, sqlDomain));
+        }
+
+        // 模拟多个节点同时启动并执行同一组迁移
+        private static void migrateConcurrently(List<SchemaMigration> migrations) {
+            ExecutorService executor = Executors.newFixedThreadPool(NODES);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < NODES; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    new SchemaMigrator(SqlDomain.resolve(DataDriverConstant.LOCAL_WEID_DOCUMENT))
+                        .migrate(migrations);
+                    return null;
+                }));
+            }
+            start.countDown();
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new AssertionError(e);
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        private static List<Integer> queryVersions(SqlExecutor sqlExecutor, SqlDomain sqlDomain) {
+            ResponseData<List<Integer>> response = sqlExecutor.executeQueryList(
+                SQL_QUERY_VERSIONS, SqlExecutor.INTEGER_MAPPER, sqlDomain.getTableName());
+            Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+            return response.getResult();
+        }
+
+        private static void assertIndexExists(SqlExecutor sqlExecutor, String indexName) {
+            Assert.assertNotNull(sqlExecutor.executeQuery(
+                sqlExecutor.getDialect().getCheckIndexSql(), indexName).getResult());
+        }
+    }
+}
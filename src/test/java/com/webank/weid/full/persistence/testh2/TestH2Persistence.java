@@ -0,0 +1,122 @@
+package com.webank.weid.full.persistence.testh2;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.suite.persistence.Persistence;
+import com.webank.weid.suite.persistence.WeIdDocumentValue;
+import com.webank.weid.suite.persistence.mysql.SqlDomain;
+import com.webank.weid.suite.persistence.mysql.SqlExecutor;
+import com.webank.weid.suite.persistence.mysql.driver.MysqlDriver;
+
+/**
+ * 在内存H2数据库上执行MysqlDriver, 覆盖方言翻译后的建表, 插入或更新, 分页和批量删除语句.
+ */
+public class TestH2Persistence {
+
+    private static final String DEFAULT_DOMAIN = "domain.defaultInfo";
+
+    private static final String EXPIRING_DOMAIN = "domain.expiring";
+
+    private static final String WEID_PREFIX = "did:weid:101:0x";
+
+    @Test
+    public void testMysqlDriver() throws Exception {
+        Properties properties = H2Sandbox.baseProperties("datasource1");
+        properties.setProperty(DEFAULT_DOMAIN, "datasource1:default_info");
+        properties.setProperty(EXPIRING_DOMAIN, "datasource1:expiring_info");
+        properties.setProperty(EXPIRING_DOMAIN + ".timeout", "1");
+        properties.setProperty(DataDriverConstant.LOCAL_WEID_DOCUMENT,
+            "datasource1:table_weid_document");
+        properties.setProperty(DataDriverConstant.LOCAL_ROLE, "datasource1:table_role");
+        properties.setProperty(DataDriverConstant.SWEEPER_ENABLED, "false");
+        H2Sandbox.run(properties, DriverScenario.class);
+    }
+
+    public static class DriverScenario implements Runnable {
+
+        @Override
+        public void run() {
+            Persistence persistence = new MysqlDriver();
+            testDefaultDomain(persistence);
+            testWeIds(persistence);
+            testDeleteExpired(persistence);
+        }
+
+        private static void testDefaultDomain(Persistence persistence) {
+            assertSuccess(persistence.add(DEFAULT_DOMAIN, "id1", "v1"));
+            assertSuccess(persistence.addOrUpdate(DEFAULT_DOMAIN, "id1", "v2"));
+            assertSuccess(persistence.addOrUpdate(DEFAULT_DOMAIN, "id2", "v3"));
+            Assert.assertEquals("v2", persistence.get(DEFAULT_DOMAIN, "id1").getResult());
+            Assert.assertEquals("v3", persistence.get(DEFAULT_DOMAIN, "id2").getResult());
+        }
+
+        private static void testWeIds(Persistence persistence) {
+            String domain = DataDriverConstant.LOCAL_WEID_DOCUMENT;
+            for (int i = 0; i < 5; i++) {
+                assertSuccess(persistence.addWeId(domain, WEID_PREFIX + i, "{}"));
+            }
+            Assert.assertEquals(ErrorCode.WEID_ALREADY_EXIST.getCode(), persistence
+                .addWeIdIfAbsent(domain, WEID_PREFIX + 0, "{}").getErrorCode().intValue());
+
+            // 已停用的weid不被更新
+            SqlExecutor sqlExecutor = new SqlExecutor(SqlDomain.resolve(domain));
+            Assert.assertEquals(1, sqlExecutor.execute(SqlExecutor.SQL_UPDATE_WEID,
+                new Date(), 1, 1, "{}", WEID_PREFIX + 1).getResult().intValue());
+            assertSuccess(persistence.batchAddOrUpdateWeIds(domain, Arrays.asList(
+                newWeIdDocument(WEID_PREFIX + 0), newWeIdDocument(WEID_PREFIX + 1),
+                newWeIdDocument(WEID_PREFIX + 9))));
+            Map<String, WeIdDocumentValue> documents = persistence.getWeIdDocuments(domain,
+                Arrays.asList(WEID_PREFIX + 0, WEID_PREFIX + 1, WEID_PREFIX + 9)).getResult();
+            Assert.assertEquals(2, documents.get(WEID_PREFIX + 0).getVersion());
+            Assert.assertEquals("{\"new\":1}",
+                documents.get(WEID_PREFIX + 0).getDocument_schema());
+            Assert.assertEquals(1, documents.get(WEID_PREFIX + 1).getVersion());
+            Assert.assertEquals("{}", documents.get(WEID_PREFIX + 1).getDocument_schema());
+            Assert.assertEquals(1, documents.get(WEID_PREFIX + 9).getVersion());
+
+            Assert.assertEquals(6, persistence.getWeIdCount(domain).getResult().intValue());
+            Assert.assertEquals(3, persistence.getWeIdList(domain, 2, 4).getResult().size());
+            List<String> after = persistence.getWeIdListAfter(domain, WEID_PREFIX + 0, 2)
+                .getResult();
+            Assert.assertEquals(Arrays.asList(WEID_PREFIX + 1, WEID_PREFIX + 2), after);
+        }
+
+        private static void testDeleteExpired(Persistence persistence) {
+            for (int i = 0; i < 3; i++) {
+                assertSuccess(persistence.add(EXPIRING_DOMAIN, "expired" + i, "v"));
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            SqlExecutor sqlExecutor = new SqlExecutor(SqlDomain.resolve(EXPIRING_DOMAIN));
+            Date now = new Date();
+            Assert.assertEquals(2, sqlExecutor
+                .execute(SqlExecutor.SQL_DELETE_EXPIRED, now, 2).getResult().intValue());
+            Assert.assertEquals(1, sqlExecutor
+                .execute(SqlExecutor.SQL_DELETE_EXPIRED, now, 2).getResult().intValue());
+        }
+
+        private static WeIdDocumentValue newWeIdDocument(String weId) {
+            WeIdDocumentValue value = new WeIdDocumentValue();
+            value.setWeid(weId);
+            value.setDocument_schema("{\"new\":1}");
+            return value;
+        }
+
+        private static void assertSuccess(ResponseData<?> response) {
+            Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.webank.weid.full.persistence.testh2;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.suite.persistence.Persistence;
+import com.webank.weid.suite.persistence.mysql.ConnectionPool;
+import com.webank.weid.suite.persistence.mysql.SqlDomain;
+import com.webank.weid.suite.persistence.mysql.driver.MysqlDriver;
+
+public class TestH2Shard {
+
+    @Test
+    public void testInitShards() throws Exception {
+        Properties properties = H2Sandbox.baseProperties("datasource1", "datasource2");
+        properties.setProperty(DataDriverConstant.LOCAL_WEID_DOCUMENT,
+            "shard(datasource1,datasource2):table_weid_document");
+        properties.setProperty(DataDriverConstant.LOCAL_ROLE, "datasource1:table_role");
+        H2Sandbox.run(properties, ShardScenario.class);
+    }
+
+    public static class ShardScenario implements Runnable {
+
+        @Override
+        public void run() {
+            Persistence persistence = new MysqlDriver();
+            for (int i = 0; i < 20; i++) {
+                Assert.assertEquals(ErrorCode.SUCCESS.getCode(), persistence.addWeId(
+                    DataDriverConstant.LOCAL_WEID_DOCUMENT, "did:weid:101:0x" + i, "{}")
+                    .getErrorCode().intValue());
+            }
+            Assert.assertEquals(20, persistence.getWeIdCount(
+                DataDriverConstant.LOCAL_WEID_DOCUMENT).getResult().intValue());
+            List<SqlDomain> shards =
+                SqlDomain.resolve(DataDriverConstant.LOCAL_WEID_DOCUMENT).getShards();
+            Assert.assertEquals(2, shards.size());
+            int shard1 = count(shards.get(0));
+            int shard2 = count(shards.get(1));
+            Assert.assertTrue(shard1 > 0 && shard2 > 0);
+            Assert.assertEquals(20, shard1 + shard2);
+        }
+
+        private static int count(SqlDomain shard) {
+            Connection conn = ConnectionPool.getConnection(shard.getBaseDomain());
+            try (Statement statement = conn.createStatement();
+                ResultSet rs = statement.executeQuery(
+                    "select count(*) from " + shard.getTableName())) {
+                rs.next();
+                return rs.getInt(1);
+            } catch (SQLException e) {
+                throw new AssertionError(e);
+            } finally {
+                ConnectionPool.close(conn);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.webank.weid.full.persistence.testh2;
+
+import java.util.Properties;
+import java.util.function.BooleanSupplier;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.suite.persistence.Persistence;
+import com.webank.weid.suite.persistence.mysql.ExpiredDataSweeper;
+import com.webank.weid.suite.persistence.mysql.ExpiredDataSweeper.SweepMetrics;
+import com.webank.weid.suite.persistence.mysql.SqlDomain;
+import com.webank.weid.suite.persistence.mysql.SqlExecutor;
+import com.webank.weid.suite.persistence.mysql.driver.MysqlDriver;
+
+/**
+ * 在内存H2数据库上运行过期数据清理器, 覆盖分批删除, 清理统计以及单个domain失败后继续清理.
+ */
+public class TestH2Sweeper {
+
+    private static final String EXPIRING_DOMAIN = "domain.expiring";
+
+    private static final String DROPPED_DOMAIN = "domain.dropped";
+
+    private static final long WAIT_TIMEOUT = 10000L;
+
+    @Test
+    public void testSweep() throws Exception {
+        Properties properties = H2Sandbox.baseProperties("datasource1");
+        properties.setProperty(EXPIRING_DOMAIN, "datasource1:expiring_info");
+        properties.setProperty(EXPIRING_DOMAIN + ".timeout", "1");
+        properties.setProperty(DROPPED_DOMAIN, "datasource1:dropped_info");
+        properties.setProperty(DataDriverConstant.LOCAL_ROLE, "datasource1:table_role");
+        properties.setProperty(DataDriverConstant.SWEEPER_INTERVAL, "50");
+        properties.setProperty(DataDriverConstant.SWEEPER_BATCH_SIZE, "2");
+        properties.setProperty(DataDriverConstant.SWEEPER_BATCH_PAUSE, "0");
+        H2Sandbox.run(properties, SweepScenario.class);
+    }
+
+    public static class SweepScenario implements Runnable {
+
+        @Override
+        public void run() {
+            Persistence persistence = new MysqlDriver();
+            try {
+                // 表被删除的domain每次清理都失败, 不影响其他domain, 也不会终止清理器
+                Assert.assertEquals(ErrorCode.SUCCESS.getCode(), new SqlExecutor(
+                    SqlDomain.resolve(DROPPED_DOMAIN)).execute("drop table $1")
+                    .getErrorCode().intValue());
+                addExpired(persistence, "first", 3);
+                SweepMetrics expiring = ExpiredDataSweeper.getMetrics().get(EXPIRING_DOMAIN);
+                SweepMetrics dropped = ExpiredDataSweeper.getMetrics().get(DROPPED_DOMAIN);
+                waitFor(() -> expiring.getSweptRows() == 3 && dropped.getFailedRuns() > 0);
+
+                long failedRuns = dropped.getFailedRuns();
+                addExpired(persistence, "second", 2);
+                waitFor(() -> expiring.getSweptRows() == 5 && dropped.getFailedRuns() > failedRuns);
+                Assert.assertEquals(0, dropped.getSweepRuns());
+                Assert.assertTrue(expiring.getSweepRuns() > 0);
+                Assert.assertTrue(expiring.getLastSweepTime() > 0);
+                Assert.assertEquals(0, expiring.getFailedRuns());
+                Assert.assertTrue(StringUtils.isEmpty(
+                    persistence.get(EXPIRING_DOMAIN, "second0").getResult()));
+            } finally {
+                ExpiredDataSweeper.stop();
+            }
+        }
+
+        private static void addExpired(Persistence persistence, String prefix, int count) {
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(ErrorCode.SUCCESS.getCode(), persistence
+                    .add(EXPIRING_DOMAIN, prefix + i, "v").getErrorCode().intValue());
+            }
+        }
+
+        private static void waitFor(BooleanSupplier condition) {
+            long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+            while (!condition.getAsBoolean()) {
+                Assert.assertTrue("wait for the sweeper timeout",
+                    System.currentTimeMillis() < deadline);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new AssertionError(e);
+                }
+            }
+        }
+    }
+}
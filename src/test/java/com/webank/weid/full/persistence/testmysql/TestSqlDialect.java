@@ -0,0 +1,72 @@
+package com.webank.weid.full.persistence.testmysql;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.webank.weid.suite.persistence.mysql.H2Dialect;
+import com.webank.weid.suite.persistence.mysql.MysqlDialect;
+import com.webank.weid.suite.persistence.mysql.SqlDialect;
+import com.webank.weid.suite.persistence.mysql.SqlExecutor;
+
+public class TestSqlDialect {
+
+    private static final String CREATE_TABLE_SQL =
+        "CREATE TABLE `$1` ("
+            + "`id` bigint NOT NULL AUTO_INCREMENT COMMENT 'add order',"
+            + "`type_name` varchar(60) NOT NULL COMMENT 'type name',"
+            + "`issuer` varchar(100) UNIQUE DEFAULT NULL COMMENT 'issuer',"
+            + "`fellow` blob DEFAULT NULL COMMENT 'fellow',"
+            + "PRIMARY KEY (`id`), "
+            + "UNIQUE KEY `uk_type_issuer` (`type_name`, `issuer`), "
+            + "KEY `idx_type_id` (`type_name`, `id`) "
+            + ") ENGINE=InnoDB DEFAULT CHARSET=utf8 COMMENT='the member table'";
+
+    @Test
+    public void testMysqlKeepsTemplate() {
+        SqlDialect dialect = new MysqlDialect();
+        Assert.assertEquals(SqlExecutor.SQL_QUERY_SEVERAL_WEID,
+            dialect.translate(SqlExecutor.SQL_QUERY_SEVERAL_WEID));
+        Assert.assertEquals(1, dialect.createTable(CREATE_TABLE_SQL).size());
+        Assert.assertEquals("jdbc:mysql://db/weid?useSSL=false&rewriteBatchedStatements=true",
+            dialect.decorateUrl("jdbc:mysql://db/weid?useSSL=false"));
+        Assert.assertEquals("jdbc:mysql://db/weid?rewriteBatchedStatements=false",
+            dialect.decorateUrl("jdbc:mysql://db/weid?rewriteBatchedStatements=false"));
+    }
+
+    @Test
+    public void testH2Paging() {
+        SqlDialect dialect = new H2Dialect();
+        Assert.assertEquals("select weid from $1 OFFSET ? ROWS FETCH NEXT ? ROWS ONLY",
+            dialect.translate(SqlExecutor.SQL_QUERY_SEVERAL_WEID));
+        Assert.assertEquals(
+            "select weid from $1 where weid > ? order by weid FETCH FIRST ? ROWS ONLY",
+            dialect.translate(SqlExecutor.SQL_QUERY_WEID_AFTER));
+        Assert.assertEquals(
+            "select 1 from $1 where type_name = ? and issuer = ? FETCH FIRST 1 ROWS ONLY",
+            dialect.translate(SqlExecutor.SQL_QUERY_SPECIFIC_TYPE_ISSUER));
+        Assert.assertEquals(
+            "delete from $1 where expire is not null and expire < ? FETCH FIRST ? ROWS ONLY",
+            dialect.translate(SqlExecutor.SQL_DELETE_EXPIRED));
+        Assert.assertEquals("jdbc:h2:mem:weid;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+            dialect.decorateUrl("jdbc:h2:mem:weid"));
+    }
+
+    @Test
+    public void testH2CreateTable() {
+        List<String> ddl = new H2Dialect().createTable(CREATE_TABLE_SQL);
+        Assert.assertEquals(2, ddl.size());
+        Assert.assertEquals("CREATE TABLE $1 ("
+                + "id bigint GENERATED BY DEFAULT AS IDENTITY NOT NULL,"
+                + "type_name varchar(60) NOT NULL,"
+                + "issuer varchar(100) UNIQUE,"
+                + "fellow clob,"
+                + "PRIMARY KEY (id), "
+                + "CONSTRAINT $1_uk_type_issuer UNIQUE (type_name, issuer) "
+                + ")",
+            ddl.get(0));
+        Assert.assertEquals("CREATE INDEX IF NOT EXISTS $1_idx_type_id ON $1 (type_name, id)",
+            ddl.get(1));
+    }
+}
@@ -0,0 +1,96 @@
+package com.webank.weid.full.persistence.testredis;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.codec.Kryo5Codec;
+
+import com.webank.weid.suite.cache.CacheManager;
+import com.webank.weid.suite.cache.CacheNode;
+import com.webank.weid.suite.cache.LoadingCacheNode;
+import com.webank.weid.suite.persistence.redis.RedissonConfig;
+
+/**
+ * redis二级缓存, 依赖weidentity.properties中redis.url配置的redis,
+ * 以及caffeineCache.redis.TestRedisTier和caffeineCache.redis.TestRedisLoadingTier开启二级缓存.
+ */
+public class TestRedisCacheTier {
+
+    private static final String CACHE_NAME = "TestRedisTier";
+
+    private static final String LOADING_CACHE_NAME = "TestRedisLoadingTier";
+
+    private static RedissonClient client;
+
+    private static CacheNode<String> cacheNode;
+
+    private static LoadingCacheNode<String> loadingCacheNode;
+
+    private static final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeClass
+    public static void init() {
+        client = new RedissonConfig().redismodelRecognition();
+        cacheNode = CacheManager.registerCacheNode(CACHE_NAME, 10000L, 100);
+        loadingCacheNode = CacheManager.registerLoadingCacheNode(
+            LOADING_CACHE_NAME, 10000L, key -> {
+                loads.incrementAndGet();
+                return key + "-loaded";
+            });
+    }
+
+    @AfterClass
+    public static void destroy() {
+        cacheNode.removeAll();
+        loadingCacheNode.removeAll();
+        client.shutdown();
+    }
+
+    @Test
+    public void testWriteThrough() {
+        String key = "put" + System.nanoTime();
+        cacheNode.put(key, "value");
+        Assert.assertEquals("value", getBucket(CACHE_NAME, key).get());
+
+        cacheNode.remove(key);
+        Assert.assertNull(getBucket(CACHE_NAME, key).get());
+        Assert.assertNull(cacheNode.get(key));
+    }
+
+    @Test
+    public void testBackfill() {
+        // 其他实例写入的二级缓存, 本地一级缓存未命中时读取并回填
+        String key = "backfill" + System.nanoTime();
+        getBucket(CACHE_NAME, key).set("shared");
+        Assert.assertEquals("shared", cacheNode.get(key));
+
+        getBucket(CACHE_NAME, key).delete();
+        Assert.assertEquals("shared", cacheNode.get(key));
+        Assert.assertTrue(CacheManager.getMetrics().get(CACHE_NAME).hitCount() > 0);
+        cacheNode.remove(key);
+    }
+
+    @Test
+    public void testLoadingBackfill() {
+        String shared = "shared" + System.nanoTime();
+        getBucket(LOADING_CACHE_NAME, shared).set("from-redis");
+        int before = loads.get();
+        Assert.assertEquals("from-redis", loadingCacheNode.get(shared));
+        Assert.assertEquals(before, loads.get());
+
+        // 两级缓存均未命中时调用加载方法, 加载结果写入二级缓存
+        String missing = "missing" + System.nanoTime();
+        Assert.assertEquals(missing + "-loaded", loadingCacheNode.get(missing));
+        Assert.assertEquals(before + 1, loads.get());
+        Assert.assertEquals(missing + "-loaded", getBucket(LOADING_CACHE_NAME, missing).get());
+    }
+
+    private static RBucket<String> getBucket(String cacheName, String key) {
+        return client.getBucket("weid_cache:" + cacheName + ":" + key, new Kryo5Codec());
+    }
+}
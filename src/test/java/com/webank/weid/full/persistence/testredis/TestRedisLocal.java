@@ -0,0 +1,209 @@
+package com.webank.weid.full.persistence.testredis;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.blockchain.constant.ErrorCode;
+import com.webank.weid.blockchain.protocol.response.ResponseData;
+import com.webank.weid.common.LogUtil;
+import com.webank.weid.constant.DataDriverConstant;
+import com.webank.weid.full.persistence.TestBaseTransportation;
+import com.webank.weid.suite.persistence.AuthorityIssuerInfo;
+import com.webank.weid.suite.persistence.EvidenceLogValue;
+import com.webank.weid.suite.persistence.EvidenceValue;
+import com.webank.weid.suite.persistence.Persistence;
+import com.webank.weid.suite.persistence.PersistenceFactory;
+import com.webank.weid.suite.persistence.PersistenceType;
+import com.webank.weid.util.PropertyUtils;
+
+public class TestRedisLocal extends TestBaseTransportation {
+
+    private static final Logger logger = LoggerFactory.getLogger(TestRedisLocal.class);
+
+    private Persistence persistence = null;
+
+    private static PersistenceType persistenceType = null;
+
+    @Override
+    public synchronized void testInit() {
+
+        String type = PropertyUtils.getProperty("persistence_type");
+        if (type.equals("mysql")) {
+            persistenceType = PersistenceType.Mysql;
+        } else if (type.equals("redis")) {
+            persistenceType = PersistenceType.Redis;
+        }
+        persistence = PersistenceFactory.build(persistenceType);
+    }
+
+    @Test
+    /**
+     * case:test get evidence by extraKey after the extraKey changed.
+     */
+    public void testEvidence_extraKeyIndex() {
+
+        String hash = "0x" + System.nanoTime();
+        String extraKey = "key" + System.nanoTime();
+        ResponseData<Integer> response = persistence.addEvidenceByHash(
+            DataDriverConstant.LOCAL_EVIDENCE, hash, "signer", "signature", "log",
+            "1", "0", extraKey, "1");
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+
+        ResponseData<EvidenceValue> res = persistence.getEvidenceByExtraKey(
+            DataDriverConstant.LOCAL_EVIDENCE, extraKey);
+        LogUtil.info(logger, "persistence", res);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), res.getErrorCode().intValue());
+        Assert.assertEquals(hash, res.getResult().getHash());
+
+        String newExtraKey = extraKey + "new";
+        persistence.addSignatureAndLogs(DataDriverConstant.LOCAL_EVIDENCE, hash,
+            "signer", "signature", "log", "2", "0", newExtraKey);
+        Assert.assertNull(persistence.getEvidenceByExtraKey(
+            DataDriverConstant.LOCAL_EVIDENCE, extraKey).getResult());
+        Assert.assertEquals(hash, persistence.getEvidenceByExtraKey(
+            DataDriverConstant.LOCAL_EVIDENCE, newExtraKey).getResult().getHash());
+    }
+
+    @Test
+    /**
+     * case:test evidences sharing the same extraKey, as the mysql column is not unique.
+     */
+    public void testEvidence_sharedExtraKey() {
+
+        String hash = "0x" + System.nanoTime();
+        String otherHash = hash + "1";
+        String extraKey = "key" + System.nanoTime();
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), persistence.addEvidenceByHash(
+            DataDriverConstant.LOCAL_EVIDENCE, hash, "signer", "signature", "log",
+            "1", "0", extraKey, "1").getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), persistence.addEvidenceByHash(
+            DataDriverConstant.LOCAL_EVIDENCE, otherHash, "signer", "signature", "log",
+            "1", "0", extraKey, "1").getErrorCode().intValue());
+
+        persistence.updateEvidenceExtraKey(
+            DataDriverConstant.LOCAL_EVIDENCE, hash, extraKey + "new");
+        ResponseData<EvidenceValue> res = persistence.getEvidenceByExtraKey(
+            DataDriverConstant.LOCAL_EVIDENCE, extraKey);
+        LogUtil.info(logger, "persistence", res);
+        Assert.assertEquals(otherHash, res.getResult().getHash());
+    }
+
+    @Test
+    /**
+     * case:test an authority issuer name can not be taken by another issuer.
+     */
+    public void testAuthorityIssuer_uniqueName() {
+
+        String weId = "did:weid:test:" + System.nanoTime();
+        String name = "issuer" + System.nanoTime();
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), persistence.addAuthorityIssuer(
+            DataDriverConstant.LOCAL_AUTHORITY_ISSUER, weId, name, "desc", "1", "", "")
+            .getErrorCode().intValue());
+        Assert.assertNotEquals(ErrorCode.SUCCESS.getCode(), persistence.addAuthorityIssuer(
+            DataDriverConstant.LOCAL_AUTHORITY_ISSUER, weId + "1", name, "desc", "1", "", "")
+            .getErrorCode().intValue());
+        Assert.assertEquals(weId, persistence.getAuthorityIssuerByName(
+            DataDriverConstant.LOCAL_AUTHORITY_ISSUER, name).getResult().getWeid());
+    }
+
+    @Test
+    /**
+     * case:test get authority issuer by name and count the recognized issuers.
+     */
+    public void testAuthorityIssuer_nameIndex() {
+
+        String weId = "did:weid:test:" + System.nanoTime();
+        String name = "issuer" + System.nanoTime();
+        ResponseData<Integer> response = persistence.addAuthorityIssuer(
+            DataDriverConstant.LOCAL_AUTHORITY_ISSUER, weId, name, "desc", "1", "", "");
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+
+        ResponseData<AuthorityIssuerInfo> res = persistence.getAuthorityIssuerByName(
+            DataDriverConstant.LOCAL_AUTHORITY_ISSUER, name);
+        LogUtil.info(logger, "persistence", res);
+        Assert.assertEquals(weId, res.getResult().getWeid());
+
+        int recognized = persistence.getRecognizedIssuerCount(
+            DataDriverConstant.LOCAL_AUTHORITY_ISSUER).getResult();
+        persistence.updateAuthorityIssuer(DataDriverConstant.LOCAL_AUTHORITY_ISSUER, weId, 1);
+        Assert.assertEquals(recognized + 1, persistence.getRecognizedIssuerCount(
+            DataDriverConstant.LOCAL_AUTHORITY_ISSUER).getResult().intValue());
+
+        persistence.removeAuthorityIssuer(DataDriverConstant.LOCAL_AUTHORITY_ISSUER, weId);
+        Assert.assertNull(persistence.getAuthorityIssuerByName(
+            DataDriverConstant.LOCAL_AUTHORITY_ISSUER, name).getResult());
+        Assert.assertEquals(recognized, persistence.getRecognizedIssuerCount(
+            DataDriverConstant.LOCAL_AUTHORITY_ISSUER).getResult().intValue());
+    }
+
+    @Test
+    /**
+     * case:test list cpt ids after the given cpt id.
+     */
+    public void testCpt_listAfter() {
+
+        int cptId = (int) (System.currentTimeMillis() % 1000000) + 2000000;
+        persistence.addCpt(DataDriverConstant.LOCAL_CPT, cptId, "publisher", "desc", "{}", "sig");
+        persistence.addCpt(DataDriverConstant.LOCAL_CPT, cptId + 1, "publisher", "desc", "{}",
+            "sig");
+
+        ResponseData<List<Integer>> res = persistence.getCptIdListAfter(
+            DataDriverConstant.LOCAL_CPT, cptId - 1, 2);
+        LogUtil.info(logger, "persistence", res);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), res.getErrorCode().intValue());
+        Assert.assertEquals(cptId, res.getResult().get(0).intValue());
+        Assert.assertEquals(cptId + 1, res.getResult().get(1).intValue());
+    }
+
+    @Test
+    /**
+     * case:test evidence logs are returned in append order.
+     */
+    public void testEvidenceLog_appendOrder() {
+
+        String hash = "0x" + System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            EvidenceLogValue evidenceLog = new EvidenceLogValue();
+            evidenceLog.setHash(hash);
+            evidenceLog.setType(EvidenceLogValue.TYPE_LOG);
+            evidenceLog.setSigner("signer");
+            evidenceLog.setSignature("signature");
+            evidenceLog.setLog("log" + i);
+            evidenceLog.setUpdated(String.valueOf(i));
+            evidenceLog.setRevoked("0");
+            ResponseData<Integer> response = persistence.addEvidenceLog(
+                DataDriverConstant.LOCAL_EVIDENCE_LOG, evidenceLog);
+            Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        }
+
+        ResponseData<List<EvidenceLogValue>> res = persistence.getEvidenceLogs(
+            DataDriverConstant.LOCAL_EVIDENCE_LOG, hash);
+        LogUtil.info(logger, "persistence", res);
+        Assert.assertEquals(3, res.getResult().size());
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("log" + i, res.getResult().get(i).getLog());
+        }
+    }
+
+    @Test
+    /**
+     * case:test the reserved blocks of sequence do not overlap.
+     */
+    public void testSequence_allocateBlocks() {
+
+        String name = "seq" + System.nanoTime();
+        ResponseData<Integer> first = persistence.allocateSequence(
+            DataDriverConstant.LOCAL_SEQUENCE, name, 1000, 20);
+        LogUtil.info(logger, "persistence", first);
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), first.getErrorCode().intValue());
+        Assert.assertEquals(1000, first.getResult().intValue());
+
+        ResponseData<Integer> second = persistence.allocateSequence(
+            DataDriverConstant.LOCAL_SEQUENCE, name, 1000, 20);
+        Assert.assertEquals(1020, second.getResult().intValue());
+    }
+}
@@ -0,0 +1,83 @@
+package com.webank.weid.suite.cache;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.redisson.api.RedissonClient;
+
+import com.webank.weid.suite.persistence.redis.RedissonConfig;
+
+/**
+ * 缓存失效广播, 依赖weidentity.properties中redis.url配置的redis.
+ * 两个广播共用一个redis客户端, 分别模拟两个SDK实例的一级缓存.
+ * 失效广播不对外公开, 因此测试与其位于同一个包.
+ */
+public class TestCacheInvalidationBus {
+
+    private static final String CACHE_NAME = "TestInvalidationBus";
+
+    private static final long WAIT_SECONDS = 5L;
+
+    private static RedissonClient client;
+
+    private static final Cache<String, String> localA = Caffeine.newBuilder().build();
+
+    private static final Cache<String, String> localB = Caffeine.newBuilder().build();
+
+    private static final BlockingQueue<String> receivedA = new LinkedBlockingQueue<>();
+
+    private static final BlockingQueue<String> receivedB = new LinkedBlockingQueue<>();
+
+    private static CacheInvalidationBus busA;
+
+    private static CacheInvalidationBus busB;
+
+    @BeforeClass
+    public static void init() throws InterruptedException {
+        client = new RedissonConfig().redismodelRecognition();
+        CountDownLatch subscribed = new CountDownLatch(2);
+        busA = new CacheInvalidationBus(client, (cacheName, key) -> {
+            localA.invalidate(key);
+            receivedA.add(cacheName + ":" + key);
+        }, subscribed::countDown);
+        busB = new CacheInvalidationBus(client, (cacheName, key) -> {
+            localB.invalidate(key);
+            receivedB.add(cacheName + ":" + key);
+        }, subscribed::countDown);
+        Assert.assertTrue(subscribed.await(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @AfterClass
+    public static void destroy() {
+        client.shutdown();
+    }
+
+    @Test
+    public void testInvalidateRemote() throws InterruptedException {
+        String key = "key" + System.nanoTime();
+        localA.put(key, "value");
+        localB.put(key, "value");
+
+        busA.publish(CACHE_NAME, key);
+        Assert.assertEquals(CACHE_NAME + ":" + key, receivedB.poll(WAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertNull(localB.getIfPresent(key));
+        // 发起删除的实例已自行处理, 忽略自己发布的通知
+        Assert.assertEquals("value", localA.getIfPresent(key));
+
+        // 同一频道的通知按发布顺序送达, A收到的第一条通知应为B之后发布的通知
+        String otherKey = key + "other";
+        busB.publish(CACHE_NAME, otherKey);
+        Assert.assertEquals(CACHE_NAME + ":" + otherKey,
+            receivedA.poll(WAIT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals("value", localA.getIfPresent(key));
+        Assert.assertTrue(receivedB.isEmpty());
+    }
+}